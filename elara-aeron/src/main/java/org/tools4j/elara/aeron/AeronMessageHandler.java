@@ -35,6 +35,7 @@ final class AeronMessageHandler {
     private final FragmentHandler fragmentHandler;
     private Header fragmentHeader;
     private Handler handler;
+    private int messages;
 
     AeronMessageHandler(final AeronConfig config, final boolean useFragmentAssembler) {
         this.fragmentHandler = useFragmentAssembler ?
@@ -47,9 +48,17 @@ final class AeronMessageHandler {
         if (this.handler != handler) {
             this.handler = handler;
         }
+        messages = 0;
         return fragmentHandler;
     }
 
+    /**
+     * @return the number of (possibly assembled) messages passed to the handler since the last {@link #init(Handler)}
+     */
+    int messages() {
+        return messages;
+    }
+
     Header fragmentHeader() {
         return fragmentHeader;
     }
@@ -58,6 +67,7 @@ final class AeronMessageHandler {
         try {
             message.wrap(buffer, offset, length);
             fragmentHeader = header;
+            messages++;
             handler.onMessage(message);
         } finally {
             fragmentHeader = null;
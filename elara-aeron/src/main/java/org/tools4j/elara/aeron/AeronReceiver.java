@@ -61,7 +61,25 @@ public class AeronReceiver implements MessageReceiver {
 
     @Override
     public int poll(final Handler handler) {
-        return subscription.poll(aeronMessageHandler.init(handler), fragmentLimit);
+        return poll(handler, fragmentLimit);
+    }
+
+    /**
+     * Polls at most {@code limit} fragments from the subscription;  since assembled messages consist of at least one
+     * fragment, at most {@code limit} messages are passed to the handler.
+     *
+     * @param handler   the message handler called back with messages if any are available
+     * @param limit     the maximum number of fragments to poll
+     * @return the number of messages that were passed to the handler
+     */
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        final FragmentHandler fragmentHandler = aeronMessageHandler.init(handler);
+        subscription.poll(fragmentHandler, limit);
+        return aeronMessageHandler.messages();
     }
 
     @Override
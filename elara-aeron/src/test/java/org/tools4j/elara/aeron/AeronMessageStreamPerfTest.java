@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.aeron;
+
+import io.aeron.Aeron.Context;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.tools4j.elara.stream.MessageStreamBenchmark;
+import org.tools4j.elara.stream.Network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.agrona.SystemUtil.isWindows;
+import static org.agrona.SystemUtil.osName;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Latency and throughput benchmark for Aeron IPC and UDP transports using an embedded media driver;  run with
+ * {@code gradle perfTest}.
+ */
+@Tag("perf")
+class AeronMessageStreamPerfTest {
+
+    private static final String[] CHANNELS = {"ipc", "udp"};
+    private static final int[] MESSAGE_BYTES = {32, 256, 1024};
+    private static final int[] BURST_LENGTHS = {1, 20};
+    private static final int WARMUP_MESSAGES = 100_000;
+    private static final int MEASURED_MESSAGES = 500_000;
+    private static final long MAX_WAIT_MILLIS = 120_000;
+
+    private static MediaDriver mediaDriver;
+    private static Aeron aeron;
+    private static int nextStreamId = 1000;
+
+    @BeforeAll
+    static void startAeron() {
+        assumeFalse(isWindows(), "Test is currently supported on windows, os=" + osName());
+        mediaDriver = MediaDriver.launchEmbedded(new MediaDriver.Context()
+                .threadingMode(ThreadingMode.SHARED)
+                .dirDeleteOnStart(true)
+                .dirDeleteOnShutdown(true));
+        aeron = Aeron.connect(new Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+    }
+
+    @AfterAll
+    static void stopAeron() {
+        if (aeron != null) {
+            aeron.close();
+            aeron = null;
+        }
+        if (mediaDriver != null) {
+            mediaDriver.close();
+            mediaDriver = null;
+        }
+    }
+
+    static Arguments[] channelsAndMessageSizes() {
+        final List<Arguments> arguments = new ArrayList<>();
+        for (final String channel : CHANNELS) {
+            for (final int messageBytes : MESSAGE_BYTES) {
+                for (final int burstLength : BURST_LENGTHS) {
+                    arguments.add(Arguments.of(channel, messageBytes, burstLength));
+                }
+            }
+        }
+        return arguments.toArray(new Arguments[0]);
+    }
+
+    private static MessageStreamBenchmark benchmark(final int messageBytes, final int burstLength) {
+        return new MessageStreamBenchmark(messageBytes, burstLength,
+                WARMUP_MESSAGES / burstLength, MEASURED_MESSAGES / burstLength);
+    }
+
+    private static String channelUrl(final String channel) {
+        return "ipc".equals(channel) ? "aeron:ipc" : "aeron:udp?endpoint=localhost:" + Network.nextFreePort();
+    }
+
+    @ParameterizedTest(name = "oneWay: aeron-{0} [{1} bytes, burst={2}]")
+    @MethodSource("channelsAndMessageSizes")
+    void oneWay(final String channel, final int messageBytes, final int burstLength) throws Exception {
+        final String url = channelUrl(channel);
+        final int streamId = nextStreamId++;
+        try (final AeronSender sender = aeron.openExclusiveSender(url, streamId);
+             final AeronReceiver receiver = aeron.openReceiver(url, streamId, false)) {
+            benchmark(messageBytes, burstLength)
+                    .oneWay("aeron-" + channel, sender, receiver, MAX_WAIT_MILLIS)
+                    .print(System.out);
+        }
+    }
+
+    @ParameterizedTest(name = "pingPong: aeron-{0} [{1} bytes, burst={2}]")
+    @MethodSource("channelsAndMessageSizes")
+    void pingPong(final String channel, final int messageBytes, final int burstLength) throws Exception {
+        final String pingUrl = channelUrl(channel);
+        final String pongUrl = channelUrl(channel);
+        final int pingStreamId = nextStreamId++;
+        final int pongStreamId = nextStreamId++;
+        try (final AeronSender pingSender = aeron.openExclusiveSender(pingUrl, pingStreamId);
+             final AeronReceiver pingReceiver = aeron.openReceiver(pingUrl, pingStreamId, false);
+             final AeronSender pongSender = aeron.openExclusiveSender(pongUrl, pongStreamId);
+             final AeronReceiver pongReceiver = aeron.openReceiver(pongUrl, pongStreamId, false)) {
+            benchmark(messageBytes, burstLength)
+                    .pingPong("aeron-" + channel, pingSender, pingReceiver, pongSender, pongReceiver, MAX_WAIT_MILLIS)
+                    .print(System.out);
+        }
+    }
+}
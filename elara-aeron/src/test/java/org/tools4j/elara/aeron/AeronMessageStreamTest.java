@@ -25,8 +25,11 @@ package org.tools4j.elara.aeron;
 
 import io.aeron.Aeron.Context;
 import io.aeron.driver.MediaDriver;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -34,9 +37,15 @@ import org.tools4j.elara.stream.MessageReceiver;
 import org.tools4j.elara.stream.MessageSender;
 import org.tools4j.elara.stream.MessageStreamRunner;
 import org.tools4j.elara.stream.Network;
+import org.tools4j.elara.stream.SendingResult;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.agrona.SystemUtil.isWindows;
 import static org.agrona.SystemUtil.osName;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 class AeronMessageStreamTest {
@@ -78,6 +87,43 @@ class AeronMessageStreamTest {
                 .sendAndReceiveMessages(sender, receiver, MAX_WAIT_MILLIS);
     }
 
+    @Test
+    void pollWithLimitCountsMessages() {
+        //given
+        final int streamId = 789;
+        final MessageReceiver receiver = aeron.openReceiver("aeron:ipc", streamId, true);
+        final MessageSender sender = aeron.openExclusiveSender("aeron:ipc", streamId);
+        final List<Integer> received = new ArrayList<>();
+        final MessageReceiver.Handler handler = message -> received.add(message.capacity());
+        for (int i = 1; i <= 10; i++) {
+            send(sender, new UnsafeBuffer(new byte[i]));
+        }
+        send(sender, new UnsafeBuffer(new byte[20_000]));
+
+        //when + then
+        assertEquals(0, receiver.poll(handler, 0), "poll(0)");
+        assertEquals(3, receiver.poll(handler, 3), "poll(3)");
+        assertEquals(3, received.size(), "received.size");
+        assertEquals(8, receiver.poll(handler, 100), "poll(100)");
+        assertEquals(0, receiver.poll(handler, 100), "poll(100)");
+        assertEquals(11, received.size(), "received.size");
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, received.get(i - 1), "received[" + (i - 1) + "]");
+        }
+        assertEquals(20_000, received.get(10), "received[10]");
+
+        receiver.close();
+        sender.close();
+    }
+
+    private static void send(final MessageSender sender, final DirectBuffer message) {
+        final long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        SendingResult result;
+        while ((result = sender.sendMessage(message, 0, message.capacity())) != SendingResult.SENT) {
+            assertTrue(System.currentTimeMillis() < deadline, "Sending timed out with result " + result);
+        }
+    }
+
     static Arguments[] aeronSendersAndReceivers() {
         return new Arguments[]{
                 aeronIpcSenderAndReceiver(),
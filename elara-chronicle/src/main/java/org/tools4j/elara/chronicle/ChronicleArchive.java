@@ -0,0 +1,169 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.requireNonNull;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.SUFFIX;
+
+/**
+ * Directory with compressed cycle files of a chronicle queue.  Cycle files are added by the
+ * {@link ChronicleRetentionManager} and compressed with gzip keeping the original file name with an added
+ * {@link #ARCHIVE_SUFFIX}.
+ * <p>
+ * Archived cycles remain readable:  {@link #restore(File)} decompresses the archived cycle files into a queue
+ * directory, and {@link #openMessageStore(File, RollCycle)} returns a message store whose pollers read the restored
+ * archived cycles.
+ */
+public class ChronicleArchive {
+
+    public static final String ARCHIVE_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File directory;
+
+    public ChronicleArchive(final File directory) {
+        this.directory = requireNonNull(directory);
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    /**
+     * Compresses the given cycle file into the archive directory;  the original file is not deleted.
+     *
+     * @param cycleFile the cycle file to archive
+     * @return the archived file
+     */
+    public File archive(final File cycleFile) {
+        IoUtil.ensureDirectoryExists(directory, directory.getAbsolutePath());
+        final File archived = new File(directory, cycleFile.getName() + ARCHIVE_SUFFIX);
+        final File temp = new File(directory, archived.getName() + TEMP_SUFFIX);
+        try (final InputStream in = new FileInputStream(cycleFile);
+             final OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), BUFFER_SIZE)) {
+            copy(in, out);
+        } catch (final IOException e) {
+            IoUtil.deleteIfExists(temp);
+            LangUtil.rethrowUnchecked(e);
+        }
+        if (!temp.renameTo(archived)) {
+            IoUtil.deleteIfExists(temp);
+            throw new IllegalStateException("Failed to rename " + temp + " to " + archived);
+        }
+        return archived;
+    }
+
+    /**
+     * Returns the archived cycle files sorted by name, that is, from oldest to newest cycle.
+     *
+     * @return the archived files, empty if no cycles have been archived yet
+     */
+    public File[] archivedFiles() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX + ARCHIVE_SUFFIX));
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Decompresses all archived cycle files into the given queue directory, skipping cycle files that already exist
+     * in the queue directory.
+     *
+     * @param queueDirectory the queue directory to restore the archived cycle files to
+     * @return the number of restored cycle files
+     */
+    public int restore(final File queueDirectory) {
+        IoUtil.ensureDirectoryExists(queueDirectory, queueDirectory.getAbsolutePath());
+        int restored = 0;
+        for (final File archived : archivedFiles()) {
+            final String name = archived.getName();
+            final File cycleFile = new File(queueDirectory, name.substring(0, name.length() - ARCHIVE_SUFFIX.length()));
+            if (cycleFile.exists()) {
+                continue;
+            }
+            final File temp = new File(queueDirectory, cycleFile.getName() + TEMP_SUFFIX);
+            try (final InputStream in = new GZIPInputStream(new FileInputStream(archived), BUFFER_SIZE);
+                 final OutputStream out = new FileOutputStream(temp)) {
+                copy(in, out);
+            } catch (final IOException e) {
+                IoUtil.deleteIfExists(temp);
+                LangUtil.rethrowUnchecked(e);
+            }
+            if (!temp.renameTo(cycleFile)) {
+                IoUtil.deleteIfExists(temp);
+                throw new IllegalStateException("Failed to rename " + temp + " to " + cycleFile);
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * Restores the archived cycles into the given work directory and opens a message store to read them.
+     *
+     * @param workDirectory the queue directory to restore the archived cycle files to
+     * @param rollCycle     the roll cycle of the archived queue
+     * @return a message store with the archived messages
+     */
+    public ChronicleMessageStore openMessageStore(final File workDirectory, final RollCycle rollCycle) {
+        restore(workDirectory);
+        return new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                .path(workDirectory)
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(rollCycle)
+                .build());
+    }
+
+    private static void copy(final InputStream in, final OutputStream out) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChronicleArchive{directory=" + directory + '}';
+    }
+}
@@ -24,6 +24,7 @@
 package org.tools4j.elara.chronicle;
 
 import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
 import net.openhft.chronicle.wire.WireType;
 import org.tools4j.elara.store.MessageStore;
 
@@ -52,6 +53,16 @@ public class ChronicleMessageStore implements MessageStore {
         return queue;
     }
 
+    /**
+     * Returns the number of messages in the store, for instance to estimate the remaining replay time;  the count is
+     * computed from the queue index and does not read the messages.
+     *
+     * @return the number of messages in the store, or -1 if the queue does not support counting
+     */
+    public long entryCount() {
+        return queue instanceof RollingChronicleQueue ? ((RollingChronicleQueue)queue).entryCount() : -1;
+    }
+
     @Override
     public ChronicleAppender appender() {
         return appender.get();
@@ -35,10 +35,13 @@ import org.tools4j.elara.format.MessagePrinter;
 import org.tools4j.elara.format.MessagePrinters;
 import org.tools4j.elara.format.TimeFormatter;
 import org.tools4j.elara.store.MessageStorePrinter;
+import org.tools4j.elara.store.scan.MessageStoreScanner;
+import org.tools4j.elara.store.scan.ScanFilter;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
@@ -99,6 +102,26 @@ public class ChronicleMessageStorePrinter implements AutoCloseable {
         messageStorePrinter.print(new ChroniclePoller(queue), flyweight, filter, printer);
     }
 
+    /**
+     * Prints messages of the queue found by a parallel scan with one scan range per queue cycle.
+     *
+     * @param queue     the chronicle queue
+     * @param pool      the pool executing the scan tasks
+     * @param filter    the filter applied to raw messages before wrapping them in the flyweight
+     * @param flyweight the flyweight to wrap messages for printing
+     * @param printer   the message printer
+     * @param <M>       the message type
+     * @return the number of printed messages
+     */
+    public <M> long print(final ChronicleQueue queue,
+                          final ForkJoinPool pool,
+                          final ScanFilter filter,
+                          final Flyweight<M> flyweight,
+                          final MessagePrinter<? super M> printer) {
+        final MessageStoreScanner scanner = new MessageStoreScanner(new ChronicleMessageStore(queue), pool);
+        return messageStorePrinter.print(scanner, ChronicleScanRanges.byCycle(queue), filter, flyweight, printer);
+    }
+
     public <M> Agent printAgent(final ChronicleQueue queue, final Flyweight<M> flyweight, final Predicate<? super M> filter, final MessagePrinter<? super M> printer) {
         return messageStorePrinter.printAgent(new ChroniclePoller(queue), flyweight, filter, printer);
     }
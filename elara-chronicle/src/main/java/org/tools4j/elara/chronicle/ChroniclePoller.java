@@ -28,21 +28,33 @@ import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.queue.TailerDirection;
+import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
 import net.openhft.chronicle.wire.DocumentContext;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.TimeReader;
+
+import java.text.ParseException;
 
 import static java.util.Objects.requireNonNull;
 import static org.tools4j.elara.store.MessageStore.Handler;
 import static org.tools4j.elara.store.MessageStore.Handler.Result;
 import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
 import static org.tools4j.elara.store.MessageStore.Poller;
+import static org.tools4j.elara.store.TimeReader.NIL_TIME;
 
 public class ChroniclePoller implements Poller {
 
     private final ExcerptTailer tailer;
     private final MutableDirectBuffer buffer = new UnsafeBuffer(0, 0);
+    private final IntArrayList cycles = new IntArrayList();
+    private final Long2LongHashMap cycleStartTimes = new Long2LongHashMap(NIL_TIME);
+    private TimeReader cycleStartTimeReader;
+    private long peekedTime;
+    private long peekedIndex;
 
     public ChroniclePoller(final ChronicleQueue queue) {
         this(queue.createTailer());
@@ -134,6 +146,126 @@ public class ChroniclePoller implements Poller {
         return moved;
     }
 
+    /**
+     * Moves to the first message with a time equal to or after the given time using a binary search over the cycles
+     * of the queue followed by a binary search over the sequence numbers within the cycle.  The time of the first
+     * message in each cycle is cached by this poller so that repeated time seeks only access a few messages.
+     *
+     * @param time          the time to move to
+     * @param timeReader    reader for the message time
+     * @return true if such a message was found, and false if all messages are before the given time in which case
+     *         the poller is moved to the end
+     */
+    @Override
+    public boolean moveToTime(final long time, final TimeReader timeReader) {
+        if (!(queue() instanceof RollingChronicleQueue)) {
+            return Poller.super.moveToTime(time, timeReader);
+        }
+        if (cycleStartTimeReader != timeReader) {
+            cycleStartTimes.clear();
+            cycleStartTimeReader = timeReader;
+        }
+        loadCycles((RollingChronicleQueue)queue());
+        //binary search for first cycle starting at or after time
+        int low = 0;
+        int high = cycles.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cycleStartTime(cycles.getInt(mid), timeReader) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low > 0) {
+            //binary search within last cycle starting before time, its first message is known to be before time
+            final RollCycle rollCycle = rollCycle();
+            final int cycle = cycles.getInt(low - 1);
+            tailer.moveToCycle(cycle);
+            peekTime(timeReader);
+            long lowSequence = rollCycle.toSequenceNumber(peekedIndex) + 1;
+            long highSequence = rollCycle.maxMessagesPerCycle();
+            while (lowSequence < highSequence) {
+                final long midSequence = (lowSequence + highSequence) >>> 1;
+                if (tailer.moveToIndex(rollCycle.toIndex(cycle, midSequence)) && peekTime(timeReader) &&
+                        rollCycle.toCycle(peekedIndex) == cycle && peekedTime < time) {
+                    lowSequence = midSequence + 1;
+                } else {
+                    highSequence = midSequence;
+                }
+            }
+            if (tailer.moveToIndex(rollCycle.toIndex(cycle, lowSequence))) {
+                return true;
+            }
+        }
+        if (low < cycles.size() && tailer.moveToCycle(cycles.getInt(low)) && peekTime(timeReader)) {
+            return true;
+        }
+        tailer.toEnd();
+        return false;
+    }
+
+    private void loadCycles(final RollingChronicleQueue queue) {
+        cycles.clear();
+        final int lastCycle = queue.lastCycle();
+        int cycle = queue.firstCycle();
+        try {
+            while (cycle <= lastCycle) {
+                cycles.addInt(cycle);
+                if (cycle == lastCycle) {
+                    break;
+                }
+                final int next = queue.nextCycle(cycle, TailerDirection.FORWARD);
+                if (next <= cycle) {
+                    break;
+                }
+                cycle = next;
+            }
+        } catch (final ParseException e) {
+            throw new IllegalStateException("Failed to list cycles of queue " + queue, e);
+        }
+    }
+
+    private long cycleStartTime(final int cycle, final TimeReader timeReader) {
+        final long cached = cycleStartTimes.get(cycle);
+        if (cached != NIL_TIME) {
+            return cached;
+        }
+        if (!tailer.moveToCycle(cycle) || !peekTime(timeReader)) {
+            //no message in or after this cycle
+            return Long.MAX_VALUE;
+        }
+        if (rollCycle().toCycle(peekedIndex) == cycle) {
+            //the first message of a cycle never changes
+            cycleStartTimes.put(cycle, peekedTime);
+        }
+        return peekedTime;
+    }
+
+    private boolean peekTime(final TimeReader timeReader) {
+        boolean present;
+        do {
+            try (final DocumentContext context = tailer.readingDocument()) {
+                if (context.isData()) {
+                    final Bytes<?> bytes = context.wire().bytes();
+                    final long offset = bytes.readPosition();
+                    final int size = bytes.readInt(offset);
+                    buffer.wrap(bytes.addressForRead(offset + Integer.BYTES), size);
+                    try {
+                        peekedTime = timeReader.time(buffer);
+                        peekedIndex = context.index();
+                    } finally {
+                        buffer.wrap(0, 0);
+                    }
+                    context.rollbackOnClose();
+                    return true;
+                }
+                present = context.isPresent();
+            }
+        } while (present);
+        return false;
+    }
+
     @Override
     public int poll(final Handler handler) {
         try (DocumentContext context = tailer.readingDocument()) {
@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.tools4j.elara.replay.ReplayProgress;
+import org.tools4j.elara.store.MessageStore;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads ahead of the event replay at startup on a helper thread, touching every page of the upcoming excerpts so
+ * that the replaying thread finds them mapped and resident in the page cache.  The read-ahead is a
+ * {@link ReplayProgress} listener and should be passed to the app context via
+ * {@link org.tools4j.elara.app.config.EventStoreContext#replayProgress(ReplayProgress) replayProgress(..)};  it reads
+ * at most {@code maxAheadEvents} excerpts ahead of the entry ID of the replay poller and stops when replay is complete
+ * or the end of the queue is reached.  The bound is based on queue indices and not on event counts, hence events
+ * skipped by the replay step do not let the read-ahead fall behind or run away.
+ * <p>
+ * Progress notifications are forwarded to a delegate listener, for instance one created via
+ * {@link ReplayProgress#logging(org.tools4j.elara.logging.Logger.Factory, long, long) ReplayProgress.logging(..)}
+ * with the {@link ChronicleMessageStore#entryCount() entry count} of the event store.
+ */
+public class ChronicleReadAhead implements ReplayProgress, AutoCloseable {
+
+    public static final int DEFAULT_MAX_AHEAD_EVENTS = 1 << 16;
+    public static final String THREAD_NAME = "elara-read-ahead";
+    private static final int PAGE_SIZE = 4096;
+    private static final long IDLE_NANOS = 50_000;
+
+    private final ChronicleQueue queue;
+    private final int maxAheadEvents;
+    private final ReplayProgress delegate;
+    private final AtomicLong replayedEvents = new AtomicLong();
+    private final AtomicLong replayEntryId = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong touchedEvents = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running;
+    private long touchedChecksum;
+
+    public ChronicleReadAhead(final MessageStore eventStore) {
+        this(eventStore, DEFAULT_MAX_AHEAD_EVENTS, ReplayProgress.NOOP);
+    }
+
+    public ChronicleReadAhead(final MessageStore eventStore,
+                              final int maxAheadEvents,
+                              final ReplayProgress delegate) {
+        this(queue(eventStore), maxAheadEvents, delegate);
+    }
+
+    public ChronicleReadAhead(final ChronicleQueue queue,
+                              final int maxAheadEvents,
+                              final ReplayProgress delegate) {
+        if (maxAheadEvents < 1) {
+            throw new IllegalArgumentException("Max ahead events must be positive: " + maxAheadEvents);
+        }
+        this.queue = requireNonNull(queue);
+        this.maxAheadEvents = maxAheadEvents;
+        this.delegate = requireNonNull(delegate);
+        this.thread = new Thread(this::run, THREAD_NAME);
+        this.thread.setDaemon(true);
+    }
+
+    private static ChronicleQueue queue(final MessageStore messageStore) {
+        if (messageStore instanceof ChronicleMessageStore) {
+            return ((ChronicleMessageStore)messageStore).queue();
+        }
+        throw new IllegalArgumentException("Read-ahead requires a chronicle message store but found " + messageStore);
+    }
+
+    /**
+     * Starts the read-ahead thread;  should be invoked before the app is launched.
+     *
+     * @return this read-ahead
+     */
+    public ChronicleReadAhead start() {
+        if (!running) {
+            running = true;
+            thread.start();
+        }
+        return this;
+    }
+
+    public int maxAheadEvents() {
+        return maxAheadEvents;
+    }
+
+    /** @return the number of events touched by the read-ahead thread so far */
+    public long touchedEvents() {
+        return touchedEvents.get();
+    }
+
+    /** @return true if the read-ahead thread is running */
+    public boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Invoked without replay poller position:  the read-ahead bound remains unchanged, but the read-ahead is stopped
+     * if replay is complete.
+     */
+    @Override
+    public void onProgress(final long replayedEvents, final long elapsedNanos, final boolean complete) {
+        onProgress(replayedEvents, replayEntryId.get(), elapsedNanos, complete);
+    }
+
+    @Override
+    public void onProgress(final long replayedEvents,
+                           final long entryId,
+                           final long elapsedNanos,
+                           final boolean complete) {
+        this.replayedEvents.lazySet(replayedEvents);
+        this.replayEntryId.lazySet(entryId);
+        if (complete) {
+            close();
+        }
+        delegate.onProgress(replayedEvents, entryId, elapsedNanos, complete);
+    }
+
+    private void run() {
+        //indices of the last maxAheadEvents touched excerpts, the slot of the next excerpt holds the oldest index
+        final long[] touchedIndices = new long[maxAheadEvents];
+        try (final ExcerptTailer tailer = queue.createTailer()) {
+            long touched = 0;
+            while (running) {
+                final int slot = (int)(touched % maxAheadEvents);
+                if (touched >= maxAheadEvents && touchedIndices[slot] >= replayEntryId.get()) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                    continue;
+                }
+                try (final DocumentContext context = tailer.readingDocument()) {
+                    if (!context.isPresent()) {
+                        return;
+                    }
+                    if (context.isData()) {
+                        touch(context.wire().bytes());
+                        touchedIndices[slot] = context.index();
+                        touchedEvents.lazySet(++touched);
+                    }
+                }
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    private void touch(final Bytes<?> bytes) {
+        final long start = bytes.readPosition();
+        final long end = bytes.readLimit();
+        long checksum = touchedChecksum;
+        for (long position = start; position < end; position += PAGE_SIZE) {
+            checksum += bytes.readByte(position);
+        }
+        if (end > start) {
+            checksum += bytes.readByte(end - 1);
+        }
+        touchedChecksum = checksum;
+    }
+
+    /**
+     * Stops the read-ahead thread;  invoked automatically when replay is complete.
+     */
+    @Override
+    public void close() {
+        running = false;
+    }
+
+    @Override
+    public String toString() {
+        return "ChronicleReadAhead{" +
+                "queue=" + queue.fileAbsolutePath() +
+                ", maxAheadEvents=" + maxAheadEvents +
+                ", replayedEvents=" + replayedEvents.get() +
+                ", replayEntryId=" + replayEntryId.get() +
+                ", touchedEvents=" + touchedEvents.get() +
+                '}';
+    }
+}
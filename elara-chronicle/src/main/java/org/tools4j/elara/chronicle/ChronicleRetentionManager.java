@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.RollingResourcesCache;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
+import org.tools4j.elara.store.MessageStore;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.SUFFIX;
+
+/**
+ * Releases or archives expired cycles of a chronicle queue used as command store, event store or metrics store.
+ * <p>
+ * Cycles are never released while they are still needed:
+ * <ul>
+ *     <li>the current (last) cycle of the queue is always retained</li>
+ *     <li>cycles at or after the position of a {@link #protectPoller(String) protected named poller} are retained,
+ *         for instance of the command store poller with ID
+ *         {@link org.tools4j.elara.app.config.CommandPollingMode#DEFAULT_POLLER_ID CommandPollingMode.DEFAULT_POLLER_ID}
+ *         or the event store publisher poller with ID
+ *         {@link org.tools4j.elara.step.PollerPublisherStep#DEFAULT_POLLER_ID PollerPublisherStep.DEFAULT_POLLER_ID};
+ *         a named poller that has not polled any messages yet protects all cycles</li>
+ *     <li>cycles at or after a {@link #protectIndex(LongSupplier) protected index} are retained, for instance the
+ *         store index of the latest snapshot for an event store whose events before the snapshot are no longer
+ *         needed for replay</li>
+ * </ul>
+ * Expired cycles older than all protected positions are determined by the {@link RetentionPolicy} from oldest to
+ * newest cycle;  cycles are then either deleted or, if an {@link #archiveTo(ChronicleArchive) archive} is set,
+ * compressed into the archive directory where they remain readable.
+ * <p>
+ * Note that an event store needs all events for replay at startup unless a snapshot index is protected, hence a
+ * retention policy should only be applied to an event store if events before a protected index are not needed.
+ * <p>
+ * {@link #enforce()} performs file I/O and should be invoked periodically from a housekeeping thread and not from the
+ * elara duty cycle.
+ */
+public class ChronicleRetentionManager {
+
+    private final SingleChronicleQueue queue;
+    private final RetentionPolicy policy;
+    private final RollingResourcesCache resources;
+    private final List<String> protectedPollerIds = new ArrayList<>();
+    private final List<LongValue> protectedPollerIndices = new ArrayList<>();
+    private final List<LongSupplier> protectedIndices = new ArrayList<>();
+    private final IntArrayList cycles = new IntArrayList();
+    private final LongArrayList fileLengths = new LongArrayList();
+    private final MutableCycleInfo cycleInfo = new MutableCycleInfo();
+    private ChronicleArchive archive;
+    private long releasedCycles;
+    private long releasedBytes;
+
+    public ChronicleRetentionManager(final MessageStore messageStore, final RetentionPolicy policy) {
+        this(queue(messageStore), policy);
+    }
+
+    public ChronicleRetentionManager(final ChronicleQueue queue, final RetentionPolicy policy) {
+        if (!(queue instanceof SingleChronicleQueue)) {
+            throw new IllegalArgumentException("Retention requires a single chronicle queue but found " + queue);
+        }
+        this.queue = (SingleChronicleQueue)queue;
+        this.policy = requireNonNull(policy);
+        this.resources = new RollingResourcesCache(queue.rollCycle(), this.queue.epoch(),
+                name -> new File(this.queue.file(), name + SUFFIX), File::getName);
+    }
+
+    private static ChronicleQueue queue(final MessageStore messageStore) {
+        if (messageStore instanceof ChronicleMessageStore) {
+            return ((ChronicleMessageStore)messageStore).queue();
+        }
+        throw new IllegalArgumentException("Retention requires a chronicle message store but found " + messageStore);
+    }
+
+    public ChronicleQueue queue() {
+        return queue;
+    }
+
+    /**
+     * Protects all cycles at or after the current position of the named poller with the given ID.
+     *
+     * @param pollerId the ID of the named poller, as passed to {@link MessageStore#poller(String)}
+     * @return this manager
+     */
+    public ChronicleRetentionManager protectPoller(final String pollerId) {
+        if (!protectedPollerIds.contains(pollerId)) {
+            protectedPollerIds.add(pollerId);
+            protectedPollerIndices.add(queue.indexForId(pollerId));
+        }
+        return this;
+    }
+
+    /**
+     * Protects all cycles at or after the store index returned by the given supplier, for instance the index of the
+     * latest snapshot.  The supplier can return a negative value if no index is currently protected.
+     *
+     * @param index supplier for a store index to protect
+     * @return this manager
+     */
+    public ChronicleRetentionManager protectIndex(final LongSupplier index) {
+        protectedIndices.add(requireNonNull(index));
+        return this;
+    }
+
+    /**
+     * Sets the archive for expired cycles;  expired cycles are deleted if no archive is set.
+     *
+     * @param archive the archive for expired cycles, or null to delete expired cycles
+     * @return this manager
+     */
+    public ChronicleRetentionManager archiveTo(final ChronicleArchive archive) {
+        this.archive = archive;
+        return this;
+    }
+
+    public ChronicleArchive archive() {
+        return archive;
+    }
+
+    /**
+     * Returns the first cycle that is currently protected by a poller, protected index or as the current cycle of the
+     * queue.
+     *
+     * @return the first protected cycle, all cycles before it can be released
+     */
+    public int firstProtectedCycle() {
+        final RollCycle rollCycle = queue.rollCycle();
+        int first = queue.lastCycle();
+        for (int i = 0; i < protectedPollerIndices.size(); i++) {
+            final long index = protectedPollerIndices.get(i).getVolatileValue();
+            first = Math.min(first, Math.max(0, rollCycle.toCycle(index)));
+        }
+        for (int i = 0; i < protectedIndices.size(); i++) {
+            final long index = protectedIndices.get(i).getAsLong();
+            if (index >= 0) {
+                first = Math.min(first, rollCycle.toCycle(index));
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Releases or archives all expired cycles before the first protected cycle.
+     *
+     * @return the number of released cycles
+     */
+    public int enforce() {
+        queue.refreshDirectoryListing();
+        final int firstCycle = queue.firstCycle();
+        final int lastCycle = queue.lastCycle();
+        if (firstCycle > lastCycle || lastCycle < 0) {
+            return 0;
+        }
+        final int firstProtected = firstProtectedCycle();
+        loadCycles(firstCycle, lastCycle);
+        long newerBytes = 0;
+        for (int i = 0; i < fileLengths.size(); i++) {
+            newerBytes += fileLengths.getLong(i);
+        }
+        int released = 0;
+        for (int i = 0; i < cycles.size(); i++) {
+            final int cycle = cycles.getInt(i);
+            final long fileLength = fileLengths.getLong(i);
+            newerBytes -= fileLength;
+            if (cycle >= firstProtected) {
+                break;
+            }
+            final RollingResourcesCache.Resource resource = resources.resourceFor(cycle);
+            cycleInfo.init(cycle, resource.path, fileLength, resource.millis,
+                    resource.millis + queue.rollCycle().lengthInMillis(), cycles.size() - i - 1, newerBytes);
+            if (!policy.isExpired(cycleInfo)) {
+                break;
+            }
+            release(resource.path);
+            releasedBytes += fileLength;
+            released++;
+        }
+        cycleInfo.reset();
+        if (released > 0) {
+            releasedCycles += released;
+            queue.refreshDirectoryListing();
+        }
+        return released;
+    }
+
+    /** @return the total number of cycles released by this manager */
+    public long releasedCycles() {
+        return releasedCycles;
+    }
+
+    /** @return the total file length of cycles released by this manager */
+    public long releasedBytes() {
+        return releasedBytes;
+    }
+
+    private void loadCycles(final int firstCycle, final int lastCycle) {
+        cycles.clear();
+        fileLengths.clear();
+        final NavigableSet<Long> cycleSet;
+        try {
+            cycleSet = queue.listCyclesBetween(firstCycle, lastCycle);
+        } catch (final ParseException e) {
+            throw new IllegalStateException("Failed to list cycles of queue " + queue, e);
+        }
+        for (final Long cycle : cycleSet) {
+            cycles.addInt(cycle.intValue());
+            fileLengths.addLong(resources.resourceFor(cycle).path.length());
+        }
+    }
+
+    private void release(final File file) {
+        if (archive != null) {
+            archive.archive(file);
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IllegalStateException("Failed to delete cycle file " + file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChronicleRetentionManager{" +
+                "queue=" + queue.fileAbsolutePath() +
+                ", protectedPollers=" + protectedPollerIds +
+                ", archive=" + archive +
+                ", releasedCycles=" + releasedCycles +
+                '}';
+    }
+
+    private static final class MutableCycleInfo implements RetentionPolicy.CycleInfo {
+        int cycle;
+        File file;
+        long fileLength;
+        long startTime;
+        long endTime;
+        int newerCycles;
+        long newerBytes;
+
+        void init(final int cycle, final File file, final long fileLength, final long startTime, final long endTime,
+                  final int newerCycles, final long newerBytes) {
+            this.cycle = cycle;
+            this.file = file;
+            this.fileLength = fileLength;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.newerCycles = newerCycles;
+            this.newerBytes = newerBytes;
+        }
+
+        void reset() {
+            init(0, null, 0, 0, 0, 0, 0);
+        }
+
+        @Override
+        public int cycle() {
+            return cycle;
+        }
+
+        @Override
+        public File file() {
+            return file;
+        }
+
+        @Override
+        public long fileLength() {
+            return fileLength;
+        }
+
+        @Override
+        public long startTime() {
+            return startTime;
+        }
+
+        @Override
+        public long endTime() {
+            return endTime;
+        }
+
+        @Override
+        public int newerCycles() {
+            return newerCycles;
+        }
+
+        @Override
+        public long newerBytes() {
+            return newerBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "CycleInfo{cycle=" + cycle + ", file=" + file + ", fileLength=" + fileLength + '}';
+        }
+    }
+}
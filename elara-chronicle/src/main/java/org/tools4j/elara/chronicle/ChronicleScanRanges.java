@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.TailerDirection;
+import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
+import org.tools4j.elara.store.scan.ScanRange;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a chronicle queue into {@link ScanRange scan ranges} for a parallel
+ * {@link org.tools4j.elara.store.scan.MessageStoreScanner MessageStoreScanner}.
+ */
+public enum ChronicleScanRanges {
+    ;
+
+    /**
+     * Returns one scan range per cycle of the queue.
+     *
+     * @param queue the chronicle queue
+     * @return the scan ranges in index order, empty if the queue contains no messages
+     */
+    public static ScanRange[] byCycle(final ChronicleQueue queue) {
+        if (!(queue instanceof RollingChronicleQueue)) {
+            return wholeQueue(queue);
+        }
+        final RollingChronicleQueue rollingQueue = (RollingChronicleQueue)queue;
+        final List<Long> startIndices = new ArrayList<>();
+        final int lastCycle = rollingQueue.lastCycle();
+        try (final ExcerptTailer tailer = queue.createTailer()) {
+            int cycle = rollingQueue.firstCycle();
+            while (cycle <= lastCycle) {
+                if (tailer.moveToCycle(cycle)) {
+                    startIndices.add(tailer.index());
+                }
+                if (cycle == lastCycle) {
+                    break;
+                }
+                final int next = rollingQueue.nextCycle(cycle, TailerDirection.FORWARD);
+                if (next <= cycle) {
+                    break;
+                }
+                cycle = next;
+            }
+        } catch (final ParseException e) {
+            throw new IllegalStateException("Failed to list cycles of queue " + queue, e);
+        }
+        final ScanRange[] ranges = new ScanRange[startIndices.size()];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = new ScanRange(startIndices.get(i),
+                    i + 1 < ranges.length ? startIndices.get(i + 1) : Long.MAX_VALUE);
+        }
+        return ranges;
+    }
+
+    private static ScanRange[] wholeQueue(final ChronicleQueue queue) {
+        final long firstIndex = queue.firstIndex();
+        return firstIndex == Long.MAX_VALUE ? new ScanRange[0] :
+                new ScanRange[] {new ScanRange(firstIndex, Long.MAX_VALUE)};
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.impl.RollingResourcesCache;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import org.agrona.LangUtil;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.StoreSync;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.SUFFIX;
+
+/**
+ * Store sync forcing the cycle files of a chronicle queue to the storage device.  Chronicle appenders write to memory
+ * mapped cycle files and offer no sync operation, hence the cycle files written since the last sync are forced to disk
+ * through a file channel;  on Linux this also writes the dirty pages of the memory mapped file.
+ * <p>
+ * Each sync forces the current cycle file, and any earlier cycle files rolled since the previous sync.  The first
+ * sync starts with the last cycle at construction time, or with the first cycle if the queue was empty at that time.
+ * The file channel of the current cycle is kept open and reused until the queue rolls to the next cycle, or until the
+ * store sync is closed.  The store sync is not thread safe and is usually invoked by a
+ * {@link org.tools4j.elara.store.GroupCommitAppender}.
+ */
+public class ChronicleStoreSync implements StoreSync, AutoCloseable {
+
+    private final SingleChronicleQueue queue;
+    private final RollingResourcesCache resources;
+    private int lastSyncedCycle;
+    private int channelCycle = Integer.MIN_VALUE;
+    private FileChannel channel;
+    private long syncCount;
+
+    public ChronicleStoreSync(final MessageStore messageStore) {
+        this(queue(messageStore));
+    }
+
+    public ChronicleStoreSync(final ChronicleQueue queue) {
+        if (!(queue instanceof SingleChronicleQueue)) {
+            throw new IllegalArgumentException("Store sync requires a single chronicle queue but found " + queue);
+        }
+        this.queue = (SingleChronicleQueue)requireNonNull(queue);
+        this.resources = new RollingResourcesCache(queue.rollCycle(), this.queue.epoch(),
+                name -> new File(this.queue.file(), name + SUFFIX), File::getName);
+        this.lastSyncedCycle = this.queue.lastCycle();
+    }
+
+    private static ChronicleQueue queue(final MessageStore messageStore) {
+        if (messageStore instanceof ChronicleMessageStore) {
+            return ((ChronicleMessageStore)messageStore).queue();
+        }
+        throw new IllegalArgumentException("Store sync requires a chronicle message store but found " + messageStore);
+    }
+
+    public ChronicleQueue queue() {
+        return queue;
+    }
+
+    /** @return the number of cycle files forced to disk by this store sync */
+    public long syncCount() {
+        return syncCount;
+    }
+
+    @Override
+    public void sync() {
+        final int lastCycle = queue.lastCycle();
+        if (lastCycle < 0) {
+            return;
+        }
+        final int firstCycle = lastSyncedCycle < 0 ? queue.firstCycle() : Math.min(lastSyncedCycle, lastCycle);
+        for (int cycle = firstCycle; cycle <= lastCycle; cycle++) {
+            force(cycle);
+        }
+        lastSyncedCycle = lastCycle;
+    }
+
+    private void force(final int cycle) {
+        try {
+            final FileChannel channel = channel(cycle);
+            if (channel != null) {
+                channel.force(false);
+                syncCount++;
+            }
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private FileChannel channel(final int cycle) throws IOException {
+        if (cycle == channelCycle) {
+            return channel;
+        }
+        closeChannel();
+        final File file = resources.resourceFor(cycle).path;
+        if (!file.exists()) {
+            return null;
+        }
+        channel = FileChannel.open(file.toPath(), WRITE);
+        channelCycle = cycle;
+        return channel;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            final FileChannel toClose = channel;
+            channel = null;
+            channelCycle = Integer.MIN_VALUE;
+            toClose.close();
+        }
+    }
+
+    /** Closes the file channel of the current cycle;  a subsequent sync re-opens it as needed */
+    @Override
+    public void close() {
+        try {
+            closeChannel();
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChronicleStoreSync{queue=" + queue.fileAbsolutePath() + ", lastSyncedCycle=" + lastSyncedCycle + '}';
+    }
+}
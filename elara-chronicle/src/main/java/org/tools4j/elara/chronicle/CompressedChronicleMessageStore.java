@@ -0,0 +1,596 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.TailerDirection;
+import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.store.MessageStore;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
+
+/**
+ * Message store reading finished cycles of a chronicle queue from {@link CompressedSegment compressed segments} and
+ * the remaining cycles from the live chronicle queue.  Messages are appended to the live queue;  finished cycles are
+ * sealed into compressed segments via {@link #sealFinishedCycles()}, after which the raw cycle files can be released
+ * for instance by a {@link ChronicleRetentionManager} with the {@link #sealedCyclesPolicy() sealed cycles policy}.
+ * <p>
+ * Pollers returned by {@link #poller()} read across sealed segments and the live queue transparently, and entry IDs
+ * are the chronicle indices of the messages no matter where they are read from.  Blocks of compressed segments are
+ * decompressed ahead of the poller on a read-ahead executor.
+ * <p>
+ * Named pollers returned by {@link #poller(String)} read from the live chronicle queue only and should be protected
+ * when releasing raw cycle files.
+ * <p>
+ * Closing the store closes pollers that are still open and waits for their read-ahead tasks before the segment
+ * files are unmapped;  pollers must not be in use by other threads when the store is closed.
+ */
+public class CompressedChronicleMessageStore implements MessageStore {
+
+    private final ChronicleMessageStore liveStore;
+    private final RollingChronicleQueue queue;
+    private final File segmentDirectory;
+    private final int blockSize;
+    private final int readAheadBlocks;
+    private final Executor readAheadExecutor;
+    private final ExecutorService ownedExecutor;
+    private final Set<SegmentedPoller> pollers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile CompressedSegment[] segments = new CompressedSegment[0];
+    private volatile boolean closed;
+
+    public static final int DEFAULT_READ_AHEAD_BLOCKS = 4;
+    public static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    public CompressedChronicleMessageStore(final ChronicleMessageStore liveStore, final File segmentDirectory) {
+        this(liveStore, segmentDirectory, CompressedSegment.DEFAULT_BLOCK_SIZE, DEFAULT_READ_AHEAD_BLOCKS, null);
+    }
+
+    /**
+     * Constructor with block size and read-ahead settings.
+     *
+     * @param liveStore         the chronicle store with the live queue
+     * @param segmentDirectory  the directory for compressed segment files
+     * @param blockSize         the uncompressed target size of blocks when sealing cycles
+     * @param readAheadBlocks   the number of blocks decompressed ahead of a poller, zero to decompress blocks in the
+     *                          polling thread
+     * @param readAheadExecutor executor decompressing blocks ahead of pollers, or null to use store owned daemon
+     *                          threads, one per read-ahead block up to half the available processors
+     */
+    public CompressedChronicleMessageStore(final ChronicleMessageStore liveStore,
+                                           final File segmentDirectory,
+                                           final int blockSize,
+                                           final int readAheadBlocks,
+                                           final Executor readAheadExecutor) {
+        if (!(liveStore.queue() instanceof RollingChronicleQueue)) {
+            throw new IllegalArgumentException("Compressed segments require a rolling chronicle queue but found " +
+                    liveStore.queue());
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        if (readAheadBlocks < 0) {
+            throw new IllegalArgumentException("Read-ahead blocks cannot be negative: " + readAheadBlocks);
+        }
+        this.liveStore = liveStore;
+        this.queue = (RollingChronicleQueue)liveStore.queue();
+        this.segmentDirectory = requireNonNull(segmentDirectory);
+        this.blockSize = blockSize;
+        this.readAheadBlocks = readAheadBlocks;
+        if (readAheadExecutor == null && readAheadBlocks > 0) {
+            final int threads = Math.max(1, Math.min(readAheadBlocks, Runtime.getRuntime().availableProcessors() / 2));
+            final AtomicInteger threadCount = new AtomicInteger();
+            this.ownedExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "elara-segment-read-ahead-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.readAheadExecutor = ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.readAheadExecutor = readAheadExecutor;
+        }
+        IoUtil.ensureDirectoryExists(segmentDirectory, segmentDirectory.getAbsolutePath());
+        refreshSegments();
+    }
+
+    public ChronicleMessageStore liveStore() {
+        return liveStore;
+    }
+
+    public File segmentDirectory() {
+        return segmentDirectory;
+    }
+
+    /** @return the currently sealed segments from oldest to newest */
+    public CompressedSegment[] segments() {
+        return segments.clone();
+    }
+
+    public boolean isSealed(final int cycle) {
+        return segmentIndex(segments, cycle) >= 0;
+    }
+
+    /**
+     * Returns a retention policy expiring cycles that have been sealed into compressed segments.
+     *
+     * @return a retention policy to release raw cycle files once they are sealed
+     */
+    public RetentionPolicy sealedCyclesPolicy() {
+        return cycle -> isSealed(cycle.cycle());
+    }
+
+    /**
+     * Seals all finished cycles of the live queue into compressed segments that have not been sealed yet;  the
+     * current cycle is never sealed.  Sealing performs file I/O and should be invoked from a housekeeping thread.
+     *
+     * @return the number of sealed cycles
+     */
+    public synchronized int sealFinishedCycles() {
+        final int lastCycle = queue.lastCycle();
+        final CompressedSegment[] current = segments;
+        int cycle = queue.firstCycle();
+        int sealed = 0;
+        try {
+            while (cycle >= 0 && cycle < lastCycle) {
+                final boolean newer = current.length == 0 || cycle > current[current.length - 1].cycle();
+                if (newer && segmentIndex(current, cycle) < 0) {
+                    final File file = CompressedSegment.segmentFile(segmentDirectory, cycle);
+                    if (CompressedSegment.seal(queue, cycle, file, blockSize) > 0) {
+                        sealed++;
+                    }
+                }
+                final int next = queue.nextCycle(cycle, TailerDirection.FORWARD);
+                if (next <= cycle) {
+                    break;
+                }
+                cycle = next;
+            }
+        } catch (final ParseException e) {
+            throw new IllegalStateException("Failed to list cycles of queue " + queue, e);
+        }
+        if (sealed > 0) {
+            refreshSegments();
+        }
+        return sealed;
+    }
+
+    /**
+     * Opens segment files in the segment directory that have not been opened yet, for instance if segments were
+     * sealed by another process.
+     */
+    public synchronized void refreshSegments() {
+        final File[] files = segmentDirectory.listFiles((dir, name) -> name.endsWith(CompressedSegment.FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        final CompressedSegment[] current = segments;
+        CompressedSegment[] updated = current;
+        for (final File file : files) {
+            boolean known = false;
+            for (final CompressedSegment segment : current) {
+                if (segment.file().getName().equals(file.getName())) {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known) {
+                updated = Arrays.copyOf(updated, updated.length + 1);
+                updated[updated.length - 1] = new CompressedSegment(file);
+            }
+        }
+        if (updated != current) {
+            Arrays.sort(updated, Comparator.comparingInt(CompressedSegment::cycle));
+            segments = updated;
+        }
+    }
+
+    private static int segmentIndex(final CompressedSegment[] segments, final int cycle) {
+        int low = 0;
+        int high = segments.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midCycle = segments[mid].cycle();
+            if (midCycle < cycle) {
+                low = mid + 1;
+            } else if (midCycle > cycle) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Appender appender() {
+        return liveStore.appender();
+    }
+
+    @Override
+    public Poller poller() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        final SegmentedPoller poller = new SegmentedPoller(liveStore.poller());
+        pollers.add(poller);
+        return poller;
+    }
+
+    @Override
+    public Poller poller(final String id) {
+        return liveStore.poller(id);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        //closing pollers waits for their read-ahead tasks which access the segment files
+        for (final SegmentedPoller poller : pollers.toArray(new SegmentedPoller[0])) {
+            poller.close();
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            try {
+                if (!ownedExecutor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Read-ahead tasks did not terminate within " +
+                            CLOSE_TIMEOUT_MILLIS + "ms, segment files are not unmapped");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while awaiting termination of read-ahead tasks, " +
+                        "segment files are not unmapped", e);
+            }
+        }
+        for (final CompressedSegment segment : segments) {
+            segment.close();
+        }
+        segments = new CompressedSegment[0];
+        liveStore.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedChronicleMessageStore{" +
+                "queue=" + queue.fileAbsolutePath() +
+                ", segmentDirectory=" + segmentDirectory +
+                ", segments=" + segments.length +
+                '}';
+    }
+
+    private final class SegmentedPoller implements Poller {
+        final ChroniclePoller live;
+        final DirectBuffer message = new UnsafeBuffer(0, 0);
+        final ArrayDeque<CompressedSegment.Block> free = new ArrayDeque<>();
+        final ArrayDeque<ReadAhead> readAheads = new ArrayDeque<>();
+        CompressedSegment.Block block = new CompressedSegment.Block();
+        CompressedSegment[] segs;
+        CompressedSegment[] checkedSegments;
+        int segment = -1;//-1 for live
+        int position;
+        volatile boolean closed;
+
+        SegmentedPoller(final ChroniclePoller live) {
+            this.live = requireNonNull(live);
+            for (int i = 0; i < readAheadBlocks; i++) {
+                free.add(new CompressedSegment.Block());
+            }
+            moveToStart();
+        }
+
+        private boolean inSegment() {
+            return segment >= 0;
+        }
+
+        private void position(final CompressedSegment[] segs, final int segment, final int blockIndex,
+                              final int position) {
+            final CompressedSegment seg = segs[segment];
+            if (!block.isLoaded(seg, blockIndex)) {
+                final ReadAhead next = readAheads.peekFirst();
+                if (next != null && next.segment == seg && next.block == blockIndex) {
+                    readAheads.pollFirst();
+                    final CompressedSegment.Block loaded = next.await();
+                    if (loaded != null) {
+                        free.add(block);
+                        block = loaded;
+                    } else {
+                        free.add(next.target);
+                        block.load(seg, blockIndex);
+                    }
+                } else {
+                    cancelReadAhead();
+                    block.load(seg, blockIndex);
+                }
+                startReadAhead(segs, segment, blockIndex);
+            }
+            this.segs = segs;
+            this.segment = segment;
+            this.position = position < 0 ? block.messageCount() + position : position;
+        }
+
+        private void cancelReadAhead() {
+            ReadAhead readAhead;
+            while ((readAhead = readAheads.pollFirst()) != null) {
+                readAhead.await();
+                free.add(readAhead.target);
+            }
+        }
+
+        private void startReadAhead(final CompressedSegment[] segs, final int segment, final int blockIndex) {
+            final ReadAhead last = readAheads.peekLast();
+            int nextSegment = segment;
+            int nextBlock = blockIndex;
+            if (last != null) {
+                nextSegment = last.segmentIndex;
+                nextBlock = last.block;
+            }
+            while (!free.isEmpty()) {
+                if (nextBlock + 1 < segs[nextSegment].blockCount()) {
+                    nextBlock++;
+                } else if (nextSegment + 1 < segs.length) {
+                    nextSegment++;
+                    nextBlock = 0;
+                } else {
+                    return;
+                }
+                readAheads.addLast(new ReadAhead(segs[nextSegment], nextSegment, nextBlock, free.pollFirst(),
+                        readAheadExecutor));
+            }
+        }
+
+        private void enterLiveAfter(final long lastSealedIndex) {
+            cancelReadAhead();
+            segment = -1;
+            block.reset();
+            if (live.moveTo(lastSealedIndex)) {
+                live.moveToNext();
+            } else {
+                live.moveToStart();
+            }
+        }
+
+        private void advance() {
+            if (++position < block.messageCount()) {
+                return;
+            }
+            final CompressedSegment seg = segs[segment];
+            final int blockIndex = block.block();
+            if (blockIndex + 1 < seg.blockCount()) {
+                position(segs, segment, blockIndex + 1, 0);
+                return;
+            }
+            final CompressedSegment[] latest = segments;
+            final int next = segmentIndex(latest, seg.cycle()) + 1;
+            if (next > 0 && next < latest.length) {
+                position(latest, next, 0, 0);
+                return;
+            }
+            enterLiveAfter(seg.lastIndex());
+        }
+
+        @Override
+        public long entryId() {
+            return inSegment() ? block.firstIndex() + position : live.entryId();
+        }
+
+        @Override
+        public boolean moveTo(final long entryId) {
+            final CompressedSegment[] latest = segments;
+            final RollCycle rollCycle = queue.rollCycle();
+            final int index = segmentIndex(latest, rollCycle.toCycle(entryId));
+            if (index >= 0) {
+                final int blockIndex = latest[index].blockOf(entryId);
+                if (blockIndex < 0) {
+                    return false;
+                }
+                position(latest, index, blockIndex, 0);
+                position = (int)(entryId - block.firstIndex());
+                return true;
+            }
+            if (live.moveTo(entryId)) {
+                cancelReadAhead();
+                segment = -1;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean moveToNext() {
+            if (inSegment()) {
+                advance();
+                return true;
+            }
+            return live.moveToNext();
+        }
+
+        @Override
+        public boolean moveToPrevious() {
+            if (inSegment()) {
+                if (position > 0) {
+                    position--;
+                    return true;
+                }
+                final int blockIndex = block.block();
+                if (blockIndex > 0) {
+                    position(segs, segment, blockIndex - 1, -1);
+                    return true;
+                }
+                if (segment > 0) {
+                    position(segs, segment - 1, segs[segment - 1].blockCount() - 1, -1);
+                    return true;
+                }
+                return false;
+            }
+            final long entryId = live.entryId();
+            if (live.moveToPrevious()) {
+                return true;
+            }
+            final CompressedSegment[] latest = segments;
+            if (latest.length > 0 && latest[latest.length - 1].lastIndex() < entryId) {
+                final int last = latest.length - 1;
+                position(latest, last, latest[last].blockCount() - 1, -1);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Poller moveToStart() {
+            final CompressedSegment[] latest = segments;
+            if (latest.length > 0) {
+                position(latest, 0, 0, 0);
+            } else {
+                cancelReadAhead();
+                segment = -1;
+                live.moveToStart();
+            }
+            return this;
+        }
+
+        @Override
+        public Poller moveToEnd() {
+            cancelReadAhead();
+            segment = -1;
+            live.moveToEnd();
+            return this;
+        }
+
+        @Override
+        public int poll(final Handler handler) {
+            if (closed) {
+                throw new IllegalStateException("Poller is closed");
+            }
+            if (!inSegment()) {
+                if (checkedSegments != segments) {
+                    switchToSealedCycle();
+                }
+                if (!inSegment()) {
+                    return live.poll(handler);
+                }
+            }
+            block.wrap(message, position);
+            final Handler.Result result;
+            try {
+                result = handler.onMessage(message);
+            } finally {
+                message.wrap(0, 0);
+            }
+            if (result != POLL) {
+                return 0;
+            }
+            advance();
+            return 1;
+        }
+
+        private void switchToSealedCycle() {
+            //read from segment if current live cycle has been sealed since raw cycle files may be released
+            final CompressedSegment[] latest = segments;
+            checkedSegments = latest;
+            final long entryId = live.entryId();
+            final int index = segmentIndex(latest, queue.rollCycle().toCycle(entryId));
+            if (index >= 0 && latest[index].blockOf(entryId) >= 0) {
+                moveTo(entryId);
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                pollers.remove(this);
+                cancelReadAhead();
+                block.close();
+                for (final CompressedSegment.Block block : free) {
+                    block.close();
+                }
+                live.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "SegmentedPoller{entryId=" + entryId() + "|sealed=" + inSegment() + '}';
+        }
+    }
+
+    private static final class ReadAhead {
+        final CompressedSegment segment;
+        final int segmentIndex;
+        final int block;
+        final CompressedSegment.Block target;
+        final CompletableFuture<CompressedSegment.Block> future;
+
+        ReadAhead(final CompressedSegment segment, final int segmentIndex, final int block,
+                  final CompressedSegment.Block target, final Executor executor) {
+            this.segment = segment;
+            this.segmentIndex = segmentIndex;
+            this.block = block;
+            this.target = target;
+            this.future = CompletableFuture.supplyAsync(() -> target.load(segment, block), executor);
+        }
+
+        /** @return the loaded block, or null if read-ahead failed */
+        CompressedSegment.Block await() {
+            try {
+                return future.join();
+            } catch (final RuntimeException e) {
+                //read-ahead failed, the block will be loaded synchronously which rethrows the failure if persistent
+                target.reset();
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A sealed cycle of a chronicle queue stored as compressed blocks with an index per block.  Messages keep their
+ * original chronicle index as entry ID.  A segment file is laid out as follows (all values little endian):
+ * <pre>
+ *   blocks: compressed length (int), uncompressed length (int), deflated message data
+ *           -- uncompressed message data is a sequence of message length (int) and message bytes
+ *   index:  per block first index (long), message count (int) and file offset of the block (long)
+ *   footer: magic (int), version (int), cycle (int), block count (int), message count (long), index offset (long)
+ * </pre>
+ * Message indices within a block are consecutive;  a new block is started when a gap in the indices is found.
+ * Segment files are memory mapped and hence limited to 2GB of compressed data.
+ */
+public class CompressedSegment implements AutoCloseable {
+
+    public static final String FILE_SUFFIX = ".cseg";
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private static final int MAGIC = 0x53434c45;//ELCS
+    private static final int VERSION = 1;
+    private static final int BLOCK_HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final int INDEX_ENTRY_LENGTH = 2 * Long.BYTES + Integer.BYTES;
+    private static final int FOOTER_LENGTH = 4 * Integer.BYTES + 2 * Long.BYTES;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File file;
+    private final MappedByteBuffer mapped;
+    private final UnsafeBuffer buffer;
+    private final int cycle;
+    private final int blockCount;
+    private final long messageCount;
+    private final int indexOffset;
+
+    public CompressedSegment(final File file) {
+        this.file = requireNonNull(file);
+        this.mapped = IoUtil.mapExistingFile(file, READ_ONLY, file.getAbsolutePath());
+        this.buffer = new UnsafeBuffer(mapped);
+        final int footer = buffer.capacity() - FOOTER_LENGTH;
+        if (footer < 0 || buffer.getInt(footer, LITTLE_ENDIAN) != MAGIC) {
+            close();
+            throw new IllegalArgumentException("Invalid compressed segment file: " + file);
+        }
+        final int version = buffer.getInt(footer + 4, LITTLE_ENDIAN);
+        if (version != VERSION) {
+            close();
+            throw new IllegalArgumentException("Unsupported version " + version + " of compressed segment file: " +
+                    file);
+        }
+        this.cycle = buffer.getInt(footer + 8, LITTLE_ENDIAN);
+        this.blockCount = buffer.getInt(footer + 12, LITTLE_ENDIAN);
+        this.messageCount = buffer.getLong(footer + 16, LITTLE_ENDIAN);
+        this.indexOffset = (int)buffer.getLong(footer + 24, LITTLE_ENDIAN);
+    }
+
+    public static File segmentFile(final File directory, final int cycle) {
+        return new File(directory, String.format("%010d", cycle) + FILE_SUFFIX);
+    }
+
+    public File file() {
+        return file;
+    }
+
+    public int cycle() {
+        return cycle;
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    public long messageCount() {
+        return messageCount;
+    }
+
+    public long firstIndex() {
+        return blockFirstIndex(0);
+    }
+
+    public long lastIndex() {
+        final int last = blockCount - 1;
+        return blockFirstIndex(last) + blockMessageCount(last) - 1;
+    }
+
+    public long blockFirstIndex(final int block) {
+        return buffer.getLong(indexOffset + block * INDEX_ENTRY_LENGTH, LITTLE_ENDIAN);
+    }
+
+    public int blockMessageCount(final int block) {
+        return buffer.getInt(indexOffset + block * INDEX_ENTRY_LENGTH + Long.BYTES, LITTLE_ENDIAN);
+    }
+
+    private int blockOffset(final int block) {
+        return (int)buffer.getLong(indexOffset + block * INDEX_ENTRY_LENGTH + Long.BYTES + Integer.BYTES,
+                LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the block containing the message with the given index using a binary search over the block index.
+     *
+     * @param index the chronicle index of the message
+     * @return the block containing the message, or -1 if the message is not found in this segment
+     */
+    public int blockOf(final long index) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long first = blockFirstIndex(mid);
+            if (index < first) {
+                high = mid - 1;
+            } else if (index >= first + blockMessageCount(mid)) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decompressed block with message offsets, used to read the messages of a block.  Block instances are not thread
+     * safe but can be loaded by one thread and handed over to another thread.
+     */
+    public static final class Block {
+        private final Inflater inflater = new Inflater();
+        private final DirectBuffer data = new UnsafeBuffer(0, 0);
+        private byte[] compressed = new byte[0];
+        private byte[] uncompressed = new byte[0];
+        private int[] offsets = new int[0];
+        private CompressedSegment segment;
+        private int block = -1;
+        private long firstIndex;
+        private int messageCount;
+
+        public Block load(final CompressedSegment segment, final int block) {
+            if (this.segment == segment && this.block == block) {
+                return this;
+            }
+            final UnsafeBuffer source = segment.buffer;
+            final int offset = segment.blockOffset(block);
+            final int compressedLength = source.getInt(offset, LITTLE_ENDIAN);
+            final int uncompressedLength = source.getInt(offset + Integer.BYTES, LITTLE_ENDIAN);
+            final int count = segment.blockMessageCount(block);
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            if (uncompressed.length < uncompressedLength) {
+                uncompressed = new byte[uncompressedLength];
+            }
+            if (offsets.length < count) {
+                offsets = new int[count];
+            }
+            source.getBytes(offset + BLOCK_HEADER_LENGTH, compressed, 0, compressedLength);
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                int inflated = 0;
+                while (inflated < uncompressedLength) {
+                    final int n = inflater.inflate(uncompressed, inflated, uncompressedLength - inflated);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        break;
+                    }
+                    inflated += n;
+                }
+                if (inflated != uncompressedLength) {
+                    throw new IllegalStateException("Corrupt block " + block + " in compressed segment " +
+                            segment.file + ": expected " + uncompressedLength + " bytes but inflated " + inflated);
+                }
+            } catch (final DataFormatException e) {
+                throw new IllegalStateException("Corrupt block " + block + " in compressed segment " +
+                        segment.file, e);
+            }
+            data.wrap(uncompressed, 0, uncompressedLength);
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                offsets[i] = position;
+                position += Integer.BYTES + data.getInt(position, LITTLE_ENDIAN);
+            }
+            this.segment = segment;
+            this.block = block;
+            this.firstIndex = segment.blockFirstIndex(block);
+            this.messageCount = count;
+            return this;
+        }
+
+        public CompressedSegment segment() {
+            return segment;
+        }
+
+        public int block() {
+            return block;
+        }
+
+        public long firstIndex() {
+            return firstIndex;
+        }
+
+        public int messageCount() {
+            return messageCount;
+        }
+
+        public boolean isLoaded(final CompressedSegment segment, final int block) {
+            return this.segment == segment && this.block == block;
+        }
+
+        /**
+         * Wraps the message at the given position within this block.
+         *
+         * @param message   the buffer to wrap
+         * @param position  the position of the message in this block, zero for the first message
+         */
+        public void wrap(final DirectBuffer message, final int position) {
+            final int offset = offsets[position];
+            message.wrap(data, offset + Integer.BYTES, data.getInt(offset, LITTLE_ENDIAN));
+        }
+
+        public void reset() {
+            segment = null;
+            block = -1;
+            messageCount = 0;
+        }
+
+        public void close() {
+            reset();
+            inflater.end();
+        }
+    }
+
+    /**
+     * Seals the given cycle of the queue into a compressed segment file.
+     *
+     * @param queue         the chronicle queue
+     * @param cycle         the cycle to seal
+     * @param file          the segment file to write
+     * @param blockSize     the uncompressed target size of a block
+     * @return the number of sealed messages, zero if the cycle contains no messages in which case no file is written
+     */
+    public static long seal(final ChronicleQueue queue, final int cycle, final File file, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        final File temp = new File(file.getParentFile(), file.getName() + TEMP_SUFFIX);
+        try (final ExcerptTailer tailer = queue.createTailer();
+             final RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+            if (!tailer.moveToCycle(cycle)) {
+                return 0;
+            }
+            raf.setLength(0);
+            final SegmentWriter writer = new SegmentWriter(raf.getChannel(), queue.rollCycle(), cycle, blockSize);
+            try (final ChroniclePoller poller = new ChroniclePoller(tailer)) {
+                while (poller.poll(message -> writer.append(poller.entryId(), message)) > 0) {
+                    //sealing all messages of cycle
+                }
+            }
+            writer.finish();
+            if (writer.messageCount == 0) {
+                raf.close();
+                IoUtil.deleteIfExists(temp);
+                return 0;
+            }
+            raf.close();
+            if (!temp.renameTo(file)) {
+                throw new IllegalStateException("Failed to rename " + temp + " to " + file);
+            }
+            return writer.messageCount;
+        } catch (final IOException e) {
+            IoUtil.deleteIfExists(temp);
+            LangUtil.rethrowUnchecked(e);
+            return 0;
+        }
+    }
+
+    private static final class SegmentWriter {
+        final FileChannel channel;
+        final RollCycle rollCycle;
+        final int cycle;
+        final int blockSize;
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final UnsafeBuffer block;
+        final ByteBuffer header = ByteBuffer.allocate(FOOTER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] compressed;
+        ByteBuffer index = ByteBuffer.allocate(INDEX_ENTRY_LENGTH * 64).order(ByteOrder.LITTLE_ENDIAN);
+        int blockLength;
+        int blockMessages;
+        long blockFirstIndex;
+        int blockCount;
+        long messageCount;
+        long position;
+
+        SegmentWriter(final FileChannel channel, final RollCycle rollCycle, final int cycle, final int blockSize) {
+            this.channel = requireNonNull(channel);
+            this.rollCycle = requireNonNull(rollCycle);
+            this.cycle = cycle;
+            this.blockSize = blockSize;
+            this.block = new UnsafeBuffer(new byte[blockSize + blockSize / 2]);
+            this.compressed = new byte[block.capacity()];
+        }
+
+        Result append(final long index, final DirectBuffer message) {
+            if (rollCycle.toCycle(index) != cycle) {
+                return Result.PEEK;
+            }
+            final int length = message.capacity();
+            if (blockMessages > 0 && (blockFirstIndex + blockMessages != index ||
+                    blockLength + Integer.BYTES + length > blockSize)) {
+                flushBlock();
+            }
+            if (blockMessages == 0) {
+                blockFirstIndex = index;
+            }
+            ensureBlockCapacity(blockLength + Integer.BYTES + length);
+            block.putInt(blockLength, length, LITTLE_ENDIAN);
+            block.putBytes(blockLength + Integer.BYTES, message, 0, length);
+            blockLength += Integer.BYTES + length;
+            blockMessages++;
+            messageCount++;
+            return Result.POLL;
+        }
+
+        private void ensureBlockCapacity(final int capacity) {
+            if (block.capacity() < capacity) {
+                final byte[] bytes = new byte[capacity];
+                block.getBytes(0, bytes, 0, blockLength);
+                block.wrap(bytes);
+            }
+        }
+
+        private void flushBlock() {
+            if (blockMessages == 0) {
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(block.byteArray(), 0, blockLength);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    final byte[] bytes = new byte[compressed.length * 2];
+                    System.arraycopy(compressed, 0, bytes, 0, compressedLength);
+                    compressed = bytes;
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            if (index.remaining() < INDEX_ENTRY_LENGTH) {
+                final ByteBuffer newIndex = ByteBuffer.allocate(index.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                index.flip();
+                newIndex.put(index);
+                index = newIndex;
+            }
+            index.putLong(blockFirstIndex).putInt(blockMessages).putLong(position);
+            header.clear();
+            header.putInt(compressedLength).putInt(blockLength).flip();
+            write(header);
+            write(ByteBuffer.wrap(compressed, 0, compressedLength));
+            blockCount++;
+            blockLength = 0;
+            blockMessages = 0;
+        }
+
+        void finish() throws IOException {
+            flushBlock();
+            deflater.end();
+            if (messageCount == 0) {
+                return;
+            }
+            final long indexOffset = position;
+            if (indexOffset + index.position() + FOOTER_LENGTH > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Compressed segment of cycle " + cycle + " exceeds max length of " +
+                        Integer.MAX_VALUE + " bytes, use a shorter roll cycle");
+            }
+            index.flip();
+            write(index);
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).putInt(cycle).putInt(blockCount)
+                    .putLong(messageCount).putLong(indexOffset).flip();
+            write(header);
+            channel.force(true);
+        }
+
+        private void write(final ByteBuffer bytes) {
+            try {
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes);
+                }
+            } catch (final IOException e) {
+                LangUtil.rethrowUnchecked(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mapped);
+        buffer.wrap(0, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedSegment{" +
+                "file=" + file +
+                ", cycle=" + cycle +
+                ", blocks=" + blockCount +
+                ", messages=" + messageCount +
+                '}';
+    }
+}
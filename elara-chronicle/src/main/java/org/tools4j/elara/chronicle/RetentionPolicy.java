@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import java.io.File;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Policy deciding which cycles of a chronicle queue are expired and can be released or archived by the
+ * {@link ChronicleRetentionManager}.  Cycles are offered to the policy from oldest to newest;  only cycles not needed
+ * by any protected poller or index are offered at all.
+ */
+@FunctionalInterface
+public interface RetentionPolicy {
+    /**
+     * Returns true if the given cycle is expired.
+     *
+     * @param cycle information about the cycle and the cycles following it
+     * @return true if the cycle can be released or archived
+     */
+    boolean isExpired(CycleInfo cycle);
+
+    /**
+     * Information about a cycle offered to a retention policy.
+     */
+    interface CycleInfo {
+        /** @return the cycle number */
+        int cycle();
+        /** @return the cycle file */
+        File file();
+        /** @return the length of the cycle file in bytes */
+        long fileLength();
+        /** @return start time of the cycle in epoch millis */
+        long startTime();
+        /** @return end time of the cycle in epoch millis, exclusive */
+        long endTime();
+        /** @return the number of cycles newer than this cycle that remain in the queue */
+        int newerCycles();
+        /** @return the total file length of cycles newer than this cycle that remain in the queue */
+        long newerBytes();
+    }
+
+    default RetentionPolicy or(final RetentionPolicy other) {
+        requireNonNull(other);
+        return cycle -> isExpired(cycle) || other.isExpired(cycle);
+    }
+
+    default RetentionPolicy and(final RetentionPolicy other) {
+        requireNonNull(other);
+        return cycle -> isExpired(cycle) && other.isExpired(cycle);
+    }
+
+    static RetentionPolicy never() {
+        return cycle -> false;
+    }
+
+    /**
+     * Cycles are expired if the end of the cycle is older than the specified maximum age.
+     *
+     * @param maxAgeMillis  the maximum age in milliseconds
+     * @param clock         clock returning the current time in epoch millis
+     * @return a policy expiring cycles by age
+     */
+    static RetentionPolicy maxAge(final long maxAgeMillis, final LongSupplier clock) {
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Max age cannot be negative: " + maxAgeMillis);
+        }
+        requireNonNull(clock);
+        return cycle -> cycle.endTime() + maxAgeMillis <= clock.getAsLong();
+    }
+
+    static RetentionPolicy maxAge(final long maxAgeMillis) {
+        return maxAge(maxAgeMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Cycles are expired if retaining the cycle together with all newer cycles exceeds the specified total bytes.
+     *
+     * @param maxBytes the maximum total file length of the queue
+     * @return a policy expiring cycles by queue size
+     */
+    static RetentionPolicy maxBytes(final long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Max bytes cannot be negative: " + maxBytes);
+        }
+        return cycle -> cycle.newerBytes() + cycle.fileLength() > maxBytes;
+    }
+
+    /**
+     * Cycles are expired if at least the specified number of newer cycles exist.
+     *
+     * @param maxCycles the maximum number of cycles to retain
+     * @return a policy expiring cycles by cycle count
+     */
+    static RetentionPolicy maxCycles(final int maxCycles) {
+        if (maxCycles < 1) {
+            throw new IllegalArgumentException("Max cycles must be positive: " + maxCycles);
+        }
+        return cycle -> cycle.newerCycles() >= maxCycles;
+    }
+
+    /**
+     * Cycles are expired if they are before the cycle returned by the supplier, for instance set explicitly by an
+     * operator or derived from an external archive process.
+     *
+     * @param firstRetainedCycle supplier for the first cycle to retain
+     * @return a policy expiring cycles before an explicit cycle
+     */
+    static RetentionPolicy beforeCycle(final IntSupplier firstRetainedCycle) {
+        requireNonNull(firstRetainedCycle);
+        return cycle -> cycle.cycle() < firstRetainedCycle.getAsInt();
+    }
+}
@@ -23,29 +23,37 @@
  */
 package org.tools4j.elara.chronicle;
 
+import net.openhft.chronicle.core.time.SetTimeProvider;
 import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycles;
 import net.openhft.chronicle.wire.WireType;
 import org.agrona.DirectBuffer;
 import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
+import org.tools4j.elara.store.CachingMessageStore;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.store.MessageStore.Appender;
 import org.tools4j.elara.store.MessageStore.AppendingContext;
 import org.tools4j.elara.store.MessageStore.Handler;
 import org.tools4j.elara.store.MessageStore.Poller;
+import org.tools4j.elara.store.TimeReader;
+import org.tools4j.elara.store.scan.MessageStoreScanner;
+import org.tools4j.elara.store.scan.ScanRange;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.PEEK;
 import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
 
 /**
@@ -177,6 +185,211 @@ class MessageStoreTest {
         assertEquals(1, poller.sequence(), "[secondEntryId]poller.sequence");
     }
 
+    @Test
+    public void moveToTime(final TestInfo testInfo) {
+        //given
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+        delete(path);
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build());
+        final TimeReader timeReader = message -> message.getLong(0);
+        final Appender appender = messageStore.appender();
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES);
+        final int count = 100;
+        for (int i = 0; i < count; i++) {
+            //ten messages per cycle, every third cycle is skipped
+            if (i % 10 == 0) {
+                timeProvider.advanceMillis(i % 30 == 0 ? 2000 : 1000);
+            }
+            message.putLong(0, 2L * i);
+            appender.append(message, 0, Long.BYTES);
+        }
+        final ChroniclePoller poller = messageStore.poller();
+        final long[] peeked = {-1};
+        final Handler peek = msg -> {
+            peeked[0] = msg.getLong(0);
+            return PEEK;
+        };
+
+        //when + then
+        for (long time = -1; time < 2 * count - 1; time++) {
+            assertTrue(poller.moveToTime(time, timeReader), "poller.moveToTime(" + time + ")");
+            poller.poll(peek);
+            assertEquals(time <= 0 ? 0 : (time + 1) / 2 * 2, peeked[0], "time at poller.moveToTime(" + time + ")");
+        }
+        assertFalse(poller.moveToTime(2 * count - 1, timeReader), "poller.moveToTime(" + (2 * count - 1) + ")");
+        assertEquals(0, poller.poll(peek), "poller.poll after moveToTime(" + (2 * count - 1) + ")");
+
+        messageStore.close();
+    }
+
+    @Test
+    public void scanByCycle(final TestInfo testInfo) {
+        //given
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+        delete(path);
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleQueue queue = ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build();
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(queue);
+        final Appender appender = messageStore.appender();
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES);
+        final int count = 100;
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 0) {
+                timeProvider.advanceMillis(i % 30 == 0 ? 2000 : 1000);
+            }
+            message.putLong(0, i);
+            appender.append(message, 0, Long.BYTES);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        final List<Long> scanned = new ArrayList<>();
+
+        //when
+        final ScanRange[] ranges = ChronicleScanRanges.byCycle(queue);
+        final long scanCount = new MessageStoreScanner(messageStore, pool).scan(ranges,
+                msg -> msg.getLong(0) % 3 == 0, (entryId, msg) -> scanned.add(msg.getLong(0)));
+
+        //then
+        assertEquals(count / 10, ranges.length, "ranges.length");
+        assertEquals(scanned.size(), scanCount, "scanCount");
+        for (int i = 0; i < scanned.size(); i++) {
+            assertEquals(3L * i, scanned.get(i), "scanned[" + i + "]");
+        }
+        assertEquals((count + 2) / 3, scanned.size(), "scanned.size");
+
+        pool.shutdown();
+        messageStore.close();
+    }
+
+    @Test
+    public void cachingStoreAcrossCycles(final TestInfo testInfo) {
+        //given
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+        delete(path);
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleQueue queue = ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build();
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(queue);
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES);
+        final int count = 100;
+        CachingMessageStore cachingStore = null;
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 0) {
+                timeProvider.advanceMillis(1000);
+            }
+            if (i == 40) {
+                cachingStore = new CachingMessageStore(messageStore, 16 * Long.BYTES);
+            }
+            message.putLong(0, i);
+            (cachingStore == null ? messageStore : cachingStore).appender().append(message, 0, Long.BYTES);
+        }
+        final Poller tailPoller = cachingStore.poller().moveToEnd();
+        final List<Long> polled = new ArrayList<>();
+        final Handler handler = msg -> {
+            polled.add(msg.getLong(0));
+            return POLL;
+        };
+
+        //when
+        final Poller poller = cachingStore.poller();
+        while (poller.poll(handler) > 0);
+
+        //then
+        assertEquals(count, polled.size(), "polled.size");
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, polled.get(i), "polled[" + i + "]");
+        }
+        assertEquals(16, cachingStore.hitCount(), "hitCount");
+        assertEquals(count - 16, cachingStore.missCount(), "missCount");
+
+        //when
+        polled.clear();
+        for (int i = count; i < count + 20; i++) {
+            if (i % 10 == 0) {
+                timeProvider.advanceMillis(1000);
+            }
+            message.putLong(0, i);
+            cachingStore.appender().append(message, 0, Long.BYTES);
+            while (tailPoller.poll(handler) > 0);
+        }
+
+        //then
+        assertEquals(20, polled.size(), "polled.size");
+        for (int i = 0; i < 20; i++) {
+            assertEquals(count + i, polled.get(i), "polled[" + i + "]");
+        }
+        assertEquals(16 + 20, cachingStore.hitCount(), "hitCount");
+        assertEquals(count - 16, cachingStore.missCount(), "missCount");
+
+        cachingStore.close();
+    }
+
+    @Test
+    public void cachingStoreNamedPoller(final TestInfo testInfo) {
+        //given
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+        delete(path);
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .build());
+        final CachingMessageStore cachingStore = new CachingMessageStore(messageStore, 1024, 128);
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES);
+        final int count = CachingMessageStore.NAMED_POLLER_SYNC_INTERVAL + 10;
+        for (int i = 0; i < count; i++) {
+            message.putLong(0, i);
+            cachingStore.appender().append(message, 0, Long.BYTES);
+        }
+        final List<Long> polled = new ArrayList<>();
+        final Handler handler = msg -> {
+            polled.add(msg.getLong(0));
+            return POLL;
+        };
+
+        //when
+        final Poller poller = cachingStore.poller("named");
+        while (poller.poll(handler) > 0);
+
+        //then
+        assertEquals(count, polled.size(), "polled.size");
+        //a new tailer is not positioned at an index before reading the first message from the store
+        assertEquals(count - 1, cachingStore.hitCount(), "hitCount");
+        assertEquals(1, cachingStore.missCount(), "missCount");
+
+        //when
+        poller.close();
+        message.putLong(0, count);
+        messageStore.appender().append(message, 0, Long.BYTES);
+        polled.clear();
+        final Poller resumed = messageStore.poller("named");
+        while (resumed.poll(handler) > 0);
+
+        //then
+        assertEquals(1, polled.size(), "polled.size after resume");
+        assertEquals(count, polled.get(0), "polled[0] after resume");
+
+        resumed.close();
+        cachingStore.close();
+    }
+
     private DirectBuffer[] append(final MessageStore messageStore) {
         //given
         final DirectBuffer[] messages = new DirectBuffer[]{
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.tools4j.elara.replay.ReplayProgress;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Unit test for {@link ChronicleReadAhead}.
+ */
+class ChronicleReadAheadTest {
+
+    private static final int COUNT = 1000;
+    private static final int MESSAGE_LENGTH = 3000;
+
+    @Test
+    void readsAheadUpToMaxAheadEventsAndStopsWhenComplete(final TestInfo testInfo) throws Exception {
+        //given
+        final ChronicleMessageStore messageStore = messageStore(testInfo);
+        final AtomicLong delegated = new AtomicLong(-1);
+        final ChronicleReadAhead readAhead = new ChronicleReadAhead(messageStore, 100,
+                (replayedEvents, elapsedNanos, complete) -> delegated.set(replayedEvents));
+
+        //when
+        readAhead.start();
+        awaitTouchedEvents(readAhead, 100);
+
+        //then
+        assertEquals(COUNT, messageStore.entryCount(), "entryCount");
+        assertEquals(100, readAhead.touchedEvents(), "touchedEvents");
+
+        //when: progress without replay position
+        readAhead.onProgress(50, 1000, false);
+        awaitTouchedEvents(readAhead, 150);
+
+        //then
+        assertEquals(100, readAhead.touchedEvents(), "touchedEvents");
+        assertEquals(50, delegated.get(), "delegated");
+
+        //when: 50 entries polled but only 20 events replayed, for instance if aborted events are skipped
+        readAhead.onProgress(20, entryIdAfter(messageStore, 50), 1000, false);
+        awaitTouchedEvents(readAhead, 150);
+
+        //then
+        assertEquals(150, readAhead.touchedEvents(), "touchedEvents");
+        assertEquals(20, delegated.get(), "delegated");
+
+        //when
+        readAhead.onProgress(COUNT, 2000, true);
+        awaitStopped(readAhead);
+
+        //then
+        assertFalse(readAhead.isRunning(), "isRunning");
+        assertEquals(COUNT, delegated.get(), "delegated");
+
+        messageStore.close();
+    }
+
+    @Test
+    void stopsAtEndOfQueue(final TestInfo testInfo) throws Exception {
+        //given
+        final ChronicleMessageStore messageStore = messageStore(testInfo);
+        final ChronicleReadAhead readAhead = new ChronicleReadAhead(messageStore, 2 * COUNT, ReplayProgress.NOOP);
+
+        //when
+        readAhead.start();
+        awaitStopped(readAhead);
+
+        //then
+        assertEquals(COUNT, readAhead.touchedEvents(), "touchedEvents");
+
+        messageStore.close();
+    }
+
+    private static long entryIdAfter(final MessageStore messageStore, final int entries) {
+        try (final MessageStore.Poller poller = messageStore.poller()) {
+            for (int i = 0; i < entries; i++) {
+                assertEquals(1, poller.poll(message -> Result.POLL), "polled");
+            }
+            return poller.entryId();
+        }
+    }
+
+    private static void awaitTouchedEvents(final ChronicleReadAhead readAhead, final long touched) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (readAhead.touchedEvents() < touched && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        //give the read-ahead thread a chance to overshoot if it does not respect max ahead events
+        Thread.sleep(20);
+    }
+
+    private static void awaitStopped(final ChronicleReadAhead readAhead) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (readAhead.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static ChronicleMessageStore messageStore(final TestInfo testInfo) {
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+        IoUtil.delete(new File(path), true);
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .build());
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(MESSAGE_LENGTH);
+        for (int i = 0; i < COUNT; i++) {
+            message.putInt(0, i);
+            messageStore.appender().append(message, 0, MESSAGE_LENGTH);
+        }
+        return messageStore;
+    }
+}
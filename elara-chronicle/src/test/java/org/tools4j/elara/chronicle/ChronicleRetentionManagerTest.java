@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.tools4j.elara.step.PollerPublisherStep;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Handler;
+import org.tools4j.elara.store.MessageStore.Poller;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
+
+/**
+ * Unit test for {@link ChronicleRetentionManager}.
+ */
+class ChronicleRetentionManagerTest {
+
+    private static final int MESSAGES_PER_CYCLE = 10;
+    private static final int CYCLES = 10;
+    private static final int COUNT = MESSAGES_PER_CYCLE * CYCLES;
+
+    @Test
+    void releaseCyclesBehindNamedPoller(final TestInfo testInfo) {
+        //given
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleMessageStore messageStore = messageStore(testInfo, timeProvider);
+        final Poller namedPoller = messageStore.poller(PollerPublisherStep.DEFAULT_POLLER_ID);
+        for (int i = 0; i < 35; i++) {
+            namedPoller.poll(message -> POLL);
+        }
+        final ChronicleRetentionManager manager = new ChronicleRetentionManager(messageStore,
+                RetentionPolicy.maxCycles(2))
+                .protectPoller(PollerPublisherStep.DEFAULT_POLLER_ID);
+
+        //when
+        final int released = manager.enforce();
+
+        //then
+        assertEquals(3, released, "released");
+        assertEquals(30, firstMessage(messageStore), "firstMessage");
+
+        //when
+        while (namedPoller.poll(message -> POLL) > 0);
+        final int releasedAfterPoll = manager.enforce();
+
+        //then
+        assertEquals(CYCLES - 2 - 3, releasedAfterPoll, "releasedAfterPoll");
+        assertEquals(CYCLES - 2, manager.releasedCycles(), "releasedCycles");
+        assertEquals(COUNT - 2 * MESSAGES_PER_CYCLE, firstMessage(messageStore), "firstMessage");
+        assertEquals(0, manager.enforce(), "enforce");
+
+        messageStore.close();
+    }
+
+    @Test
+    void archiveCyclesBeforeProtectedIndex(final TestInfo testInfo) {
+        //given
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleMessageStore messageStore = messageStore(testInfo, timeProvider);
+        final File archiveDir = new File(path(testInfo) + "-archive");
+        final File workDir = new File(path(testInfo) + "-restored");
+        IoUtil.delete(archiveDir, true);
+        IoUtil.delete(workDir, true);
+        final Poller poller = messageStore.poller();
+        for (int i = 0; i < 45; i++) {
+            poller.poll(message -> POLL);
+        }
+        final long snapshotIndex = poller.entryId();
+        final ChronicleRetentionManager manager = new ChronicleRetentionManager(messageStore,
+                RetentionPolicy.maxAge(0, timeProvider::currentTimeMillis))
+                .protectIndex(() -> snapshotIndex)
+                .archiveTo(new ChronicleArchive(archiveDir));
+
+        //when
+        final int released = manager.enforce();
+
+        //then
+        assertEquals(4, released, "released");
+        assertEquals(4, manager.archive().archivedFiles().length, "archivedFiles.length");
+        assertEquals(40, firstMessage(messageStore), "firstMessage");
+
+        //when
+        final List<Long> archived = new ArrayList<>();
+        final ChronicleMessageStore archiveStore = manager.archive().openMessageStore(workDir, RollCycles.TEST_SECONDLY);
+        final Poller archivePoller = archiveStore.poller();
+        while (archivePoller.poll(message -> {
+            archived.add(message.getLong(0));
+            return POLL;
+        }) > 0);
+
+        //then
+        assertEquals(40, archived.size(), "archived.size");
+        for (int i = 0; i < archived.size(); i++) {
+            assertEquals(i, archived.get(i), "archived[" + i + "]");
+        }
+
+        archiveStore.close();
+        messageStore.close();
+    }
+
+    @Test
+    void rejectNonChronicleStore() {
+        assertThrows(IllegalArgumentException.class, () -> new ChronicleRetentionManager(
+                new InMemoryStore(), RetentionPolicy.never()));
+    }
+
+    private static ChronicleMessageStore messageStore(final TestInfo testInfo, final SetTimeProvider timeProvider) {
+        final String path = path(testInfo);
+        IoUtil.delete(new File(path), true);
+        final ChronicleQueue queue = ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build();
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(queue);
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES);
+        for (int i = 0; i < COUNT; i++) {
+            if (i % MESSAGES_PER_CYCLE == 0) {
+                timeProvider.advanceMillis(1000);
+            }
+            message.putLong(0, i);
+            messageStore.appender().append(message, 0, Long.BYTES);
+        }
+        timeProvider.advanceMillis(1000);
+        return messageStore;
+    }
+
+    private static String path(final TestInfo testInfo) {
+        return "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+    }
+
+    private static long firstMessage(final ChronicleMessageStore messageStore) {
+        final long[] first = {-1};
+        final Handler handler = message -> {
+            first[0] = message.getLong(0);
+            return POLL;
+        };
+        try (final Poller poller = messageStore.poller()) {
+            poller.poll(handler);
+        }
+        return first[0];
+    }
+}
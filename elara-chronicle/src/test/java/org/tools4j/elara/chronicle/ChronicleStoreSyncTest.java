@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for {@link ChronicleStoreSync}.
+ */
+class ChronicleStoreSyncTest {
+
+    private final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES);
+
+    @Test
+    void firstSyncForcesAllCyclesWrittenSinceConstruction(final TestInfo testInfo) {
+        //given
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (final ChronicleMessageStore messageStore = messageStore(testInfo, timeProvider);
+             final ChronicleStoreSync storeSync = new ChronicleStoreSync(messageStore)) {
+            for (int cycle = 0; cycle < 3; cycle++) {
+                appendInNextCycle(messageStore, timeProvider);
+            }
+
+            //when
+            storeSync.sync();
+
+            //then
+            assertEquals(3, storeSync.syncCount(), "syncCount");
+
+            //when
+            messageStore.appender().append(message, 0, Long.BYTES);
+            storeSync.sync();
+
+            //then
+            assertEquals(4, storeSync.syncCount(), "syncCount");
+
+            //when
+            appendInNextCycle(messageStore, timeProvider);
+            storeSync.sync();
+
+            //then
+            assertEquals(6, storeSync.syncCount(), "syncCount");
+        }
+    }
+
+    @Test
+    void firstSyncStartsWithLastCycleAtConstruction(final TestInfo testInfo) {
+        //given
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (final ChronicleMessageStore messageStore = messageStore(testInfo, timeProvider)) {
+            for (int cycle = 0; cycle < 3; cycle++) {
+                appendInNextCycle(messageStore, timeProvider);
+            }
+            try (final ChronicleStoreSync storeSync = new ChronicleStoreSync(messageStore)) {
+                appendInNextCycle(messageStore, timeProvider);
+
+                //when
+                storeSync.sync();
+
+                //then
+                assertEquals(2, storeSync.syncCount(), "syncCount");
+            }
+        }
+    }
+
+    private void appendInNextCycle(final ChronicleMessageStore messageStore, final SetTimeProvider timeProvider) {
+        timeProvider.advanceMillis(1000);
+        messageStore.appender().append(message, 0, Long.BYTES);
+    }
+
+    private static ChronicleMessageStore messageStore(final TestInfo testInfo, final SetTimeProvider timeProvider) {
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName() + ".cq4";
+        IoUtil.delete(new File(path), true);
+        return new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                .path(path)
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.LongArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.tools4j.elara.store.MessageStore.Handler;
+import org.tools4j.elara.store.MessageStore.Poller;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
+
+/**
+ * Unit test for {@link CompressedChronicleMessageStore}.
+ */
+class CompressedChronicleMessageStoreTest {
+
+    private static final int MESSAGES_PER_CYCLE = 50;
+    private static final int CYCLES = 6;
+    private static final int COUNT = MESSAGES_PER_CYCLE * CYCLES;
+    private static final int BLOCK_SIZE = 256;
+
+    @Test
+    void pollAcrossSealedSegmentsAndLiveQueue(final TestInfo testInfo) {
+        //given
+        final CompressedChronicleMessageStore store = compressedStore(testInfo);
+        final LongArrayList rawEntryIds = new LongArrayList();
+        final LongArrayList rawMessages = new LongArrayList();
+        pollAll(store.liveStore().poller(), rawEntryIds, rawMessages);
+
+        //when
+        final int sealed = store.sealFinishedCycles();
+
+        //then
+        assertEquals(CYCLES - 1, sealed, "sealed");
+        assertEquals(CYCLES - 1, store.segments().length, "segments.length");
+        assertTrue(store.segments()[0].blockCount() > 1, "multiple blocks per segment expected");
+        assertEquals(0, store.sealFinishedCycles(), "sealFinishedCycles");
+        assertPollAll(store, rawEntryIds, rawMessages);
+
+        //when
+        final int released = new ChronicleRetentionManager(store.liveStore(), store.sealedCyclesPolicy()).enforce();
+
+        //then
+        assertEquals(CYCLES - 1, released, "released");
+        assertPollAll(store, rawEntryIds, rawMessages);
+
+        store.close();
+    }
+
+    @Test
+    void moveAcrossSealedSegmentsAndLiveQueue(final TestInfo testInfo) {
+        //given
+        final CompressedChronicleMessageStore store = compressedStore(testInfo);
+        final LongArrayList rawEntryIds = new LongArrayList();
+        pollAll(store.liveStore().poller(), rawEntryIds, new LongArrayList());
+        store.sealFinishedCycles();
+        new ChronicleRetentionManager(store.liveStore(), store.sealedCyclesPolicy()).enforce();
+        final Poller poller = store.poller();
+
+        //when + then
+        for (final int i : new int[] {0, 7, 49, 50, 123, COUNT - MESSAGES_PER_CYCLE - 1, COUNT - 1}) {
+            assertTrue(poller.moveTo(rawEntryIds.getLong(i)), "moveTo(" + i + ")");
+            assertEquals(rawEntryIds.getLong(i), poller.entryId(), "entryId[" + i + "]");
+            assertEquals(i, peek(poller), "peek[" + i + "]");
+        }
+        assertFalse(poller.moveTo(rawEntryIds.getLong(COUNT - 1) + 1000), "moveTo(invalid)");
+        assertEquals(COUNT - 1, peek(poller), "peek after invalid moveTo");
+
+        //when + then
+        poller.moveToEnd();
+        for (int i = COUNT - 1; i >= 0; i--) {
+            assertTrue(poller.moveToPrevious(), "moveToPrevious[" + i + "]");
+            assertEquals(rawEntryIds.getLong(i), poller.entryId(), "entryId[" + i + "]");
+            assertEquals(i, peek(poller), "peek[" + i + "]");
+        }
+        assertFalse(poller.moveToPrevious(), "moveToPrevious at start");
+
+        //when + then
+        poller.moveToStart();
+        for (int i = 1; i < COUNT; i++) {
+            assertTrue(poller.moveToNext(), "moveToNext[" + i + "]");
+            assertEquals(i, peek(poller), "peek[" + i + "]");
+        }
+
+        poller.close();
+        store.close();
+    }
+
+    @Test
+    void closeWaitsForReadAheadAndClosesOpenPollers(final TestInfo testInfo) throws Exception {
+        //given
+        final AtomicInteger submitted = new AtomicInteger();
+        final AtomicInteger started = new AtomicInteger();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Executor slowExecutor = task -> {
+            submitted.incrementAndGet();
+            executor.execute(() -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+                started.incrementAndGet();
+                task.run();
+            });
+        };
+        final CompressedChronicleMessageStore store = compressedStore(testInfo, slowExecutor);
+        store.sealFinishedCycles();
+        final Poller poller = store.poller();
+
+        //when
+        assertEquals(0, peek(poller), "peek");
+        store.close();
+
+        //then
+        assertTrue(submitted.get() > 0, "read-ahead submitted");
+        //read-ahead tasks complete when the poller awaits them, so all of them must have started before close
+        assertEquals(submitted.get(), started.get(), "read-ahead started before close");
+        assertTrue(poller.isClosed(), "poller.isClosed");
+        assertThrows(IllegalStateException.class, () -> poller.poll(message -> POLL), "poll after close");
+        assertThrows(IllegalStateException.class, store::poller, "store.poller after close");
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "executor terminated");
+    }
+
+    private static void assertPollAll(final CompressedChronicleMessageStore store,
+                                      final LongArrayList rawEntryIds,
+                                      final LongArrayList rawMessages) {
+        final LongArrayList entryIds = new LongArrayList();
+        final LongArrayList messages = new LongArrayList();
+        pollAll(store.poller(), entryIds, messages);
+        assertEquals(COUNT, messages.size(), "messages.size");
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(rawMessages.getLong(i), messages.getLong(i), "messages[" + i + "]");
+            assertEquals(rawEntryIds.getLong(i), entryIds.getLong(i), "entryIds[" + i + "]");
+        }
+    }
+
+    private static void pollAll(final Poller poller, final LongArrayList entryIds, final LongArrayList messages) {
+        final Handler handler = message -> {
+            entryIds.addLong(poller.entryId());
+            messages.addLong(message.getLong(0));
+            return POLL;
+        };
+        while (poller.poll(handler) > 0);
+        poller.close();
+    }
+
+    private static long peek(final Poller poller) {
+        final long[] value = {-1};
+        poller.poll(message -> {
+            value[0] = message.getLong(0);
+            return Handler.Result.PEEK;
+        });
+        return value[0];
+    }
+
+    private static CompressedChronicleMessageStore compressedStore(final TestInfo testInfo) {
+        return compressedStore(testInfo, null);
+    }
+
+    private static CompressedChronicleMessageStore compressedStore(final TestInfo testInfo,
+                                                                   final Executor readAheadExecutor) {
+        final String path = "build/chronicle/" + testInfo.getTestClass().get().getSimpleName() + "_" +
+                testInfo.getTestMethod().get().getName();
+        IoUtil.delete(new File(path + ".cq4"), true);
+        IoUtil.delete(new File(path + "-segments"), true);
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleQueue queue = ChronicleQueue.singleBuilder()
+                .path(path + ".cq4")
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build();
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(queue);
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(Long.BYTES + 16);
+        for (int i = 0; i < COUNT; i++) {
+            if (i % MESSAGES_PER_CYCLE == 0) {
+                timeProvider.advanceMillis(1000);
+            }
+            message.putLong(0, i);
+            message.putStringWithoutLengthAscii(Long.BYTES, "payload-" + (i % 7));
+            messageStore.appender().append(message, 0, Long.BYTES + 9);
+        }
+        return new CompressedChronicleMessageStore(messageStore, new File(path + "-segments"), BLOCK_SIZE,
+                CompressedChronicleMessageStore.DEFAULT_READ_AHEAD_BLOCKS, readAheadExecutor);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler;
+import org.tools4j.elara.store.MessageStore.Poller;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
+
+/**
+ * Compares replay throughput of raw chronicle cycles with compressed segments;  run with {@code gradle perfTest}.
+ */
+@Tag("perf")
+class CompressedSegmentPerfTest {
+
+    private static final int CYCLES = 10;
+    private static final int MESSAGES_PER_CYCLE = 200_000;
+    private static final int MESSAGE_LENGTH = 128;
+    private static final int RUNS = 5;
+
+    @Test
+    void replayThroughput() {
+        final String path = "build/chronicle/perf/compressed-segments";
+        IoUtil.delete(new File(path), true);
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        final ChronicleMessageStore messageStore = new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                .path(path + "/queue")
+                .wireType(WireType.BINARY_LIGHT)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build());
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(MESSAGE_LENGTH);
+        for (int i = 0; i < CYCLES * MESSAGES_PER_CYCLE; i++) {
+            if (i % MESSAGES_PER_CYCLE == 0) {
+                timeProvider.advanceMillis(1000);
+            }
+            //somewhat realistic event: header with increasing values, payload with repeating content
+            message.putLong(0, i);
+            message.putLong(8, timeProvider.currentTimeMillis());
+            for (int j = 16; j < MESSAGE_LENGTH; j += 8) {
+                message.putLong(j, (i % 100) * 31L + j);
+            }
+            messageStore.appender().append(message, 0, MESSAGE_LENGTH);
+        }
+        timeProvider.advanceMillis(1000);
+        messageStore.appender().append(message, 0, MESSAGE_LENGTH);
+        final CompressedChronicleMessageStore compressedStore = new CompressedChronicleMessageStore(messageStore,
+                new File(path + "/segments"));
+
+        long start = System.nanoTime();
+        final int sealed = compressedStore.sealFinishedCycles();
+        final long sealNanos = System.nanoTime() - start;
+        long rawBytes = 0;
+        long compressedBytes = 0;
+        for (final CompressedSegment segment : compressedStore.segments()) {
+            compressedBytes += segment.file().length();
+        }
+        rawBytes = (long)CYCLES * MESSAGES_PER_CYCLE * MESSAGE_LENGTH;
+        System.out.printf("sealed %d cycles in %d ms, payload=%d bytes, compressed=%d bytes, ratio=%.1f%n",
+                sealed, sealNanos / 1_000_000, rawBytes, compressedBytes, rawBytes / (double)compressedBytes);
+
+        for (int run = 0; run < RUNS; run++) {
+            replay("raw", messageStore);
+            replay("compressed", compressedStore);
+        }
+        compressedStore.close();
+    }
+
+    private static void replay(final String name, final MessageStore store) {
+        final long[] sum = {0};
+        final Handler handler = message -> {
+            sum[0] += message.getLong(0);
+            return POLL;
+        };
+        final long start = System.nanoTime();
+        int count = 0;
+        try (final Poller poller = store.poller()) {
+            while (poller.poll(handler) > 0) {
+                count++;
+            }
+        }
+        final long nanos = System.nanoTime() - start;
+        assertEquals(CYCLES * MESSAGES_PER_CYCLE + 1, count, name + ".count");
+        System.out.printf("%-10s replay: %8.1f ns/msg, %6.2f M msgs/s, %6.1f MB/s%n", name,
+                nanos / (double)count, count * 1000.0 / nanos, count * (double)MESSAGE_LENGTH * 1000 / nanos);
+    }
+}
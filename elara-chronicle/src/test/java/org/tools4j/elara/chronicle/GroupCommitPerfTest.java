@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.chronicle;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.wire.WireType;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.store.GroupCommitAppender;
+import org.tools4j.elara.store.GroupCommitPolicy;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures durable append throughput of a chronicle store for different group commit batch sizes;  run with
+ * {@code gradle perfTest}.
+ */
+@Tag("perf")
+class GroupCommitPerfTest {
+
+    private static final int MESSAGES = 20_000;
+    private static final int MESSAGE_LENGTH = 128;
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1000};
+
+    @Test
+    void durableAppendThroughput() {
+        final MutableDirectBuffer message = new ExpandableArrayBuffer(MESSAGE_LENGTH);
+        for (final int batchSize : BATCH_SIZES) {
+            final String path = "build/chronicle/perf/group-commit-" + batchSize;
+            IoUtil.delete(new File(path), true);
+            try (final ChronicleMessageStore store = new ChronicleMessageStore(ChronicleQueue.singleBuilder()
+                    .path(path)
+                    .wireType(WireType.BINARY_LIGHT)
+                    .build());
+                 final ChronicleStoreSync storeSync = new ChronicleStoreSync(store)) {
+                final GroupCommitAppender appender = new GroupCommitAppender(store.appender(), storeSync,
+                        new GroupCommitPolicy(batchSize, Integer.MAX_VALUE, 1000));
+                final long start = System.nanoTime();
+                for (int i = 0; i < MESSAGES; i++) {
+                    message.putLong(0, i);
+                    appender.append(message, 0, MESSAGE_LENGTH);
+                }
+                appender.flush();
+                final long nanos = System.nanoTime() - start;
+                assertEquals(MESSAGES, appender.durablePosition(), "durablePosition");
+                System.out.printf("batch %5d: %8d syncs, %10.1f ns/msg, %8.3f M msgs/s%n", batchSize,
+                        appender.syncCount(), nanos / (double)MESSAGES, MESSAGES * 1000.0 / nanos);
+            }
+        }
+    }
+}
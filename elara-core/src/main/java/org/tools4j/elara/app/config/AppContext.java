@@ -26,6 +26,7 @@ package org.tools4j.elara.app.config;
 import org.agrona.concurrent.IdleStrategy;
 import org.tools4j.elara.app.state.BaseStateProvider;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.logging.Logger;
 import org.tools4j.elara.step.AgentStep;
 import org.tools4j.elara.time.TimeSource;
@@ -34,6 +35,7 @@ public interface AppContext extends AppConfig {
     AppContext baseStateProvider(BaseStateProvider baseStateFactory);
     AppContext timeSource(TimeSource timeSource);
     AppContext exceptionHandler(ExceptionHandler exceptionHandler);
+    AppContext checksumPolicy(ChecksumPolicy checksumPolicy);
     AppContext loggerFactory(Logger.Factory loggerFactory);
     AppContext idleStrategy(IdleStrategy idleStrategy);
     AppContext dutyCycleExtraStep(AgentStep step, ExecutionType executionType);
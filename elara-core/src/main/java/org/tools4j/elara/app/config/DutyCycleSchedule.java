@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.app.config;
+
+import org.tools4j.elara.step.AgentStep;
+import org.tools4j.elara.step.ScheduledStep;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.step.ScheduledStep.UNLIMITED_SKIPPED_CYCLES;
+
+/**
+ * Schedule for the steps of an all-in-one app duty cycle defining step priorities, per-step work budgets per cycle and
+ * starvation guarantees;  if no schedule is configured, the all-in-one agent uses its fixed priority order.
+ * <p>
+ * Steps are invoked in the order they are added to the schedule.  Each step is invoked until it does no work or until
+ * its work budget is exhausted, for instance to process at most 64 commands before polling inputs.  A yielding step is
+ * skipped if a step it yields to did work in the same cycle, unless it has already been skipped for its max skipped
+ * cycles in a row.  Steps yielding to the {@link DutyCycleStep#EVENT EVENT} step are never forced to run while events
+ * are replayed, and the {@link DutyCycleStep#SEQUENCER SEQUENCER} step must yield to it so that inputs are never polled
+ * during replay.
+ * <p>
+ * The per-step invocation and work counts are captured by the metrics plugin through the frequency metrics of the
+ * respective steps such as {@link org.tools4j.elara.plugin.metrics.FrequencyMetric#INPUTS_POLL_FREQUENCY
+ * INPUTS_POLL_FREQUENCY} and {@link org.tools4j.elara.plugin.metrics.FrequencyMetric#INPUT_RECEIVED_FREQUENCY
+ * INPUT_RECEIVED_FREQUENCY} for the sequencer step.
+ */
+public final class DutyCycleSchedule {
+
+    /**
+     * Steps of the all-in-one app duty cycle.
+     */
+    public enum DutyCycleStep {
+        /** Polls and applies events from the event store, including events replayed at startup */
+        EVENT,
+        /** Polls and processes commands */
+        COMMAND,
+        /** Polls inputs and sends commands */
+        SEQUENCER,
+        /** Polls and publishes events to the output */
+        PUBLISHER,
+        /** Extra steps with {@link ExecutionType#ALWAYS_WHEN_EVENTS_APPLIED} */
+        EXTRA_WHEN_EVENTS_APPLIED,
+        /** Extra steps with {@link ExecutionType#ALWAYS} */
+        EXTRA_ALWAYS
+    }
+
+    private final List<DutyCycleStep> steps = new ArrayList<>();
+    private final List<Integer> workBudgets = new ArrayList<>();
+    private final List<Integer> maxSkippedCycles = new ArrayList<>();
+    private final List<Set<DutyCycleStep>> yieldTo = new ArrayList<>();
+
+    public static DutyCycleSchedule create() {
+        return new DutyCycleSchedule();
+    }
+
+    /**
+     * Returns a schedule with the same priorities as the default all-in-one agent:  events first, then commands and
+     * the publisher;  inputs are polled only if no events or commands were processed, and extra steps when events are
+     * applied run unless events were replayed in the same cycle;  the publisher and extra steps that always run are
+     * never skipped.
+     *
+     * @return a new schedule that can be further modified
+     */
+    public static DutyCycleSchedule defaultSchedule() {
+        return create()
+                .step(DutyCycleStep.EVENT, 1)
+                .yieldingStep(DutyCycleStep.COMMAND, 1, UNLIMITED_SKIPPED_CYCLES)
+                .step(DutyCycleStep.PUBLISHER, 1)
+                .yieldingStep(DutyCycleStep.SEQUENCER, 1, UNLIMITED_SKIPPED_CYCLES,
+                        DutyCycleStep.EVENT, DutyCycleStep.COMMAND)
+                .yieldingStep(DutyCycleStep.EXTRA_WHEN_EVENTS_APPLIED, 1, UNLIMITED_SKIPPED_CYCLES,
+                        DutyCycleStep.EVENT)
+                .step(DutyCycleStep.EXTRA_ALWAYS, 1);
+    }
+
+    /**
+     * Adds a step that is invoked in every cycle.
+     *
+     * @param step          the step to add
+     * @param workBudget    the max number of invocations of the step per cycle
+     * @return this schedule
+     */
+    public DutyCycleSchedule step(final DutyCycleStep step, final int workBudget) {
+        return addStep(step, workBudget, 0, EnumSet.noneOf(DutyCycleStep.class));
+    }
+
+    /**
+     * Adds a step that is skipped if any step before it did work in the same cycle.
+     *
+     * @param step              the step to add
+     * @param workBudget        the max number of invocations of the step per cycle
+     * @param maxSkippedCycles  the max number of cycles the step is skipped in a row before it is invoked anyway, or
+     *                          {@link ScheduledStep#UNLIMITED_SKIPPED_CYCLES} to skip it whenever a step before it
+     *                          did work
+     * @return this schedule
+     */
+    public DutyCycleSchedule yieldingStep(final DutyCycleStep step, final int workBudget, final int maxSkippedCycles) {
+        final Set<DutyCycleStep> before = EnumSet.noneOf(DutyCycleStep.class);
+        before.addAll(steps);
+        return addStep(step, workBudget, maxSkippedCycles, before);
+    }
+
+    /**
+     * Adds a step that is skipped if any of the given steps did work in the same cycle.
+     *
+     * @param step              the step to add
+     * @param workBudget        the max number of invocations of the step per cycle
+     * @param maxSkippedCycles  the max number of cycles the step is skipped in a row before it is invoked anyway, or
+     *                          {@link ScheduledStep#UNLIMITED_SKIPPED_CYCLES} to skip it whenever a step it yields to
+     *                          did work
+     * @param yieldTo           the steps to yield to, all of which must have been added before
+     * @return this schedule
+     */
+    public DutyCycleSchedule yieldingStep(final DutyCycleStep step,
+                                          final int workBudget,
+                                          final int maxSkippedCycles,
+                                          final DutyCycleStep... yieldTo) {
+        final Set<DutyCycleStep> yieldSet = EnumSet.noneOf(DutyCycleStep.class);
+        for (final DutyCycleStep other : yieldTo) {
+            if (!steps.contains(requireNonNull(other))) {
+                throw new IllegalArgumentException("Step " + step + " cannot yield to " + other +
+                        " which has not been added to the schedule before it");
+            }
+            yieldSet.add(other);
+        }
+        return addStep(step, workBudget, maxSkippedCycles, yieldSet);
+    }
+
+    private DutyCycleSchedule addStep(final DutyCycleStep step,
+                                      final int workBudget,
+                                      final int maxSkippedCycles,
+                                      final Set<DutyCycleStep> yieldTo) {
+        requireNonNull(step);
+        if (steps.contains(step)) {
+            throw new IllegalArgumentException("Step " + step + " has already been added to the schedule");
+        }
+        if (workBudget <= 0) {
+            throw new IllegalArgumentException("Work budget must be positive: " + workBudget);
+        }
+        if (maxSkippedCycles < 0) {
+            throw new IllegalArgumentException("Max skipped cycles cannot be negative: " + maxSkippedCycles);
+        }
+        steps.add(step);
+        workBudgets.add(workBudget);
+        this.maxSkippedCycles.add(maxSkippedCycles);
+        this.yieldTo.add(yieldTo);
+        return this;
+    }
+
+    /** @return the steps in the order of their priority */
+    public List<DutyCycleStep> steps() {
+        return steps;
+    }
+
+    /**
+     * Validates that all steps have been added to this schedule and that the sequencer yields to the event step.
+     *
+     * @throws IllegalArgumentException if a step is missing or if inputs could be polled during replay
+     */
+    public void validate() {
+        for (final DutyCycleStep step : DutyCycleStep.values()) {
+            if (!steps.contains(step)) {
+                throw new IllegalArgumentException("Step " + step + " is missing in duty cycle schedule");
+            }
+        }
+        if (!yieldTo.get(steps.indexOf(DutyCycleStep.SEQUENCER)).contains(DutyCycleStep.EVENT)) {
+            throw new IllegalArgumentException("Step " + DutyCycleStep.SEQUENCER + " must yield to " +
+                    DutyCycleStep.EVENT + " so that inputs are not polled during replay");
+        }
+    }
+
+    /**
+     * Creates the scheduled agent step.
+     *
+     * @param stepFactory factory for the agent step of each duty cycle step
+     * @return the scheduled step invoking the agent steps as per this schedule
+     */
+    public ScheduledStep createStep(final Function<? super DutyCycleStep, ? extends AgentStep> stepFactory) {
+        validate();
+        final int count = steps.size();
+        final AgentStep[] agentSteps = new AgentStep[count];
+        final int[] budgets = new int[count];
+        final int[] maxSkipped = new int[count];
+        final int[] yieldMasks = new int[count];
+        final int[] strictYieldMasks = new int[count];
+        for (int i = 0; i < count; i++) {
+            agentSteps[i] = stepFactory.apply(steps.get(i));
+            budgets[i] = workBudgets.get(i);
+            maxSkipped[i] = maxSkippedCycles.get(i);
+            for (final DutyCycleStep other : yieldTo.get(i)) {
+                yieldMasks[i] |= 1 << steps.indexOf(other);
+            }
+            if (yieldTo.get(i).contains(DutyCycleStep.EVENT)) {
+                //events are only polled during replay, no forced invocations of steps yielding to them
+                strictYieldMasks[i] = 1 << steps.indexOf(DutyCycleStep.EVENT);
+            }
+        }
+        return new ScheduledStep(agentSteps, budgets, maxSkipped, yieldMasks, strictYieldMasks);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DutyCycleSchedule{");
+        for (int i = 0; i < steps.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(steps.get(i)).append("[budget=").append(workBudgets.get(i));
+            if (!yieldTo.get(i).isEmpty()) {
+                sb.append(", yieldTo=").append(yieldTo.get(i));
+                sb.append(", maxSkipped=").append(maxSkippedCycles.get(i) == UNLIMITED_SKIPPED_CYCLES ? "unlimited" :
+                        String.valueOf(maxSkippedCycles.get(i)));
+            }
+            sb.append(']');
+        }
+        return sb.append('}').toString();
+    }
+}
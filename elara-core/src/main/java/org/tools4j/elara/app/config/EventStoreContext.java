@@ -24,9 +24,12 @@
 package org.tools4j.elara.app.config;
 
 import org.tools4j.elara.exception.DuplicateHandler;
+import org.tools4j.elara.replay.ReplayProgress;
 import org.tools4j.elara.store.MessageStore;
 
 public interface EventStoreContext extends EventStoreConfig {
     EventStoreContext eventStore(MessageStore eventStore);
     EventStoreContext duplicateHandler(DuplicateHandler duplicateHandler);
+    EventStoreContext replayBatchSize(int replayBatchSize);
+    EventStoreContext replayProgress(ReplayProgress replayProgress);
 }
@@ -26,10 +26,24 @@ package org.tools4j.elara.app.config;
 import org.tools4j.elara.app.handler.EventProcessor;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
 
 public interface EventStreamContext extends EventStreamConfig {
     EventStreamContext eventStore(MessageStore eventStore);
     EventStreamContext eventStore(MessageStore.Poller eventStorePoller);
     EventStreamContext eventReceiver(MessageReceiver eventReceiver);
+    /**
+     * Sets a {@link org.tools4j.elara.replay.GapDetectingEventReceiver GapDetectingEventReceiver} as event receiver
+     * that requests missing events via request sender from an
+     * {@link org.tools4j.elara.replay.EventReplayServer EventReplayServer}.
+     *
+     * @param liveReceiver   receiver for the live event stream
+     * @param replayReceiver receiver for events replayed by the replay server
+     * @param requestSender  sender for replay requests
+     * @param consumerId     the consumer ID used by the replay server to route replayed events
+     * @return this context
+     */
+    EventStreamContext eventReceiver(MessageReceiver liveReceiver, MessageReceiver replayReceiver,
+                                     MessageSender requestSender, int consumerId);
     EventStreamContext eventProcessor(EventProcessor eventProcessor);
 }
@@ -25,8 +25,12 @@ package org.tools4j.elara.app.factory;
 
 import org.agrona.concurrent.Agent;
 import org.tools4j.elara.agent.AllInOneAgent;
+import org.tools4j.elara.agent.ScheduledAgent;
 import org.tools4j.elara.app.config.CommandPollingMode;
+import org.tools4j.elara.app.config.DutyCycleSchedule;
+import org.tools4j.elara.app.config.DutyCycleSchedule.DutyCycleStep;
 import org.tools4j.elara.app.type.AllInOneAppConfig;
+import org.tools4j.elara.step.AgentStep;
 
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -82,7 +86,7 @@ public class AllInOneAppFactory implements AppFactory {
                 Singletons::create
         ));
         this.appSingletons = interceptor.appFactory(singletonsSupplier(
-                appFactory(), Singletons::create
+                appFactory(config.dutyCycleSchedule()), Singletons::create
         ));
     }
 
@@ -120,7 +124,10 @@ public class AllInOneAppFactory implements AppFactory {
     }
 
 
-    private AppFactory appFactory() {
+    private AppFactory appFactory(final DutyCycleSchedule schedule) {
+        if (schedule != null) {
+            return () -> new ScheduledAgent(schedule.createStep(this::dutyCycleStep));
+        }
 //        return () -> new CoreAgent(
 //                sequencerSingletons.sequencerStep(),
 //                commandPollerSingletons.commandPollerStep(),
@@ -136,6 +143,25 @@ public class AllInOneAppFactory implements AppFactory {
                 agentStepSingletons.extraStepAlways());
     }
 
+    private AgentStep dutyCycleStep(final DutyCycleStep step) {
+        switch (step) {
+            case EVENT:
+                return applierSingletons.eventPollerStep();
+            case COMMAND:
+                return commandPollerSingletons.commandPollerStep();
+            case SEQUENCER:
+                return sequencerSingletons.sequencerStep();
+            case PUBLISHER:
+                return publisherSingletons.publisherStep();
+            case EXTRA_WHEN_EVENTS_APPLIED:
+                return agentStepSingletons.extraStepAlwaysWhenEventsApplied();
+            case EXTRA_ALWAYS:
+                return agentStepSingletons.extraStepAlways();
+            default:
+                throw new IllegalArgumentException("Unsupported duty cycle step: " + step);
+        }
+    }
+
     @Override
     public Agent agent() {
         return appSingletons.agent();
@@ -65,7 +65,7 @@ public class AppendingSequencerFactory implements SequencerFactory {
     @Override
     public SenderSupplier senderSupplier() {
         final MessageStore.Appender commandAppender = commandStoreConfig.commandStore().appender();
-        return new CommandAppendingSender(appConfig.timeSource(), commandAppender);
+        return new CommandAppendingSender(appConfig.timeSource(), commandAppender, appConfig.checksumPolicy());
     }
 
     @Override
@@ -30,9 +30,11 @@ import org.tools4j.elara.app.handler.EventApplier;
 import org.tools4j.elara.app.state.MutableBaseState;
 import org.tools4j.elara.app.state.SingleEventBaseState;
 import org.tools4j.elara.event.CompositeEventApplier;
+import org.tools4j.elara.event.PayloadTypeEventApplier;
 import org.tools4j.elara.handler.DefaultEventHandler;
 import org.tools4j.elara.handler.EventHandler;
 import org.tools4j.elara.plugin.api.PluginSpecification.Installer;
+import org.tools4j.elara.plugin.api.ReservedPayloadType;
 import org.tools4j.elara.step.AgentStep;
 import org.tools4j.elara.step.EventReplayStep;
 
@@ -70,9 +72,11 @@ public class DefaultApplierFactory implements ApplierFactory {
             return eventApplier;
         }
         final EventApplier[] appliers = new EventApplier[plugins.length + 1];
+        final ReservedPayloadType[] payloadTypes = new ReservedPayloadType[plugins.length + 1];
         int count = 0;
         for (final Installer plugin : plugins) {
             appliers[count] = plugin.eventApplier(baseState);
+            payloadTypes[count] = plugin.eventApplierPayloadType();
             if (appliers[count] != EventApplier.NOOP) {
                 count++;
             }
@@ -80,10 +84,51 @@ public class DefaultApplierFactory implements ApplierFactory {
         if (count == 0) {
             return eventApplier;
         }
-        appliers[count++] = eventApplier;//application applier last
-        return new CompositeEventApplier(
-                count == appliers.length ? appliers : Arrays.copyOf(appliers, count)
-        );
+        appliers[count] = eventApplier;//application applier last
+        payloadTypes[count] = ReservedPayloadType.NONE;
+        count++;
+        return dispatchByPayloadType(appliers, payloadTypes, count);
+    }
+
+    /**
+     * Returns an applier invoking only the appliers for the payload type of an event:  events with a reserved payload
+     * type are passed to the plugin appliers for the reserved range, and all events are passed to appliers with
+     * payload type {@link ReservedPayloadType#NONE NONE}.  Appliers are invoked in the given order.
+     */
+    private static EventApplier dispatchByPayloadType(final EventApplier[] appliers,
+                                                      final ReservedPayloadType[] payloadTypes,
+                                                      final int count) {
+        final EventApplier defaultApplier = composite(appliers, payloadTypes, count, ReservedPayloadType.NONE);
+        PayloadTypeEventApplier dispatcher = null;
+        for (int i = 0; i < count; i++) {
+            final ReservedPayloadType reserved = payloadTypes[i];
+            if (reserved == ReservedPayloadType.NONE ||
+                    (dispatcher != null && dispatcher.applierFor(reserved.maxType()) != defaultApplier)) {
+                continue;
+            }
+            if (dispatcher == null) {
+                dispatcher = new PayloadTypeEventApplier(defaultApplier);
+            }
+            final EventApplier applier = composite(appliers, payloadTypes, count, reserved);
+            for (int type = reserved.minType(); type <= reserved.maxType(); type++) {
+                dispatcher.register(type, applier);
+            }
+        }
+        return dispatcher == null ? defaultApplier : dispatcher;
+    }
+
+    private static EventApplier composite(final EventApplier[] appliers,
+                                          final ReservedPayloadType[] payloadTypes,
+                                          final int count,
+                                          final ReservedPayloadType reserved) {
+        final EventApplier[] selected = new EventApplier[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (payloadTypes[i] == ReservedPayloadType.NONE || payloadTypes[i] == reserved) {
+                selected[n++] = appliers[i];
+            }
+        }
+        return n == 1 ? selected[0] : new CompositeEventApplier(n == count ? selected : Arrays.copyOf(selected, n));
     }
 
     @Override
@@ -100,8 +145,12 @@ public class DefaultApplierFactory implements ApplierFactory {
     public AgentStep eventPollerStep() {
         final EventHandler eventHandler = applierSingletons.get().eventHandler();
         if (baseState instanceof SingleEventBaseState) {
-            return EventReplayStep.replayAllEvents(eventStoreConfig.eventStore(), eventHandler);
+            return EventReplayStep.replayAllEvents(eventStoreConfig.eventStore(), eventHandler,
+                    appConfig.checksumPolicy(), eventStoreConfig.replayBatchSize(), eventStoreConfig.replayProgress(),
+                    appConfig.loggerFactory());
         }
-        return EventReplayStep.replayNonAbortedEvents(eventStoreConfig.eventStore(), eventHandler);
+        return EventReplayStep.replayNonAbortedEvents(eventStoreConfig.eventStore(), eventHandler,
+                appConfig.checksumPolicy(), eventStoreConfig.replayBatchSize(), eventStoreConfig.replayProgress(),
+                appConfig.loggerFactory());
     }
 }
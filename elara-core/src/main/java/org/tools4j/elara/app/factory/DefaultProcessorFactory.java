@@ -29,10 +29,12 @@ import org.tools4j.elara.app.config.ProcessorConfig;
 import org.tools4j.elara.app.handler.CommandProcessor;
 import org.tools4j.elara.app.state.BaseState;
 import org.tools4j.elara.command.CompositeCommandProcessor;
+import org.tools4j.elara.command.PayloadTypeCommandProcessor;
 import org.tools4j.elara.handler.CommandHandler;
 import org.tools4j.elara.handler.DeduplicatingCommandHandler;
 import org.tools4j.elara.handler.ProcessingCommandHandler;
 import org.tools4j.elara.plugin.api.PluginSpecification.Installer;
+import org.tools4j.elara.plugin.api.ReservedPayloadType;
 import org.tools4j.elara.route.CommandTransaction;
 import org.tools4j.elara.route.DefaultEventRouter;
 
@@ -74,9 +76,11 @@ public class DefaultProcessorFactory implements ProcessorFactory {
             return commandProcessor;
         }
         final CommandProcessor[] processors = new CommandProcessor[plugins.length + 1];
+        final ReservedPayloadType[] payloadTypes = new ReservedPayloadType[plugins.length + 1];
         int count = 1;
         for (final Installer plugin : plugins) {
             processors[count] = plugin.commandProcessor(baseState);
+            payloadTypes[count] = plugin.commandProcessorPayloadType();
             if (processors[count] != CommandProcessor.NOOP) {
                 count++;
             }
@@ -85,9 +89,49 @@ public class DefaultProcessorFactory implements ProcessorFactory {
             return commandProcessor;
         }
         processors[0] = commandProcessor;//application processor first
-        return new CompositeCommandProcessor(
-                count == processors.length ? processors : Arrays.copyOf(processors, count)
-        );
+        payloadTypes[0] = ReservedPayloadType.NONE;
+        return dispatchByPayloadType(processors, payloadTypes, count);
+    }
+
+    /**
+     * Returns a processor invoking only the processors for the payload type of a command:  commands with a reserved
+     * payload type are passed to the plugin processors for the reserved range, and all commands are passed to
+     * processors with payload type {@link ReservedPayloadType#NONE NONE}.  Processors are invoked in the given order.
+     */
+    private static CommandProcessor dispatchByPayloadType(final CommandProcessor[] processors,
+                                                          final ReservedPayloadType[] payloadTypes,
+                                                          final int count) {
+        final CommandProcessor defaultProcessor = composite(processors, payloadTypes, count, ReservedPayloadType.NONE);
+        PayloadTypeCommandProcessor dispatcher = null;
+        for (int i = 0; i < count; i++) {
+            final ReservedPayloadType reserved = payloadTypes[i];
+            if (reserved == ReservedPayloadType.NONE ||
+                    (dispatcher != null && dispatcher.processorFor(reserved.maxType()) != defaultProcessor)) {
+                continue;
+            }
+            if (dispatcher == null) {
+                dispatcher = new PayloadTypeCommandProcessor(defaultProcessor);
+            }
+            final CommandProcessor processor = composite(processors, payloadTypes, count, reserved);
+            for (int type = reserved.minType(); type <= reserved.maxType(); type++) {
+                dispatcher.register(type, processor);
+            }
+        }
+        return dispatcher == null ? defaultProcessor : dispatcher;
+    }
+
+    private static CommandProcessor composite(final CommandProcessor[] processors,
+                                              final ReservedPayloadType[] payloadTypes,
+                                              final int count,
+                                              final ReservedPayloadType reserved) {
+        final CommandProcessor[] selected = new CommandProcessor[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (payloadTypes[i] == ReservedPayloadType.NONE || payloadTypes[i] == reserved) {
+                selected[n++] = processors[i];
+            }
+        }
+        return n == 1 ? selected[0] : new CompositeCommandProcessor(n == count ? selected : Arrays.copyOf(selected, n));
     }
 
     @Override
@@ -96,7 +140,8 @@ public class DefaultProcessorFactory implements ProcessorFactory {
                 appConfig.timeSource(),
                 baseState,
                 eventStoreConfig.eventStore().appender(),
-                applierSingletons.get().eventHandler()
+                applierSingletons.get().eventHandler(),
+                appConfig.checksumPolicy()
         );
     }
 
@@ -68,7 +68,7 @@ public class PassthroughSequencerFactory implements SequencerFactory {
     public SenderSupplier senderSupplier() {
         return new CommandPassthroughSender(appConfig.timeSource(), baseState, eventStoreConfig.eventStore().appender(),
                 applierSingletons.get().eventApplier(), appConfig.exceptionHandler(),
-                eventStoreConfig.duplicateHandler());
+                eventStoreConfig.duplicateHandler(), appConfig.checksumPolicy());
     }
 
     @Override
@@ -65,6 +65,7 @@ public class StreamPublisherFactory implements PublisherFactory {
         }
         final MessageReceiver eventReceiver = eventStreamConfig.eventReceiver();
         final OutputHandler outputHandler = publisherSingletons.get().outputHandler();
-        return new ReceiverPublisherStep(outputHandler, eventReceiver, appConfig.exceptionHandler());
+        return new ReceiverPublisherStep(outputHandler, eventReceiver, appConfig.exceptionHandler(),
+                appConfig.checksumPolicy(), appConfig.loggerFactory());
     }
 }
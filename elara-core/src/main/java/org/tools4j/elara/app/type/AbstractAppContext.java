@@ -34,6 +34,7 @@ import org.tools4j.elara.app.state.MutableBaseState;
 import org.tools4j.elara.exception.DuplicateHandler;
 import org.tools4j.elara.exception.ExceptionHandler;
 import org.tools4j.elara.exception.ExceptionLogger;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.input.Input;
 import org.tools4j.elara.input.MultiSourceInput;
 import org.tools4j.elara.input.SingleSourceInput;
@@ -43,6 +44,7 @@ import org.tools4j.elara.output.Output;
 import org.tools4j.elara.plugin.api.Plugin;
 import org.tools4j.elara.plugin.api.PluginSpecification.Installer;
 import org.tools4j.elara.plugin.boot.BootCommandInput;
+import org.tools4j.elara.replay.ReplayProgress;
 import org.tools4j.elara.step.AgentStep;
 import org.tools4j.elara.time.TimeSource;
 
@@ -66,6 +68,9 @@ abstract class AbstractAppContext<T extends AbstractAppContext<T>> implements Ap
     private ExceptionHandler exceptionHandler = ExceptionHandler.systemDefault();
     private Factory loggerFactory = SYSTEM_FACTORY;
     private DuplicateHandler duplicateHandler = DuplicateHandler.systemDefault();
+    private int replayBatchSize = 1;
+    private ReplayProgress replayProgress = ReplayProgress.NOOP;
+    private ChecksumPolicy checksumPolicy = ChecksumPolicy.NONE;
     private IdleStrategy idleStrategy = new BackoffIdleStrategy(
             100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MICROSECONDS.toNanos(100));
     private final EnumMap<ExecutionType, List<AgentStep>> extraSteps = new EnumMap<>(ExecutionType.class);
@@ -143,6 +148,17 @@ abstract class AbstractAppContext<T extends AbstractAppContext<T>> implements Ap
         return self();
     }
 
+    @Override
+    public ChecksumPolicy checksumPolicy() {
+        return checksumPolicy;
+    }
+
+    @Override
+    public T checksumPolicy(final ChecksumPolicy checksumPolicy) {
+        this.checksumPolicy = requireNonNull(checksumPolicy);
+        return self();
+    }
+
     public DuplicateHandler duplicateHandler() {
         return duplicateHandler;
     }
@@ -152,6 +168,27 @@ abstract class AbstractAppContext<T extends AbstractAppContext<T>> implements Ap
         return self();
     }
 
+    public int replayBatchSize() {
+        return replayBatchSize;
+    }
+
+    public T replayBatchSize(final int replayBatchSize) {
+        if (replayBatchSize < 1) {
+            throw new IllegalArgumentException("Replay batch size must be positive: " + replayBatchSize);
+        }
+        this.replayBatchSize = replayBatchSize;
+        return self();
+    }
+
+    public ReplayProgress replayProgress() {
+        return replayProgress;
+    }
+
+    public T replayProgress(final ReplayProgress replayProgress) {
+        this.replayProgress = requireNonNull(replayProgress);
+        return self();
+    }
+
     @Override
     public Factory loggerFactory() {
         return loggerFactory;
@@ -25,10 +25,12 @@ package org.tools4j.elara.app.type;
 
 import org.tools4j.elara.app.config.EventStreamContext;
 import org.tools4j.elara.app.handler.EventProcessor;
+import org.tools4j.elara.replay.GapDetectingEventReceiver;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.store.MessageStore.Poller;
 import org.tools4j.elara.store.StorePollingMessageReceiver;
 import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
 
 import static java.util.Objects.requireNonNull;
 
@@ -58,6 +60,14 @@ abstract class AbstractEventStreamContext<T extends AbstractEventStreamContext<T
         return self();
     }
 
+    @Override
+    public T eventReceiver(final MessageReceiver liveReceiver,
+                           final MessageReceiver replayReceiver,
+                           final MessageSender requestSender,
+                           final int consumerId) {
+        return eventReceiver(new GapDetectingEventReceiver(liveReceiver, replayReceiver, requestSender, consumerId));
+    }
+
     @Override
     public EventProcessor eventProcessor() {
         return eventProcessor;
@@ -30,6 +30,7 @@ import org.tools4j.elara.event.Event;
 import org.tools4j.elara.route.EventRouter;
 import org.tools4j.elara.run.Elara;
 import org.tools4j.elara.run.ElaraRunner;
+import org.tools4j.elara.run.WarmUp;
 import org.tools4j.elara.store.MessageStore;
 
 import java.util.function.Consumer;
@@ -56,4 +57,19 @@ public interface AllInOneApp extends CommandProcessor, EventApplier {
         return Elara.launch(context);
     }
 
+    /**
+     * Runs the warm-up before launching this application, see {@link WarmUp} and
+     * {@link Elara#launch(org.tools4j.elara.app.config.AppConfig, WarmUp) Elara.launch(..)}.
+     *
+     * @param configurator  configures the application context
+     * @param warmUp        the warm-up with a supplier for a throwaway application instance
+     * @return the runner for the launched application
+     */
+    default ElaraRunner launch(final Consumer<? super AllInOneAppContext> configurator, final WarmUp warmUp) {
+        final AllInOneAppContext context = AllInOneAppConfig.configure();
+        configurator.accept(context);
+        context.populateDefaults(this);
+        return Elara.launch(context, warmUp);
+    }
+
 }
@@ -26,6 +26,7 @@ package org.tools4j.elara.app.type;
 import org.tools4j.elara.app.config.AppConfig;
 import org.tools4j.elara.app.config.ApplierConfig;
 import org.tools4j.elara.app.config.CommandStoreConfig;
+import org.tools4j.elara.app.config.DutyCycleSchedule;
 import org.tools4j.elara.app.config.EventStoreConfig;
 import org.tools4j.elara.app.config.InputConfig;
 import org.tools4j.elara.app.config.OutputConfig;
@@ -35,6 +36,12 @@ import org.tools4j.elara.app.config.ProcessorConfig;
 public interface AllInOneAppConfig extends AppConfig, CommandStoreConfig, EventStoreConfig, ProcessorConfig,
         ApplierConfig, InputConfig, OutputConfig, PluginConfig {
 
+    /**
+     * Returns the duty cycle schedule, or null if the agent uses its fixed priority order of steps.
+     * @return the duty cycle schedule, or null for the default duty cycle
+     */
+    DutyCycleSchedule dutyCycleSchedule();
+
     @Override
     default AppType appType() {
         return ElaraAppType.AllInOneApp;
@@ -28,6 +28,7 @@ import org.tools4j.elara.app.config.AppContext;
 import org.tools4j.elara.app.config.ApplierContext;
 import org.tools4j.elara.app.config.CommandPollingMode;
 import org.tools4j.elara.app.config.CommandStoreContext;
+import org.tools4j.elara.app.config.DutyCycleSchedule;
 import org.tools4j.elara.app.config.EventStoreContext;
 import org.tools4j.elara.app.config.ExecutionType;
 import org.tools4j.elara.app.config.InputContext;
@@ -39,6 +40,7 @@ import org.tools4j.elara.app.handler.EventApplier;
 import org.tools4j.elara.app.state.BaseStateProvider;
 import org.tools4j.elara.exception.DuplicateHandler;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.input.Input;
 import org.tools4j.elara.input.MultiSourceInput;
 import org.tools4j.elara.input.SingleSourceInput;
@@ -46,6 +48,7 @@ import org.tools4j.elara.input.UniSourceInput;
 import org.tools4j.elara.logging.Logger;
 import org.tools4j.elara.output.Output;
 import org.tools4j.elara.plugin.api.Plugin;
+import org.tools4j.elara.replay.ReplayProgress;
 import org.tools4j.elara.step.AgentStep;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.time.TimeSource;
@@ -83,13 +86,20 @@ public interface AllInOneAppContext extends AllInOneAppConfig, AppContext, Comma
     @Override
     AllInOneAppContext exceptionHandler(ExceptionHandler exceptionHandler);
     @Override
+    AllInOneAppContext checksumPolicy(ChecksumPolicy checksumPolicy);
+    @Override
     AllInOneAppContext duplicateHandler(DuplicateHandler duplicateHandler);
     @Override
+    AllInOneAppContext replayBatchSize(int replayBatchSize);
+    @Override
+    AllInOneAppContext replayProgress(ReplayProgress replayProgress);
+    @Override
     AllInOneAppContext loggerFactory(Logger.Factory loggerFactory);
     @Override
     AllInOneAppContext idleStrategy(IdleStrategy idleStrategy);
     @Override
     AllInOneAppContext dutyCycleExtraStep(AgentStep step, ExecutionType executionType);
+    AllInOneAppContext dutyCycleSchedule(DutyCycleSchedule schedule);
 
     @Override
     AllInOneAppContext plugin(Plugin<?> plugin);
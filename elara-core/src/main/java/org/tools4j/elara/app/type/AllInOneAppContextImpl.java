@@ -25,6 +25,7 @@ package org.tools4j.elara.app.type;
 
 import org.agrona.concurrent.Agent;
 import org.tools4j.elara.app.config.CommandPollingMode;
+import org.tools4j.elara.app.config.DutyCycleSchedule;
 import org.tools4j.elara.app.factory.AllInOneAppFactory;
 import org.tools4j.elara.app.handler.CommandProcessor;
 import org.tools4j.elara.app.handler.EventApplier;
@@ -40,6 +41,7 @@ final class AllInOneAppContextImpl extends AbstractAppContext<AllInOneAppContext
     private MessageStore commandStore;
     private CommandPollingMode commandPollingMode = CommandPollingMode.NO_STORE;
     private MessageStore eventStore;
+    private DutyCycleSchedule dutyCycleSchedule;
 
     @Override
     protected AllInOneAppContextImpl self() {
@@ -106,6 +108,17 @@ final class AllInOneAppContextImpl extends AbstractAppContext<AllInOneAppContext
         return this;
     }
 
+    @Override
+    public DutyCycleSchedule dutyCycleSchedule() {
+        return dutyCycleSchedule;
+    }
+
+    @Override
+    public AllInOneAppContext dutyCycleSchedule(final DutyCycleSchedule schedule) {
+        this.dutyCycleSchedule = schedule;//nullable
+        return this;
+    }
+
     @Override
     public AllInOneAppContextImpl populateDefaults() {
         return super.populateDefaults();
@@ -134,6 +147,9 @@ final class AllInOneAppContextImpl extends AbstractAppContext<AllInOneAppContext
         if (eventStore() == null) {
             throw new IllegalArgumentException("Event store must be set");
         }
+        if (dutyCycleSchedule() != null) {
+            dutyCycleSchedule().validate();
+        }
         super.validate();
     }
 
@@ -34,6 +34,7 @@ import org.tools4j.elara.app.config.PluginContext;
 import org.tools4j.elara.app.handler.EventProcessor;
 import org.tools4j.elara.app.state.BaseStateProvider;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.input.Input;
 import org.tools4j.elara.input.MultiSourceInput;
 import org.tools4j.elara.input.SingleSourceInput;
@@ -63,6 +64,9 @@ public interface FeedbackAppContext extends FeedbackAppConfig, AppContext, Event
     @Override
     FeedbackAppContext eventReceiver(MessageReceiver eventReceiver);
     @Override
+    FeedbackAppContext eventReceiver(MessageReceiver liveReceiver, MessageReceiver replayReceiver,
+                                      MessageSender requestSender, int consumerId);
+    @Override
     FeedbackAppContext eventProcessor(EventProcessor eventProcessor);
     @Override
     FeedbackAppContext commandStore(MessageStore commandStore);
@@ -85,6 +89,8 @@ public interface FeedbackAppContext extends FeedbackAppConfig, AppContext, Event
     @Override
     FeedbackAppContext exceptionHandler(ExceptionHandler exceptionHandler);
     @Override
+    FeedbackAppContext checksumPolicy(ChecksumPolicy checksumPolicy);
+    @Override
     FeedbackAppContext loggerFactory(Logger.Factory loggerFactory);
     @Override
     FeedbackAppContext idleStrategy(IdleStrategy idleStrategy);
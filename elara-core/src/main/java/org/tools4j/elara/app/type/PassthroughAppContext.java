@@ -33,6 +33,7 @@ import org.tools4j.elara.app.config.PluginContext;
 import org.tools4j.elara.app.state.BaseStateProvider;
 import org.tools4j.elara.exception.DuplicateHandler;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.input.Input;
 import org.tools4j.elara.input.MultiSourceInput;
 import org.tools4j.elara.input.SingleSourceInput;
@@ -40,6 +41,7 @@ import org.tools4j.elara.input.UniSourceInput;
 import org.tools4j.elara.logging.Logger;
 import org.tools4j.elara.output.Output;
 import org.tools4j.elara.plugin.api.Plugin;
+import org.tools4j.elara.replay.ReplayProgress;
 import org.tools4j.elara.step.AgentStep;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.time.TimeSource;
@@ -69,8 +71,14 @@ public interface PassthroughAppContext extends PassthroughAppConfig, AppContext,
     @Override
     PassthroughAppContext exceptionHandler(ExceptionHandler exceptionHandler);
     @Override
+    PassthroughAppContext checksumPolicy(ChecksumPolicy checksumPolicy);
+    @Override
     PassthroughAppContext duplicateHandler(DuplicateHandler duplicateHandler);
     @Override
+    PassthroughAppContext replayBatchSize(int replayBatchSize);
+    @Override
+    PassthroughAppContext replayProgress(ReplayProgress replayProgress);
+    @Override
     PassthroughAppContext loggerFactory(Logger.Factory loggerFactory);
     @Override
     PassthroughAppContext idleStrategy(IdleStrategy idleStrategy);
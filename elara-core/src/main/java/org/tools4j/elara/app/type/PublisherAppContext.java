@@ -32,6 +32,7 @@ import org.tools4j.elara.app.config.PluginContext;
 import org.tools4j.elara.app.handler.EventProcessor;
 import org.tools4j.elara.app.state.BaseStateProvider;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.logging.Logger;
 import org.tools4j.elara.output.Output;
 import org.tools4j.elara.plugin.api.Plugin;
@@ -39,6 +40,7 @@ import org.tools4j.elara.step.AgentStep;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.store.MessageStore.Poller;
 import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
 import org.tools4j.elara.time.TimeSource;
 
 import java.util.function.Consumer;
@@ -56,6 +58,9 @@ public interface PublisherAppContext extends PublisherAppConfig, AppContext, Eve
     @Override
     PublisherAppContext eventReceiver(MessageReceiver eventReceiver);
     @Override
+    PublisherAppContext eventReceiver(MessageReceiver liveReceiver, MessageReceiver replayReceiver,
+                                       MessageSender requestSender, int consumerId);
+    @Override
     PublisherAppContext eventProcessor(EventProcessor eventProcessor);
 
     @Override
@@ -66,6 +71,8 @@ public interface PublisherAppContext extends PublisherAppConfig, AppContext, Eve
     @Override
     PublisherAppContext exceptionHandler(ExceptionHandler exceptionHandler);
     @Override
+    PublisherAppContext checksumPolicy(ChecksumPolicy checksumPolicy);
+    @Override
     PublisherAppContext loggerFactory(Logger.Factory loggerFactory);
     @Override
     PublisherAppContext idleStrategy(IdleStrategy idleStrategy);
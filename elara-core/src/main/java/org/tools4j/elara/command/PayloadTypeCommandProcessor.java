@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.command;
+
+import org.tools4j.elara.app.handler.CommandProcessor;
+import org.tools4j.elara.route.EventRouter;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Command processor dispatching commands by {@link Command#payloadType() payload type} to registered processors
+ * through a dense table indexed by payload type.  Commands with a payload type that has no registered processor are
+ * passed to the default processor.
+ * <p>
+ * The table spans the range from the smallest to the largest registered payload type, hence registered payload types
+ * should be dense;  the table length is limited to {@link #MAX_TABLE_LENGTH}.
+ */
+public class PayloadTypeCommandProcessor implements CommandProcessor {
+
+    public static final int MAX_TABLE_LENGTH = 1 << 16;
+
+    private final CommandProcessor defaultProcessor;
+    private CommandProcessor[] table = new CommandProcessor[0];
+    private int minType;
+
+    public PayloadTypeCommandProcessor() {
+        this(CommandProcessor.NOOP);
+    }
+
+    public PayloadTypeCommandProcessor(final CommandProcessor defaultProcessor) {
+        this.defaultProcessor = requireNonNull(defaultProcessor);
+    }
+
+    /**
+     * Registers a processor for commands with the given payload type, replacing any processor previously registered
+     * for the same payload type.
+     *
+     * @param payloadType   the payload type
+     * @param processor     the processor for commands with the given payload type
+     * @return this dispatching processor
+     * @throws IllegalArgumentException if registering the payload type exceeds the max table length
+     */
+    public PayloadTypeCommandProcessor register(final int payloadType, final CommandProcessor processor) {
+        requireNonNull(processor);
+        if (table.length == 0) {
+            table = new CommandProcessor[] {processor};
+            minType = payloadType;
+            return this;
+        }
+        final long newMin = Math.min(minType, payloadType);
+        final long newMax = Math.max((long)minType + table.length - 1, payloadType);
+        if (newMax - newMin + 1 > MAX_TABLE_LENGTH) {
+            throw new IllegalArgumentException("Payload type " + payloadType + " exceeds max table length " +
+                    MAX_TABLE_LENGTH + " for registered payload types [" + minType + ", " +
+                    (minType + table.length - 1) + "]");
+        }
+        if (newMin < minType || newMax - minType >= table.length) {
+            final CommandProcessor[] newTable = new CommandProcessor[(int)(newMax - newMin + 1)];
+            Arrays.fill(newTable, defaultProcessor);
+            System.arraycopy(table, 0, newTable, (int)(minType - newMin), table.length);
+            table = newTable;
+            minType = (int)newMin;
+        }
+        table[payloadType - minType] = processor;
+        return this;
+    }
+
+    /**
+     * Returns the processor for commands with the given payload type.
+     *
+     * @param payloadType the payload type
+     * @return the registered processor, or the default processor if none is registered for the payload type
+     */
+    public CommandProcessor processorFor(final int payloadType) {
+        final long index = (long)payloadType - minType;
+        return index >= 0 && index < table.length ? table[(int)index] : defaultProcessor;
+    }
+
+    public CommandProcessor defaultProcessor() {
+        return defaultProcessor;
+    }
+
+    @Override
+    public void onCommand(final Command command, final EventRouter router) {
+        processorFor(command.payloadType()).onCommand(command, router);
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadTypeCommandProcessor{" +
+                "minType=" + minType +
+                ", maxType=" + (minType + table.length - 1) +
+                '}';
+    }
+}
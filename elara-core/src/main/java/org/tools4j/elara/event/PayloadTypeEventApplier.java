@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.event;
+
+import org.tools4j.elara.app.handler.EventApplier;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Event applier dispatching events by {@link Event#payloadType() payload type} to registered appliers through a dense
+ * table indexed by payload type.  Events with a payload type that has no registered applier are passed to the default
+ * applier.
+ * <p>
+ * The table spans the range from the smallest to the largest registered payload type, hence registered payload types
+ * should be dense;  the table length is limited to {@link #MAX_TABLE_LENGTH}.
+ */
+public class PayloadTypeEventApplier implements EventApplier {
+
+    public static final int MAX_TABLE_LENGTH = 1 << 16;
+
+    private final EventApplier defaultApplier;
+    private EventApplier[] table = new EventApplier[0];
+    private int minType;
+
+    public PayloadTypeEventApplier() {
+        this(EventApplier.NOOP);
+    }
+
+    public PayloadTypeEventApplier(final EventApplier defaultApplier) {
+        this.defaultApplier = requireNonNull(defaultApplier);
+    }
+
+    /**
+     * Registers an applier for events with the given payload type, replacing any applier previously registered for
+     * the same payload type.
+     *
+     * @param payloadType   the payload type
+     * @param applier       the applier for events with the given payload type
+     * @return this dispatching applier
+     * @throws IllegalArgumentException if registering the payload type exceeds the max table length
+     */
+    public PayloadTypeEventApplier register(final int payloadType, final EventApplier applier) {
+        requireNonNull(applier);
+        if (table.length == 0) {
+            table = new EventApplier[] {applier};
+            minType = payloadType;
+            return this;
+        }
+        final long newMin = Math.min(minType, payloadType);
+        final long newMax = Math.max((long)minType + table.length - 1, payloadType);
+        if (newMax - newMin + 1 > MAX_TABLE_LENGTH) {
+            throw new IllegalArgumentException("Payload type " + payloadType + " exceeds max table length " +
+                    MAX_TABLE_LENGTH + " for registered payload types [" + minType + ", " +
+                    (minType + table.length - 1) + "]");
+        }
+        if (newMin < minType || newMax - minType >= table.length) {
+            final EventApplier[] newTable = new EventApplier[(int)(newMax - newMin + 1)];
+            Arrays.fill(newTable, defaultApplier);
+            System.arraycopy(table, 0, newTable, (int)(minType - newMin), table.length);
+            table = newTable;
+            minType = (int)newMin;
+        }
+        table[payloadType - minType] = applier;
+        return this;
+    }
+
+    /**
+     * Returns the applier for events with the given payload type.
+     *
+     * @param payloadType the payload type
+     * @return the registered applier, or the default applier if none is registered for the payload type
+     */
+    public EventApplier applierFor(final int payloadType) {
+        final long index = (long)payloadType - minType;
+        return index >= 0 && index < table.length ? table[(int)index] : defaultApplier;
+    }
+
+    public EventApplier defaultApplier() {
+        return defaultApplier;
+    }
+
+    @Override
+    public void onEvent(final Event event) {
+        applierFor(event.payloadType()).onEvent(event);
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadTypeEventApplier{" +
+                "minType=" + minType +
+                ", maxType=" + (minType + table.length - 1) +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.flyweight;
+
+import org.agrona.DirectBuffer;
+
+/**
+ * Policy for appending and verifying {@link FrameChecksum frame checksums}.  Checksums are appended to command and
+ * event frames when they are written to the command or event store, and verified when events are replayed, received
+ * from a stream or replicated from a leader.
+ * <p>
+ * Frames without checksum pass verification if the message length equals the frame size, so stores and streams with a
+ * mix of frames with and without checksum can be used with every policy.  Messages whose length matches neither the
+ * frame size nor the frame size plus checksum length fail verification.
+ */
+public enum ChecksumPolicy {
+    /** Checksums are neither appended nor verified */
+    NONE,
+    /** Checksums are appended to frames but not verified */
+    APPEND,
+    /** Checksums are appended and verified, and a corrupt frame causes an {@link IllegalStateException} */
+    VERIFY,
+    /** Checksums are appended and verified, and a corrupt frame is skipped */
+    VERIFY_OR_SKIP;
+
+    public boolean appendChecksum() {
+        return this != NONE;
+    }
+
+    public boolean verifyChecksum() {
+        return this == VERIFY || this == VERIFY_OR_SKIP;
+    }
+
+    /**
+     * Verifies the checksum of the frame if this policy verifies checksums and if the frame carries a checksum, and the
+     * message length against the frame size.
+     *
+     * @param message the message with the frame at offset zero, with capacity equal to the message length
+     * @return true if the frame should be processed, and false if it should be skipped
+     * @throws IllegalStateException if the frame is invalid and the policy is {@link #VERIFY}
+     * @see FrameChecksum#isValid(DirectBuffer)
+     */
+    public boolean verify(final DirectBuffer message) {
+        if (!verifyChecksum() || FrameChecksum.isValid(message)) {
+            return true;
+        }
+        if (this == VERIFY) {
+            if (message.capacity() < FrameDescriptor.HEADER_LENGTH) {
+                throw new IllegalStateException("Frame is truncated: length=" + message.capacity());
+            }
+            if (!FrameChecksum.hasChecksum(message) && FlyweightHeader.frameSize(message) != message.capacity()) {
+                throw new IllegalStateException("Frame size mismatch: type=" + FlyweightHeader.type(message) +
+                        ", frame-size=" + FlyweightHeader.frameSize(message) +
+                        ", length=" + message.capacity());
+            }
+            throw new IllegalStateException("Frame checksum mismatch: type=" + FlyweightHeader.type(message) +
+                    ", frame-size=" + FlyweightHeader.frameSize(message) +
+                    ", checksum=" + FrameChecksum.checksum(message));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.flyweight;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Optional CRC32C checksum trailer for elara frames.  The checksum is computed over header and payload of the frame,
+ * that is, over {@link FlyweightHeader#frameSize(DirectBuffer) frame size} bytes, and it is stored as little endian
+ * int directly after the frame:
+ * <pre>
+    +-------+-------+-------+-------+-------+-------+-------+-------+
+    |                    Frame (header and payload)                 |
+    |                             ...                               |
+    +-------+-------+-------+-------+-------+-------+-------+-------+
+    |        CRC32C (optional)      |
+    +-------+-------+-------+-------+
+ * </pre>
+ * The trailer is not part of the frame size, hence flyweights wrapping a frame are not affected by it.  A frame
+ * carries a checksum if the length of the stored or transmitted message is equal to frame size plus
+ * {@link #CHECKSUM_LENGTH}.
+ * <p>
+ * The checksum is computed in pure Java with a slicing-by-8 table lookup reading 8 bytes at a time from the buffer,
+ * without copying data from direct or mapped buffers.
+ *
+ * @see ChecksumPolicy
+ */
+public enum FrameChecksum {
+    ;
+    public static final int CHECKSUM_LENGTH = Integer.BYTES;
+
+    private static final int POLYNOMIAL = 0x82f63b78;//reversed CRC32C (Castagnoli) polynomial
+    private static final int[][] TABLES = tables();
+
+    private static int[][] tables() {
+        final int[][] tables = new int[8][256];
+        for (int n = 0; n < 256; n++) {
+            int crc = n;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            tables[0][n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            for (int t = 1; t < 8; t++) {
+                final int prev = tables[t - 1][n];
+                tables[t][n] = (prev >>> 8) ^ tables[0][prev & 0xff];
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Computes the CRC32C checksum of the given bytes.
+     *
+     * @param buffer    the buffer with the bytes
+     * @param offset    the offset in buffer
+     * @param length    the number of bytes
+     * @return the CRC32C checksum
+     */
+    public static int crc32c(final DirectBuffer buffer, final int offset, final int length) {
+        final int[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3];
+        final int[] t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+        final int end = offset + length;
+        int crc = ~0;
+        int index = offset;
+        for (; index + Long.BYTES <= end; index += Long.BYTES) {
+            final long value = buffer.getLong(index, LITTLE_ENDIAN) ^ (crc & 0xffffffffL);
+            crc = t7[(int)value & 0xff] ^
+                    t6[(int)(value >>> 8) & 0xff] ^
+                    t5[(int)(value >>> 16) & 0xff] ^
+                    t4[(int)(value >>> 24) & 0xff] ^
+                    t3[(int)(value >>> 32) & 0xff] ^
+                    t2[(int)(value >>> 40) & 0xff] ^
+                    t1[(int)(value >>> 48) & 0xff] ^
+                    t0[(int)(value >>> 56) & 0xff];
+        }
+        for (; index < end; index++) {
+            crc = (crc >>> 8) ^ t0[(crc ^ buffer.getByte(index)) & 0xff];
+        }
+        return ~crc;
+    }
+
+    /**
+     * Computes the checksum of the frame at offset zero and writes it to the trailer after the frame.
+     *
+     * @param frame the buffer with the frame, must have capacity for the trailer
+     * @return the length of the frame including checksum trailer
+     */
+    public static int writeChecksum(final MutableDirectBuffer frame) {
+        final int frameSize = FlyweightHeader.frameSize(frame);
+        frame.putInt(frameSize, crc32c(frame, 0, frameSize), LITTLE_ENDIAN);
+        return frameSize + CHECKSUM_LENGTH;
+    }
+
+    /**
+     * Returns true if the message contains a frame with checksum trailer.
+     *
+     * @param message the message with the frame at offset zero, with capacity equal to the message length
+     * @return true if the message length is frame size plus checksum length
+     */
+    public static boolean hasChecksum(final DirectBuffer message) {
+        final int length = message.capacity();
+        return length >= FrameDescriptor.HEADER_LENGTH + CHECKSUM_LENGTH &&
+                FlyweightHeader.frameSize(message) + CHECKSUM_LENGTH == length;
+    }
+
+    /**
+     * Returns the checksum from the trailer of the frame, only valid if {@link #hasChecksum(DirectBuffer)} is true.
+     *
+     * @param message the message with the frame at offset zero
+     * @return the checksum stored in the trailer
+     */
+    public static int checksum(final DirectBuffer message) {
+        return message.getInt(FlyweightHeader.frameSize(message), LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns true if the message length is consistent with the frame size, and if the checksum matches the frame
+     * in case the message carries a checksum.  A message whose length is neither frame size nor frame size plus
+     * {@link #CHECKSUM_LENGTH} is invalid, for instance if the frame size field is corrupted, or if the message is
+     * truncated or padded.
+     *
+     * @param message the message with the frame at offset zero, with capacity equal to the message length
+     * @return false if the message length does not match the frame size, or if the frame carries a checksum and it
+     *         does not match the frame data
+     */
+    public static boolean isValid(final DirectBuffer message) {
+        final int length = message.capacity();
+        if (length < FrameDescriptor.HEADER_LENGTH) {
+            return false;
+        }
+        final int frameSize = FlyweightHeader.frameSize(message);
+        if (frameSize == length) {
+            return true;
+        }
+        if (frameSize < FrameDescriptor.HEADER_LENGTH || frameSize != length - CHECKSUM_LENGTH) {
+            return false;
+        }
+        return crc32c(message, 0, frameSize) == message.getInt(frameSize, LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.format.columnar;
+
+/**
+ * Encoding of a column in a columnar file as described by {@link ColumnarFileDescriptor}.
+ */
+public enum ColumnEncoding {
+    /** Long values encoded as zig-zag varint of the difference to the previous non-null value in the row group */
+    DELTA,
+    /** Long values encoded as zig-zag varint */
+    VALUE,
+    /** Byte arrays encoded as varint length followed by the bytes */
+    BYTES;
+
+    private static final ColumnEncoding[] VALUES = values();
+
+    public byte code() {
+        return (byte)ordinal();
+    }
+
+    public static ColumnEncoding byCode(final byte code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Invalid column encoding code: " + code);
+        }
+        return VALUES[code];
+    }
+}
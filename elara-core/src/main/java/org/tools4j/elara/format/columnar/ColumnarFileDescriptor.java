@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.format.columnar;
+
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Describes the layout of a self-describing columnar binary file.  All integers except for the magic number are
+ * written as unsigned varints with 7 bits per byte, least significant group first.
+ * <pre>
+    File:
+    +-------+-------+-------------+--------------------------------+------------+-----+-----+
+    | magic | vers. | col. count  | col. name length, name, enc.   | row group  | ... |  0  |
+    | 4 B   | 1 B   | varint      | varint, ASCII, 1 byte; per col | see below  |     |     |
+    +-------+-------+-------------+--------------------------------+------------+-----+-----+
+
+    Row group:
+    +-------------+---------------------------------+-----+
+    | row count   | column byte length, column data | ... |
+    | varint > 0  | varint, bytes; per column       |     |
+    +-------------+---------------------------------+-----+
+ * </pre>
+ * Column data contains one encoded value per row.  For {@link ColumnEncoding#DELTA DELTA} and
+ * {@link ColumnEncoding#VALUE VALUE} columns the value is {@code zigzag(x) + 1}, and for
+ * {@link ColumnEncoding#BYTES BYTES} columns it is {@code length + 1} followed by the bytes.  Consecutive null values
+ * are written as a 0 followed by the number of nulls in the run, so that columns only used by some frame types cost
+ * next to nothing.  Delta values are relative to the previous non-null value of the column in the same row group,
+ * starting with zero;  a delta of {@link #DELTA_ESCAPE} whose encoding would be 0 is written as a 0 followed by a
+ * null run of length zero.  A row count of zero marks the end of the file.
+ */
+public enum ColumnarFileDescriptor {
+    ;
+    public static final int MAGIC = 0x46434c45;//ELCF
+    public static final byte VERSION = 1;
+    public static final long NULL_VALUE = Long.MIN_VALUE;
+    /** Delta value with zigzag encoding colliding with the null run marker */
+    public static final long DELTA_ESCAPE = Long.MIN_VALUE;
+
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int putVarint(final MutableDirectBuffer buffer, final int offset, final long value) {
+        long remaining = value;
+        int index = offset;
+        while ((remaining & ~0x7fL) != 0) {
+            buffer.putByte(index++, (byte)((remaining & 0x7f) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.putByte(index++, (byte)remaining);
+        return index - offset;
+    }
+
+    static long readVarint(final InputStream in) {
+        try {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                final int b = in.read();
+                if (b < 0) {
+                    throw new EOFException("Unexpected end of columnar file");
+                }
+                value |= (long)(b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Invalid varint in columnar file");
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+            throw new RuntimeException(e);//we never get here
+        }
+    }
+}
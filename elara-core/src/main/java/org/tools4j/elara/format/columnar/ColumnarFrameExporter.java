@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.format.columnar;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightFrequencyMetrics;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FlyweightTimeMetrics;
+import org.tools4j.elara.flyweight.FrameDescriptor;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.plugin.metrics.FrequencyMetric;
+import org.tools4j.elara.plugin.metrics.TimeMetric;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+import org.tools4j.elara.store.TimeReader;
+import org.tools4j.elara.store.scan.ScanSink;
+
+import java.io.OutputStream;
+
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.NULL_VALUE;
+
+/**
+ * Exports elara frames from command, event or metrics stores to a columnar file.  Header fields are written to
+ * separate columns, and every {@link TimeMetric} and {@link FrequencyMetric} has its own column so that metric values
+ * can be analysed without decoding any other data.  Fields not present in a frame are null.
+ * <p>
+ * The exporter can be used as {@link ScanSink} for a {@link org.tools4j.elara.store.scan.MessageStoreScanner
+ * MessageStoreScanner}, or to export all messages of a poller via {@link #export(MessageStore.Poller)}.
+ */
+public class ColumnarFrameExporter implements ScanSink, AutoCloseable {
+
+    public static final String ENTRY_ID = "entry-id";
+    public static final String FRAME_TYPE = "frame-type";
+    public static final String SOURCE_ID = "source-id";
+    public static final String SOURCE_SEQUENCE = "source-seq";
+    public static final String EVENT_SEQUENCE = "event-seq";
+    public static final String EVENT_INDEX = "event-index";
+    public static final String PAYLOAD_TYPE = "payload-type";
+    public static final String TIME = "time";
+    public static final String PAYLOAD = "payload";
+    public static final String TARGET = "target";
+    public static final String ITERATION = "iteration";
+    public static final String INTERVAL = "interval";
+
+    private static final int ENTRY_ID_COLUMN = 0;
+    private static final int FRAME_TYPE_COLUMN = 1;
+    private static final int SOURCE_ID_COLUMN = 2;
+    private static final int SOURCE_SEQUENCE_COLUMN = 3;
+    private static final int EVENT_SEQUENCE_COLUMN = 4;
+    private static final int EVENT_INDEX_COLUMN = 5;
+    private static final int PAYLOAD_TYPE_COLUMN = 6;
+    private static final int TIME_COLUMN = 7;
+    private static final int PAYLOAD_COLUMN = 8;
+    private static final int TARGET_COLUMN = 9;
+    private static final int ITERATION_COLUMN = 10;
+    private static final int INTERVAL_COLUMN = 11;
+    private static final int TIME_METRIC_COLUMN = 12;
+    private static final int FREQUENCY_METRIC_COLUMN = TIME_METRIC_COLUMN + TimeMetric.values().length;
+    private static final int COLUMN_COUNT = FREQUENCY_METRIC_COLUMN + FrequencyMetric.values().length;
+
+    private final ColumnarWriter writer;
+    private final boolean payloads;
+    private long count;
+
+    /**
+     * Constructor with output stream.
+     *
+     * @param out       the output stream, closed when closing the exporter
+     * @param payloads  true if frame payloads should be exported, and false to export only headers and metrics
+     */
+    public ColumnarFrameExporter(final OutputStream out, final boolean payloads) {
+        this(out, payloads, ColumnarWriter.DEFAULT_ROWS_PER_GROUP);
+    }
+
+    public ColumnarFrameExporter(final OutputStream out, final boolean payloads, final int rowsPerGroup) {
+        this.writer = new ColumnarWriter(out, columnNames(), columnEncodings(), rowsPerGroup);
+        this.payloads = payloads;
+    }
+
+    /**
+     * Returns the column name of the given time metric.
+     * @param metric the time metric
+     * @return the name of the column with values for the metric
+     */
+    public static String columnName(final TimeMetric metric) {
+        return "time:" + metric.displayName();
+    }
+
+    /**
+     * Returns the column name of the given frequency metric.
+     * @param metric the frequency metric
+     * @return the name of the column with values for the metric
+     */
+    public static String columnName(final FrequencyMetric metric) {
+        return "freq:" + metric.displayName();
+    }
+
+    private static String[] columnNames() {
+        final String[] names = new String[COLUMN_COUNT];
+        names[ENTRY_ID_COLUMN] = ENTRY_ID;
+        names[FRAME_TYPE_COLUMN] = FRAME_TYPE;
+        names[SOURCE_ID_COLUMN] = SOURCE_ID;
+        names[SOURCE_SEQUENCE_COLUMN] = SOURCE_SEQUENCE;
+        names[EVENT_SEQUENCE_COLUMN] = EVENT_SEQUENCE;
+        names[EVENT_INDEX_COLUMN] = EVENT_INDEX;
+        names[PAYLOAD_TYPE_COLUMN] = PAYLOAD_TYPE;
+        names[TIME_COLUMN] = TIME;
+        names[PAYLOAD_COLUMN] = PAYLOAD;
+        names[TARGET_COLUMN] = TARGET;
+        names[ITERATION_COLUMN] = ITERATION;
+        names[INTERVAL_COLUMN] = INTERVAL;
+        for (final TimeMetric metric : TimeMetric.values()) {
+            names[TIME_METRIC_COLUMN + metric.ordinal()] = columnName(metric);
+        }
+        for (final FrequencyMetric metric : FrequencyMetric.values()) {
+            names[FREQUENCY_METRIC_COLUMN + metric.ordinal()] = columnName(metric);
+        }
+        return names;
+    }
+
+    private static ColumnEncoding[] columnEncodings() {
+        final ColumnEncoding[] encodings = new ColumnEncoding[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            encodings[i] = i < FREQUENCY_METRIC_COLUMN ? ColumnEncoding.DELTA : ColumnEncoding.VALUE;
+        }
+        encodings[FRAME_TYPE_COLUMN] = ColumnEncoding.VALUE;
+        encodings[SOURCE_ID_COLUMN] = ColumnEncoding.VALUE;
+        encodings[EVENT_INDEX_COLUMN] = ColumnEncoding.VALUE;
+        encodings[PAYLOAD_TYPE_COLUMN] = ColumnEncoding.VALUE;
+        encodings[PAYLOAD_COLUMN] = ColumnEncoding.BYTES;
+        encodings[TARGET_COLUMN] = ColumnEncoding.VALUE;
+        encodings[INTERVAL_COLUMN] = ColumnEncoding.VALUE;
+        return encodings;
+    }
+
+    /**
+     * Returns the number of exported frames.
+     * @return the number of rows written
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Exports all messages from the current position of the poller to the end of the store.
+     *
+     * @param poller the poller for command, event or metrics store
+     * @return the number of exported frames
+     */
+    public long export(final MessageStore.Poller poller) {
+        final long start = count;
+        final MessageStore.Handler handler = message -> {
+            onMessage(poller.entryId(), message);
+            return Result.POLL;
+        };
+        while (poller.poll(handler) > 0) {
+            //exporting frames
+        }
+        return count - start;
+    }
+
+    @Override
+    public void onMessage(final long entryId, final DirectBuffer frame) {
+        if (frame.capacity() < FrameDescriptor.HEADER_LENGTH) {
+            return;
+        }
+        final byte type = FlyweightHeader.type(frame);
+        writer.value(ENTRY_ID_COLUMN, entryId);
+        writer.value(FRAME_TYPE_COLUMN, type);
+        final long time = TimeReader.frameTime(frame);
+        writer.value(TIME_COLUMN, time == TimeReader.NIL_TIME ? NULL_VALUE : time);
+        if (type == FrameType.COMMAND_TYPE || FrameType.isEventType(type) || type == FrameType.ROLLBACK_EVENT_TYPE) {
+            writeDataFrame(type, frame);
+        } else if (type == FrameType.TIME_METRICS_TYPE) {
+            writeTimeMetrics(frame);
+        } else if (type == FrameType.FREQUENCY_METRICS_TYPE) {
+            writeFrequencyMetrics(frame);
+        }
+        writer.endRow();
+        count++;
+    }
+
+    private void writeDataFrame(final byte type, final DirectBuffer frame) {
+        final int headerLength;
+        if (type == FrameType.COMMAND_TYPE) {
+            writer.value(SOURCE_ID_COLUMN, FlyweightCommand.sourceId(frame));
+            writer.value(SOURCE_SEQUENCE_COLUMN, FlyweightCommand.sourceSequence(frame));
+            writer.value(PAYLOAD_TYPE_COLUMN, FlyweightCommand.payloadType(frame));
+            headerLength = FlyweightCommand.HEADER_LENGTH;
+        } else {
+            writer.value(SOURCE_ID_COLUMN, FlyweightEvent.sourceId(frame));
+            writer.value(SOURCE_SEQUENCE_COLUMN, FlyweightEvent.sourceSequence(frame));
+            writer.value(EVENT_SEQUENCE_COLUMN, FlyweightEvent.eventSequence(frame));
+            writer.value(EVENT_INDEX_COLUMN, FlyweightEvent.eventIndex(frame));
+            writer.value(PAYLOAD_TYPE_COLUMN, FlyweightEvent.payloadType(frame));
+            headerLength = FlyweightEvent.HEADER_LENGTH;
+        }
+        if (payloads && frame.capacity() >= headerLength) {
+            writer.bytes(PAYLOAD_COLUMN, frame, headerLength, frame.capacity() - headerLength);
+        }
+    }
+
+    private void writeTimeMetrics(final DirectBuffer frame) {
+        writer.value(SOURCE_ID_COLUMN, FlyweightTimeMetrics.sourceId(frame));
+        writer.value(SOURCE_SEQUENCE_COLUMN, FlyweightTimeMetrics.sourceSequence(frame));
+        writer.value(EVENT_SEQUENCE_COLUMN, FlyweightTimeMetrics.eventSequence(frame));
+        writer.value(EVENT_INDEX_COLUMN, FlyweightTimeMetrics.eventIndex(frame));
+        writer.value(TARGET_COLUMN, FlyweightTimeMetrics.target(frame).ordinal());
+        final int valueCount = FlyweightTimeMetrics.valueCount(frame);
+        for (int i = 0; i < valueCount; i++) {
+            final TimeMetric metric = FlyweightTimeMetrics.timeMetric(frame, i);
+            writer.value(TIME_METRIC_COLUMN + metric.ordinal(), FlyweightTimeMetrics.timeValue(frame, i));
+        }
+    }
+
+    private void writeFrequencyMetrics(final DirectBuffer frame) {
+        writer.value(ITERATION_COLUMN, FlyweightFrequencyMetrics.iteration(frame));
+        writer.value(INTERVAL_COLUMN, FlyweightFrequencyMetrics.interval(frame));
+        final int valueCount = FlyweightFrequencyMetrics.valueCount(frame);
+        for (int i = 0; i < valueCount; i++) {
+            final FrequencyMetric metric = FlyweightFrequencyMetrics.frequencyMetric(frame, i);
+            writer.value(FREQUENCY_METRIC_COLUMN + metric.ordinal(), FlyweightFrequencyMetrics.frequencyValue(frame, i));
+        }
+    }
+
+    public void flush() {
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarFrameExporter{count=" + count + '}';
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.format.columnar;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.DELTA_ESCAPE;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.MAGIC;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.NULL_VALUE;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.VERSION;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.readVarint;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.unZigZag;
+
+/**
+ * Streaming reader for columnar files as described by {@link ColumnarFileDescriptor}.  Rows are read one row group at
+ * a time, and columns of a row group are only decoded when they are accessed;  analysis reading only a few columns
+ * skips decoding of all other columns.
+ * <p>
+ * Usage: invoke {@link #next()} to move to the next row, then access column values via {@link #value(int)} or
+ * {@link #bytes(int)}.
+ */
+public class ColumnarReader implements AutoCloseable {
+
+    private final InputStream in;
+    private final String[] names;
+    private final ColumnEncoding[] encodings;
+    private final MutableDirectBuffer[] columns;
+    private final int[] columnLengths;
+    private final long[][] decodedValues;
+    private final int[][] decodedBytes;
+    private final boolean[] decoded;
+    private final DirectBuffer bytes = new UnsafeBuffer(0, 0);
+    private int groupRowCount;
+    private int row = -1;
+    private int decodeIndex;
+    private boolean endOfFile;
+
+    public ColumnarReader(final InputStream in) {
+        this.in = requireNonNull(in);
+        final MutableDirectBuffer header = new ExpandableArrayBuffer(Integer.BYTES + 1);
+        readFully(header, Integer.BYTES + 1);
+        if (header.getInt(0, LITTLE_ENDIAN) != MAGIC) {
+            throw new IllegalArgumentException("Input is not a columnar file");
+        }
+        if (header.getByte(Integer.BYTES) != VERSION) {
+            throw new IllegalArgumentException("Unsupported columnar file version: " + header.getByte(Integer.BYTES));
+        }
+        final int columnCount = (int)readVarint(in);
+        this.names = new String[columnCount];
+        this.encodings = new ColumnEncoding[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            final int nameLength = (int)readVarint(in);
+            readFully(header, nameLength + 1);
+            names[i] = header.getStringWithoutLengthAscii(0, nameLength);
+            encodings[i] = ColumnEncoding.byCode(header.getByte(nameLength));
+        }
+        this.columns = new MutableDirectBuffer[columnCount];
+        this.columnLengths = new int[columnCount];
+        this.decodedValues = new long[columnCount][];
+        this.decodedBytes = new int[columnCount][];
+        this.decoded = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = new ExpandableArrayBuffer(1024);
+        }
+    }
+
+    public int columnCount() {
+        return names.length;
+    }
+
+    public String columnName(final int column) {
+        return names[column];
+    }
+
+    public ColumnEncoding columnEncoding(final int column) {
+        return encodings[column];
+    }
+
+    /**
+     * Returns the index of the column with the given name.
+     * @param name the column name
+     * @return the column index, or -1 if no such column exists
+     */
+    public int columnIndex(final String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves to the next row.
+     * @return true if a row is available, and false if the end of the file has been reached
+     */
+    public boolean next() {
+        if (row + 1 < groupRowCount) {
+            row++;
+            return true;
+        }
+        while (!endOfFile) {
+            if (readRowGroup()) {
+                row = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean readRowGroup() {
+        final int rowCount = (int)readVarint(in);
+        if (rowCount == 0) {
+            endOfFile = true;
+            groupRowCount = 0;
+            row = -1;
+            return false;
+        }
+        for (int column = 0; column < columns.length; column++) {
+            final int length = (int)readVarint(in);
+            readFully(columns[column], length);
+            columnLengths[column] = length;
+            decoded[column] = false;
+        }
+        groupRowCount = rowCount;
+        return true;
+    }
+
+    /**
+     * Returns the value of a long column in the current row.
+     *
+     * @param column the column index
+     * @return the value, or {@link ColumnarFileDescriptor#NULL_VALUE NULL_VALUE} if null
+     */
+    public long value(final int column) {
+        ensureRow();
+        if (encodings[column] == ColumnEncoding.BYTES) {
+            throw new IllegalArgumentException("Column " + column + " is a bytes column");
+        }
+        if (!decoded[column]) {
+            decodeValues(column);
+        }
+        return decodedValues[column][row];
+    }
+
+    /**
+     * Returns the value of a bytes column in the current row.
+     *
+     * @param column the column index
+     * @return the bytes valid until the next row is read, or null if the value is null
+     */
+    public DirectBuffer bytes(final int column) {
+        ensureRow();
+        if (encodings[column] != ColumnEncoding.BYTES) {
+            throw new IllegalArgumentException("Column " + column + " is not a bytes column");
+        }
+        if (!decoded[column]) {
+            decodeBytes(column);
+        }
+        final int offset = decodedBytes[column][2 * row];
+        final int length = decodedBytes[column][2 * row + 1];
+        if (length < 0) {
+            return null;
+        }
+        bytes.wrap(columns[column], offset, length);
+        return bytes;
+    }
+
+    private void ensureRow() {
+        if (row < 0) {
+            throw new IllegalStateException("No current row, next() must be invoked first");
+        }
+    }
+
+    private void decodeValues(final int column) {
+        long[] values = decodedValues[column];
+        if (values == null || values.length < groupRowCount) {
+            values = decodedValues[column] = new long[groupRowCount];
+        }
+        final DirectBuffer data = columns[column];
+        final boolean delta = encodings[column] == ColumnEncoding.DELTA;
+        long previous = 0;
+        decodeIndex = 0;
+        for (int i = 0; i < groupRowCount; i++) {
+            final long encoded = decodeVarint(data);
+            if (encoded == 0) {
+                final int nulls = (int)decodeVarint(data);
+                if (nulls == 0 && delta) {
+                    previous += DELTA_ESCAPE;
+                    values[i] = previous;
+                    continue;
+                }
+                Arrays.fill(values, i, i + nulls, NULL_VALUE);
+                i += nulls - 1;
+            } else if (delta) {
+                previous += unZigZag(encoded - 1);
+                values[i] = previous;
+            } else {
+                values[i] = unZigZag(encoded - 1);
+            }
+        }
+        decoded[column] = true;
+    }
+
+    private void decodeBytes(final int column) {
+        int[] offsetsAndLengths = decodedBytes[column];
+        if (offsetsAndLengths == null || offsetsAndLengths.length < 2 * groupRowCount) {
+            offsetsAndLengths = decodedBytes[column] = new int[2 * groupRowCount];
+        }
+        final DirectBuffer data = columns[column];
+        decodeIndex = 0;
+        for (int i = 0; i < groupRowCount; i++) {
+            final int encoded = (int)decodeVarint(data);
+            if (encoded == 0) {
+                final int nulls = (int)decodeVarint(data);
+                for (int j = i; j < i + nulls; j++) {
+                    offsetsAndLengths[2 * j] = decodeIndex;
+                    offsetsAndLengths[2 * j + 1] = -1;
+                }
+                i += nulls - 1;
+            } else {
+                offsetsAndLengths[2 * i] = decodeIndex;
+                offsetsAndLengths[2 * i + 1] = encoded - 1;
+                decodeIndex += encoded - 1;
+            }
+        }
+        decoded[column] = true;
+    }
+
+    private long decodeVarint(final DirectBuffer data) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.getByte(decodeIndex++);
+            value |= (long)(b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private void readFully(final MutableDirectBuffer buffer, final int length) {
+        buffer.checkLimit(length);
+        final byte[] array = buffer.byteArray();
+        try {
+            int read = 0;
+            while (read < length) {
+                final int n = in.read(array, read, length - read);
+                if (n < 0) {
+                    throw new EOFException("Unexpected end of columnar file");
+                }
+                read += n;
+            }
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarReader";
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.format.columnar;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.DELTA_ESCAPE;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.MAGIC;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.NULL_VALUE;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.VERSION;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.putVarint;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.zigZag;
+
+/**
+ * Writes rows to a columnar file as described by {@link ColumnarFileDescriptor}.  Column values of a row are set via
+ * {@link #value(int, long)} and {@link #bytes(int, DirectBuffer, int, int)}, and the row is completed with
+ * {@link #endRow()};  columns not set for a row are null.  Rows are buffered per column and written as a row group
+ * when the group is full or when the writer is flushed.
+ */
+public class ColumnarWriter implements AutoCloseable {
+
+    public static final int DEFAULT_ROWS_PER_GROUP = 4096;
+
+    private final OutputStream out;
+    private final ColumnEncoding[] encodings;
+    private final int rowsPerGroup;
+    private final MutableDirectBuffer[] columns;
+    private final int[] columnLengths;
+    private final long[] previousValues;
+    private final int[] nullRuns;
+    private final long[] rowValues;
+    private final boolean[] rowBytesSet;
+    private final MutableDirectBuffer header = new ExpandableArrayBuffer(256);
+    private int rowCount;
+    private boolean closed;
+
+    public ColumnarWriter(final OutputStream out, final String[] names, final ColumnEncoding[] encodings) {
+        this(out, names, encodings, DEFAULT_ROWS_PER_GROUP);
+    }
+
+    public ColumnarWriter(final OutputStream out,
+                          final String[] names,
+                          final ColumnEncoding[] encodings,
+                          final int rowsPerGroup) {
+        if (names.length != encodings.length) {
+            throw new IllegalArgumentException("Column names and encodings must have same length, but " +
+                    names.length + " != " + encodings.length);
+        }
+        if (rowsPerGroup < 1) {
+            throw new IllegalArgumentException("Rows per group must be positive: " + rowsPerGroup);
+        }
+        this.out = requireNonNull(out);
+        this.encodings = encodings.clone();
+        this.rowsPerGroup = rowsPerGroup;
+        this.columns = new MutableDirectBuffer[encodings.length];
+        this.columnLengths = new int[encodings.length];
+        this.previousValues = new long[encodings.length];
+        this.nullRuns = new int[encodings.length];
+        this.rowValues = new long[encodings.length];
+        this.rowBytesSet = new boolean[encodings.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ExpandableArrayBuffer(1024);
+        }
+        Arrays.fill(rowValues, NULL_VALUE);
+        writeFileHeader(names);
+    }
+
+    private void writeFileHeader(final String[] names) {
+        header.putInt(0, MAGIC, LITTLE_ENDIAN);
+        header.putByte(Integer.BYTES, VERSION);
+        int length = Integer.BYTES + 1;
+        length += putVarint(header, length, names.length);
+        for (int i = 0; i < names.length; i++) {
+            final byte[] name = names[i].getBytes(StandardCharsets.US_ASCII);
+            length += putVarint(header, length, name.length);
+            header.putBytes(length, name);
+            length += name.length;
+            header.putByte(length++, requireNonNull(encodings[i]).code());
+        }
+        write(header, length);
+    }
+
+    public int columnCount() {
+        return encodings.length;
+    }
+
+    /**
+     * Sets the value of a {@link ColumnEncoding#DELTA DELTA} or {@link ColumnEncoding#VALUE VALUE} column for the
+     * current row.
+     *
+     * @param column    the column index
+     * @param value     the value, or {@link ColumnarFileDescriptor#NULL_VALUE NULL_VALUE} for null
+     * @return this writer
+     */
+    public ColumnarWriter value(final int column, final long value) {
+        ensureNotClosed();
+        if (encodings[column] == ColumnEncoding.BYTES) {
+            throw new IllegalArgumentException("Column " + column + " is a bytes column");
+        }
+        rowValues[column] = value;
+        return this;
+    }
+
+    /**
+     * Sets the value of a {@link ColumnEncoding#BYTES BYTES} column for the current row.
+     *
+     * @param column    the column index
+     * @param buffer    the buffer with the bytes
+     * @param offset    the offset in buffer
+     * @param length    the number of bytes
+     * @return this writer
+     */
+    public ColumnarWriter bytes(final int column, final DirectBuffer buffer, final int offset, final int length) {
+        ensureNotClosed();
+        if (encodings[column] != ColumnEncoding.BYTES) {
+            throw new IllegalArgumentException("Column " + column + " is not a bytes column");
+        }
+        if (rowBytesSet[column]) {
+            throw new IllegalStateException("Column " + column + " is already set for current row");
+        }
+        writeNullRun(column);
+        final MutableDirectBuffer data = columns[column];
+        int index = columnLengths[column];
+        index += putVarint(data, index, length + 1L);
+        data.putBytes(index, buffer, offset, length);
+        columnLengths[column] = index + length;
+        rowBytesSet[column] = true;
+        return this;
+    }
+
+    /**
+     * Completes the current row;  columns that have not been set are null.
+     */
+    public void endRow() {
+        ensureNotClosed();
+        for (int column = 0; column < encodings.length; column++) {
+            switch (encodings[column]) {
+                case BYTES:
+                    if (!rowBytesSet[column]) {
+                        nullRuns[column]++;
+                    }
+                    rowBytesSet[column] = false;
+                    break;
+                case DELTA:
+                case VALUE:
+                    final long value = rowValues[column];
+                    if (value == NULL_VALUE) {
+                        nullRuns[column]++;
+                        break;
+                    }
+                    writeNullRun(column);
+                    if (encodings[column] == ColumnEncoding.DELTA) {
+                        writeDelta(column, value - previousValues[column]);
+                        previousValues[column] = value;
+                    } else {
+                        columnLengths[column] += putVarint(columns[column], columnLengths[column], zigZag(value) + 1);
+                    }
+                    rowValues[column] = NULL_VALUE;
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported column encoding: " + encodings[column]);
+            }
+        }
+        rowCount++;
+        if (rowCount >= rowsPerGroup) {
+            writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup() {
+        if (rowCount == 0) {
+            return;
+        }
+        write(header, putVarint(header, 0, rowCount));
+        for (int column = 0; column < columns.length; column++) {
+            writeNullRun(column);
+            write(header, putVarint(header, 0, columnLengths[column]));
+            write(columns[column], columnLengths[column]);
+            columnLengths[column] = 0;
+            previousValues[column] = 0;
+        }
+        rowCount = 0;
+    }
+
+    private void writeDelta(final int column, final long delta) {
+        final MutableDirectBuffer data = columns[column];
+        int index = columnLengths[column];
+        if (delta == DELTA_ESCAPE) {
+            index += putVarint(data, index, 0);
+            index += putVarint(data, index, 0);
+        } else {
+            index += putVarint(data, index, zigZag(delta) + 1);
+        }
+        columnLengths[column] = index;
+    }
+
+    private void writeNullRun(final int column) {
+        final int nulls = nullRuns[column];
+        if (nulls > 0) {
+            final MutableDirectBuffer data = columns[column];
+            int index = columnLengths[column];
+            index += putVarint(data, index, 0);
+            index += putVarint(data, index, nulls);
+            columnLengths[column] = index;
+            nullRuns[column] = 0;
+        }
+    }
+
+    private void write(final DirectBuffer buffer, final int length) {
+        try {
+            out.write(buffer.byteArray(), 0, length);
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    /**
+     * Writes buffered rows as a row group and flushes the output stream.
+     */
+    public void flush() {
+        ensureNotClosed();
+        writeRowGroup();
+        try {
+            out.flush();
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private void ensureNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Columnar writer is closed");
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Writes buffered rows and the end of file marker and closes the output stream.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        writeRowGroup();
+        write(header, putVarint(header, 0, 0));
+        closed = true;
+        try {
+            out.close();
+        } catch (final IOException e) {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarWriter";
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.input;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.exception.DuplicateHandler;
+import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.handler.CommandSendingCommandHandler;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.source.SourceContextProvider;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageReceiver.Handler;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Input arbitrating between redundant lines of command messages, for instance A/B feeds carrying the same commands
+ * with the same source IDs and sequences.  All lines are polled in every invocation;  the first arrival of a command
+ * is sent to the command store, and copies arriving later on another line are dropped before they reach the store.
+ * <p>
+ * The sequence window per source is the next command sequence of the source's {@link CommandSender}:  a command with a
+ * sequence below the window has already been sent and is passed to the {@link DuplicateHandler}, a command at or above
+ * the window is sent and advances the window to the command's sequence plus one.  Note that elara requires increasing
+ * sequences per source, hence a gap on the faster line is not filled by the slower line if the faster line has already
+ * delivered a command after the gap.
+ */
+public class ArbitratingCommandInput implements MultiSourceInput {
+
+    private final MessageReceiver[] lines;
+    private final ExceptionHandler exceptionHandler;
+    private final DuplicateHandler duplicateHandler;
+    private final int maxMessagesPerPoll;
+    private final long[] firstArrivals;
+    private final Handler handler = this::onMessage;
+    private final FlyweightCommand command = new FlyweightCommand();
+
+    private SourceContextProvider sourceContextProvider;
+    private int line;
+    private long droppedCount;
+
+    public ArbitratingCommandInput(final ExceptionHandler exceptionHandler, final MessageReceiver... lines) {
+        this(lines, exceptionHandler, DuplicateHandler.NOOP, 0);
+    }
+
+    /**
+     * Constructor with duplicate handler and max messages per poll.
+     *
+     * @param lines                 the receivers for the redundant lines of command messages
+     * @param exceptionHandler      the exception handler
+     * @param duplicateHandler      handler invoked with commands dropped because they have already been sent
+     * @param maxMessagesPerPoll    max number of messages received per line and poll, or zero to use the default of
+     *                              the receiver
+     */
+    public ArbitratingCommandInput(final MessageReceiver[] lines,
+                                   final ExceptionHandler exceptionHandler,
+                                   final DuplicateHandler duplicateHandler,
+                                   final int maxMessagesPerPoll) {
+        if (lines.length == 0) {
+            throw new IllegalArgumentException("At least one line is required");
+        }
+        if (maxMessagesPerPoll < 0) {
+            throw new IllegalArgumentException("Max messages per poll cannot be negative: " + maxMessagesPerPoll);
+        }
+        for (final MessageReceiver line : lines) {
+            requireNonNull(line);
+        }
+        this.lines = lines.clone();
+        this.exceptionHandler = requireNonNull(exceptionHandler);
+        this.duplicateHandler = requireNonNull(duplicateHandler);
+        this.maxMessagesPerPoll = maxMessagesPerPoll;
+        this.firstArrivals = new long[lines.length];
+    }
+
+    /** @return the number of lines arbitrated by this input */
+    public int lines() {
+        return lines.length;
+    }
+
+    /**
+     * Returns the number of commands that arrived first on the given line and were sent to the command store.
+     *
+     * @param line the line index, zero based in the order the lines were passed to the constructor
+     * @return the number of first arrivals on the line
+     */
+    public long firstArrivals(final int line) {
+        return firstArrivals[line];
+    }
+
+    /** @return the number of commands dropped because they had already been sent after arriving on another line */
+    public long droppedCount() {
+        return droppedCount;
+    }
+
+    @Override
+    public int poll(final SourceContextProvider sourceContextProvider) {
+        requireNonNull(sourceContextProvider);
+        if (this.sourceContextProvider != sourceContextProvider) {
+            this.sourceContextProvider = sourceContextProvider;
+        }
+        int workCount = 0;
+        for (line = 0; line < lines.length; line++) {
+            workCount += maxMessagesPerPoll == 0 ?
+                    lines[line].poll(handler) :
+                    lines[line].poll(handler, maxMessagesPerPoll);
+        }
+        return workCount;
+    }
+
+    private void onMessage(final DirectBuffer message) {
+        try {
+            command.wrap(message, 0);
+            final long sourceSeq = command.sourceSequence();
+            final CommandSender commandSender = sourceContextProvider
+                    .sourceContext(command.sourceId())
+                    .commandSender();
+            if (sourceSeq < commandSender.nextCommandSequence()) {
+                droppedCount++;
+                duplicateHandler.skipCommandProcessing(command);
+                return;
+            }
+            firstArrivals[line]++;
+            CommandSendingCommandHandler.handleCommand(command, sourceContextProvider, exceptionHandler);
+        } catch (final Exception e) {
+            exceptionHandler.handleException("Unhandled exception when receiving arbitrated command input message",
+                    command, e);
+        } finally {
+            command.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ArbitratingCommandInput{" +
+                "lines=" + lines.length +
+                ", droppedCount=" + droppedCount +
+                '}';
+    }
+}
@@ -37,6 +37,7 @@ public class CommandMessageInput implements MultiSourceInput {
 
     private final MessageReceiver messageReceiver;
     private final ExceptionHandler exceptionHandler;
+    private final int maxMessagesPerPoll;
     private final Handler handler = this::onMessage;
     private final FlyweightCommand command = new FlyweightCommand();
 
@@ -44,8 +45,25 @@ public class CommandMessageInput implements MultiSourceInput {
 
 
     public CommandMessageInput(final MessageReceiver messageReceiver, final ExceptionHandler exceptionHandler) {
+        this(messageReceiver, exceptionHandler, 0);
+    }
+
+    /**
+     * Constructor with max messages per poll to bound the number of commands received per input poll invocation.
+     *
+     * @param messageReceiver       the receiver for command messages
+     * @param exceptionHandler      the exception handler
+     * @param maxMessagesPerPoll    max number of messages received per poll, or zero to use the default of the receiver
+     */
+    public CommandMessageInput(final MessageReceiver messageReceiver,
+                               final ExceptionHandler exceptionHandler,
+                               final int maxMessagesPerPoll) {
+        if (maxMessagesPerPoll < 0) {
+            throw new IllegalArgumentException("Max messages per poll cannot be negative: " + maxMessagesPerPoll);
+        }
         this.messageReceiver = requireNonNull(messageReceiver);
         this.exceptionHandler = requireNonNull(exceptionHandler);
+        this.maxMessagesPerPoll = maxMessagesPerPoll;
     }
 
     @Override
@@ -54,7 +72,9 @@ public class CommandMessageInput implements MultiSourceInput {
         if (this.sourceContextProvider != sourceContextProvider) {
             this.sourceContextProvider = sourceContextProvider;
         }
-        return messageReceiver.poll(handler);
+        return maxMessagesPerPoll == 0 ?
+                messageReceiver.poll(handler) :
+                messageReceiver.poll(handler, maxMessagesPerPoll);
     }
 
     private void onMessage(final DirectBuffer message) {
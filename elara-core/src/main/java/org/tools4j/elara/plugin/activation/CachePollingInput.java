@@ -67,7 +67,8 @@ final class CachePollingInput implements MultiSourceInput {
         if (command.valid()) {
             return handleCachedCommand() ? 1 : 0;
         }
-        return messageReceiver.poll(handler);
+        //only one message at a time as we can cache only one command
+        return messageReceiver.poll(handler, 1);
     }
 
     private boolean handleCachedCommand() {
@@ -78,6 +78,20 @@ public interface PluginSpecification<P> {
         CommandProcessor commandProcessor(BaseState baseState);
         EventApplier eventApplier(MutableBaseState baseState);
         Interceptor interceptor(StateFactory stateFactory);
+        /**
+         * Returns the reserved payload type range of commands passed to the {@link #commandProcessor(BaseState)
+         * command processor}, or {@link ReservedPayloadType#NONE NONE} if the processor is invoked for all commands.
+         *
+         * @return the payload types of commands processed by the plugin's command processor
+         */
+        ReservedPayloadType commandProcessorPayloadType();
+        /**
+         * Returns the reserved payload type range of events passed to the {@link #eventApplier(MutableBaseState)
+         * event applier}, or {@link ReservedPayloadType#NONE NONE} if the applier is invoked for all events.
+         *
+         * @return the payload types of events applied by the plugin's event applier
+         */
+        ReservedPayloadType eventApplierPayloadType();
         interface Default extends Installer {
             @Override
             default AgentStep step(final BaseState baseState, final ExecutionType executionType) {return AgentStep.NOOP;}
@@ -91,6 +105,10 @@ public interface PluginSpecification<P> {
             default EventApplier eventApplier(final MutableBaseState baseState) {return EventApplier.NOOP;}
             @Override
             default Interceptor interceptor(final StateFactory stateFactory) {return Interceptor.NOOP;}
+            @Override
+            default ReservedPayloadType commandProcessorPayloadType() {return ReservedPayloadType.NONE;}
+            @Override
+            default ReservedPayloadType eventApplierPayloadType() {return ReservedPayloadType.NONE;}
         }
     }
 
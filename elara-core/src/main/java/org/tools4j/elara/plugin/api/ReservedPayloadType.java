@@ -57,12 +57,22 @@ public enum ReservedPayloadType {
 
     ReservedPayloadType(final int maxType, final int minType) {
         assert maxType >= minType;
-        assert minType >= MIN_RESERVED_TYPE;
-        assert maxType <= MAX_RESERVED_TYPE;
+        assert (maxType == 0 && minType == 0) || minType >= MIN_RESERVED_TYPE;//NONE has range [0, 0]
+        assert (maxType == 0 && minType == 0) || maxType <= MAX_RESERVED_TYPE;
         this.maxType = maxType;
         this.minType = minType;
     }
 
+    /** @return the maximum payload type of this range */
+    public int maxType() {
+        return maxType;
+    }
+
+    /** @return the minimum payload type of this range */
+    public int minType() {
+        return minType;
+    }
+
     public boolean isInRange(final int type) {
         return maxType >= type && type >= minType;
     }
@@ -72,6 +72,16 @@ final class BootPluginSpecification implements SystemPluginSpecification<NullSta
             public EventApplier eventApplier(final MutableBaseState baseState) {
                 return new BootEventApplier(bootPlugin);
             }
+
+            @Override
+            public ReservedPayloadType commandProcessorPayloadType() {
+                return ReservedPayloadType.BOOT;
+            }
+
+            @Override
+            public ReservedPayloadType eventApplierPayloadType() {
+                return ReservedPayloadType.BOOT;
+            }
         };
     }
 }
@@ -27,6 +27,7 @@ import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.tools4j.elara.app.state.BaseState;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.flyweight.FlyweightEvent;
 import org.tools4j.elara.logging.ElaraLogger;
 import org.tools4j.elara.logging.Logger;
@@ -59,8 +60,10 @@ final class ConnectionHandler implements Connection.Handler {
     private final ReplicationState.Volatile state;
     private final Appender eventStoreAppender;
     private final Publisher responseSender;
+    private final ChecksumPolicy checksumPolicy;
     private final FlyweightEvent flyweightEvent = new FlyweightEvent();
     private final UnsafeBuffer bufferView = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer frameView = new UnsafeBuffer(0, 0);
     private final MutableDirectBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(HEADER_LENGTH));
 
     ConnectionHandler(final Logger.Factory loggerFactory,
@@ -68,13 +71,15 @@ final class ConnectionHandler implements Connection.Handler {
                       final BaseState baseState,
                       final ReplicationState.Volatile state,
                       final Appender eventStoreAppender,
-                      final Publisher responseSender) {
+                      final Publisher responseSender,
+                      final ChecksumPolicy checksumPolicy) {
         this.logger = ElaraLogger.create(loggerFactory, getClass());
         this.serverId = configuration.serverId();
         this.baseState = requireNonNull(baseState);
         this.state = requireNonNull(state);
         this.eventStoreAppender = requireNonNull(eventStoreAppender);
         this.responseSender = requireNonNull(responseSender);
+        this.checksumPolicy = requireNonNull(checksumPolicy);
     }
 
     @Override
@@ -113,6 +118,15 @@ final class ConnectionHandler implements Connection.Handler {
         }
     }
 
+    private boolean verifyFrame(final DirectBuffer buffer, final int payloadSize) {
+        frameView.wrap(buffer, PAYLOAD_OFFSET, payloadSize);
+        try {
+            return checksumPolicy.verify(frameView);
+        } finally {
+            frameView.wrap(0, 0);
+        }
+    }
+
     private void handleAppendRequest(final int senderServerId, final DirectBuffer buffer) {
         final int senderTerm = term(buffer);
         final int currentTerm = state.term();
@@ -136,6 +150,11 @@ final class ConnectionHandler implements Connection.Handler {
                         .replace(serverId).replace(payloadSize).replace(FlyweightEvent.HEADER_LENGTH).format();
                 return;
             }
+            if (!verifyFrame(buffer, payloadSize)) {
+                logger.warn("Server {}: Skipping append-request message in follower mode: checksum mismatch for event store index {}")
+                        .replace(serverId).replace(storeIndex).format();
+                return;
+            }
             flyweightEvent.wrap(buffer, PAYLOAD_OFFSET);
             if (baseState.eventApplied(flyweightEvent.eventSequence())) {
                 logger.warn("Server {}: Ignoring append-request message in follower mode: event {}:{}.{} has already been applied")
@@ -110,7 +110,8 @@ public class ReplicationPlugin implements SystemPlugin<ReplicationState.Mutable>
                     switch (executionType) {
                         case ALWAYS_WHEN_EVENTS_APPLIED:
                             final Handler connectionHandler = new ConnectionHandler(
-                                    appConfig.loggerFactory(), config, baseState, replicationState, eventStoreAppender, dispatchingPublisher
+                                    appConfig.loggerFactory(), config, baseState, replicationState, eventStoreAppender, dispatchingPublisher,
+                                    appConfig.checksumPolicy()
                             );
                             return new ReplicationPluginStep(
                                     config, replicationState, enforcedLeaderEventReceiver, connectionHandler, eventSender
@@ -125,6 +126,11 @@ public class ReplicationPlugin implements SystemPlugin<ReplicationState.Mutable>
                     return new ReplicationCommandProcessor(appConfig.loggerFactory(), config, replicationState);
                 }
 
+                @Override
+                public ReservedPayloadType commandProcessorPayloadType() {
+                    return ReservedPayloadType.REPLICATION;
+                }
+
                 @Override
                 public EventApplier eventApplier(final MutableBaseState baseState) {
                     return new ReplicationEventApplier(appConfig.loggerFactory(), config, replicationState);
@@ -37,6 +37,7 @@ import static org.agrona.collections.Hashing.DEFAULT_LOAD_FACTOR;
  *     - constant polling time when invoking {@link #indexOfNextDeadline()}
  *     - log(n) time to add or remove a timer
  *     - log(n) time to update the repetition of a periodic timer
+ *     - log(n) time to reschedule a timer
  * </pre>
  * The data structure is very similar to the one used by {@link java.util.PriorityQueue}.
  */
@@ -44,6 +45,7 @@ public class DeadlineHeapTimerState implements MutableTimerState {
     private final Int2IntHashMap storeIndexToHeapIndex;
     private final IntArrayList deadlineHeapToStoreIndex;
     private final MutableTimerStore timerStore;
+    private final TimerContextIndex contextIndex;
 
     public DeadlineHeapTimerState() {
         this(DirectTimerStore.DEFAULT_CAPACITY, new DirectTimerStore());
@@ -57,6 +59,7 @@ public class DeadlineHeapTimerState implements MutableTimerState {
         this.storeIndexToHeapIndex = new Int2IntHashMap(2 * initialCapacity, DEFAULT_LOAD_FACTOR, -1);
         this.deadlineHeapToStoreIndex = new IntArrayList(initialCapacity, -1);
         this.timerStore = requireNonNull(timerStore);
+        this.contextIndex = new TimerContextIndex();
     }
 
     @Override
@@ -129,11 +132,22 @@ public class DeadlineHeapTimerState implements MutableTimerState {
         return timerStore.deadline(heapIndexToStoreIndex(index));
     }
 
+    @Override
+    public int contextCount(final long contextId) {
+        return contextIndex.count(contextId);
+    }
+
+    @Override
+    public long contextTimerId(final long contextId, final int n) {
+        return contextIndex.timerId(contextId, n);
+    }
+
     @Override
     public boolean add(final long timerId, final Style style, final int repetition, final long startTime, final long timeout, final int timerType, final long contextId) {
         final int storeIndex = timerStore.count();//NOTE: we know the store adds a new entry at the end
         if (timerStore.add(timerId, style, repetition, startTime, timeout, timerType, contextId)) {
             add(storeIndex);
+            contextIndex.add(contextId, timerId);
             return true;
         }
         return false;
@@ -202,6 +216,7 @@ public class DeadlineHeapTimerState implements MutableTimerState {
     public void remove(final int index) {
         final int storeIndex = deadlineHeapToStoreIndex.setInt(index, -1);
         storeIndexToHeapIndex.remove(storeIndex);
+        contextIndex.remove(timerStore.contextId(storeIndex), timerStore.timerId(storeIndex));
         final int s = deadlineHeapToStoreIndex.size() - 1;
         final int movedStoreIndex = deadlineHeapToStoreIndex.removeAt(s);
         if (s != index) {
@@ -236,6 +251,21 @@ public class DeadlineHeapTimerState implements MutableTimerState {
         }
     }
 
+    @Override
+    public void rescheduleById(final long timerId, final long delta) {
+        final int storeIndex = timerStore.index(timerId);
+        if (storeIndex < 0 || delta == 0) {
+            return;
+        }
+        timerStore.reschedule(storeIndex, delta);
+        final int heapIndex = storeIndexToHeapIndex(storeIndex);
+        if (delta > 0) {
+            siftDown(heapIndex, storeIndex);
+        } else {
+            siftUp(heapIndex, storeIndex);
+        }
+    }
+
     @Override
     public String toString() {
         if (count() == 0) {
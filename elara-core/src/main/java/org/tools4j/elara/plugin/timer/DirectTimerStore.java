@@ -200,6 +200,19 @@ public class DirectTimerStore implements TimerStore.MutableTimerStore {
         FlyweightTimerPayload.writeRepetition(repetition, buffer, payloadOffset(index));
     }
 
+    @Override
+    public void reschedule(final int index, final long delta) {
+        validateIndex(index);
+        final int offset = offset(index);
+        final int payloadOffset = offset + TIMER_PAYLOAD_OFFSET;
+        if (FlyweightTimerPayload.style(buffer, payloadOffset) == Style.ALARM) {
+            final long time = FlyweightTimerPayload.timeout(buffer, payloadOffset);
+            FlyweightTimerPayload.writeTimeout(time + delta, buffer, payloadOffset);
+        } else {
+            buffer.putLong(offset + START_TIME_OFFSET, getLong(offset + START_TIME_OFFSET) + delta, LITTLE_ENDIAN);
+        }
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder(256);
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.plugin.timer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.flyweight.Flyweight;
+import org.tools4j.elara.flyweight.Writable;
+import org.tools4j.elara.logging.Printable;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.CONTEXT_ID_OFFSET;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.DELTA_OFFSET;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.PAYLOAD_SIZE;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECTION_OFFSET;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_CONTEXT;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_TYPE;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.TIMER_TYPE_OFFSET;
+
+/**
+ * A flyweight for reading and writing bulk timer payload data laid out as per {@link TimerBulkPayloadDescriptor}.
+ */
+public class FlyweightTimerBulkPayload implements Flyweight<FlyweightTimerBulkPayload>, Printable, Writable {
+
+    private final MutableDirectBuffer buffer = new UnsafeBuffer(0, 0);
+
+    @Override
+    public FlyweightTimerBulkPayload wrap(final DirectBuffer buffer, final int offset) {
+        this.buffer.wrap(buffer, offset, PAYLOAD_SIZE);
+        return this;
+    }
+
+    @Override
+    public boolean valid() {
+        return buffer.capacity() >= PAYLOAD_SIZE;
+    }
+
+    @Override
+    public FlyweightTimerBulkPayload reset() {
+        buffer.wrap(0, 0);
+        return this;
+    }
+
+    public long contextId() {
+        return contextId(buffer, 0);
+    }
+
+    public static long contextId(final DirectBuffer buffer, final int offset) {
+        return buffer.getLong(offset + CONTEXT_ID_OFFSET, LITTLE_ENDIAN);
+    }
+
+    public int timerType() {
+        return timerType(buffer, 0);
+    }
+
+    public static int timerType(final DirectBuffer buffer, final int offset) {
+        return buffer.getInt(offset + TIMER_TYPE_OFFSET, LITTLE_ENDIAN);
+    }
+
+    public int selection() {
+        return selection(buffer, 0);
+    }
+
+    public static int selection(final DirectBuffer buffer, final int offset) {
+        return buffer.getInt(offset + SELECTION_OFFSET, LITTLE_ENDIAN);
+    }
+
+    public long delta() {
+        return delta(buffer, 0);
+    }
+
+    public static long delta(final DirectBuffer buffer, final int offset) {
+        return buffer.getLong(offset + DELTA_OFFSET, LITTLE_ENDIAN);
+    }
+
+    @Override
+    public int writeTo(final MutableDirectBuffer dst, final int dstOffset) {
+        dst.putBytes(dstOffset, buffer, 0, PAYLOAD_SIZE);
+        return PAYLOAD_SIZE;
+    }
+
+    public static int write(final int selection,
+                            final long contextId,
+                            final int timerType,
+                            final long delta,
+                            final MutableDirectBuffer dst,
+                            final int dstOffset) {
+        dst.putLong(dstOffset + CONTEXT_ID_OFFSET, contextId, LITTLE_ENDIAN);
+        dst.putInt(dstOffset + TIMER_TYPE_OFFSET, timerType, LITTLE_ENDIAN);
+        dst.putInt(dstOffset + SELECTION_OFFSET, selection, LITTLE_ENDIAN);
+        dst.putLong(dstOffset + DELTA_OFFSET, delta, LITTLE_ENDIAN);
+        return PAYLOAD_SIZE;
+    }
+
+    @Override
+    public StringBuilder printTo(final StringBuilder dst) {
+        dst.append("FlyweightTimerBulkPayload{");
+        if (valid()) {
+            final int selection = selection();
+            dst.append("selection=").append(selection);
+            if ((selection & SELECT_CONTEXT) != 0) {
+                dst.append("|context-id=").append(contextId());
+            }
+            if ((selection & SELECT_TYPE) != 0) {
+                dst.append("|timer-type=").append(timerType());
+            }
+            dst.append("|delta=").append(delta());
+        } else {
+            dst.append("???");
+        }
+        dst.append('}');
+        return dst;
+    }
+
+    @Override
+    public String toString() {
+        return printTo(new StringBuilder(128)).toString();
+    }
+}
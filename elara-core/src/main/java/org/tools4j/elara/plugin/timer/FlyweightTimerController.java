@@ -25,7 +25,6 @@ package org.tools4j.elara.plugin.timer;
 
 import org.agrona.MutableDirectBuffer;
 import org.tools4j.elara.event.Event;
-import org.tools4j.elara.plugin.timer.Timer.Style;
 import org.tools4j.elara.plugin.timer.TimerController.ControlContext;
 import org.tools4j.elara.route.EventRouter;
 import org.tools4j.elara.route.EventRouter.RoutingContext;
@@ -37,10 +36,14 @@ import static java.util.Objects.requireNonNull;
 import static org.tools4j.elara.plugin.timer.FlyweightTimerPayload.writeAlarm;
 import static org.tools4j.elara.plugin.timer.FlyweightTimerPayload.writePeriodic;
 import static org.tools4j.elara.plugin.timer.FlyweightTimerPayload.writeTimer;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_CONTEXT;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_TYPE;
 import static org.tools4j.elara.plugin.timer.TimerCommands.CANCEL_TIMER;
 import static org.tools4j.elara.plugin.timer.TimerCommands.START_TIMER;
 import static org.tools4j.elara.plugin.timer.TimerEvents.TIMER_CANCELLED;
 import static org.tools4j.elara.plugin.timer.TimerEvents.TIMER_STARTED;
+import static org.tools4j.elara.plugin.timer.TimerPayloadTypes.CANCEL_TIMERS;
+import static org.tools4j.elara.plugin.timer.TimerPayloadTypes.RESCHEDULE_TIMERS;
 
 final class FlyweightTimerController implements ControlContext {
 
@@ -140,6 +143,48 @@ final class FlyweightTimerController implements ControlContext {
         throw illegalStateException();
     }
 
+    @Override
+    public int cancelTimers(final long contextId) {
+        return bulk(CANCEL_TIMERS, SELECT_CONTEXT, contextId, DEFAULT_TYPE, 0);
+    }
+
+    @Override
+    public int cancelTimers(final long contextId, final int type) {
+        return bulk(CANCEL_TIMERS, SELECT_CONTEXT | SELECT_TYPE, contextId, type, 0);
+    }
+
+    @Override
+    public int cancelTimersOfType(final int type) {
+        return bulk(CANCEL_TIMERS, SELECT_TYPE, DEFAULT_CONTEXT_ID, type, 0);
+    }
+
+    @Override
+    public int rescheduleTimers(final long contextId, final long delta) {
+        return bulk(RESCHEDULE_TIMERS, SELECT_CONTEXT, contextId, DEFAULT_TYPE, delta);
+    }
+
+    @Override
+    public int rescheduleTimers(final long contextId, final int type, final long delta) {
+        return bulk(RESCHEDULE_TIMERS, SELECT_CONTEXT | SELECT_TYPE, contextId, type, delta);
+    }
+
+    @Override
+    public int rescheduleTimersOfType(final int type, final long delta) {
+        return bulk(RESCHEDULE_TIMERS, SELECT_TYPE, DEFAULT_CONTEXT_ID, type, delta);
+    }
+
+    private int bulk(final int payloadType, final int selection, final long contextId, final int type,
+                     final long delta) {
+        checkInitialized();
+        if (eventController.ready()) {
+            return eventController.bulk(payloadType, selection, contextId, type, delta);
+        }
+        if (commandController.ready()) {
+            return commandController.bulk(payloadType, selection, contextId, type, delta);
+        }
+        throw illegalStateException();
+    }
+
     @Override
     public void close() {
         commandController.close();
@@ -148,19 +193,40 @@ final class FlyweightTimerController implements ControlContext {
 
     private int writeCancelPayload(final long timerId, final int timerIndex, final MutableDirectBuffer dst, final int dstOffset) {
         assert timerId == timerState.timerId(timerIndex);
-        final Style style = timerState.style(timerIndex);
-        switch (style) {
-            case ALARM:
-                return writeAlarm(timerId, timerState.timeout(timerIndex), timerState.timerType(timerIndex),
-                        timerState.contextId(timerIndex), dst, dstOffset);
-            case TIMER:
-                return writeTimer(timerId, timerState.timeout(timerIndex), timerState.timerType(timerIndex),
-                        timerState.contextId(timerIndex), dst, dstOffset);
-            case PERIODIC:
-                return writePeriodic(timerId, timerState.timeout(timerIndex), timerState.repetition(timerIndex),
-                        timerState.timerType(timerIndex), timerState.contextId(timerIndex), dst, dstOffset);
-            default:
-                throw new IllegalStateException("Timer " + timerId + " has invalid style: " + style);
+        return FlyweightTimerPayload.write(timerState, timerIndex, dst, dstOffset);
+    }
+
+    private abstract class BulkTimerController implements ControlContext {
+        abstract int bulk(int payloadType, int selection, long contextId, int type, long delta);
+
+        @Override
+        public int cancelTimers(final long contextId) {
+            return bulk(CANCEL_TIMERS, SELECT_CONTEXT, contextId, DEFAULT_TYPE, 0);
+        }
+
+        @Override
+        public int cancelTimers(final long contextId, final int type) {
+            return bulk(CANCEL_TIMERS, SELECT_CONTEXT | SELECT_TYPE, contextId, type, 0);
+        }
+
+        @Override
+        public int cancelTimersOfType(final int type) {
+            return bulk(CANCEL_TIMERS, SELECT_TYPE, DEFAULT_CONTEXT_ID, type, 0);
+        }
+
+        @Override
+        public int rescheduleTimers(final long contextId, final long delta) {
+            return bulk(RESCHEDULE_TIMERS, SELECT_CONTEXT, contextId, DEFAULT_TYPE, delta);
+        }
+
+        @Override
+        public int rescheduleTimers(final long contextId, final int type, final long delta) {
+            return bulk(RESCHEDULE_TIMERS, SELECT_CONTEXT | SELECT_TYPE, contextId, type, delta);
+        }
+
+        @Override
+        public int rescheduleTimersOfType(final int type, final long delta) {
+            return bulk(RESCHEDULE_TIMERS, SELECT_TYPE, DEFAULT_CONTEXT_ID, type, delta);
         }
     }
 
@@ -168,7 +234,7 @@ final class FlyweightTimerController implements ControlContext {
         throw new IllegalStateException("Timer controller can only be used during the processing of a command, and event or with a valid source context");
     }
 
-    private final class EventTimerController implements ControlContext {
+    private final class EventTimerController extends BulkTimerController {
         EventRouter eventRouter;
 
         private EventRouter eventRouter() {
@@ -241,13 +307,26 @@ final class FlyweightTimerController implements ControlContext {
             return false;
         }
 
+        @Override
+        int bulk(final int payloadType, final int selection, final long contextId, final int type, final long delta) {
+            final int count = timerState.countTimers(selection, contextId, type);
+            if (count > 0) {
+                try (final RoutingContext context = eventRouter().routingEvent(payloadType)) {
+                    final int length = FlyweightTimerBulkPayload.write(selection, contextId, type, delta,
+                            context.buffer(), 0);
+                    context.route(length);
+                }
+            }
+            return count;
+        }
+
         @Override
         public void close() {
             eventRouter = null;
         }
     }
 
-    private final class CommandTimerController implements ControlContext {
+    private final class CommandTimerController extends BulkTimerController {
         Event event;//can be null even if the controller is initialized
         CommandSender commandSender;
 
@@ -318,6 +397,19 @@ final class FlyweightTimerController implements ControlContext {
             return false;
         }
 
+        @Override
+        int bulk(final int payloadType, final int selection, final long contextId, final int type, final long delta) {
+            final int count = timerState.countTimers(selection, contextId, type);
+            if (count > 0) {
+                try (final SendingContext context = commandSender().sendingCommand(payloadType)) {
+                    final int length = FlyweightTimerBulkPayload.write(selection, contextId, type, delta,
+                            context.buffer(), 0);
+                    context.send(length);
+                }
+            }
+            return count;
+        }
+
         @Override
         public void close() {
             event = null;
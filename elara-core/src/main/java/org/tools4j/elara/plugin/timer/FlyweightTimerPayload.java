@@ -177,6 +177,40 @@ public class FlyweightTimerPayload implements Timer, Flyweight<FlyweightTimerPay
         return HEADER_LENGTH;
     }
 
+    public static void writeTimeout(final long timeout, final MutableDirectBuffer dst, final int payloadOffset) {
+        dst.putLong(payloadOffset + TIMEOUT_OFFSET, timeout, LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes the timer at the given index of the timer state.
+     *
+     * @param timerState    the timer state
+     * @param index         the index of the timer in the timer state
+     * @param dst           the destination buffer
+     * @param dstOffset     the offset in the destination buffer
+     * @return the number of bytes written
+     */
+    public static int write(final TimerState timerState,
+                            final int index,
+                            final MutableDirectBuffer dst,
+                            final int dstOffset) {
+        final Style style = timerState.style(index);
+        switch (style) {
+            case ALARM:
+                return writeAlarm(timerState.timerId(index), timerState.timeout(index), timerState.timerType(index),
+                        timerState.contextId(index), dst, dstOffset);
+            case TIMER:
+                return writeTimer(timerState.timerId(index), timerState.timeout(index), timerState.timerType(index),
+                        timerState.contextId(index), dst, dstOffset);
+            case PERIODIC:
+                return writePeriodic(timerState.timerId(index), timerState.timeout(index),
+                        timerState.repetition(index), timerState.timerType(index), timerState.contextId(index),
+                        dst, dstOffset);
+            default:
+                throw new IllegalStateException("Timer " + timerState.timerId(index) + " has invalid style: " + style);
+        }
+    }
+
     public static void writeRepetition(final int repetition, final MutableDirectBuffer dst, final int payloadOffset) {
         dst.putInt(payloadOffset + REPETITION_OFFSET, FLAG_PERIODIC | repetition, LITTLE_ENDIAN);
     }
@@ -35,6 +35,15 @@ public interface MutableTimerState extends TimerState {
     void remove(int index);
     void updateRepetitionById(long timerId, int repetition);
 
+    /**
+     * Moves the deadline of the timer with the given ID by delta, that is, the start time of a timer or periodic
+     * timer and the time of an alarm.
+     *
+     * @param timerId   the timer ID
+     * @param delta     the time to add to the timer's deadline, negative to move the deadline forward
+     */
+    void rescheduleById(long timerId, long delta);
+
     default boolean removeById(final long timerId) {
         final int index = index(timerId);
         if (index >= 0) {
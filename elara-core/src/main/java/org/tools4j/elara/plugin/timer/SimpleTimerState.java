@@ -23,7 +23,6 @@
  */
 package org.tools4j.elara.plugin.timer;
 
-import org.tools4j.elara.event.Event;
 import org.tools4j.elara.plugin.timer.Timer.Style;
 import org.tools4j.elara.plugin.timer.TimerStore.MutableTimerStore;
 import org.tools4j.elara.time.TimeSource;
@@ -40,6 +39,7 @@ import static java.util.Objects.requireNonNull;
 public class SimpleTimerState implements MutableTimerState {
 
     private final MutableTimerStore timers;
+    private final TimerContextIndex contextIndex = new TimerContextIndex();
 
     public SimpleTimerState() {
         this(new DirectTimerStore());
@@ -106,24 +106,31 @@ public class SimpleTimerState implements MutableTimerState {
     }
 
     @Override
-    public boolean removeById(final long timerId) {
-        return timers.removeById(timerId);
+    public int contextCount(final long contextId) {
+        return contextIndex.count(contextId);
     }
 
     @Override
-    public void remove(final int index) {
-        timers.remove(index);
+    public long contextTimerId(final long contextId, final int n) {
+        return contextIndex.timerId(contextId, n);
     }
 
     @Override
-    public boolean add(final Event event, final Timer timer) {
-        return timers.add(event, timer);
+    public void remove(final int index) {
+        final long timerId = timers.timerId(index);
+        final long contextId = timers.contextId(index);
+        timers.remove(index);
+        contextIndex.remove(contextId, timerId);
     }
 
     @Override
     public boolean add(final long timerId, final Style style, final int repetition, final long startTime,
                        final long timeout, final int timerType, final long contextId) {
-        return timers.add(timerId, style, repetition, startTime, timeout, timerType, contextId);
+        if (timers.add(timerId, style, repetition, startTime, timeout, timerType, contextId)) {
+            contextIndex.add(contextId, timerId);
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -131,6 +138,14 @@ public class SimpleTimerState implements MutableTimerState {
         timers.updateRepetitionById(timerId, repetition);
     }
 
+    @Override
+    public void rescheduleById(final long timerId, final long delta) {
+        final int index = timers.index(timerId);
+        if (index >= 0) {
+            timers.reschedule(index, delta);
+        }
+    }
+
     @Override
     public int indexOfNextDeadline() {
         final int count = count();
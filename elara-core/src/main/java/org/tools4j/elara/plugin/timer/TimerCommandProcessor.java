@@ -23,6 +23,7 @@
  */
 package org.tools4j.elara.plugin.timer;
 
+import org.agrona.DirectBuffer;
 import org.tools4j.elara.app.handler.CommandProcessor;
 import org.tools4j.elara.command.Command;
 import org.tools4j.elara.route.EventRouter;
@@ -40,6 +41,11 @@ public class TimerCommandProcessor implements CommandProcessor {
     @Override
     public void onCommand(final Command command, final EventRouter router) {
         if (TimerCommands.isTimerCommand(command)) {
+            if (command.payloadType() == TimerCommands.CANCEL_TIMERS ||
+                    command.payloadType() == TimerCommands.RESCHEDULE_TIMERS) {
+                onBulkCommand(command, router);
+                return;
+            }
             final long timerId = FlyweightTimerPayload.timerId(command.payload(), 0);
             if (command.payloadType() == TimerCommands.START_TIMER) {
                 if (!timerState.hasTimer(timerId)) {
@@ -52,4 +58,14 @@ public class TimerCommandProcessor implements CommandProcessor {
             }
         }
     }
+
+    private void onBulkCommand(final Command command, final EventRouter router) {
+        final DirectBuffer payload = command.payload();
+        final int selection = FlyweightTimerBulkPayload.selection(payload, 0);
+        final long contextId = FlyweightTimerBulkPayload.contextId(payload, 0);
+        final int timerType = FlyweightTimerBulkPayload.timerType(payload, 0);
+        if (timerState.countTimers(selection, contextId, timerType) > 0) {
+            router.routeEventWithCommandPayload();
+        }
+    }
 }
@@ -39,6 +39,10 @@ public enum TimerCommands {
     public static final int CANCEL_TIMER = TimerPayloadTypes.CANCEL_TIMER;
     /** Payload type for command to signal that a timer should trigger or be expired.*/
     public static final int SIGNAL_TIMER = TimerPayloadTypes.SIGNAL_TIMER;
+    /** Payload type for command to cancel all timers of a context and/or timer type.*/
+    public static final int CANCEL_TIMERS = TimerPayloadTypes.CANCEL_TIMERS;
+    /** Payload type for command to reschedule all timers of a context and/or timer type.*/
+    public static final int RESCHEDULE_TIMERS = TimerPayloadTypes.RESCHEDULE_TIMERS;
 
     public static boolean isTimerCommand(final Command command) {
         return isTimerCommand(command.payloadType());
@@ -68,6 +72,10 @@ public enum TimerCommands {
                 return "CANCEL_TIMER";
             case SIGNAL_TIMER:
                 return "SIGNAL_TIMER";
+            case CANCEL_TIMERS:
+                return "CANCEL_TIMERS";
+            case RESCHEDULE_TIMERS:
+                return "RESCHEDULE_TIMERS";
             default:
                 throw new IllegalArgumentException("Not a timer command type: " + payloadType);
         }
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.plugin.timer;
+
+import org.agrona.collections.Hashing;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Secondary index of timer IDs by context ID used by {@link TimerState} implementations to find all timers of a
+ * context without iterating over all timers.  Timer ID lists of contexts without timers are reused.
+ */
+final class TimerContextIndex {
+    static final int DEFAULT_INITIAL_CONTEXTS = 64;
+    private static final int INITIAL_TIMERS_PER_CONTEXT = 8;
+
+    private final Long2ObjectHashMap<LongArrayList> timerIdsByContextId;
+    private final List<LongArrayList> unusedTimerIds;
+
+    TimerContextIndex() {
+        this(DEFAULT_INITIAL_CONTEXTS);
+    }
+
+    TimerContextIndex(final int initialContexts) {
+        this.timerIdsByContextId = new Long2ObjectHashMap<>(initialContexts, Hashing.DEFAULT_LOAD_FACTOR);
+        this.unusedTimerIds = new ArrayList<>(initialContexts);
+    }
+
+    void add(final long contextId, final long timerId) {
+        LongArrayList timerIds = timerIdsByContextId.get(contextId);
+        if (timerIds == null) {
+            timerIds = unusedTimerIds.isEmpty() ? new LongArrayList(INITIAL_TIMERS_PER_CONTEXT, 0) :
+                    unusedTimerIds.remove(unusedTimerIds.size() - 1);
+            timerIdsByContextId.put(contextId, timerIds);
+        }
+        timerIds.addLong(timerId);
+    }
+
+    void remove(final long contextId, final long timerId) {
+        final LongArrayList timerIds = timerIdsByContextId.get(contextId);
+        if (timerIds == null || !timerIds.fastUnorderedRemoveLong(timerId)) {
+            return;
+        }
+        if (timerIds.isEmpty()) {
+            timerIdsByContextId.remove(contextId);
+            unusedTimerIds.add(timerIds);
+        }
+    }
+
+    int count(final long contextId) {
+        final LongArrayList timerIds = timerIdsByContextId.get(contextId);
+        return timerIds == null ? 0 : timerIds.size();
+    }
+
+    long timerId(final long contextId, final int n) {
+        final LongArrayList timerIds = timerIdsByContextId.get(contextId);
+        if (timerIds == null) {
+            throw new IndexOutOfBoundsException("No timers for context " + contextId);
+        }
+        return timerIds.getLong(n);
+    }
+
+    @Override
+    public String toString() {
+        return "TimerContextIndex{contexts=" + timerIdsByContextId.size() + '}';
+    }
+}
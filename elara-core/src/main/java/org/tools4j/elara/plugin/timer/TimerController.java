@@ -28,6 +28,12 @@ import org.tools4j.elara.time.TimeSource;
 /**
  * Controller API of the {@link TimerPlugin} to start and cancel timers.
  * <p>
+ * Bulk operations cancel or reschedule all timers of a context ID and/or timer type through a single command or
+ * event, which is cheaper than cancelling timers one by one for instance when a session or order with many timers
+ * terminates.  Bulk operations return the number of currently running timers affected by the operation, and no
+ * command or event is sent if no timers are affected.  Timer event handlers are notified once per affected timer when
+ * the bulk event is applied.
+ * <p>
  * The controller can be accessed directly through the plugin through one of the {@code TimerPlugin.controller(..)}
  * methods.  Depending on the scope
  */
@@ -52,6 +58,12 @@ public interface TimerController extends TimeSource {
     long startPeriodic(long timeout);
     long startPeriodic(long timeout, int type, long contextId);
     boolean cancelTimer(long id);
+    int cancelTimers(long contextId);
+    int cancelTimers(long contextId, int type);
+    int cancelTimersOfType(int type);
+    int rescheduleTimers(long contextId, long delta);
+    int rescheduleTimers(long contextId, int type, long delta);
+    int rescheduleTimersOfType(int type, long delta);
 
     interface Default extends TimerController {
         @Override
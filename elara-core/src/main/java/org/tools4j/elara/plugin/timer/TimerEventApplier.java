@@ -23,6 +23,9 @@
  */
 package org.tools4j.elara.plugin.timer;
 
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.LongArrayList;
 import org.tools4j.elara.app.handler.EventApplier;
 import org.tools4j.elara.event.Event;
 import org.tools4j.elara.plugin.timer.Timer.Style;
@@ -35,6 +38,9 @@ public class TimerEventApplier implements EventApplier {
     private final MutableTimerState timerState;
     private final TimerIdGenerator timerIdGenerator;
     private final FlyweightTimerPayload timer = new FlyweightTimerPayload();
+    private final FlyweightTimerBulkPayload bulk = new FlyweightTimerBulkPayload();
+    private final LongArrayList bulkTimerIds = new LongArrayList();
+    private final MutableDirectBuffer bulkTimerBuffer = new ExpandableArrayBuffer(TimerPayloadDescriptor.PAYLOAD_SIZE);
 
     public TimerEventApplier(final TimerPlugin timerPlugin,
                              final MutableTimerState timerState,
@@ -68,6 +74,35 @@ public class TimerEventApplier implements EventApplier {
                 notifyTimerEvent(event);
                 break;
             }
+            case TimerEvents.TIMERS_CANCELLED:
+            case TimerEvents.TIMERS_RESCHEDULED:
+                onBulkEvent(event);
+                break;
+        }
+    }
+
+    private void onBulkEvent(final Event event) {
+        bulk.wrap(event.payload(), 0);
+        final boolean cancel = event.payloadType() == TimerEvents.TIMERS_CANCELLED;
+        final long delta = bulk.delta();
+        bulkTimerIds.clear();
+        timerState.collectTimerIds(bulk.selection(), bulk.contextId(), bulk.timerType(), bulkTimerIds);
+        bulk.reset();
+        try {
+            for (int i = 0; i < bulkTimerIds.size(); i++) {
+                final long timerId = bulkTimerIds.getLong(i);
+                if (cancel) {
+                    FlyweightTimerPayload.write(timerState, timerState.index(timerId), bulkTimerBuffer, 0);
+                    timerState.removeById(timerId);
+                } else {
+                    timerState.rescheduleById(timerId, delta);
+                    FlyweightTimerPayload.write(timerState, timerState.index(timerId), bulkTimerBuffer, 0);
+                }
+                timer.wrap(bulkTimerBuffer, 0);
+                notifyTimerEvent(event);
+            }
+        } finally {
+            bulkTimerIds.clear();
         }
     }
 
@@ -38,6 +38,10 @@ public enum TimerEvents {
     public static final int TIMER_CANCELLED = TimerPayloadTypes.CANCEL_TIMER;
     /** Payload type for event indicating that a timer has expired or triggered */
     public static final int TIMER_SIGNALLED = TimerPayloadTypes.SIGNAL_TIMER;
+    /** Payload type for event indicating that all timers of a context and/or timer type have been cancelled */
+    public static final int TIMERS_CANCELLED = TimerPayloadTypes.CANCEL_TIMERS;
+    /** Payload type for event indicating that all timers of a context and/or timer type have been rescheduled */
+    public static final int TIMERS_RESCHEDULED = TimerPayloadTypes.RESCHEDULE_TIMERS;
 
     public static boolean isTimerEvent(final Event event) {
         return isTimerEvent(event.payloadType());
@@ -67,6 +71,10 @@ public enum TimerEvents {
                 return "TIMER_CANCELLED";
             case TIMER_SIGNALLED:
                 return "TIMER_SIGNALLED";
+            case TIMERS_CANCELLED:
+                return "TIMERS_CANCELLED";
+            case TIMERS_RESCHEDULED:
+                return "TIMERS_RESCHEDULED";
             default:
                 throw new IllegalArgumentException("Not a timer event type: " + payloadType);
         }
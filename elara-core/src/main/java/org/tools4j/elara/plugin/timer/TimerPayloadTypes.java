@@ -31,12 +31,18 @@ public enum TimerPayloadTypes {
     public static final int CANCEL_TIMER = -11;
     /** Payload type used to signal when a timer expires or triggers */
     public static final int SIGNAL_TIMER = -12;
+    /** Payload type used to cancel all timers of a context and/or timer type */
+    public static final int CANCEL_TIMERS = -13;
+    /** Payload type used to reschedule all timers of a context and/or timer type */
+    public static final int RESCHEDULE_TIMERS = -14;
 
     public static boolean isTimerPayloadType(final int payloadType) {
         switch (payloadType) {
             case START_TIMER:
             case CANCEL_TIMER:
             case SIGNAL_TIMER:
+            case CANCEL_TIMERS:
+            case RESCHEDULE_TIMERS:
                 return true;
             default:
                 return false;
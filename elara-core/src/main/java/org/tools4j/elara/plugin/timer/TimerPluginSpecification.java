@@ -78,6 +78,16 @@ final class TimerPluginSpecification implements SystemPluginSpecification<Mutabl
                 return new TimerEventApplier(timerPlugin, timerState, timerIdGenerator);
             }
 
+            @Override
+            public ReservedPayloadType commandProcessorPayloadType() {
+                return ReservedPayloadType.TIMER;
+            }
+
+            @Override
+            public ReservedPayloadType eventApplierPayloadType() {
+                return ReservedPayloadType.TIMER;
+            }
+
             @Override
             public Interceptor interceptor(final StateFactory stateFactory) {
                 return timerPlugin.useInterceptor() ? new TimerPluginInterceptor(timerPlugin) : Interceptor.NOOP;
@@ -23,8 +23,12 @@
  */
 package org.tools4j.elara.plugin.timer;
 
+import org.agrona.collections.LongArrayList;
 import org.tools4j.elara.plugin.timer.Timer.Style;
 
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_CONTEXT;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_TYPE;
+
 public interface TimerState {
     int count();
     int index(long timerId);
@@ -38,8 +42,86 @@ public interface TimerState {
     long contextId(int index);
     long deadline(int index);
 
+    /**
+     * Returns the number of timers with the given context ID.  The default implementation iterates over all timers,
+     * implementations should override it and {@link #contextTimerId(long, int)} with an index by context ID.
+     *
+     * @param contextId the context ID
+     * @return the number of timers of the context
+     */
+    default int contextCount(final long contextId) {
+        int contextCount = 0;
+        for (int index = count() - 1; index >= 0; index--) {
+            if (contextId(index) == contextId) {
+                contextCount++;
+            }
+        }
+        return contextCount;
+    }
+
+    /**
+     * Returns the timer ID of the n-th timer with the given context ID;  timers of a context are not ordered.  The
+     * default implementation iterates over all timers.
+     *
+     * @param contextId the context ID
+     * @param n         the timer number, in {@code [0..contextCount(contextId)-1]}
+     * @return the timer ID of the n-th timer of the context
+     * @throws IndexOutOfBoundsException if the context has no n-th timer
+     */
+    default long contextTimerId(final long contextId, final int n) {
+        int remaining = n;
+        for (int index = 0; index < count() && remaining >= 0; index++) {
+            if (contextId(index) == contextId && remaining-- == 0) {
+                return timerId(index);
+            }
+        }
+        throw new IndexOutOfBoundsException("Timer " + n + " of context " + contextId + " not found");
+    }
+
     default boolean hasTimer(final long timerId) {
         return index(timerId) >= 0;
     }
 
+    /**
+     * Adds the IDs of all timers matching the given selection to the provided list.  Timers are looked up through the
+     * context index if the selection contains {@link TimerBulkPayloadDescriptor#SELECT_CONTEXT SELECT_CONTEXT}, and
+     * by iterating over all timers otherwise.
+     *
+     * @param selection the selection flags as defined by {@link TimerBulkPayloadDescriptor}, all timers if zero
+     * @param contextId the context ID, ignored unless selected by context
+     * @param timerType the timer type, ignored unless selected by type
+     * @param timerIds  the list to add the matching timer IDs to, or null to count matching timers only
+     * @return the number of matching timers
+     */
+    default int collectTimerIds(final int selection, final long contextId, final int timerType,
+                                final LongArrayList timerIds) {
+        final boolean selectType = (selection & SELECT_TYPE) != 0;
+        int matching = 0;
+        if ((selection & SELECT_CONTEXT) != 0) {
+            for (int n = contextCount(contextId) - 1; n >= 0; n--) {
+                final long timerId = contextTimerId(contextId, n);
+                if (!selectType || timerType(index(timerId)) == timerType) {
+                    if (timerIds != null) {
+                        timerIds.addLong(timerId);
+                    }
+                    matching++;
+                }
+            }
+            return matching;
+        }
+        for (int index = count() - 1; index >= 0; index--) {
+            if (!selectType || timerType(index) == timerType) {
+                if (timerIds != null) {
+                    timerIds.addLong(timerId(index));
+                }
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+    default int countTimers(final int selection, final long contextId, final int timerType) {
+        return collectTimerIds(selection, contextId, timerType, null);
+    }
+
 }
@@ -51,6 +51,7 @@ public interface TimerStore {
 
         void remove(int index);
         void updateRepetition(int index, int repetition);
+        void reschedule(int index, long delta);
         default boolean updateRepetitionById(final long timerId, final int repetition) {
             final int index = index(timerId);
             if (index >= 0) {
@@ -0,0 +1,378 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replay;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.logging.ElaraLogger;
+import org.tools4j.elara.logging.Logger;
+import org.tools4j.elara.step.AgentStep;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+import org.tools4j.elara.store.index.EventStoreIndex;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.SendingResult;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.sequence.SequenceGenerator.NIL_SEQUENCE;
+
+/**
+ * Agent step serving {@link ReplayRequests replay requests} for ranges of event sequences from the event store.
+ * Requests are received via request receiver, and the requested events are sent to the requesting consumer via the
+ * event sender returned by {@link EventSenders#eventSender(int)} for the consumer ID of the request.
+ * <p>
+ * Up to {@code maxConcurrentReplays} requests from different consumers are served concurrently, each with its own
+ * event store poller;  a new request from a consumer replaces the consumer's pending request.  The start of the
+ * requested range is located via {@link EventStoreIndex} if one is provided, and otherwise by moving the poller
+ * backwards from its current position, or forward to the requested range.
+ * <p>
+ * Requested events that are not in the store yet are not sent;  the consumer receives them with the live event stream.
+ * Replay is performed incrementally with at most {@code maxEventsPerStep} events sent per {@link #doWork()}
+ * invocation, and is resumed when the event sender is back pressured.  A replay is abandoned with a warning if the
+ * event sender fails for any other reason, for instance because it is closed or disconnected;  the consumer requests
+ * the missing events again once it detects the gap.
+ */
+public class EventReplayServer implements AgentStep {
+
+    public static final int DEFAULT_MAX_EVENTS_PER_STEP = 64;
+    public static final int DEFAULT_MAX_CONCURRENT_REPLAYS = 8;
+
+    /**
+     * Provides the event sender to reply to a consumer.
+     */
+    @FunctionalInterface
+    public interface EventSenders {
+        /**
+         * Returns the sender for replayed events requested by the given consumer, or null if the consumer is unknown
+         * in which case the request is ignored.
+         *
+         * @param consumerId the consumer ID from the replay request
+         * @return the event sender for the consumer, or null if unknown
+         */
+        MessageSender eventSender(int consumerId);
+
+        static EventSenders single(final MessageSender eventSender) {
+            requireNonNull(eventSender);
+            return consumerId -> eventSender;
+        }
+    }
+
+    private final MessageStore eventStore;
+    private final EventStoreIndex eventStoreIndex;
+    private final MessageReceiver requestReceiver;
+    private final EventSenders eventSenders;
+    private final int maxEventsPerStep;
+    private final Replay[] replays;
+    private final ElaraLogger logger;
+    private final MessageReceiver.Handler requestHandler = this::onRequest;
+
+    private int activeReplays;
+    private int nextReplay;
+    private long failedReplays;
+
+    public EventReplayServer(final MessageStore eventStore,
+                             final MessageReceiver requestReceiver,
+                             final MessageSender eventSender) {
+        this(eventStore, null, requestReceiver, EventSenders.single(eventSender),
+                DEFAULT_MAX_EVENTS_PER_STEP, DEFAULT_MAX_CONCURRENT_REPLAYS);
+    }
+
+    public EventReplayServer(final MessageStore eventStore,
+                             final EventStoreIndex eventStoreIndex,
+                             final MessageReceiver requestReceiver,
+                             final EventSenders eventSenders) {
+        this(eventStore, eventStoreIndex, requestReceiver, eventSenders,
+                DEFAULT_MAX_EVENTS_PER_STEP, DEFAULT_MAX_CONCURRENT_REPLAYS);
+    }
+
+    /**
+     * Constructor with all parameters except logger factory.
+     *
+     * @param eventStore            the event store to replay from
+     * @param eventStoreIndex       index of the event store to locate requested events, or null to search the store
+     * @param requestReceiver       receiver for replay requests
+     * @param eventSenders          provides the event sender for the consumer ID of a request
+     * @param maxEventsPerStep      max events sent per invocation of {@link #doWork()} for all replays together
+     * @param maxConcurrentReplays  max number of requests served concurrently, further requests are polled once a
+     *                              replay has completed
+     */
+    public EventReplayServer(final MessageStore eventStore,
+                             final EventStoreIndex eventStoreIndex,
+                             final MessageReceiver requestReceiver,
+                             final EventSenders eventSenders,
+                             final int maxEventsPerStep,
+                             final int maxConcurrentReplays) {
+        this(eventStore, eventStoreIndex, requestReceiver, eventSenders, maxEventsPerStep, maxConcurrentReplays,
+                Logger.systemLoggerFactory());
+    }
+
+    /**
+     * Constructor with all parameters.
+     *
+     * @param eventStore            the event store to replay from
+     * @param eventStoreIndex       index of the event store to locate requested events, or null to search the store
+     * @param requestReceiver       receiver for replay requests
+     * @param eventSenders          provides the event sender for the consumer ID of a request
+     * @param maxEventsPerStep      max events sent per invocation of {@link #doWork()} for all replays together
+     * @param maxConcurrentReplays  max number of requests served concurrently, further requests are polled once a
+     *                              replay has completed
+     * @param loggerFactory         the logger factory to report replays that failed
+     */
+    public EventReplayServer(final MessageStore eventStore,
+                             final EventStoreIndex eventStoreIndex,
+                             final MessageReceiver requestReceiver,
+                             final EventSenders eventSenders,
+                             final int maxEventsPerStep,
+                             final int maxConcurrentReplays,
+                             final Logger.Factory loggerFactory) {
+        if (maxEventsPerStep < 1) {
+            throw new IllegalArgumentException("Max events per step must be positive: " + maxEventsPerStep);
+        }
+        if (maxConcurrentReplays < 1) {
+            throw new IllegalArgumentException("Max concurrent replays must be positive: " + maxConcurrentReplays);
+        }
+        this.eventStore = requireNonNull(eventStore);
+        this.eventStoreIndex = eventStoreIndex;
+        this.requestReceiver = requireNonNull(requestReceiver);
+        this.eventSenders = requireNonNull(eventSenders);
+        this.maxEventsPerStep = maxEventsPerStep;
+        this.replays = new Replay[maxConcurrentReplays];
+        this.logger = ElaraLogger.create(loggerFactory, getClass());
+    }
+
+    /**
+     * Returns true if a replay request is currently being served.
+     * @return true if replay is in progress
+     */
+    public boolean isReplaying() {
+        return activeReplays > 0;
+    }
+
+    /**
+     * Returns the number of replay requests currently being served.
+     * @return the number of active replays
+     */
+    public int activeReplays() {
+        return activeReplays;
+    }
+
+    /**
+     * Returns the number of replays abandoned because the event sender failed.
+     * @return the number of failed replays
+     */
+    public long failedReplays() {
+        return failedReplays;
+    }
+
+    @Override
+    public int doWork() {
+        int work = 0;
+        if (activeReplays < replays.length) {
+            work += requestReceiver.poll(requestHandler, 1);
+        }
+        if (activeReplays > 0) {
+            work += replayEvents();
+        }
+        return work;
+    }
+
+    private void onRequest(final DirectBuffer request) {
+        if (!ReplayRequests.isReplayRequest(request)) {
+            return;
+        }
+        final int consumerId = ReplayRequests.consumerId(request);
+        final long from = ReplayRequests.fromEventSequence(request);
+        final long to = ReplayRequests.toEventSequence(request);
+        if (from < 0 || to < from) {
+            return;
+        }
+        final MessageSender eventSender = eventSenders.eventSender(consumerId);
+        if (eventSender == null) {
+            return;
+        }
+        final Replay replay = replayFor(consumerId);
+        if (!replay.active) {
+            activeReplays++;
+        }
+        replay.start(consumerId, eventSender, from, to);
+    }
+
+    private Replay replayFor(final int consumerId) {
+        Replay free = null;
+        for (int i = 0; i < replays.length; i++) {
+            final Replay replay = replays[i];
+            if (replay == null) {
+                if (free == null) {
+                    free = replays[i] = new Replay(eventStore.poller());
+                }
+                continue;
+            }
+            if (replay.active) {
+                if (replay.consumerId == consumerId) {
+                    return replay;
+                }
+            } else if (free == null) {
+                free = replay;
+            }
+        }
+        //free is never null as requests are polled only if a replay is inactive
+        return requireNonNull(free);
+    }
+
+    private int replayEvents() {
+        final int maxEventsPerReplay = Math.max(1, maxEventsPerStep / activeReplays);
+        int work = 0;
+        for (int i = 0; i < replays.length && work < maxEventsPerStep; i++) {
+            final Replay replay = replays[nextReplay];
+            nextReplay = nextReplay + 1 < replays.length ? nextReplay + 1 : 0;
+            if (replay != null && replay.active) {
+                work += replay.replayEvents(Math.min(maxEventsPerReplay, maxEventsPerStep - work));
+                if (!replay.active) {
+                    activeReplays--;
+                }
+            }
+        }
+        return work;
+    }
+
+    private final class Replay {
+        final MessageStore.Poller eventPoller;
+        final MessageStore.Handler eventHandler = this::onEvent;
+        final MessageStore.Handler sequenceReader = this::readEventSequence;
+        int consumerId;
+        MessageSender eventSender;
+        long fromEventSequence = NIL_SEQUENCE;
+        long toEventSequence = NIL_SEQUENCE;
+        long lastPolledEventSequence = NIL_SEQUENCE;
+        long readEventSequence = NIL_SEQUENCE;
+        boolean active;
+        boolean blocked;
+
+        Replay(final MessageStore.Poller eventPoller) {
+            this.eventPoller = requireNonNull(eventPoller);
+        }
+
+        void start(final int consumerId, final MessageSender eventSender, final long from, final long to) {
+            this.consumerId = consumerId;
+            this.eventSender = eventSender;
+            this.fromEventSequence = from;
+            this.toEventSequence = to;
+            this.active = true;
+            if (eventStoreIndex != null && eventStoreIndex.moveToEventSequence(eventPoller, from)) {
+                lastPolledEventSequence = from - 1;
+                return;
+            }
+            if (from <= lastPolledEventSequence) {
+                moveBackBefore(from);
+            }
+        }
+
+        /**
+         * Moves the poller backwards to the last event before the given event sequence, or to the start of the
+         * store;  events before {@code from} are skipped when polling forward again.
+         */
+        void moveBackBefore(final long from) {
+            lastPolledEventSequence = NIL_SEQUENCE;
+            while (eventPoller.moveToPrevious()) {
+                readEventSequence = NIL_SEQUENCE;
+                eventPoller.poll(sequenceReader);
+                if (readEventSequence != NIL_SEQUENCE && readEventSequence < from) {
+                    lastPolledEventSequence = readEventSequence;
+                    return;
+                }
+            }
+        }
+
+        int replayEvents(final int maxEvents) {
+            int work = 0;
+            blocked = false;
+            while (active && work < maxEvents) {
+                if (eventPoller.poll(eventHandler) == 0) {
+                    if (!blocked) {
+                        //end of store reached
+                        active = false;
+                    }
+                    break;
+                }
+                work++;
+            }
+            return work;
+        }
+
+        Result readEventSequence(final DirectBuffer event) {
+            if (isSequencedEvent(event)) {
+                readEventSequence = FlyweightEvent.eventSequence(event);
+            }
+            return Result.PEEK;
+        }
+
+        Result onEvent(final DirectBuffer event) {
+            if (!isSequencedEvent(event)) {
+                return Result.POLL;
+            }
+            final long eventSequence = FlyweightEvent.eventSequence(event);
+            if (eventSequence < fromEventSequence) {
+                lastPolledEventSequence = eventSequence;
+                return Result.POLL;
+            }
+            if (eventSequence > toEventSequence) {
+                active = false;
+                return Result.PEEK;
+            }
+            final SendingResult result = eventSender.sendMessage(event, 0, event.capacity());
+            if (result == SendingResult.SENT) {
+                lastPolledEventSequence = eventSequence;
+                return Result.POLL;
+            }
+            if (result == SendingResult.BACK_PRESSURED) {
+                blocked = true;
+                return Result.PEEK;
+            }
+            active = false;
+            failedReplays++;
+            logger.warn("Replay of events {}..{} to consumer {} failed at event sequence {}: {}")
+                    .replace(fromEventSequence)
+                    .replace(toEventSequence)
+                    .replace(consumerId)
+                    .replace(eventSequence)
+                    .replace(result)
+                    .format();
+            return Result.PEEK;
+        }
+    }
+
+    /** Rollback events are included as they use up an event sequence */
+    private static boolean isSequencedEvent(final DirectBuffer frame) {
+        final byte type = FlyweightHeader.type(frame);
+        return FrameType.isEventType(type) || type == FrameType.ROLLBACK_EVENT_TYPE;
+    }
+
+    @Override
+    public String toString() {
+        return "EventReplayServer{activeReplays=" + activeReplays + "}";
+    }
+}
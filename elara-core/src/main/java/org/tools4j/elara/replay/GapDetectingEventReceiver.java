@@ -0,0 +1,292 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replay;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.SendingResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.sequence.SequenceGenerator.NIL_SEQUENCE;
+
+/**
+ * Event receiver detecting gaps in the event sequence of a live event stream, for instance received via UDP multicast.
+ * Events received ahead of the next expected event are buffered, and missing events are requested from an
+ * {@link EventReplayServer} via request sender.  Replayed events are received via replay receiver, and events are
+ * passed to the handler strictly in event sequence order without duplicates.
+ * <p>
+ * A request for missing events is repeated if the gap has not been closed within the request timeout.  Note that lost
+ * events at the tail of the live stream are only detected when a subsequent event is received.
+ */
+public class GapDetectingEventReceiver implements MessageReceiver {
+
+    public static final int DEFAULT_MAX_BUFFERED_EVENTS = 1024;
+    public static final long DEFAULT_REQUEST_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int INITIAL_EVENT_CAPACITY = 256;
+
+    private final MessageReceiver liveReceiver;
+    private final MessageReceiver replayReceiver;
+    private final MessageSender requestSender;
+    private final int consumerId;
+    private final long requestTimeoutNanos;
+    private final MutableDirectBuffer[] aheadEvents;
+    private final int[] aheadLengths;
+    private final MutableDirectBuffer request = new UnsafeBuffer(new byte[ReplayRequestDescriptor.HEADER_LENGTH]);
+    private final DirectBuffer event = new UnsafeBuffer(0, 0);
+    private final Handler eventHandler = this::onEvent;
+
+    private Handler handler;
+    private int limit;
+    private int received;
+    private long nextEventSequence;
+    private long highestEventSequence = NIL_SEQUENCE;
+    private int aheadCount;
+    private long requestedToEventSequence = NIL_SEQUENCE;
+    private long requestDeadline;
+    private long duplicateCount;
+    private long droppedCount;
+    private long requestCount;
+
+    /**
+     * Constructor with default max buffered events and request timeout, starting with the first received event.
+     *
+     * @param liveReceiver      the receiver for the live event stream
+     * @param replayReceiver    the receiver for events replayed by the replay server
+     * @param requestSender     the sender for replay requests
+     * @param consumerId        the consumer ID sent with replay requests
+     */
+    public GapDetectingEventReceiver(final MessageReceiver liveReceiver,
+                                     final MessageReceiver replayReceiver,
+                                     final MessageSender requestSender,
+                                     final int consumerId) {
+        this(liveReceiver, replayReceiver, requestSender, consumerId, NIL_SEQUENCE,
+                DEFAULT_MAX_BUFFERED_EVENTS, DEFAULT_REQUEST_TIMEOUT_NANOS);
+    }
+
+    /**
+     * Constructor with all parameters.
+     *
+     * @param liveReceiver          the receiver for the live event stream
+     * @param replayReceiver        the receiver for events replayed by the replay server
+     * @param requestSender         the sender for replay requests
+     * @param consumerId            the consumer ID sent with replay requests
+     * @param nextEventSequence     the event sequence of the first event to pass to the handler, or
+     *                              {@link org.tools4j.elara.sequence.SequenceGenerator#NIL_SEQUENCE NIL_SEQUENCE} to
+     *                              start with the first received event
+     * @param maxBufferedEvents     the max number of events buffered ahead of the next expected event
+     * @param requestTimeoutNanos   the time in nanoseconds after which a replay request is repeated if the gap has not
+     *                              been closed
+     */
+    public GapDetectingEventReceiver(final MessageReceiver liveReceiver,
+                                     final MessageReceiver replayReceiver,
+                                     final MessageSender requestSender,
+                                     final int consumerId,
+                                     final long nextEventSequence,
+                                     final int maxBufferedEvents,
+                                     final long requestTimeoutNanos) {
+        if (maxBufferedEvents < 1) {
+            throw new IllegalArgumentException("Max buffered events must be positive: " + maxBufferedEvents);
+        }
+        if (requestTimeoutNanos < 0) {
+            throw new IllegalArgumentException("Request timeout cannot be negative: " + requestTimeoutNanos);
+        }
+        this.liveReceiver = requireNonNull(liveReceiver);
+        this.replayReceiver = requireNonNull(replayReceiver);
+        this.requestSender = requireNonNull(requestSender);
+        this.consumerId = consumerId;
+        this.nextEventSequence = nextEventSequence;
+        this.requestTimeoutNanos = requestTimeoutNanos;
+        this.aheadEvents = new MutableDirectBuffer[maxBufferedEvents];
+        this.aheadLengths = new int[maxBufferedEvents];
+    }
+
+    /**
+     * Returns the event sequence of the next event to be passed to the handler.
+     * @return the next expected event sequence, or NIL_SEQUENCE if no event has been received yet
+     */
+    public long nextEventSequence() {
+        return nextEventSequence;
+    }
+
+    /** @return the number of events discarded because they had already been received */
+    public long duplicateCount() {
+        return duplicateCount;
+    }
+
+    /** @return the number of events discarded because they were too far ahead of the next expected event */
+    public long droppedCount() {
+        return droppedCount;
+    }
+
+    /** @return the number of replay requests sent */
+    public long requestCount() {
+        return requestCount;
+    }
+
+    @Override
+    public int poll(final Handler handler) {
+        return poll(handler, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        if (this.handler != handler) {
+            this.handler = requireNonNull(handler);
+        }
+        if (limit <= 0) {
+            return 0;
+        }
+        this.limit = limit;
+        this.received = 0;
+        drainAheadEvents();
+        //events buffered ahead are not counted, hence keep polling until limit is reached or no more messages
+        while (received < limit && replayReceiver.poll(eventHandler, limit - received) > 0);
+        while (received < limit && liveReceiver.poll(eventHandler, limit - received) > 0);
+        requestMissingEvents();
+        return received;
+    }
+
+    private void onEvent(final DirectBuffer message) {
+        final byte type = FlyweightHeader.type(message);
+        if (!FrameType.isEventType(type) && type != FrameType.ROLLBACK_EVENT_TYPE) {
+            //rollback events use up an event sequence and are hence sequenced like other events
+            deliver(message);
+            return;
+        }
+        final long eventSequence = FlyweightEvent.eventSequence(message);
+        if (nextEventSequence == NIL_SEQUENCE) {
+            nextEventSequence = eventSequence;
+        }
+        if (eventSequence > highestEventSequence) {
+            highestEventSequence = eventSequence;
+        }
+        if (eventSequence < nextEventSequence) {
+            duplicateCount++;
+            return;
+        }
+        if (eventSequence == nextEventSequence && received < limit && aheadLengths[slot(eventSequence)] == 0) {
+            deliver(message);
+            nextEventSequence++;
+            drainAheadEvents();
+            return;
+        }
+        bufferAheadEvent(eventSequence, message);
+    }
+
+    private void bufferAheadEvent(final long eventSequence, final DirectBuffer message) {
+        if (eventSequence - nextEventSequence >= aheadEvents.length) {
+            droppedCount++;
+            return;
+        }
+        final int slot = slot(eventSequence);
+        if (aheadLengths[slot] != 0) {
+            duplicateCount++;
+            return;
+        }
+        final int length = message.capacity();
+        MutableDirectBuffer buffer = aheadEvents[slot];
+        if (buffer == null) {
+            buffer = aheadEvents[slot] = new ExpandableArrayBuffer(Math.max(INITIAL_EVENT_CAPACITY, length));
+        }
+        buffer.putBytes(0, message, 0, length);
+        aheadLengths[slot] = length;
+        aheadCount++;
+    }
+
+    private void drainAheadEvents() {
+        while (aheadCount > 0 && received < limit) {
+            final int slot = slot(nextEventSequence);
+            final int length = aheadLengths[slot];
+            if (length == 0) {
+                return;
+            }
+            aheadLengths[slot] = 0;
+            aheadCount--;
+            nextEventSequence++;
+            event.wrap(aheadEvents[slot], 0, length);
+            try {
+                deliver(event);
+            } finally {
+                event.wrap(0, 0);
+            }
+        }
+    }
+
+    private void deliver(final DirectBuffer message) {
+        received++;
+        handler.onMessage(message);
+    }
+
+    private int slot(final long eventSequence) {
+        return (int)(eventSequence % aheadEvents.length);
+    }
+
+    private void requestMissingEvents() {
+        if (nextEventSequence == NIL_SEQUENCE || highestEventSequence <= nextEventSequence) {
+            requestedToEventSequence = NIL_SEQUENCE;
+            return;
+        }
+        if (aheadLengths[slot(nextEventSequence)] != 0) {
+            //no gap, buffered events are passed to the handler next time
+            return;
+        }
+        final long time = System.nanoTime();
+        if (requestedToEventSequence >= nextEventSequence && time - requestDeadline < 0) {
+            return;
+        }
+        final long toEventSequence = highestEventSequence - 1;
+        final int length = ReplayRequests.replayRequest(request, 0, consumerId, nextEventSequence, toEventSequence);
+        if (requestSender.sendMessage(request, 0, length) == SendingResult.SENT) {
+            requestedToEventSequence = toEventSequence;
+            requestDeadline = time + requestTimeoutNanos;
+            requestCount++;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return liveReceiver.isClosed();
+    }
+
+    @Override
+    public void close() {
+        liveReceiver.close();
+        replayReceiver.close();
+        requestSender.close();
+    }
+
+    @Override
+    public String toString() {
+        return "GapDetectingEventReceiver";
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replay;
+
+import org.tools4j.elara.logging.ElaraLogger;
+import org.tools4j.elara.logging.Logger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Listener for progress of event replay at startup, invoked by the replay step after every batch of replayed events
+ * and once when replay is complete.
+ */
+@FunctionalInterface
+public interface ReplayProgress {
+    /**
+     * Invoked after a batch of events has been replayed and when replay is complete.
+     *
+     * @param replayedEvents    the number of events replayed so far
+     * @param elapsedNanos      the time elapsed since replay started
+     * @param complete          true if the end of the event store has been reached
+     */
+    void onProgress(long replayedEvents, long elapsedNanos, boolean complete);
+
+    /**
+     * Invoked by the replay step after a batch of events has been replayed and when replay is complete, with the
+     * position of the replay poller in the event store;  the default implementation ignores the position and invokes
+     * {@link #onProgress(long, long, boolean)}.
+     *
+     * @param replayedEvents    the number of events replayed so far
+     * @param entryId           the entry ID of the next event to be polled by the replay poller, all entries before it
+     *                          have been replayed
+     * @param elapsedNanos      the time elapsed since replay started
+     * @param complete          true if the end of the event store has been reached
+     */
+    default void onProgress(final long replayedEvents,
+                            final long entryId,
+                            final long elapsedNanos,
+                            final boolean complete) {
+        onProgress(replayedEvents, elapsedNanos, complete);
+    }
+
+    ReplayProgress NOOP = (replayedEvents, elapsedNanos, complete) -> {};
+
+    default ReplayProgress andThen(final ReplayProgress next) {
+        requireNonNull(next);
+        final ReplayProgress first = this;
+        return new ReplayProgress() {
+            @Override
+            public void onProgress(final long replayedEvents, final long elapsedNanos, final boolean complete) {
+                first.onProgress(replayedEvents, elapsedNanos, complete);
+                next.onProgress(replayedEvents, elapsedNanos, complete);
+            }
+
+            @Override
+            public void onProgress(final long replayedEvents, final long entryId, final long elapsedNanos,
+                                   final boolean complete) {
+                first.onProgress(replayedEvents, entryId, elapsedNanos, complete);
+                next.onProgress(replayedEvents, entryId, elapsedNanos, complete);
+            }
+        };
+    }
+
+    static double eventsPerSecond(final long replayedEvents, final long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : replayedEvents * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the estimated time in milliseconds until replay is complete.
+     *
+     * @param replayedEvents    the number of events replayed so far
+     * @param expectedEvents    the expected total number of events, or a negative value if unknown
+     * @param elapsedNanos      the time elapsed since replay started
+     * @return the estimated remaining replay time in milliseconds, or -1 if unknown
+     */
+    static long etaMillis(final long replayedEvents, final long expectedEvents, final long elapsedNanos) {
+        if (expectedEvents < 0 || replayedEvents <= 0) {
+            return -1;
+        }
+        final long remaining = Math.max(0, expectedEvents - replayedEvents);
+        return (long)(remaining * (elapsedNanos / 1e6) / replayedEvents);
+    }
+
+    /**
+     * Returns a replay progress listener logging progress at the given interval and when replay is complete.
+     *
+     * @param loggerFactory     the logger factory
+     * @param expectedEvents    the expected total number of events to estimate the remaining time, or -1 if unknown
+     * @param intervalMillis    the interval for logging progress messages
+     * @return a listener logging replay progress
+     */
+    static ReplayProgress logging(final Logger.Factory loggerFactory,
+                                  final long expectedEvents,
+                                  final long intervalMillis) {
+        final ElaraLogger logger = ElaraLogger.create(loggerFactory, ReplayProgress.class);
+        final long intervalNanos = intervalMillis * 1_000_000;
+        return new ReplayProgress() {
+            long nextLogNanos = intervalNanos;
+
+            @Override
+            public void onProgress(final long replayedEvents, final long elapsedNanos, final boolean complete) {
+                if (complete) {
+                    logger.info("Replay complete: {} events in {} ms, {} events/s")
+                            .replace(replayedEvents)
+                            .replace(elapsedNanos / 1_000_000)
+                            .replace((long)eventsPerSecond(replayedEvents, elapsedNanos))
+                            .format();
+                } else if (elapsedNanos >= nextLogNanos) {
+                    nextLogNanos = elapsedNanos + intervalNanos;
+                    logger.info("Replayed {} events in {} ms, {} events/s, ETA {} ms")
+                            .replace(replayedEvents)
+                            .replace(elapsedNanos / 1_000_000)
+                            .replace((long)eventsPerSecond(replayedEvents, elapsedNanos))
+                            .replace(etaMillis(replayedEvents, expectedEvents, elapsedNanos))
+                            .format();
+                }
+            }
+        };
+    }
+}
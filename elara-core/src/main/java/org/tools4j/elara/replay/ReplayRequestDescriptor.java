@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replay;
+
+/**
+ * Descriptor of message layout for replay requests sent by an event stream consumer to an {@link EventReplayServer}.
+ * <pre>
+
+     0         1         2         3         4         5         6
+     0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4
+     +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+     |Version| Flags |     Type      |          Consumer ID          |
+     +-------+-------+-------+-------+-------+-------+-------+-------+
+     |                   From Event Sequence                         |
+     +-------+-------+-------+-------+-------+-------+-------+-------+
+     |                    To Event Sequence                          |
+     +-------+-------+-------+-------+-------+-------+-------+-------+
+
+ * </pre>
+ * The requested range of event sequences is inclusive at both ends.
+ */
+public enum ReplayRequestDescriptor {
+    ;
+
+    public static final byte VERSION = 1;
+    public static final byte FLAGS_NONE = 0;
+
+    public static final int VERSION_OFFSET = 0;
+    public static final int VERSION_LENGTH = Byte.BYTES;
+    public static final int FLAGS_OFFSET = VERSION_OFFSET + VERSION_LENGTH;
+    public static final int FLAGS_LENGTH = Byte.BYTES;
+    public static final int TYPE_OFFSET = FLAGS_OFFSET + FLAGS_LENGTH;
+    public static final int TYPE_LENGTH = Short.BYTES;
+    public static final int CONSUMER_ID_OFFSET = TYPE_OFFSET + TYPE_LENGTH;
+    public static final int CONSUMER_ID_LENGTH = Integer.BYTES;
+    public static final int FROM_EVENT_SEQUENCE_OFFSET = CONSUMER_ID_OFFSET + CONSUMER_ID_LENGTH;
+    public static final int FROM_EVENT_SEQUENCE_LENGTH = Long.BYTES;
+    public static final int TO_EVENT_SEQUENCE_OFFSET = FROM_EVENT_SEQUENCE_OFFSET + FROM_EVENT_SEQUENCE_LENGTH;
+    public static final int TO_EVENT_SEQUENCE_LENGTH = Long.BYTES;
+
+    public static final int HEADER_OFFSET = 0;
+    public static final int HEADER_LENGTH = TO_EVENT_SEQUENCE_OFFSET + TO_EVENT_SEQUENCE_LENGTH;
+}
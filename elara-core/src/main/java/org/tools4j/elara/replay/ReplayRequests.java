@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replay;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.CONSUMER_ID_OFFSET;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.FLAGS_NONE;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.FLAGS_OFFSET;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.FROM_EVENT_SEQUENCE_OFFSET;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.HEADER_LENGTH;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.TO_EVENT_SEQUENCE_OFFSET;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.TYPE_OFFSET;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.VERSION;
+import static org.tools4j.elara.replay.ReplayRequestDescriptor.VERSION_OFFSET;
+
+/**
+ * Replay request messages sent from event stream consumers to an {@link EventReplayServer}; they are neither commands
+ * nor events, but messages exchanged on a separate request stream.
+ */
+public enum ReplayRequests {
+    ;
+    public static final short REPLAY_REQUEST = -97;
+
+    public static int replayRequest(final MutableDirectBuffer buffer, final int offset,
+                                    final int consumerId,
+                                    final long fromEventSequence,
+                                    final long toEventSequence) {
+        buffer.putByte(offset + VERSION_OFFSET, VERSION);
+        buffer.putByte(offset + FLAGS_OFFSET, FLAGS_NONE);
+        buffer.putShort(offset + TYPE_OFFSET, REPLAY_REQUEST);
+        buffer.putInt(offset + CONSUMER_ID_OFFSET, consumerId);
+        buffer.putLong(offset + FROM_EVENT_SEQUENCE_OFFSET, fromEventSequence);
+        buffer.putLong(offset + TO_EVENT_SEQUENCE_OFFSET, toEventSequence);
+        return HEADER_LENGTH;
+    }
+
+    public static boolean isReplayRequest(final DirectBuffer buffer) {
+        return buffer.capacity() >= HEADER_LENGTH &&
+                buffer.getByte(VERSION_OFFSET) == VERSION &&
+                buffer.getShort(TYPE_OFFSET) == REPLAY_REQUEST;
+    }
+
+    public static int consumerId(final DirectBuffer buffer) {
+        return buffer.getInt(CONSUMER_ID_OFFSET);
+    }
+
+    public static long fromEventSequence(final DirectBuffer buffer) {
+        return buffer.getLong(FROM_EVENT_SEQUENCE_OFFSET);
+    }
+
+    public static long toEventSequence(final DirectBuffer buffer) {
+        return buffer.getLong(TO_EVENT_SEQUENCE_OFFSET);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replica;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.app.state.BaseState;
+import org.tools4j.elara.stream.MessageReceiver;
+
+/**
+ * Input for queries served by a {@link ReadModelReplica};  polled on the replica thread after the replica has applied
+ * new events.
+ */
+@FunctionalInterface
+public interface QueryInput {
+    /**
+     * Polls and answers queries that can be answered given the events applied to the replica's state.
+     *
+     * @param appliedState the base state with sequences of events applied to the replica's state
+     * @return the number of queries answered, zero if none were available or ready
+     */
+    int poll(BaseState appliedState);
+
+    QueryInput NOOP = appliedState -> 0;
+
+    /**
+     * Determines whether a query can be answered given the events applied to the replica's state, for instance to
+     * support read-your-writes consistency when the query carries the source ID and sequence of a command sent
+     * earlier by the same client, or an event sequence seen by the client.
+     */
+    @FunctionalInterface
+    interface Readiness {
+        boolean isReady(DirectBuffer query, BaseState appliedState);
+
+        Readiness ALWAYS = (query, appliedState) -> true;
+    }
+
+    /**
+     * Returns a query input receiving queries from a message receiver.
+     *
+     * @param receiver  the message receiver for queries
+     * @param handler   the handler to answer queries
+     * @return a query input answering queries in the order they are received
+     */
+    static QueryInput receiving(final MessageReceiver receiver, final QueryHandler handler) {
+        return receiving(receiver, Readiness.ALWAYS, handler);
+    }
+
+    /**
+     * Returns a query input receiving queries from a message receiver.  A query that is not ready is held back,
+     * together with all queries received after it, until the replica has applied the events required by the query.
+     *
+     * @param receiver  the message receiver for queries
+     * @param readiness determines whether a query can be answered given the events applied so far
+     * @param handler   the handler to answer queries
+     * @return a query input answering queries in the order they are received
+     */
+    static QueryInput receiving(final MessageReceiver receiver,
+                                final Readiness readiness,
+                                final QueryHandler handler) {
+        return new ReceivingQueryInput(receiver, readiness, handler);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replica;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.IdleStrategy;
+import org.tools4j.elara.agent.ReadModelAgent;
+import org.tools4j.elara.app.handler.EventApplier;
+import org.tools4j.elara.app.state.BaseState;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.app.state.MutableBaseState;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.run.ElaraRunner;
+import org.tools4j.elara.step.AgentStep;
+import org.tools4j.elara.store.CommittedEventPoller;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A read-model replica tails the committed events of an event store on its own thread and applies them through an
+ * {@link EventApplier} to a separate copy of the application state.  Queries are answered from the replica's state via
+ * {@link QueryInput}, which keeps query load off the processor thread.
+ * <p>
+ * The event applier passed to the replica must modify a state instance owned by the replica and not the state of the
+ * processing application.  Multiple replicas can tail the same event store, each running on its own thread.
+ * <p>
+ * The sequence of the last event applied to the replica state is published through {@link #appliedEventSequence()}
+ * and can be read from any thread.  Queries requiring read-your-writes consistency use a {@link QueryInput.Readiness}
+ * to hold back the query until the replica has applied the events of the client's command.
+ */
+public class ReadModelReplica implements AgentStep {
+
+    public static final int DEFAULT_EVENT_BATCH_SIZE = 64;
+
+    private final MessageStore.Poller eventPoller;
+    private final EventApplier eventApplier;
+    private final QueryInput queryInput;
+    private final int eventBatchSize;
+    private final MutableBaseState baseState = new DefaultBaseState();
+    private final AtomicLong appliedEventSequence = new AtomicLong(BaseState.NIL_SEQUENCE);
+    private final FlyweightEvent flyweightEvent = new FlyweightEvent();
+    private final MessageStore.Handler pollerHandler = this::onEvent;
+    private int batchEvents;
+
+    public ReadModelReplica(final MessageStore eventStore,
+                            final EventApplier eventApplier,
+                            final QueryInput queryInput) {
+        this(eventStore, eventApplier, queryInput, DEFAULT_EVENT_BATCH_SIZE);
+    }
+
+    public ReadModelReplica(final MessageStore eventStore,
+                            final EventApplier eventApplier,
+                            final QueryInput queryInput,
+                            final int eventBatchSize) {
+        if (eventBatchSize <= 0) {
+            throw new IllegalArgumentException("Event batch size must be positive: " + eventBatchSize);
+        }
+        this.eventPoller = new CommittedEventPoller(eventStore);
+        this.eventApplier = requireNonNull(eventApplier);
+        this.queryInput = requireNonNull(queryInput);
+        this.eventBatchSize = eventBatchSize;
+    }
+
+    /**
+     * Returns the sequence of the last event applied to the replica state;  safe to be invoked from any thread.
+     *
+     * @return the last applied event sequence, or {@link BaseState#NIL_SEQUENCE} if no event has been applied yet
+     */
+    public long appliedEventSequence() {
+        return appliedEventSequence.get();
+    }
+
+    /**
+     * Returns the base state of the replica;  must only be accessed from the replica thread, for instance from a
+     * {@link QueryHandler} or an {@link QueryInput.Readiness} that is not passed the state directly.
+     *
+     * @return the base state with the events applied to the replica state
+     */
+    public BaseState baseState() {
+        return baseState;
+    }
+
+    /**
+     * Applies up to event batch size committed events to the replica state and then polls the query input.
+     *
+     * @return the number of applied events plus the number of answered queries
+     */
+    @Override
+    @SuppressWarnings("StatementWithEmptyBody")
+    public int doWork() {
+        batchEvents = 0;
+        while (batchEvents < eventBatchSize && eventPoller.poll(pollerHandler) > 0);
+        final int events = batchEvents;
+        if (events > 0) {
+            appliedEventSequence.lazySet(baseState.lastAppliedEventSequence());
+        }
+        return events + queryInput.poll(baseState);
+    }
+
+    private Result onEvent(final DirectBuffer event) {
+        try {
+            flyweightEvent.wrap(event, 0);
+            eventApplier.onEvent(flyweightEvent);
+            baseState.applyEvent(flyweightEvent);
+            batchEvents++;
+        } finally {
+            flyweightEvent.reset();
+        }
+        return Result.POLL;
+    }
+
+    /**
+     * Starts this replica on a new thread.
+     *
+     * @param idleStrategy  the idle strategy for the replica thread
+     * @param errorHandler  the handler for errors thrown when applying events or answering queries
+     * @return the runner of the replica thread
+     */
+    public ElaraRunner launch(final IdleStrategy idleStrategy, final ErrorHandler errorHandler) {
+        return ElaraRunner.startOnThread(new AgentRunner(idleStrategy, errorHandler, null,
+                new ReadModelAgent(this)));
+    }
+
+    @Override
+    public String toString() {
+        return "ReadModelReplica{" +
+                "appliedEventSequence=" + appliedEventSequence() +
+                ", queryInput=" + queryInput +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replica;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.app.state.BaseState;
+import org.tools4j.elara.stream.MessageReceiver;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Query input receiving queries from a message receiver, holding back a query that is not ready until the replica
+ * has applied the events it requires.
+ */
+final class ReceivingQueryInput implements QueryInput, MessageReceiver.Handler {
+
+    /** Maximum number of queries received per poll */
+    private static final int LIMIT = 64;
+
+    private final MessageReceiver receiver;
+    private final Readiness readiness;
+    private final QueryHandler handler;
+    private final MutableDirectBuffer pending = new ExpandableDirectByteBuffer(256);
+    private final UnsafeBuffer pendingView = new UnsafeBuffer(0, 0);
+    private int pendingLength = -1;
+    private BaseState appliedState;
+    private int answered;
+
+    ReceivingQueryInput(final MessageReceiver receiver, final Readiness readiness, final QueryHandler handler) {
+        this.receiver = requireNonNull(receiver);
+        this.readiness = requireNonNull(readiness);
+        this.handler = requireNonNull(handler);
+    }
+
+    @Override
+    public int poll(final BaseState appliedState) {
+        if (pendingLength >= 0) {
+            pendingView.wrap(pending, 0, pendingLength);
+            if (!readiness.isReady(pendingView, appliedState)) {
+                return 0;
+            }
+            pendingLength = -1;
+            handler.onQuery(pendingView, appliedState);
+            answered = 1;
+        } else {
+            answered = 0;
+        }
+        this.appliedState = appliedState;
+        try {
+            for (int i = 0; i < LIMIT && pendingLength < 0; i++) {
+                if (receiver.poll(this, 1) == 0) {
+                    break;
+                }
+            }
+        } finally {
+            this.appliedState = null;
+        }
+        return answered;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer query) {
+        if (readiness.isReady(query, appliedState)) {
+            handler.onQuery(query, appliedState);
+            answered++;
+            return;
+        }
+        pending.putBytes(0, query, 0, query.capacity());
+        pendingLength = query.capacity();
+    }
+
+    @Override
+    public String toString() {
+        return "ReceivingQueryInput{receiver=" + receiver + ", pending=" + (pendingLength >= 0) + '}';
+    }
+}
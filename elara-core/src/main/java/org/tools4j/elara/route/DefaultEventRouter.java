@@ -28,10 +28,12 @@ import org.tools4j.elara.app.handler.EventApplier;
 import org.tools4j.elara.app.state.BaseState;
 import org.tools4j.elara.command.Command;
 import org.tools4j.elara.flyweight.BaseEvents;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.flyweight.EventFrame;
 import org.tools4j.elara.flyweight.EventType;
 import org.tools4j.elara.flyweight.FlyweightEvent;
 import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FrameChecksum;
 import org.tools4j.elara.store.ExpandableDirectBuffer;
 import org.tools4j.elara.store.MessageStore.Appender;
 import org.tools4j.elara.store.MessageStore.AppendingContext;
@@ -47,6 +49,7 @@ public class DefaultEventRouter implements EventRouter.Default, CommandTransacti
     private final BaseState baseState;
     private final Appender appender;
     private final EventApplier eventApplier;
+    private final ChecksumPolicy checksumPolicy;
     private final RoutingContext routingContext = new RoutingContext();
 
     private Command command;
@@ -57,10 +60,19 @@ public class DefaultEventRouter implements EventRouter.Default, CommandTransacti
                               final BaseState baseState,
                               final Appender appender,
                               final EventApplier eventApplier) {
+        this(timeSource, baseState, appender, eventApplier, ChecksumPolicy.NONE);
+    }
+
+    public DefaultEventRouter(final TimeSource timeSource,
+                              final BaseState baseState,
+                              final Appender appender,
+                              final EventApplier eventApplier,
+                              final ChecksumPolicy checksumPolicy) {
         this.timeSource = requireNonNull(timeSource);
         this.baseState = requireNonNull(baseState);
         this.appender = requireNonNull(appender);
         this.eventApplier = requireNonNull(eventApplier);
+        this.checksumPolicy = requireNonNull(checksumPolicy);
     }
 
     @Override
@@ -187,7 +199,9 @@ public class DefaultEventRouter implements EventRouter.Default, CommandTransacti
                     assert nextIndex > 0;
                     FlyweightEvent.writeEventType(EventType.APP_COMMIT, ac.buffer());
                 }
-                ac.commit(FlyweightHeader.frameSize(ac.buffer()));
+                ac.commit(checksumPolicy.appendChecksum() ?
+                        FrameChecksum.writeChecksum(ac.buffer()) :
+                        FlyweightHeader.frameSize(ac.buffer()));
             } finally {
                 context = null;
             }
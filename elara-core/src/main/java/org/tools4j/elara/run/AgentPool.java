@@ -0,0 +1,452 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+import org.tools4j.elara.app.config.AppConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pool of agent threads hosting many agents, for instance the agents of many small elara applications that are idle
+ * most of the time.  Each pool thread invokes the agents currently assigned to it in a round of its duty cycle.
+ * <p>
+ * The work of each agent is measured as the time spent in duty cycle invocations that did some work.  The pool
+ * periodically rebalances agents based on the measured CPU share:  agents whose share reaches the dedicated share
+ * threshold are moved to a thread of their own as long as threads are available, and all other agents share the
+ * remaining threads.  Agents are moved between threads without being restarted:  {@link Agent#onStart()} is invoked
+ * once when an agent first runs and {@link Agent#onClose()} when it is removed from the pool or the pool is closed.
+ * <p>
+ * Exceptions thrown by an agent are passed to the error handler without affecting other agents of the same thread.
+ */
+public class AgentPool implements AutoCloseable {
+
+    public static final double DEFAULT_DEDICATED_SHARE = 0.5;
+    public static final long DEFAULT_REBALANCE_INTERVAL_MILLIS = 1000;
+
+    private final ErrorHandler errorHandler;
+    private final double dedicatedShare;
+    private final long rebalanceIntervalNanos;
+    private final Worker[] workers;
+    private final AgentRunner[] runners;
+    private final List<PooledAgent> agents = new CopyOnWriteArrayList<>();
+    private long lastRebalanceNanos;
+    private volatile long rebalanceCount;
+    private volatile boolean closed;
+
+    public AgentPool(final int threads,
+                     final Supplier<? extends IdleStrategy> idleStrategySupplier,
+                     final ErrorHandler errorHandler) {
+        this(threads, idleStrategySupplier, errorHandler, DEFAULT_DEDICATED_SHARE, DEFAULT_REBALANCE_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructor for agent pool starting the pool threads.
+     *
+     * @param threads                   the number of pool threads
+     * @param idleStrategySupplier      supplier for the idle strategy of each pool thread
+     * @param errorHandler              the handler for errors thrown by pooled agents
+     * @param dedicatedShare            the CPU share in {@code (0..1]} at which an agent is moved to a thread of its own
+     * @param rebalanceIntervalMillis   the interval for rebalancing of agents based on their measured work
+     */
+    public AgentPool(final int threads,
+                     final Supplier<? extends IdleStrategy> idleStrategySupplier,
+                     final ErrorHandler errorHandler,
+                     final double dedicatedShare,
+                     final long rebalanceIntervalMillis) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        if (!(dedicatedShare > 0 && dedicatedShare <= 1)) {
+            throw new IllegalArgumentException("Dedicated share must be in (0..1]: " + dedicatedShare);
+        }
+        if (rebalanceIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Rebalance interval must be positive: " + rebalanceIntervalMillis);
+        }
+        this.errorHandler = requireNonNull(errorHandler);
+        this.dedicatedShare = dedicatedShare;
+        this.rebalanceIntervalNanos = rebalanceIntervalMillis * 1_000_000;
+        this.workers = new Worker[threads];
+        this.runners = new AgentRunner[threads];
+        this.lastRebalanceNanos = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+            runners[i] = new AgentRunner(idleStrategySupplier.get(), errorHandler, null, workers[i]);
+        }
+        for (final AgentRunner runner : runners) {
+            ElaraRunner.startOnThread(runner);
+        }
+    }
+
+    /** @return the number of pool threads */
+    public int threads() {
+        return workers.length;
+    }
+
+    /** @return the agents currently hosted by this pool */
+    public List<PooledAgent> agents() {
+        return agents;
+    }
+
+    /** @return the number of rebalancing rounds performed so far */
+    public long rebalanceCount() {
+        return rebalanceCount;
+    }
+
+    /**
+     * Creates the agent for the given application and adds it to this pool.
+     *
+     * @param appConfig the application configuration
+     * @return the handle for the pooled application agent
+     */
+    public PooledAgent launch(final AppConfig appConfig) {
+        return Elara.launch(appConfig, this);
+    }
+
+    /**
+     * Adds an agent to this pool, assigning it to the thread with the lowest measured load.
+     *
+     * @param agent the agent to add
+     * @return the handle for the pooled agent
+     */
+    public PooledAgent add(final Agent agent) {
+        synchronized (workers) {
+            if (closed) {
+                throw new IllegalStateException("Agent pool is closed");
+            }
+            final int worker = leastLoadedWorker();
+            final PooledAgent pooled = new PooledAgent(agent, worker);
+            agents.add(pooled);
+            workers[worker].inbox.offer(pooled);
+            return pooled;
+        }
+    }
+
+    private int leastLoadedWorker() {
+        final double[] loads = new double[workers.length];
+        final int[] counts = new int[workers.length];
+        for (final PooledAgent agent : agents) {
+            loads[agent.targetWorker] += agent.cpuShare;
+            counts[agent.targetWorker]++;
+        }
+        int best = 0;
+        for (int i = 1; i < workers.length; i++) {
+            if (loads[i] < loads[best] || (loads[i] == loads[best] && counts[i] < counts[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private void rebalanceIfDue(final long nanoTime) {
+        final long elapsed = nanoTime - lastRebalanceNanos;
+        if (elapsed < rebalanceIntervalNanos) {
+            return;
+        }
+        lastRebalanceNanos = nanoTime;
+        rebalanceCount++;
+        final PooledAgent[] snapshot = agents.toArray(new PooledAgent[0]);
+        for (final PooledAgent agent : snapshot) {
+            agent.updateCpuShare(elapsed);
+        }
+        Arrays.sort(snapshot, (a, b) -> Double.compare(b.cpuShare, a.cpuShare));
+        int busy = 0;
+        while (busy < snapshot.length && snapshot[busy].cpuShare >= dedicatedShare) {
+            busy++;
+        }
+        final int dedicated = Math.min(busy, snapshot.length > busy ? workers.length - 1 : workers.length);
+        final boolean[] taken = new boolean[workers.length];
+        final List<PooledAgent> unassigned = new ArrayList<>();
+        for (int i = 0; i < dedicated; i++) {
+            final int current = snapshot[i].targetWorker;
+            if (!taken[current]) {
+                taken[current] = true;
+            } else {
+                unassigned.add(snapshot[i]);
+            }
+        }
+        for (final PooledAgent agent : unassigned) {
+            for (int w = 0; w < workers.length; w++) {
+                if (!taken[w]) {
+                    taken[w] = true;
+                    agent.targetWorker = w;
+                    break;
+                }
+            }
+        }
+        final double[] loads = new double[workers.length];
+        final int[] counts = new int[workers.length];
+        for (int i = dedicated; i < snapshot.length; i++) {
+            final PooledAgent agent = snapshot[i];
+            int target = agent.targetWorker;
+            if (taken[target]) {
+                target = -1;
+                for (int w = 0; w < workers.length; w++) {
+                    if (!taken[w] && (target < 0 || loads[w] < loads[target] ||
+                            (loads[w] == loads[target] && counts[w] < counts[target]))) {
+                        target = w;
+                    }
+                }
+            }
+            if (target < 0) {
+                //more busy agents than threads
+                target = agent.targetWorker;
+            }
+            loads[target] += agent.cpuShare;
+            counts[target]++;
+            agent.targetWorker = target;
+        }
+    }
+
+    /**
+     * Returns a report with the CPU share and thread of each pooled agent as measured in the last rebalancing round.
+     *
+     * @return the report with one line per pooled agent
+     */
+    public String report() {
+        final StringBuilder sb = new StringBuilder(64 * (agents.size() + 1));
+        sb.append("AgentPool{threads=").append(workers.length).append(", agents=").append(agents.size()).append('}');
+        for (final PooledAgent agent : agents) {
+            sb.append(System.lineSeparator()).append("  ").append(agent);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Closes the pool threads and all pooled agents.  Agents in transit between threads are closed after all pool
+     * threads have stopped.
+     */
+    @Override
+    public void close() {
+        synchronized (workers) {
+            closed = true;
+            for (final AgentRunner runner : runners) {
+                runner.close();
+            }
+            for (final Worker worker : workers) {
+                worker.closeInbox();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AgentPool{threads=" + workers.length + ", agents=" + agents.size() + ", closed=" + closed + '}';
+    }
+
+    /**
+     * Handle for an agent hosted by an {@link AgentPool}.
+     */
+    public final class PooledAgent implements AutoCloseable {
+        private final Agent agent;
+        private volatile int targetWorker;
+        private volatile int worker = -1;
+        private volatile boolean closed;
+        private volatile long workCount;
+        private volatile long busyNanos;
+        private volatile double cpuShare;
+        private long lastBusyNanos;
+        private boolean started;
+
+        private PooledAgent(final Agent agent, final int targetWorker) {
+            this.agent = requireNonNull(agent);
+            this.targetWorker = targetWorker;
+        }
+
+        public String roleName() {
+            return agent.roleName();
+        }
+
+        /** @return the index of the pool thread currently running the agent, or -1 if not running yet */
+        public int thread() {
+            return worker;
+        }
+
+        /** @return the sum of work values returned by the agent so far */
+        public long workCount() {
+            return workCount;
+        }
+
+        /** @return the total time in nanoseconds spent in duty cycle invocations of the agent that did some work */
+        public long busyNanos() {
+            return busyNanos;
+        }
+
+        /** @return the CPU share of the agent in the last rebalancing interval, a value in {@code [0..1]} */
+        public double cpuShare() {
+            return cpuShare;
+        }
+
+        private void updateCpuShare(final long elapsedNanos) {
+            final long busy = busyNanos;
+            cpuShare = Math.min(1.0, (busy - lastBusyNanos) / (double)elapsedNanos);
+            lastBusyNanos = busy;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Removes the agent from the pool;  the agent is closed by the pool thread currently running it.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            agents.remove(this);
+        }
+
+        @Override
+        public String toString() {
+            return "PooledAgent{" +
+                    "roleName=" + agent.roleName() +
+                    ", thread=" + worker +
+                    ", cpuShare=" + String.format("%.3f", cpuShare) +
+                    ", workCount=" + workCount +
+                    '}';
+        }
+    }
+
+    private final class Worker implements Agent {
+        final int index;
+        final ManyToOneConcurrentLinkedQueue<PooledAgent> inbox = new ManyToOneConcurrentLinkedQueue<>();
+        PooledAgent[] running = new PooledAgent[0];
+
+        Worker(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int doWork() {
+            PooledAgent incoming;
+            while ((incoming = inbox.poll()) != null) {
+                accept(incoming);
+            }
+            int workDone = 0;
+            for (int i = 0; i < running.length; i++) {
+                final PooledAgent agent = running[i];
+                if (agent.closed) {
+                    release(i--);
+                    close(agent);
+                    continue;
+                }
+                final int target = agent.targetWorker;
+                if (target != index) {
+                    release(i--);
+                    workers[target].inbox.offer(agent);
+                    continue;
+                }
+                workDone += invoke(agent);
+            }
+            if (index == 0) {
+                rebalanceIfDue(System.nanoTime());
+            }
+            return workDone;
+        }
+
+        private void accept(final PooledAgent agent) {
+            if (agent.closed) {
+                close(agent);
+                return;
+            }
+            agent.worker = index;
+            running = Arrays.copyOf(running, running.length + 1);
+            running[running.length - 1] = agent;
+            if (!agent.started) {
+                agent.started = true;
+                try {
+                    agent.agent.onStart();
+                } catch (final Throwable t) {
+                    errorHandler.onError(t);
+                }
+            }
+        }
+
+        private void release(final int i) {
+            final PooledAgent[] newRunning = new PooledAgent[running.length - 1];
+            System.arraycopy(running, 0, newRunning, 0, i);
+            System.arraycopy(running, i + 1, newRunning, i, newRunning.length - i);
+            running = newRunning;
+        }
+
+        private int invoke(final PooledAgent agent) {
+            final long start = System.nanoTime();
+            int work = 0;
+            try {
+                work = agent.agent.doWork();
+            } catch (final Throwable t) {
+                errorHandler.onError(t);
+            }
+            if (work > 0) {
+                agent.busyNanos += System.nanoTime() - start;
+                agent.workCount += work;
+            }
+            return work;
+        }
+
+        private void close(final PooledAgent agent) {
+            agent.worker = -1;
+            if (agent.started) {
+                try {
+                    agent.agent.onClose();
+                } catch (final Throwable t) {
+                    errorHandler.onError(t);
+                }
+            }
+        }
+
+        @Override
+        public void onClose() {
+            for (final PooledAgent agent : running) {
+                agent.closed = true;
+                close(agent);
+            }
+            running = new PooledAgent[0];
+        }
+
+        /** Closes agents in the inbox, invoked by the pool once all pool threads have stopped */
+        void closeInbox() {
+            PooledAgent incoming;
+            while ((incoming = inbox.poll()) != null) {
+                incoming.closed = true;
+                close(incoming);
+            }
+        }
+
+        @Override
+        public String roleName() {
+            return "elara-pool-" + index;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+/**
+ * Sets the CPU affinity of the calling thread.  The {@link #linux() linux} implementation uses {@code taskset} and
+ * the {@code /proc} file system;  an affinity library can be plugged in instead, for instance OpenHFT's
+ * {@code Affinity.setAffinity(BitSet)}.
+ */
+@FunctionalInterface
+public interface CpuAffinity {
+    /**
+     * Pins the calling thread to the given CPUs.
+     *
+     * @param cpus the CPUs the calling thread is allowed to run on, not empty
+     * @return true if the affinity was set, false if not supported
+     */
+    boolean pinCurrentThread(int[] cpus);
+
+    /** Affinity that leaves thread placement to the OS scheduler */
+    CpuAffinity NONE = cpus -> false;
+
+    /** @return affinity using {@code taskset} with the native thread ID from {@code /proc/thread-self} */
+    static CpuAffinity linux() {
+        return LinuxThreads::pinCurrentThread;
+    }
+}
@@ -23,8 +23,10 @@
  */
 package org.tools4j.elara.run;
 
+import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
 import org.tools4j.elara.app.config.AppConfig;
+import org.tools4j.elara.logging.ElaraLogger;
 
 /**
  * Starts an elara application.
@@ -37,4 +39,52 @@ public enum Elara {
                 appConfig.idleStrategy(), appConfig.exceptionHandler(), null, appConfig.createAgent()
         ));
     }
+
+    /**
+     * Launches the application on a thread with name, priority and CPU affinity defined by the given placement.
+     *
+     * @param appConfig the application configuration
+     * @param placement the placement of the application thread
+     * @return the runner for the launched application
+     */
+    public static ElaraRunner launch(final AppConfig appConfig, final ThreadPlacement placement) {
+        appConfig.validate();
+        final Agent agent = appConfig.createAgent();
+        return ElaraRunner.startOnThread(new AgentRunner(
+                appConfig.idleStrategy(), appConfig.exceptionHandler(), null,
+                placement.place(agent, appConfig.loggerFactory())
+        ), placement.threadFactory(agent.roleName()));
+    }
+
+    /**
+     * Launches the application on a shared thread of the given agent pool.
+     *
+     * @param appConfig the application configuration
+     * @param agentPool the pool of agent threads to host the application
+     * @return the handle for the application agent in the pool
+     */
+    public static AgentPool.PooledAgent launch(final AppConfig appConfig, final AgentPool agentPool) {
+        appConfig.validate();
+        return agentPool.add(appConfig.createAgent());
+    }
+
+    /**
+     * Runs the warm-up on the calling thread and launches the application after completion of the warm-up.
+     *
+     * @param appConfig the application configuration
+     * @param warmUp    the warm-up to run before launching the application
+     * @return the runner for the launched application
+     */
+    public static ElaraRunner launch(final AppConfig appConfig, final WarmUp warmUp) {
+        appConfig.validate();
+        final WarmUp.Result result = warmUp.run();
+        ElaraLogger.create(appConfig.loggerFactory(), WarmUp.class)
+                .info("Warm-up completed: {} commands in {} ms, first command {} us, last command {} us")
+                .replace(result.commandCount())
+                .replace(result.durationNanos() / 1_000_000)
+                .replace(result.firstCommandNanos() / 1000)
+                .replace(result.lastCommandNanos() / 1000)
+                .format();
+        return launch(appConfig);
+    }
 }
@@ -26,6 +26,7 @@ package org.tools4j.elara.run;
 import org.agrona.concurrent.AgentRunner;
 
 import java.lang.Thread.State;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.LockSupport;
 
 import static java.util.Objects.requireNonNull;
@@ -44,6 +45,18 @@ public class ElaraRunner implements AutoCloseable {
     }
 
     public static ElaraRunner startOnThread(final AgentRunner agentRunner) {
+        return startOnThread(agentRunner, null);
+    }
+
+    /**
+     * Starts the agent runner on a thread created by the given thread factory, for instance to control thread name and
+     * priority as per {@link ThreadPlacement#threadFactory(String)}.
+     *
+     * @param agentRunner   the agent runner to start
+     * @param threadFactory the factory for the agent thread, or null to create a default thread
+     * @return the elara runner for the started agent runner
+     */
+    public static ElaraRunner startOnThread(final AgentRunner agentRunner, final ThreadFactory threadFactory) {
         if (agentRunner.isClosed()) {
             throw new IllegalStateException("agent runner is already closed");
         }
@@ -52,7 +65,9 @@ public class ElaraRunner implements AutoCloseable {
         }
 
         final long endWait = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
-        final Thread thread = AgentRunner.startOnThread(agentRunner);
+        final Thread thread = threadFactory == null ?
+                AgentRunner.startOnThread(agentRunner) :
+                AgentRunner.startOnThread(agentRunner, threadFactory);
         while (agentRunner.thread() != thread) {
             LockSupport.parkNanos(10_000_000);
             if (System.currentTimeMillis() > endWait) {
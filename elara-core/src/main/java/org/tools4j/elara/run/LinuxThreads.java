@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.collections.IntArrayList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to thread placement information of the calling thread through the Linux {@code /proc} and {@code /sys} file
+ * systems.
+ */
+enum LinuxThreads {
+    ;
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+    private static final int STAT_PROCESSOR_INDEX = 36;//field 39, counted after the command field
+    private static final long TASKSET_TIMEOUT_MILLIS = 5000;
+
+    static boolean isSupported() {
+        return Files.isDirectory(THREAD_SELF);
+    }
+
+    /** @return the native ID of the calling thread, or -1 if not available */
+    static long nativeThreadId() {
+        if (!isSupported()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(THREAD_SELF.toRealPath().getFileName().toString());
+        } catch (final IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** @return the CPU the calling thread last ran on, or -1 if not available */
+    static int currentCpu() {
+        final String stat = read(THREAD_SELF.resolve("stat"));
+        if (stat == null) {
+            return -1;
+        }
+        final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+        return fields.length > STAT_PROCESSOR_INDEX ? Integer.parseInt(fields[STAT_PROCESSOR_INDEX]) : -1;
+    }
+
+    /** @return the CPU list the calling thread is allowed to run on, for instance "0-3,8", or null if unknown */
+    static String allowedCpuList() {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            final List<String> lines = Files.readAllLines(THREAD_SELF.resolve("status"), StandardCharsets.US_ASCII);
+            for (final String line : lines) {
+                if (line.startsWith(CPUS_ALLOWED_LIST)) {
+                    return line.substring(CPUS_ALLOWED_LIST.length()).trim();
+                }
+            }
+        } catch (final IOException e) {
+            //not available
+        }
+        return null;
+    }
+
+    /**
+     * Returns the CPUs of a NUMA node.
+     *
+     * @param node the NUMA node
+     * @return the CPUs of the node
+     * @throws IllegalArgumentException if the node does not exist or its CPUs cannot be read
+     */
+    static int[] numaNodeCpus(final int node) {
+        final String cpuList = read(Paths.get("/sys/devices/system/node/node" + node + "/cpulist"));
+        if (cpuList == null) {
+            throw new IllegalArgumentException("CPUs of NUMA node " + node + " are not available");
+        }
+        return parseCpuList(cpuList.trim());
+    }
+
+    static boolean pinCurrentThread(final int[] cpus) {
+        final long tid = nativeThreadId();
+        if (tid < 0) {
+            return false;
+        }
+        try {
+            final Process process = new ProcessBuilder("taskset", "-p", "-c", formatCpuList(cpus), String.valueOf(tid))
+                    .redirectErrorStream(true)
+                    .start();
+            try (final InputStream in = process.getInputStream()) {
+                while (in.read() >= 0) {
+                    //drain output
+                }
+            }
+            if (!process.waitFor(TASKSET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (final IOException e) {
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static int[] parseCpuList(final String cpuList) {
+        if (cpuList.isEmpty()) {
+            return new int[0];
+        }
+        final IntArrayList cpus = new IntArrayList();
+        for (final String range : cpuList.split(",")) {
+            final int dash = range.indexOf('-');
+            final int first = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+            final int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1));
+            for (int cpu = first; cpu <= last; cpu++) {
+                cpus.addInt(cpu);
+            }
+        }
+        return cpus.toIntArray();
+    }
+
+    static String formatCpuList(final int[] cpus) {
+        final StringBuilder sb = new StringBuilder(cpus.length * 3);
+        for (int i = 0; i < cpus.length; i++) {
+            sb.append(i == 0 ? "" : ",").append(cpus[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String read(final Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.concurrent.Agent;
+import org.tools4j.elara.logging.ElaraLogger;
+import org.tools4j.elara.logging.Logger;
+
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Placement of an agent thread defining thread name, priority and CPU affinity, and optionally a NUMA node whose CPUs
+ * the thread is pinned to if no CPUs are specified explicitly.
+ * <p>
+ * Thread name and priority are applied when the thread is created;  CPU affinity is applied by the agent thread itself
+ * when it starts, before the agent's first duty cycle.  The actual placement is logged at startup, including the
+ * native thread ID, the CPUs the thread is allowed to run on and the CPU it is currently running on.
+ */
+public final class ThreadPlacement {
+
+    /** Placeholder in thread name pattern replaced with the role name of the agent */
+    public static final String ROLE_NAME_PLACEHOLDER = "{role}";
+
+    private String threadName = ROLE_NAME_PLACEHOLDER;
+    private int priority = Thread.NORM_PRIORITY;
+    private int[] cpus = new int[0];
+    private int numaNode = -1;
+    private CpuAffinity cpuAffinity = CpuAffinity.linux();
+
+    public static ThreadPlacement create() {
+        return new ThreadPlacement();
+    }
+
+    public String threadName() {
+        return threadName;
+    }
+
+    /**
+     * Sets the thread name or name pattern, for instance "elara-{role}-book-7".
+     *
+     * @param threadName the thread name, may contain {@link #ROLE_NAME_PLACEHOLDER} for the agent role name
+     * @return this placement
+     */
+    public ThreadPlacement threadName(final String threadName) {
+        this.threadName = requireNonNull(threadName);
+        return this;
+    }
+
+    public int priority() {
+        return priority;
+    }
+
+    public ThreadPlacement priority(final int priority) {
+        if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY) {
+            throw new IllegalArgumentException("Invalid thread priority: " + priority);
+        }
+        this.priority = priority;
+        return this;
+    }
+
+    public int[] cpus() {
+        return cpus.clone();
+    }
+
+    /**
+     * Sets the CPUs to pin the agent thread to, for instance an isolated core.
+     *
+     * @param cpus the CPUs, or none to leave the placement to the OS scheduler unless a NUMA node is set
+     * @return this placement
+     */
+    public ThreadPlacement cpus(final int... cpus) {
+        for (final int cpu : cpus) {
+            if (cpu < 0) {
+                throw new IllegalArgumentException("Invalid CPU: " + cpu);
+            }
+        }
+        this.cpus = cpus.clone();
+        return this;
+    }
+
+    public int numaNode() {
+        return numaNode;
+    }
+
+    /**
+     * Sets a NUMA node as placement hint;  the agent thread is pinned to the CPUs of the node if no CPUs are set.
+     *
+     * @param numaNode the NUMA node, or -1 for no NUMA placement
+     * @return this placement
+     */
+    public ThreadPlacement numaNode(final int numaNode) {
+        if (numaNode < -1) {
+            throw new IllegalArgumentException("Invalid NUMA node: " + numaNode);
+        }
+        this.numaNode = numaNode;
+        return this;
+    }
+
+    public CpuAffinity cpuAffinity() {
+        return cpuAffinity;
+    }
+
+    public ThreadPlacement cpuAffinity(final CpuAffinity cpuAffinity) {
+        this.cpuAffinity = requireNonNull(cpuAffinity);
+        return this;
+    }
+
+    /**
+     * Returns the CPUs the agent thread is pinned to, either the explicitly set CPUs or the CPUs of the NUMA node.
+     *
+     * @return the CPUs to pin the thread to, empty if the placement is left to the OS scheduler
+     */
+    public int[] effectiveCpus() {
+        if (cpus.length > 0 || numaNode < 0) {
+            return cpus.clone();
+        }
+        return LinuxThreads.numaNodeCpus(numaNode);
+    }
+
+    /**
+     * Returns the thread name for an agent with the given role name.
+     *
+     * @param roleName the role name of the agent
+     * @return the thread name with resolved role name placeholder
+     */
+    public String resolveThreadName(final String roleName) {
+        return threadName.replace(ROLE_NAME_PLACEHOLDER, roleName);
+    }
+
+    /**
+     * Returns a thread factory creating threads with name and priority of this placement.
+     *
+     * @param roleName the role name of the agent
+     * @return a factory for agent threads
+     */
+    public ThreadFactory threadFactory(final String roleName) {
+        final String name = resolveThreadName(roleName);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns an agent that applies the CPU affinity of this placement and logs the actual placement when the agent
+     * is started on its thread.  The role name of the returned agent is the thread name of this placement since agent
+     * runners name their thread after the agent role.
+     *
+     * @param agent           the agent to place
+     * @param loggerFactory     the logger factory for the placement report
+     * @return an agent delegating to the given agent
+     */
+    public Agent place(final Agent agent, final Logger.Factory loggerFactory) {
+        return new PlacedAgent(agent, resolveThreadName(agent.roleName()), effectiveCpus(), loggerFactory);
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadPlacement{" +
+                "threadName=" + threadName +
+                ", priority=" + priority +
+                ", cpus=" + LinuxThreads.formatCpuList(cpus) +
+                ", numaNode=" + numaNode +
+                '}';
+    }
+
+    private final class PlacedAgent implements Agent {
+        final Agent agent;
+        final String threadName;
+        final int[] cpus;
+        final Logger.Factory loggerFactory;
+
+        PlacedAgent(final Agent agent, final String threadName, final int[] cpus, final Logger.Factory loggerFactory) {
+            this.agent = requireNonNull(agent);
+            this.threadName = requireNonNull(threadName);
+            this.cpus = cpus;
+            this.loggerFactory = requireNonNull(loggerFactory);
+        }
+
+        @Override
+        public void onStart() {
+            final boolean pinned = cpus.length > 0 && cpuAffinity.pinCurrentThread(cpus);
+            final Thread thread = Thread.currentThread();
+            final ElaraLogger logger = ElaraLogger.create(loggerFactory, ThreadPlacement.class);
+            if (cpus.length > 0 && !pinned) {
+                logger.warn("Thread {} could not be pinned to CPUs {}")
+                        .replace(thread.getName()).replace(LinuxThreads.formatCpuList(cpus)).format();
+            }
+            logger.info("Thread {} (tid={}, priority={}) started with allowed CPUs {}, running on CPU {}")
+                    .replace(thread.getName())
+                    .replace(LinuxThreads.nativeThreadId())
+                    .replace(thread.getPriority())
+                    .replace(LinuxThreads.allowedCpuList())
+                    .replace(LinuxThreads.currentCpu())
+                    .format();
+            agent.onStart();
+        }
+
+        @Override
+        public int doWork() throws Exception {
+            return agent.doWork();
+        }
+
+        @Override
+        public void onClose() {
+            agent.onClose();
+        }
+
+        @Override
+        public String roleName() {
+            return threadName;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.tools4j.elara.app.type.AllInOneApp;
+import org.tools4j.elara.app.type.AllInOneAppContext;
+import org.tools4j.elara.command.Command;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.input.UniSourceInput;
+import org.tools4j.elara.output.Output;
+import org.tools4j.elara.route.EventRouter;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.source.SourceContext;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore;
+
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Warm-up of an all-in-one application before it goes live.  The warm-up runs the command processor and event applier
+ * of a throwaway application instance with its own state against in-memory command and event stores, and sends
+ * recorded or synthetic commands to it on the calling thread until the command count or the max duration is reached.
+ * This way the JIT compiles the hot path of the application and of elara before the real inputs are opened.
+ * <p>
+ * The warm-up has no side effects on real stores or outputs:  its output is {@link Output#NOOP} and no plugins are
+ * installed.  The latencies of the first and last warm-up command are returned in the {@link WarmUp.Result} and logged
+ * by {@link Elara#launch(org.tools4j.elara.app.config.AppConfig, WarmUp) Elara.launch(..)}.
+ */
+public final class WarmUp {
+
+    public static final int DEFAULT_COMMAND_COUNT = 10_000;
+    public static final long DEFAULT_MAX_DURATION_MILLIS = 10_000;
+    public static final int DEFAULT_SOURCE_ID = Integer.MAX_VALUE;
+
+    /**
+     * Sends warm-up commands.
+     */
+    @FunctionalInterface
+    public interface Commands {
+        /**
+         * Sends the warm-up command with the given index.
+         *
+         * @param index     the index of the warm-up command, zero for the first command
+         * @param sender    the command sender to send the command
+         */
+        void send(int index, CommandSender sender);
+
+        /**
+         * Returns warm-up commands sent by replaying commands recorded in a command store, starting from the
+         * beginning again when the end of the store is reached.
+         *
+         * @param recordedCommands message store with recorded commands, for instance a copy of a command store
+         * @return warm-up commands replaying the recorded commands
+         */
+        static Commands replay(final MessageStore recordedCommands) {
+            return new ReplayCommands(recordedCommands);
+        }
+    }
+
+    private final Supplier<? extends AllInOneApp> appSupplier;
+    private final Commands commands;
+    private int commandCount = DEFAULT_COMMAND_COUNT;
+    private long maxDurationMillis = DEFAULT_MAX_DURATION_MILLIS;
+
+    private WarmUp(final Supplier<? extends AllInOneApp> appSupplier, final Commands commands) {
+        this.appSupplier = requireNonNull(appSupplier);
+        this.commands = requireNonNull(commands);
+    }
+
+    /**
+     * Creates a warm-up.
+     *
+     * @param appSupplier   supplier for a throwaway application instance whose state is not used after the warm-up
+     * @param commands      the recorded or synthetic warm-up commands
+     * @return a new warm-up with default command count and max duration
+     */
+    public static WarmUp create(final Supplier<? extends AllInOneApp> appSupplier, final Commands commands) {
+        return new WarmUp(appSupplier, commands);
+    }
+
+    public int commandCount() {
+        return commandCount;
+    }
+
+    public WarmUp commandCount(final int commandCount) {
+        if (commandCount < 0) {
+            throw new IllegalArgumentException("Command count cannot be negative: " + commandCount);
+        }
+        this.commandCount = commandCount;
+        return this;
+    }
+
+    public long maxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    public WarmUp maxDurationMillis(final long maxDurationMillis) {
+        if (maxDurationMillis <= 0) {
+            throw new IllegalArgumentException("Max duration must be positive: " + maxDurationMillis);
+        }
+        this.maxDurationMillis = maxDurationMillis;
+        return this;
+    }
+
+    /**
+     * Runs the warm-up on the calling thread.
+     *
+     * @return the warm-up result with the number of processed commands and first and last command latency
+     */
+    public Result run() {
+        final AllInOneApp app = appSupplier.get();
+        final MutableResult result = new MutableResult();
+        final WarmUpInput input = new WarmUpInput();
+        final Agent agent = AllInOneAppContext.create()
+                .commandProcessor((command, router) -> result.process(app, command, router))
+                .eventApplier(app)
+                .commandStore(new InMemoryStore())
+                .eventStore(new InMemoryStore())
+                .input(DEFAULT_SOURCE_ID, input)
+                .output(Output.NOOP)
+                .populateDefaults()
+                .createAgent();
+        final long start = System.nanoTime();
+        final long maxDurationNanos = maxDurationMillis * 1_000_000;
+        try {
+            while (result.processed < commandCount && System.nanoTime() - start < maxDurationNanos) {
+                input.enabled = input.sent < commandCount;
+                agent.doWork();
+            }
+        } catch (final Exception e) {
+            throw new IllegalStateException("Warm-up failed after " + result.processed + " commands", e);
+        }
+        result.durationNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUp{" +
+                "commandCount=" + commandCount +
+                ", maxDurationMillis=" + maxDurationMillis +
+                '}';
+    }
+
+    /**
+     * Result of a warm-up run.
+     */
+    public interface Result {
+        /** @return the number of warm-up commands processed */
+        int commandCount();
+        /** @return the duration of the warm-up in nanoseconds */
+        long durationNanos();
+        /** @return the processing time of the first warm-up command in nanoseconds, including event routing */
+        long firstCommandNanos();
+        /** @return the processing time of the last warm-up command in nanoseconds, including event routing */
+        long lastCommandNanos();
+    }
+
+    private final class WarmUpInput implements UniSourceInput {
+        boolean enabled;
+        int sent;
+
+        @Override
+        public int poll(final SourceContext sourceContext) {
+            if (!enabled) {
+                return 0;
+            }
+            commands.send(sent, sourceContext.commandSender());
+            sent++;
+            return 1;
+        }
+    }
+
+    private static final class MutableResult implements Result {
+        int processed;
+        long durationNanos;
+        long firstCommandNanos;
+        long lastCommandNanos;
+
+        void process(final AllInOneApp app, final Command command, final EventRouter router) {
+            final long start = System.nanoTime();
+            app.onCommand(command, router);
+            final long nanos = System.nanoTime() - start;
+            if (processed == 0) {
+                firstCommandNanos = nanos;
+            }
+            lastCommandNanos = nanos;
+            processed++;
+        }
+
+        @Override
+        public int commandCount() {
+            return processed;
+        }
+
+        @Override
+        public long durationNanos() {
+            return durationNanos;
+        }
+
+        @Override
+        public long firstCommandNanos() {
+            return firstCommandNanos;
+        }
+
+        @Override
+        public long lastCommandNanos() {
+            return lastCommandNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "WarmUp.Result{" +
+                    "commandCount=" + processed +
+                    ", durationNanos=" + durationNanos +
+                    ", firstCommandNanos=" + firstCommandNanos +
+                    ", lastCommandNanos=" + lastCommandNanos +
+                    '}';
+        }
+    }
+
+    private static final class ReplayCommands implements Commands {
+        final MessageStore.Poller poller;
+        final FlyweightCommand command = new FlyweightCommand();
+        final MessageStore.Handler handler = this::onCommand;
+        CommandSender sender;
+
+        ReplayCommands(final MessageStore recordedCommands) {
+            this.poller = recordedCommands.poller();
+        }
+
+        @Override
+        public void send(final int index, final CommandSender sender) {
+            this.sender = sender;
+            try {
+                if (poller.poll(handler) == 0) {
+                    poller.moveToStart();
+                    if (poller.poll(handler) == 0) {
+                        throw new IllegalStateException("No recorded commands found for warm-up");
+                    }
+                }
+            } finally {
+                this.sender = null;
+            }
+        }
+
+        private MessageStore.Handler.Result onCommand(final DirectBuffer message) {
+            try {
+                command.wrap(message, 0);
+                final DirectBuffer payload = command.payload();
+                sender.sendCommand(command.payloadType(), payload, 0, payload.capacity());
+            } finally {
+                command.reset();
+            }
+            return MessageStore.Handler.Result.POLL;
+        }
+    }
+}
@@ -24,7 +24,9 @@
 package org.tools4j.elara.send;
 
 import org.agrona.MutableDirectBuffer;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.flyweight.FrameChecksum;
 import org.tools4j.elara.store.ExpandableDirectBuffer;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.store.MessageStore.AppendingContext;
@@ -43,11 +45,19 @@ public final class CommandAppendingSender extends FlyweightCommandSender {
 
     private final TimeSource timeSource;
     private final MessageStore.Appender commandStoreAppender;
+    private final ChecksumPolicy checksumPolicy;
     private final SendingContext sendingContext = new SendingContext();
 
     public CommandAppendingSender(final TimeSource timeSource, final MessageStore.Appender commandStoreAppender) {
+        this(timeSource, commandStoreAppender, ChecksumPolicy.NONE);
+    }
+
+    public CommandAppendingSender(final TimeSource timeSource,
+                                  final MessageStore.Appender commandStoreAppender,
+                                  final ChecksumPolicy checksumPolicy) {
         this.timeSource = requireNonNull(timeSource);
         this.commandStoreAppender = requireNonNull(commandStoreAppender);
+        this.checksumPolicy = requireNonNull(checksumPolicy);
     }
 
     @Override
@@ -111,7 +121,9 @@ public final class CommandAppendingSender extends FlyweightCommandSender {
                 }
                 final long time = timeSource.currentTime();
                 FlyweightCommand.writeCommandTime(time, buf);
-                ac.commit(HEADER_LENGTH + length);
+                ac.commit(checksumPolicy.appendChecksum() ?
+                        FrameChecksum.writeChecksum(buf) :
+                        HEADER_LENGTH + length);
                 notifySent(time);
                 return SendingResult.SENT;
             } finally {
@@ -30,10 +30,12 @@ import org.tools4j.elara.app.state.BaseState;
 import org.tools4j.elara.app.state.PassthroughEventApplier;
 import org.tools4j.elara.exception.DuplicateHandler;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.flyweight.CommandDescriptor;
 import org.tools4j.elara.flyweight.EventDescriptor;
 import org.tools4j.elara.flyweight.FlyweightCommand;
 import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FrameChecksum;
 import org.tools4j.elara.store.ExpandableDirectBuffer;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.store.MessageStore.AppendingContext;
@@ -56,6 +58,7 @@ public final class CommandPassthroughSender extends FlyweightCommandSender {
     private final MessageStore.Appender eventStoreAppender;
     private final EventApplier eventApplier;
     private final PassthroughEventApplier passthroughApplierOrNull;
+    private final ChecksumPolicy checksumPolicy;
     private final SendingContext sendingContext = new SendingContext();
     private final FlyweightCommand skippedCommand = new FlyweightCommand();
     private final FlyweightEvent appliedEvent = new FlyweightEvent();
@@ -66,6 +69,17 @@ public final class CommandPassthroughSender extends FlyweightCommandSender {
                                     final EventApplier eventApplier,
                                     final ExceptionHandler exceptionHandler,
                                     final DuplicateHandler duplicateHandler) {
+        this(timeSource, baseState, eventStoreAppender, eventApplier, exceptionHandler, duplicateHandler,
+                ChecksumPolicy.NONE);
+    }
+
+    public CommandPassthroughSender(final TimeSource timeSource,
+                                    final BaseState baseState,
+                                    final MessageStore.Appender eventStoreAppender,
+                                    final EventApplier eventApplier,
+                                    final ExceptionHandler exceptionHandler,
+                                    final DuplicateHandler duplicateHandler,
+                                    final ChecksumPolicy checksumPolicy) {
         this.timeSource = requireNonNull(timeSource);
         this.baseState = requireNonNull(baseState);
         this.eventStoreAppender = requireNonNull(eventStoreAppender);
@@ -73,6 +87,7 @@ public final class CommandPassthroughSender extends FlyweightCommandSender {
         this.passthroughApplierOrNull = eventApplier instanceof PassthroughEventApplier ? (PassthroughEventApplier)eventApplier : null;
         this.exceptionHandler = requireNonNull(exceptionHandler);
         this.duplicateHandler = requireNonNull(duplicateHandler);
+        this.checksumPolicy = requireNonNull(checksumPolicy);
     }
 
     private long nextEventSequence() {
@@ -154,7 +169,9 @@ public final class CommandPassthroughSender extends FlyweightCommandSender {
                     skipCommand(buf, length);
                 } else {
                     applyEvent(buf, length);
-                    ac.commit(FlyweightEvent.HEADER_LENGTH + length);
+                    ac.commit(checksumPolicy.appendChecksum() ?
+                            FrameChecksum.writeChecksum(buf) :
+                            FlyweightEvent.HEADER_LENGTH + length);
                 }
                 notifySent(time);
                 return SendingResult.SENT;
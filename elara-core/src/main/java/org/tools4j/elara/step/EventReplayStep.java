@@ -24,8 +24,12 @@
 package org.tools4j.elara.step;
 
 import org.agrona.DirectBuffer;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.flyweight.FlyweightEvent;
 import org.tools4j.elara.handler.EventHandler;
+import org.tools4j.elara.logging.ElaraLogger;
+import org.tools4j.elara.logging.Logger;
+import org.tools4j.elara.replay.ReplayProgress;
 import org.tools4j.elara.store.CommittedEventPoller;
 import org.tools4j.elara.store.MessageStore;
 import org.tools4j.elara.store.MessageStore.Handler;
@@ -36,32 +40,130 @@ import static java.util.Objects.requireNonNull;
 /**
  * Polls all events and invokes the event handler until reaching the end of the event log.  When the end of the event
  * log is reached, the poller is closed and the step turns into a no-op.
+ * <p>
+ * Up to {@code batchSize} events are replayed per invocation of {@link #doWork()} to reduce the per-event overhead of
+ * the duty cycle when replaying large event logs.  Replay progress is passed to the {@link ReplayProgress} listener
+ * together with the entry ID of the replay poller after every invocation that replayed events and once when replay
+ * is complete.
+ * <p>
+ * Events with a checksum mismatch are skipped with a warning if the checksum policy is
+ * {@link ChecksumPolicy#VERIFY_OR_SKIP VERIFY_OR_SKIP}.
  * @see EventPollerStep
  */
 public class EventReplayStep implements AgentStep {
 
     private final MessageStore.Poller eventPoller;
     private final EventHandler eventHandler;
+    private final ChecksumPolicy checksumPolicy;
+    private final int batchSize;
+    private final ReplayProgress replayProgress;
+    private final ElaraLogger logger;
 
     private final Handler pollerHandler = this::onEvent;
     private final FlyweightEvent flyweightEvent = new FlyweightEvent();
+    private long startNanos = -1;
+    private long replayedEvents;
+    private long skippedEvents;
+    private int batchEvents;
     private boolean replayed;
 
-    private EventReplayStep(final MessageStore.Poller eventPoller, final EventHandler eventHandler) {
+    private EventReplayStep(final MessageStore.Poller eventPoller,
+                            final EventHandler eventHandler,
+                            final ChecksumPolicy checksumPolicy,
+                            final int batchSize,
+                            final ReplayProgress replayProgress,
+                            final Logger.Factory loggerFactory) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
         this.eventPoller = requireNonNull(eventPoller);
         this.eventHandler = requireNonNull(eventHandler);
+        this.checksumPolicy = requireNonNull(checksumPolicy);
+        this.batchSize = batchSize;
+        this.replayProgress = requireNonNull(replayProgress);
+        this.logger = ElaraLogger.create(loggerFactory, getClass());
     }
 
     public static EventReplayStep replayNonAbortedEvents(final MessageStore eventStore, final EventHandler eventHandler) {
-        return new EventReplayStep(new CommittedEventPoller(eventStore), eventHandler);
+        return replayNonAbortedEvents(eventStore, eventHandler, ChecksumPolicy.NONE);
+    }
+
+    public static EventReplayStep replayNonAbortedEvents(final MessageStore eventStore,
+                                                         final EventHandler eventHandler,
+                                                         final ChecksumPolicy checksumPolicy) {
+        return replayNonAbortedEvents(eventStore, eventHandler, checksumPolicy, 1, ReplayProgress.NOOP);
+    }
+
+    public static EventReplayStep replayNonAbortedEvents(final MessageStore eventStore,
+                                                         final EventHandler eventHandler,
+                                                         final ChecksumPolicy checksumPolicy,
+                                                         final int batchSize,
+                                                         final ReplayProgress replayProgress) {
+        return replayNonAbortedEvents(eventStore, eventHandler, checksumPolicy, batchSize, replayProgress,
+                Logger.systemLoggerFactory());
+    }
+
+    public static EventReplayStep replayNonAbortedEvents(final MessageStore eventStore,
+                                                         final EventHandler eventHandler,
+                                                         final ChecksumPolicy checksumPolicy,
+                                                         final int batchSize,
+                                                         final ReplayProgress replayProgress,
+                                                         final Logger.Factory loggerFactory) {
+        return new EventReplayStep(new CommittedEventPoller(eventStore), eventHandler, checksumPolicy, batchSize,
+                replayProgress, loggerFactory);
     }
 
     public static EventReplayStep replayAllEvents(final MessageStore eventStore, final EventHandler eventHandler) {
         return replayAllEvents(eventStore.poller(), eventHandler);
     }
 
+    public static EventReplayStep replayAllEvents(final MessageStore eventStore,
+                                                  final EventHandler eventHandler,
+                                                  final ChecksumPolicy checksumPolicy) {
+        return replayAllEvents(eventStore, eventHandler, checksumPolicy, 1, ReplayProgress.NOOP);
+    }
+
+    public static EventReplayStep replayAllEvents(final MessageStore eventStore,
+                                                  final EventHandler eventHandler,
+                                                  final ChecksumPolicy checksumPolicy,
+                                                  final int batchSize,
+                                                  final ReplayProgress replayProgress) {
+        return replayAllEvents(eventStore, eventHandler, checksumPolicy, batchSize, replayProgress,
+                Logger.systemLoggerFactory());
+    }
+
+    public static EventReplayStep replayAllEvents(final MessageStore eventStore,
+                                                  final EventHandler eventHandler,
+                                                  final ChecksumPolicy checksumPolicy,
+                                                  final int batchSize,
+                                                  final ReplayProgress replayProgress,
+                                                  final Logger.Factory loggerFactory) {
+        return new EventReplayStep(eventStore.poller(), eventHandler, checksumPolicy, batchSize, replayProgress,
+                loggerFactory);
+    }
+
     public static EventReplayStep replayAllEvents(final MessageStore.Poller eventPoller, final EventHandler eventHandler) {
-        return new EventReplayStep(eventPoller, eventHandler);
+        return new EventReplayStep(eventPoller, eventHandler, ChecksumPolicy.NONE, 1, ReplayProgress.NOOP,
+                Logger.systemLoggerFactory());
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /** @return the number of events replayed so far */
+    public long replayedEvents() {
+        return replayedEvents;
+    }
+
+    /** @return the number of events skipped due to a checksum mismatch */
+    public long skippedEvents() {
+        return skippedEvents;
+    }
+
+    /** @return true if the end of the event log has been reached */
+    public boolean isReplayed() {
+        return replayed;
     }
 
     @Override
@@ -69,16 +171,48 @@ public class EventReplayStep implements AgentStep {
         if (replayed) {
             return 0;
         }
-        final int polled = eventPoller.poll(pollerHandler);
-        if (polled == 0) {
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+        }
+        int work = 0;
+        batchEvents = 0;
+        while (batchEvents < batchSize) {
+            final int polled = eventPoller.poll(pollerHandler);
+            if (polled == 0) {
+                replayed = true;
+                break;
+            }
+            work += polled;
+        }
+        replayedEvents += batchEvents;
+        if (batchEvents > 0 || replayed) {
+            replayProgress.onProgress(replayedEvents, eventPoller.entryId(), System.nanoTime() - startNanos, replayed);
+        }
+        if (replayed) {
             eventPoller.close();
-            replayed = true;
         }
-        return polled;
+        return work;
     }
 
     private Result onEvent(final DirectBuffer event) {
-        eventHandler.onEvent(flyweightEvent.wrap(event, 0));
+        batchEvents++;
+        if (checksumPolicy.verify(event)) {
+            eventHandler.onEvent(flyweightEvent.wrap(event, 0));
+        } else {
+            skippedEvents++;
+            if (event.capacity() < FlyweightEvent.HEADER_LENGTH) {
+                logger.warn("Skipping replay of truncated event frame with length {}")
+                        .replace(event.capacity())
+                        .format();
+                return Result.POLL;
+            }
+            logger.warn("Skipping replay of event {}:{}.{} with event sequence {}: checksum mismatch")
+                    .replace(FlyweightEvent.sourceId(event))
+                    .replace(FlyweightEvent.sourceSequence(event))
+                    .replace(FlyweightEvent.eventIndex(event))
+                    .replace(FlyweightEvent.eventSequence(event))
+                    .format();
+        }
         return Result.POLL;
     }
 
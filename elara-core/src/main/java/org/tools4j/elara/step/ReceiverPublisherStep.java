@@ -25,8 +25,11 @@ package org.tools4j.elara.step;
 
 import org.agrona.DirectBuffer;
 import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
 import org.tools4j.elara.flyweight.FlyweightEvent;
 import org.tools4j.elara.handler.OutputHandler;
+import org.tools4j.elara.logging.ElaraLogger;
+import org.tools4j.elara.logging.Logger;
 import org.tools4j.elara.output.Output.Ack;
 import org.tools4j.elara.stream.MessageReceiver;
 
@@ -34,6 +37,9 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * Agent to poll and publish events from a message stream via {@link MessageReceiver}.
+ * <p>
+ * Events with a checksum mismatch are skipped with a warning if the checksum policy is
+ * {@link ChecksumPolicy#VERIFY_OR_SKIP VERIFY_OR_SKIP}.
  */
 public class ReceiverPublisherStep implements AgentStep {
 
@@ -42,17 +48,42 @@ public class ReceiverPublisherStep implements AgentStep {
     private final OutputHandler handler;
     private final MessageReceiver receiver;
     private final ExceptionHandler exceptionHandler;
+    private final ChecksumPolicy checksumPolicy;
+    private final ElaraLogger logger;
     private final MessageReceiver.Handler receiverHandler = this::onMessage;
     private final FlyweightEvent flyweightEvent = new FlyweightEvent();
 
     private Exception outputFailed;
+    private long skippedEvents;
 
     public ReceiverPublisherStep(final OutputHandler handler,
                                  final MessageReceiver receiver,
                                  final ExceptionHandler exceptionHandler) {
+        this(handler, receiver, exceptionHandler, ChecksumPolicy.NONE);
+    }
+
+    public ReceiverPublisherStep(final OutputHandler handler,
+                                 final MessageReceiver receiver,
+                                 final ExceptionHandler exceptionHandler,
+                                 final ChecksumPolicy checksumPolicy) {
+        this(handler, receiver, exceptionHandler, checksumPolicy, Logger.systemLoggerFactory());
+    }
+
+    public ReceiverPublisherStep(final OutputHandler handler,
+                                 final MessageReceiver receiver,
+                                 final ExceptionHandler exceptionHandler,
+                                 final ChecksumPolicy checksumPolicy,
+                                 final Logger.Factory loggerFactory) {
         this.handler = requireNonNull(handler);
         this.receiver = requireNonNull(receiver);
         this.exceptionHandler = requireNonNull(exceptionHandler);
+        this.checksumPolicy = requireNonNull(checksumPolicy);
+        this.logger = ElaraLogger.create(loggerFactory, getClass());
+    }
+
+    /** @return the number of events skipped due to a checksum mismatch */
+    public long skippedEvents() {
+        return skippedEvents;
     }
 
     @Override
@@ -61,6 +92,10 @@ public class ReceiverPublisherStep implements AgentStep {
     }
 
     private void onMessage(final DirectBuffer message) {
+        if (!checksumPolicy.verify(message)) {
+            skipEvent(message);
+            return;
+        }
         flyweightEvent.wrap(message, 0);
         try {
             for (int retry = 0; retry < MAX_RETRIES; retry++) {
@@ -78,4 +113,20 @@ public class ReceiverPublisherStep implements AgentStep {
         }
     }
 
+    private void skipEvent(final DirectBuffer message) {
+        skippedEvents++;
+        if (message.capacity() < FlyweightEvent.HEADER_LENGTH) {
+            logger.warn("Skipping publication of truncated event frame with length {}")
+                    .replace(message.capacity())
+                    .format();
+            return;
+        }
+        logger.warn("Skipping publication of event {}:{}.{} with event sequence {}: checksum mismatch")
+                .replace(FlyweightEvent.sourceId(message))
+                .replace(FlyweightEvent.sourceSequence(message))
+                .replace(FlyweightEvent.eventIndex(message))
+                .replace(FlyweightEvent.eventSequence(message))
+                .format();
+    }
+
 }
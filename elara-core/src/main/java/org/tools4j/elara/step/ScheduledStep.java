@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.step;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An agent step that delegates to an array of steps in priority order, with a work budget per step and cycle and an
+ * optional starvation guarantee for steps that yield to busier steps.
+ * <p>
+ * At each invocation the steps are visited in order.  A visited step is invoked repeatedly until it does no work or
+ * until it has been invoked as many times as its work budget allows.  A yielding step is skipped if any step it yields
+ * to has done work in the same invocation, unless it has already been skipped for its maximum number of skipped cycles
+ * in a row in which case it is invoked anyway.  A step is never invoked anyway if a step it strictly yields to has
+ * done work, for instance the sequencer step is never forced to poll inputs while the event step replays events.
+ */
+public final class ScheduledStep implements AgentStep {
+
+    /** Max skipped cycles value for yielding steps that are never forced to run when skipped */
+    public static final int UNLIMITED_SKIPPED_CYCLES = Integer.MAX_VALUE;
+
+    private final AgentStep[] steps;
+    private final int[] workBudgets;
+    private final int[] maxSkippedCycles;
+    private final int[] yieldMasks;
+    private final int[] strictYieldMasks;
+    private final int[] skippedCycles;
+    private final long[] workCounts;
+
+    /**
+     * Constructor with steps and their schedule parameters, all arrays indexed in step priority order;  yielding steps
+     * yield to all steps before them.
+     *
+     * @param steps             the steps in priority order
+     * @param workBudgets       the max number of invocations per cycle for each step, must be positive
+     * @param maxSkippedCycles  the max number of cycles a step is skipped in a row because a step before it did work;
+     *                          zero for steps that never yield, {@link #UNLIMITED_SKIPPED_CYCLES} for steps that are
+     *                          skipped whenever a step before them did work
+     */
+    public ScheduledStep(final AgentStep[] steps, final int[] workBudgets, final int[] maxSkippedCycles) {
+        this(steps, workBudgets, maxSkippedCycles, precedingStepMasks(steps.length), new int[steps.length]);
+    }
+
+    /**
+     * Constructor with steps and their schedule parameters, all arrays indexed in step priority order.
+     *
+     * @param steps             the steps in priority order
+     * @param workBudgets       the max number of invocations per cycle for each step, must be positive
+     * @param maxSkippedCycles  the max number of cycles a step is skipped in a row because a step it yields to did
+     *                          work, {@link #UNLIMITED_SKIPPED_CYCLES} for steps that are skipped whenever a step they
+     *                          yield to did work
+     * @param yieldMasks        bit masks of the steps each step yields to, with bit {@code j} set in the mask of step
+     *                          {@code i} if step {@code i} yields to step {@code j < i}
+     * @param strictYieldMasks  bit masks of the steps each step strictly yields to, a subset of its yield mask;  a step
+     *                          is never invoked in a cycle in which a step it strictly yields to did work
+     */
+    public ScheduledStep(final AgentStep[] steps,
+                         final int[] workBudgets,
+                         final int[] maxSkippedCycles,
+                         final int[] yieldMasks,
+                         final int[] strictYieldMasks) {
+        if (steps.length != workBudgets.length || steps.length != maxSkippedCycles.length ||
+                steps.length != yieldMasks.length || steps.length != strictYieldMasks.length) {
+            throw new IllegalArgumentException("Steps, work budgets, max skipped cycles and yield masks must have " +
+                    "the same length: " + steps.length + ", " + workBudgets.length + ", " + maxSkippedCycles.length +
+                    ", " + yieldMasks.length + ", " + strictYieldMasks.length);
+        }
+        if (steps.length > Integer.SIZE) {
+            throw new IllegalArgumentException("Too many steps: " + steps.length + " > " + Integer.SIZE);
+        }
+        for (int i = 0; i < steps.length; i++) {
+            requireNonNull(steps[i]);
+            if (workBudgets[i] <= 0) {
+                throw new IllegalArgumentException("Work budget must be positive: " + workBudgets[i]);
+            }
+            if (maxSkippedCycles[i] < 0) {
+                throw new IllegalArgumentException("Max skipped cycles cannot be negative: " + maxSkippedCycles[i]);
+            }
+            if ((yieldMasks[i] & ~precedingStepMask(i)) != 0) {
+                throw new IllegalArgumentException("Step " + i + " can only yield to steps before it: yield mask " +
+                        Integer.toBinaryString(yieldMasks[i]));
+            }
+            if ((strictYieldMasks[i] & ~yieldMasks[i]) != 0) {
+                throw new IllegalArgumentException("Strict yield mask " + Integer.toBinaryString(strictYieldMasks[i]) +
+                        " of step " + i + " is not a subset of yield mask " + Integer.toBinaryString(yieldMasks[i]));
+            }
+        }
+        this.steps = steps.clone();
+        this.workBudgets = workBudgets.clone();
+        this.maxSkippedCycles = maxSkippedCycles.clone();
+        this.yieldMasks = yieldMasks.clone();
+        this.strictYieldMasks = strictYieldMasks.clone();
+        this.skippedCycles = new int[steps.length];
+        this.workCounts = new long[steps.length];
+    }
+
+    private static int precedingStepMask(final int index) {
+        return (1 << index) - 1;
+    }
+
+    private static int[] precedingStepMasks(final int count) {
+        final int[] masks = new int[count];
+        for (int i = 0; i < count; i++) {
+            masks[i] = precedingStepMask(i);
+        }
+        return masks;
+    }
+
+    /** @return the number of scheduled steps */
+    public int steps() {
+        return steps.length;
+    }
+
+    /**
+     * Returns the total work done by the step with the given index.
+     *
+     * @param index the step index in priority order
+     * @return the sum of work values returned by the step so far
+     */
+    public long workCount(final int index) {
+        return workCounts[index];
+    }
+
+    @Override
+    public int doWork() {
+        int workDone = 0;
+        int workMask = 0;
+        for (int i = 0; i < steps.length; i++) {
+            final int yieldedTo = workMask & yieldMasks[i];
+            if (yieldedTo != 0 &&
+                    ((yieldedTo & strictYieldMasks[i]) != 0 || skippedCycles[i] < maxSkippedCycles[i])) {
+                if (skippedCycles[i] < maxSkippedCycles[i]) {
+                    skippedCycles[i]++;
+                }
+                continue;
+            }
+            skippedCycles[i] = 0;
+            final AgentStep step = steps[i];
+            final int budget = workBudgets[i];
+            int stepWork = 0;
+            for (int n = 0; n < budget; n++) {
+                final int work = step.doWork();
+                if (work <= 0) {
+                    break;
+                }
+                stepWork += work;
+            }
+            if (stepWork > 0) {
+                workMask |= 1 << i;
+            }
+            workCounts[i] += stepWork;
+            workDone += stepWork;
+        }
+        return workDone;
+    }
+}
@@ -0,0 +1,554 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A message store decorator keeping the most recently appended messages of the underlying store in an off-heap ring
+ * buffer.  Pollers positioned inside the cached window read messages from memory, and fall through to the underlying
+ * store for older messages;  a falling through poller switches back to the cache as soon as it has caught up with the
+ * cached window.
+ * <p>
+ * Messages are cached in store order when appended through an {@link #appender() appender} of this store, or when a
+ * poller reaches the end of the cached window and new messages have been appended to the underlying store by other
+ * means.  Only messages appended after construction of the caching store are cached.
+ * <p>
+ * Pollers returned by {@link #poller(String)} are served from the cache as well.  The underlying store's named poller
+ * whose position may be persisted by the underlying store is moved to the position of the caching poller every
+ * {@link #NAMED_POLLER_SYNC_INTERVAL} messages read from the cache, when falling through to the underlying store, and
+ * when the poller is closed.  After a crash, the persisted position may hence lag behind by up to
+ * {@code NAMED_POLLER_SYNC_INTERVAL} messages.
+ * <p>
+ * The caching store is not thread safe:  pollers read the cached window without any memory barriers, and may append
+ * to or evict from it when refreshing.  Its appender and pollers must hence be used from the same thread, which is the
+ * case for the committed events poller of a publisher and the event sender pollers of the replication plugin if they
+ * are run by the same agent as the processor appending the events.  Pollers of a publisher running on its own thread,
+ * or of a feedback app reading the events of another app, are not supported;  they should poll the underlying store,
+ * or use their own caching store instance over an underlying store that supports concurrent readers, such as a
+ * chronicle store, in which case the cache is filled by the polling thread via {@link #refresh()}.  Messages passed to
+ * poller handlers are valid only until the next message is appended to the store.
+ */
+public class CachingMessageStore implements MessageStore {
+
+    public static final int DEFAULT_AVERAGE_MESSAGE_LENGTH = 64;
+    public static final int NAMED_POLLER_SYNC_INTERVAL = 64;
+    private static final int ALIGNMENT = 8;
+    private static final int NOT_CACHED = -1;
+    private static final long NONE = -1;
+
+    private final MessageStore store;
+    private final int capacity;
+    private final int maxEntries;
+    private final MutableDirectBuffer ring;
+    private final long[] entryIds;
+    private final long[] positions;
+    private final int[] lengths;
+    private final Poller tailPoller;
+    private final Handler cacheHandler = this::cache;
+    private final List<CachingPoller> pollers = new ArrayList<>();
+    private Appender appender;
+    private long first;
+    private long last;
+    private long tailPosition;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Constructor with underlying store and cache capacity in bytes.
+     *
+     * @param store     the underlying message store
+     * @param capacity  the capacity of the off-heap ring buffer in bytes
+     */
+    public CachingMessageStore(final MessageStore store, final int capacity) {
+        this(store, capacity, Math.max(16, capacity / DEFAULT_AVERAGE_MESSAGE_LENGTH));
+    }
+
+    /**
+     * Constructor with underlying store, cache capacity in bytes and max number of cached messages.
+     *
+     * @param store         the underlying message store
+     * @param capacity      the capacity of the off-heap ring buffer in bytes
+     * @param maxEntries    the maximum number of cached messages
+     */
+    public CachingMessageStore(final MessageStore store, final int capacity, final int maxEntries) {
+        if (capacity < ALIGNMENT || capacity % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Capacity must be a positive multiple of " + ALIGNMENT + " but was " +
+                    capacity);
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+        }
+        this.store = requireNonNull(store);
+        this.capacity = capacity;
+        this.maxEntries = maxEntries;
+        this.ring = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity));
+        this.entryIds = new long[maxEntries];
+        this.positions = new long[maxEntries];
+        this.lengths = new int[maxEntries];
+        this.tailPoller = store.poller();
+        tailPoller.moveToEnd();
+    }
+
+    public MessageStore store() {
+        return store;
+    }
+
+    /**
+     * Returns the number of messages that were passed to poller handlers from the cache.
+     * @return the number of messages read from memory
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of messages that were passed to poller handlers from the underlying store.
+     * @return the number of messages read from the underlying store
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of messages currently in the cached window.
+     * @return the number of cached messages
+     */
+    public int cachedMessages() {
+        return (int)(last - first);
+    }
+
+    /**
+     * Copies messages appended to the underlying store since the last invocation into the cache.
+     * @return the number of messages added to the cache
+     */
+    public int refresh() {
+        int count = 0;
+        while (tailPoller.poll(cacheHandler) > 0) {
+            count++;
+        }
+        return count;
+    }
+
+    private Result cache(final DirectBuffer message) {
+        if (last - first == maxEntries) {
+            evictFirst();
+        }
+        final int slot = slot(last);
+        final int length = message.capacity();
+        entryIds[slot] = tailPoller.entryId();
+        if (length > capacity) {
+            positions[slot] = tailPosition;
+            lengths[slot] = NOT_CACHED;
+        } else {
+            final int alignedLength = BitUtil.align(length, ALIGNMENT);
+            long position = tailPosition;
+            int offset = (int)(position % capacity);
+            if (offset + alignedLength > capacity) {
+                position += capacity - offset;
+                offset = 0;
+            }
+            while (first < last && position + alignedLength - positions[slot(first)] > capacity) {
+                evictFirst();
+            }
+            ring.putBytes(offset, message, 0, length);
+            positions[slot] = position;
+            lengths[slot] = length;
+            tailPosition = position + alignedLength;
+        }
+        last++;
+        return Result.POLL;
+    }
+
+    private void evictFirst() {
+        final long entryId = entryIds[slot(first)];
+        for (int i = 0; i < pollers.size(); i++) {
+            pollers.get(i).onEvict(first, entryId);
+        }
+        first++;
+    }
+
+    private int slot(final long entry) {
+        return (int)(entry % maxEntries);
+    }
+
+    private boolean isCached(final long entry) {
+        return lengths[slot(entry)] != NOT_CACHED;
+    }
+
+    private long lowerBound(final long entryId) {
+        long low = first;
+        long high = last;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (entryIds[slot(mid)] < entryId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long cacheEntry(final long entryId) {
+        if (first < last && entryIds[slot(first)] <= entryId && entryId <= entryIds[slot(last - 1)]) {
+            return lowerBound(entryId);
+        }
+        return NONE;
+    }
+
+    @Override
+    public Appender appender() {
+        if (appender == null) {
+            appender = new CachingAppender(store.appender());
+        }
+        return appender;
+    }
+
+    @Override
+    public Poller poller() {
+        final CachingPoller poller = new CachingPoller(store.poller(), false);
+        pollers.add(poller);
+        return poller;
+    }
+
+    @Override
+    public Poller poller(final String id) {
+        final CachingPoller poller = new CachingPoller(store.poller(id), true);
+        pollers.add(poller);
+        return poller;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return store.isClosed();
+    }
+
+    @Override
+    public void close() {
+        tailPoller.close();
+        store.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingMessageStore{store=" + store +
+                "|capacity=" + capacity +
+                "|cached=" + cachedMessages() +
+                "|hits=" + hitCount +
+                "|misses=" + missCount +
+                '}';
+    }
+
+    private final class CachingAppender implements Appender {
+        final Appender appender;
+        final CachingAppendingContext context = new CachingAppendingContext();
+
+        CachingAppender(final Appender appender) {
+            this.appender = requireNonNull(appender);
+        }
+
+        @Override
+        public void append(final DirectBuffer buffer, final int offset, final int length) {
+            appender.append(buffer, offset, length);
+            refresh();
+        }
+
+        @Override
+        public AppendingContext appending() {
+            return context.init(appender.appending());
+        }
+
+        @Override
+        public boolean isClosed() {
+            return appender.isClosed();
+        }
+
+        @Override
+        public void close() {
+            appender.close();
+        }
+    }
+
+    private final class CachingAppendingContext implements AppendingContext {
+        AppendingContext context;
+
+        CachingAppendingContext init(final AppendingContext context) {
+            this.context = requireNonNull(context);
+            return this;
+        }
+
+        @Override
+        public MutableDirectBuffer buffer() {
+            return context.buffer();
+        }
+
+        @Override
+        public void commit(final int length) {
+            context.commit(length);
+            refresh();
+        }
+
+        @Override
+        public void abort() {
+            context.abort();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return context == null || context.isClosed();
+        }
+    }
+
+    private final class CachingPoller implements Poller {
+        final Poller poller;
+        final boolean named;
+        final DirectBuffer message = new UnsafeBuffer(0, 0);
+        final Handler missHandler = this::onMiss;
+        Handler handler;
+        long entry;
+        int unsynced;
+        boolean closed;
+
+        CachingPoller(final Poller poller, final boolean named) {
+            this.poller = requireNonNull(poller);
+            this.named = named;
+            this.entry = NONE;
+        }
+
+        void onEvict(final long evicted, final long entryId) {
+            if (entry == evicted) {
+                poller.moveTo(entryId);
+                entry = NONE;
+                unsynced = 0;
+            }
+        }
+
+        private boolean atCacheEnd() {
+            return entry >= last && refresh() == 0 && entry >= last;
+        }
+
+        private void enterCache() {
+            final long cacheEntry = cacheEntry(poller.entryId());
+            if (cacheEntry != NONE && isCached(cacheEntry)) {
+                entry = cacheEntry;
+            }
+        }
+
+        private void leaveCache() {
+            syncPoller();
+            entry = NONE;
+        }
+
+        /** Moves the underlying poller to the position of this poller in the cache */
+        private void syncPoller() {
+            if (entry < last) {
+                poller.moveTo(entryIds[slot(entry)]);
+            } else {
+                poller.moveToEnd();
+            }
+            unsynced = 0;
+        }
+
+        @Override
+        public long entryId() {
+            if (entry == NONE) {
+                return poller.entryId();
+            }
+            //at the end of the cached window, the tail poller is positioned at the next entry of the store
+            return entry < last ? entryIds[slot(entry)] : tailPoller.entryId();
+        }
+
+        @Override
+        public boolean moveTo(final long entryId) {
+            refresh();
+            final long cacheEntry = cacheEntry(entryId);
+            if (cacheEntry != NONE) {
+                if (entryIds[slot(cacheEntry)] != entryId) {
+                    return false;
+                }
+                if (isCached(cacheEntry)) {
+                    entry = cacheEntry;
+                    return true;
+                }
+            }
+            if (poller.moveTo(entryId)) {
+                entry = NONE;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean moveToNext() {
+            if (entry != NONE) {
+                if (atCacheEnd()) {
+                    return false;
+                }
+                //refresh may have evicted the entry
+                if (entry != NONE) {
+                    entry++;
+                    return true;
+                }
+            }
+            final boolean moved = poller.moveToNext();
+            enterCache();
+            return moved;
+        }
+
+        @Override
+        public boolean moveToPrevious() {
+            if (entry != NONE) {
+                if (entry > first) {
+                    entry--;
+                    return true;
+                }
+                leaveCache();
+            }
+            return poller.moveToPrevious();
+        }
+
+        @Override
+        public Poller moveToStart() {
+            entry = NONE;
+            poller.moveToStart();
+            enterCache();
+            return this;
+        }
+
+        @Override
+        public Poller moveToEnd() {
+            refresh();
+            entry = last;
+            return this;
+        }
+
+        @Override
+        public boolean moveToTime(final long time, final TimeReader timeReader) {
+            entry = NONE;
+            final boolean found = poller.moveToTime(time, timeReader);
+            enterCache();
+            return found;
+        }
+
+        @Override
+        public int poll(final Handler handler) {
+            ensureNotClosed();
+            if (entry == NONE) {
+                refresh();
+                enterCache();
+            }
+            if (entry != NONE) {
+                if (atCacheEnd()) {
+                    return 0;
+                }
+                //refresh may have evicted the entry
+                if (entry != NONE) {
+                    if (isCached(entry)) {
+                        return pollCached(handler);
+                    }
+                    leaveCache();
+                }
+            }
+            this.handler = handler;
+            try {
+                if (poller.poll(missHandler) > 0) {
+                    enterCache();
+                    return 1;
+                }
+                return 0;
+            } finally {
+                this.handler = null;
+            }
+        }
+
+        private int pollCached(final Handler handler) {
+            final int slot = slot(entry);
+            message.wrap(ring, (int)(positions[slot] % capacity), lengths[slot]);
+            final Result result;
+            try {
+                hitCount++;
+                result = handler.onMessage(message);
+            } finally {
+                message.wrap(0, 0);
+            }
+            if (result != Result.POLL) {
+                return 0;
+            }
+            if (entry != NONE) {
+                entry++;
+                if (named && ++unsynced >= NAMED_POLLER_SYNC_INTERVAL) {
+                    syncPoller();
+                }
+            } else {
+                //evicted while handling the message
+                poller.moveToNext();
+            }
+            return 1;
+        }
+
+        private Result onMiss(final DirectBuffer message) {
+            missCount++;
+            return handler.onMessage(message);
+        }
+
+        private void ensureNotClosed() {
+            if (closed) {
+                throw new IllegalStateException("Poller is closed");
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pollers.remove(this);
+                if (named && entry != NONE) {
+                    syncPoller();
+                }
+                poller.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CachingPoller{entryId=" + entryId() + "|cached=" + (entry != NONE) + '}';
+        }
+    }
+}
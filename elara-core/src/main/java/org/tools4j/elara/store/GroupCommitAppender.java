@@ -0,0 +1,274 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.NanoClock;
+import org.tools4j.elara.step.AgentStep;
+import org.tools4j.elara.store.MessageStore.Appender;
+import org.tools4j.elara.store.MessageStore.AppendingContext;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Appender decorator making appended messages durable in batches through a {@link StoreSync}, a technique known as
+ * group commit.  A sync is performed when the number of pending messages or bytes reaches the maximum defined by the
+ * {@link GroupCommitPolicy}, or when {@link #doWork()} finds that the oldest pending message has reached the maximum
+ * delay.
+ * <p>
+ * Inputs that must acknowledge messages upstream only after they are durable, for instance by committing a Kafka
+ * offset or sending a TCP ack, register an acknowledgement token via {@link #acknowledgeWhenDurable(long)} after the
+ * events of their command have been appended.  The token is passed to the {@link AckHandler} once all messages
+ * appended up to that point are durable.  Alternatively {@link #appendPosition()} and {@link #durablePosition()} can
+ * be compared directly.
+ * <p>
+ * The appender is not thread safe and should be used from the thread appending the messages.
+ */
+public class GroupCommitAppender implements Appender, AgentStep {
+
+    /**
+     * Handler invoked with acknowledgement tokens once the messages appended before the token was registered are
+     * durable.
+     */
+    @FunctionalInterface
+    public interface AckHandler {
+        void onDurable(long token, long durablePosition);
+
+        AckHandler NOOP = (token, durablePosition) -> {};
+    }
+
+    private final Appender appender;
+    private final StoreSync storeSync;
+    private final GroupCommitPolicy policy;
+    private final AckHandler ackHandler;
+    private final NanoClock clock;
+    private final long maxDelayNanos;
+    private final GroupCommitContext context = new GroupCommitContext();
+    private final LongArrayList ackPositions = new LongArrayList();
+    private final LongArrayList ackTokens = new LongArrayList();
+    private int ackHead;
+    private long appendPosition;
+    private long durablePosition;
+    private int pendingBytes;
+    private long firstPendingNanos;
+    private long syncCount;
+
+    public GroupCommitAppender(final Appender appender,
+                               final StoreSync storeSync,
+                               final GroupCommitPolicy policy) {
+        this(appender, storeSync, policy, AckHandler.NOOP, System::nanoTime);
+    }
+
+    public GroupCommitAppender(final Appender appender,
+                               final StoreSync storeSync,
+                               final GroupCommitPolicy policy,
+                               final AckHandler ackHandler,
+                               final NanoClock clock) {
+        this.appender = requireNonNull(appender);
+        this.storeSync = requireNonNull(storeSync);
+        this.policy = requireNonNull(policy);
+        this.ackHandler = requireNonNull(ackHandler);
+        this.clock = requireNonNull(clock);
+        this.maxDelayNanos = policy.maxDelayMicros() * 1000;
+    }
+
+    public GroupCommitPolicy policy() {
+        return policy;
+    }
+
+    /** @return the number of messages appended through this appender */
+    public long appendPosition() {
+        return appendPosition;
+    }
+
+    /** @return the number of messages appended through this appender that have been made durable */
+    public long durablePosition() {
+        return durablePosition;
+    }
+
+    /** @return the number of appended messages that are not durable yet */
+    public int pendingMessages() {
+        return (int)(appendPosition - durablePosition);
+    }
+
+    /** @return the number of syncs performed by this appender */
+    public long syncCount() {
+        return syncCount;
+    }
+
+    /**
+     * Registers a token that is passed to the {@link AckHandler} as soon as all messages appended so far are durable,
+     * or immediately if no messages are pending.
+     *
+     * @param token a token identifying the input message to acknowledge, for instance an input offset or sequence
+     */
+    public void acknowledgeWhenDurable(final long token) {
+        if (appendPosition == durablePosition) {
+            ackHandler.onDurable(token, durablePosition);
+            return;
+        }
+        ackPositions.addLong(appendPosition);
+        ackTokens.addLong(token);
+    }
+
+    @Override
+    public void append(final DirectBuffer buffer, final int offset, final int length) {
+        appender.append(buffer, offset, length);
+        onAppended(length);
+    }
+
+    @Override
+    public AppendingContext appending() {
+        return context.init(appender.appending());
+    }
+
+    private void onAppended(final int length) {
+        if (appendPosition == durablePosition) {
+            firstPendingNanos = clock.nanoTime();
+        }
+        appendPosition++;
+        pendingBytes += length;
+        if (appendPosition - durablePosition >= policy.maxMessages() || pendingBytes >= policy.maxBytes()) {
+            flush();
+        }
+    }
+
+    /**
+     * Makes all pending messages durable and acknowledges registered tokens.
+     *
+     * @return the number of messages that were made durable
+     */
+    public int flush() {
+        final int pending = pendingMessages();
+        if (pending == 0) {
+            return 0;
+        }
+        storeSync.sync();
+        syncCount++;
+        durablePosition = appendPosition;
+        pendingBytes = 0;
+        acknowledge();
+        return pending;
+    }
+
+    private void acknowledge() {
+        final int size = ackTokens.size();
+        while (ackHead < size && ackPositions.getLong(ackHead) <= durablePosition) {
+            final long token = ackTokens.getLong(ackHead);
+            ackHead++;
+            ackHandler.onDurable(token, durablePosition);
+        }
+        if (ackHead == ackTokens.size()) {
+            ackHead = 0;
+            ackPositions.clear();
+            ackTokens.clear();
+        }
+    }
+
+    /**
+     * Flushes pending messages if the oldest pending message has reached the maximum delay of the policy;  to be
+     * invoked in the duty cycle of the appending thread.
+     *
+     * @return the number of messages that were made durable
+     */
+    @Override
+    public int doWork() {
+        if (appendPosition == durablePosition || clock.nanoTime() - firstPendingNanos < maxDelayNanos) {
+            return 0;
+        }
+        return flush();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return appender.isClosed();
+    }
+
+    @Override
+    public void close() {
+        if (!appender.isClosed()) {
+            flush();
+            appender.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GroupCommitAppender{" +
+                "appendPosition=" + appendPosition +
+                ", durablePosition=" + durablePosition +
+                ", policy=" + policy +
+                '}';
+    }
+
+    private final class GroupCommitContext implements AppendingContext {
+        AppendingContext context;
+
+        GroupCommitContext init(final AppendingContext context) {
+            if (this.context != null) {
+                abort();
+                context.abort();
+                throw new IllegalStateException("Appending context not closed");
+            }
+            this.context = requireNonNull(context);
+            return this;
+        }
+
+        private AppendingContext unclosedContext() {
+            if (context == null) {
+                throw new IllegalStateException("Appending context closed");
+            }
+            return context;
+        }
+
+        @Override
+        public MutableDirectBuffer buffer() {
+            return unclosedContext().buffer();
+        }
+
+        @Override
+        public void commit(final int length) {
+            final AppendingContext ctxt = unclosedContext();
+            context = null;
+            ctxt.commit(length);
+            onAppended(length);
+        }
+
+        @Override
+        public void abort() {
+            if (context != null) {
+                final AppendingContext ctxt = context;
+                context = null;
+                ctxt.abort();
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return context == null;
+        }
+    }
+}
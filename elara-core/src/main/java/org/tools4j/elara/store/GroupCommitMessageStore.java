@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+import org.agrona.concurrent.NanoClock;
+import org.tools4j.elara.step.AgentStep;
+import org.tools4j.elara.store.GroupCommitAppender.AckHandler;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A message store decorator whose appender makes appended messages durable in batches as defined by a
+ * {@link GroupCommitPolicy}.  The store returns the same {@link GroupCommitAppender} instance for every invocation of
+ * {@link #appender()} so that all messages appended through this store are part of the same batches.
+ * <p>
+ * The {@link #flushStep() flush step} must be invoked in the duty cycle of the appending thread to enforce the max
+ * delay of the policy, for instance via
+ * {@link org.tools4j.elara.app.config.AppContext#dutyCycleExtraStep(AgentStep, org.tools4j.elara.app.config.ExecutionType)
+ * AppContext.dutyCycleExtraStep(..)}.  Pollers are returned by the underlying store and may read messages that are
+ * not durable yet.
+ */
+public class GroupCommitMessageStore implements MessageStore {
+
+    private final MessageStore store;
+    private final StoreSync storeSync;
+    private final GroupCommitPolicy policy;
+    private final AckHandler ackHandler;
+    private final NanoClock clock;
+    private final AgentStep flushStep = this::flush;
+    private GroupCommitAppender appender;
+
+    public GroupCommitMessageStore(final MessageStore store,
+                                   final StoreSync storeSync,
+                                   final GroupCommitPolicy policy) {
+        this(store, storeSync, policy, AckHandler.NOOP, System::nanoTime);
+    }
+
+    public GroupCommitMessageStore(final MessageStore store,
+                                   final StoreSync storeSync,
+                                   final GroupCommitPolicy policy,
+                                   final AckHandler ackHandler,
+                                   final NanoClock clock) {
+        this.store = requireNonNull(store);
+        this.storeSync = requireNonNull(storeSync);
+        this.policy = requireNonNull(policy);
+        this.ackHandler = requireNonNull(ackHandler);
+        this.clock = requireNonNull(clock);
+    }
+
+    public MessageStore store() {
+        return store;
+    }
+
+    public GroupCommitPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public GroupCommitAppender appender() {
+        if (appender == null || appender.isClosed()) {
+            appender = new GroupCommitAppender(store.appender(), storeSync, policy, ackHandler, clock);
+        }
+        return appender;
+    }
+
+    /**
+     * Returns a step that flushes pending messages when the oldest pending message has reached the max delay of the
+     * policy.
+     *
+     * @return the flush step to invoke in the duty cycle of the appending thread
+     */
+    public AgentStep flushStep() {
+        return flushStep;
+    }
+
+    private int flush() {
+        return appender == null ? 0 : appender.doWork();
+    }
+
+    @Override
+    public Poller poller() {
+        return store.poller();
+    }
+
+    @Override
+    public Poller poller(final String id) {
+        return store.poller(id);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return store.isClosed();
+    }
+
+    @Override
+    public void close() {
+        if (appender != null) {
+            appender.close();
+            appender = null;
+        }
+        store.close();
+    }
+
+    @Override
+    public String toString() {
+        return "GroupCommitMessageStore{" +
+                "store=" + store +
+                ", policy=" + policy +
+                '}';
+    }
+}
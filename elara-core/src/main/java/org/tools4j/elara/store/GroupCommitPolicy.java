@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+/**
+ * Policy for {@link GroupCommitAppender} defining when appended messages are made durable:  when the number of pending
+ * messages or bytes reaches a maximum, or when the oldest pending message reaches a maximum delay.
+ */
+public final class GroupCommitPolicy {
+
+    /** Every message is made durable when appended */
+    public static final GroupCommitPolicy EVERY_MESSAGE = new GroupCommitPolicy(1, Integer.MAX_VALUE, 0);
+
+    private final int maxMessages;
+    private final int maxBytes;
+    private final long maxDelayMicros;
+
+    /**
+     * Constructor with batch limits.
+     *
+     * @param maxMessages       the maximum number of pending messages, at least 1
+     * @param maxBytes          the maximum number of pending bytes, at least 1
+     * @param maxDelayMicros    the maximum delay in microseconds for the oldest pending message, non-negative;  the
+     *                          delay is only enforced when {@link GroupCommitAppender#doWork()} is invoked
+     */
+    public GroupCommitPolicy(final int maxMessages, final int maxBytes, final long maxDelayMicros) {
+        if (maxMessages < 1) {
+            throw new IllegalArgumentException("Max messages must be positive: " + maxMessages);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Max bytes must be positive: " + maxBytes);
+        }
+        if (maxDelayMicros < 0) {
+            throw new IllegalArgumentException("Max delay cannot be negative: " + maxDelayMicros);
+        }
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.maxDelayMicros = maxDelayMicros;
+    }
+
+    public int maxMessages() {
+        return maxMessages;
+    }
+
+    public int maxBytes() {
+        return maxBytes;
+    }
+
+    public long maxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupCommitPolicy{" +
+                "maxMessages=" + maxMessages +
+                ", maxBytes=" + maxBytes +
+                ", maxDelayMicros=" + maxDelayMicros +
+                '}';
+    }
+}
@@ -266,6 +266,28 @@ public class InMemoryStore implements MessageStore {
                 return false;
             }
 
+            @Override
+            public boolean moveToTime(final long time, final TimeReader timeReader) {
+                ensureNotClosed();
+                //binary search for first message with time >= given time
+                int low = 0;
+                int high = size;
+                while (low < high) {
+                    final int mid = (low + high) >>> 1;
+                    final int pos = position(mid);
+                    message.wrap(buffers[pos], 0, lengths[pos]);
+                    final long messageTime = timeReader.time(message);
+                    message.wrap(0, 0);
+                    if (messageTime < time) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                index = low;
+                return low < size;
+            }
+
             private void doMoveToNext() {
                 if (removeOnPoll) {
                     start = start < buffers.length ? start + 1 : 0;
@@ -276,6 +298,10 @@ public class InMemoryStore implements MessageStore {
             }
 
             private int position() {
+                return position(index);
+            }
+
+            private int position(final int index) {
                 final int pos = start + index;
                 return pos < buffers.length ? pos : pos - buffers.length;
             }
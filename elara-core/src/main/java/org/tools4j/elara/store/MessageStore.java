@@ -65,6 +65,45 @@ public interface MessageStore extends AutoCloseable {
         Poller moveToStart();
         Poller moveToEnd();
 
+        /**
+         * Moves to the first message with a {@link TimeReader#FRAME_TIME frame time} equal to or after the given time.
+         *
+         * @param time the time to move to
+         * @return true if such a message was found, and false if all messages are before the given time in which case
+         *         the poller is moved to the end
+         * @see #moveToTime(long, TimeReader)
+         */
+        default boolean moveToTime(final long time) {
+            return moveToTime(time, TimeReader.FRAME_TIME);
+        }
+
+        /**
+         * Moves to the first message with a time equal to or after the given time.  Message times are expected to be
+         * non-decreasing in store order;  implementations may use a binary search to find the message.
+         * <p>
+         * The default implementation scans all messages from the start of the store.
+         *
+         * @param time          the time to move to
+         * @param timeReader    reader for the message time
+         * @return true if such a message was found, and false if all messages are before the given time in which case
+         *         the poller is moved to the end
+         */
+        default boolean moveToTime(final long time, final TimeReader timeReader) {
+            final boolean[] found = {false};
+            final Handler handler = message -> {
+                if (timeReader.time(message) >= time) {
+                    found[0] = true;
+                    return Handler.Result.PEEK;
+                }
+                return Handler.Result.POLL;
+            };
+            moveToStart();
+            while (poll(handler) > 0) {
+                //skip messages before time
+            }
+            return found[0];
+        }
+
         int poll(Handler handler);
 
         boolean isClosed();
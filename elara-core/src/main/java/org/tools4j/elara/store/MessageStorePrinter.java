@@ -31,6 +31,9 @@ import org.tools4j.elara.flyweight.Flyweight;
 import org.tools4j.elara.format.MessagePrinter;
 import org.tools4j.elara.store.MessageStore.Handler;
 import org.tools4j.elara.store.MessageStore.Handler.Result;
+import org.tools4j.elara.store.scan.MessageStoreScanner;
+import org.tools4j.elara.store.scan.ScanFilter;
+import org.tools4j.elara.store.scan.ScanRange;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -104,6 +107,30 @@ public class MessageStorePrinter implements AutoCloseable {
         } while (printedAny > 0);
     }
 
+    /**
+     * Prints messages found by a parallel store scan;  the filter is applied to raw messages before wrapping them in
+     * the flyweight, and printing is performed in store order on the invoking thread.
+     *
+     * @param scanner   the store scanner
+     * @param ranges    the ranges to scan in parallel, in entry ID order
+     * @param filter    the filter applied to raw messages
+     * @param flyweight the flyweight to wrap messages for printing
+     * @param printer   the message printer
+     * @param <M>       the message type
+     * @return the number of printed messages
+     */
+    public <M> long print(final MessageStoreScanner scanner,
+                          final ScanRange[] ranges,
+                          final ScanFilter filter,
+                          final Flyweight<M> flyweight,
+                          final MessagePrinter<? super M> printer) {
+        final long[] linePtr = {0};
+        final long count = scanner.scan(ranges, filter, (entryId, message) ->
+                printer.print(linePtr[0]++, entryId, flyweight.wrap(message, 0), printWriter));
+        flush();
+        return count;
+    }
+
     public <M> Agent printAgent(final MessageStore.Poller poller,
                                 final Flyweight<M> flyweight,
                                 final Predicate<? super M> filter,
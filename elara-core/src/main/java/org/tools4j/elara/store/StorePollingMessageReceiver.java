@@ -57,6 +57,23 @@ public class StorePollingMessageReceiver implements MessageReceiver {
         return messageStorePoller.poll(storeHandler);
     }
 
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        requireNonNull(handler);
+        if (receiverHandler != handler) {
+            receiverHandler = handler;
+        }
+        int count = 0;
+        while (count < limit) {
+            final int polled = messageStorePoller.poll(storeHandler);
+            if (polled <= 0) {
+                break;
+            }
+            count += polled;
+        }
+        return count;
+    }
+
     private Result onMessage(final DirectBuffer buffer) {
         receiverHandler.onMessage(buffer);
         return Result.POLL;
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightFrequencyMetrics;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FlyweightTimeMetrics;
+import org.tools4j.elara.flyweight.FrameDescriptor;
+import org.tools4j.elara.flyweight.FrameType;
+
+/**
+ * Reads the time of a message in a message store, used to position a {@link MessageStore.Poller Poller} by time.
+ */
+@FunctionalInterface
+public interface TimeReader {
+    /** Time returned for messages without time, such messages are considered to be before any other time */
+    long NIL_TIME = Long.MIN_VALUE;
+
+    /** Reads the command, event or metric time from elara frames */
+    TimeReader FRAME_TIME = TimeReader::frameTime;
+
+    /**
+     * Returns the time of the given message
+     *
+     * @param message the message
+     * @return the message time, or {@link #NIL_TIME} if the message has no time
+     */
+    long time(DirectBuffer message);
+
+    /**
+     * Returns the command time for command frames, the event time for event frames and the metric time for metrics
+     * frames.
+     *
+     * @param frame the frame buffer
+     * @return the frame time, or {@link #NIL_TIME} if the frame has no time
+     */
+    static long frameTime(final DirectBuffer frame) {
+        if (frame.capacity() < FrameDescriptor.HEADER_LENGTH) {
+            return NIL_TIME;
+        }
+        switch (FlyweightHeader.type(frame)) {
+            case FrameType.COMMAND_TYPE:
+                return FlyweightCommand.commandTime(frame);
+            case FrameType.INTERMEDIARY_EVENT_TYPE:
+            case FrameType.COMMIT_EVENT_TYPE:
+            case FrameType.AUTO_COMMIT_EVENT_TYPE:
+            case FrameType.ROLLBACK_EVENT_TYPE:
+                return FlyweightEvent.eventTime(frame);
+            case FrameType.TIME_METRICS_TYPE:
+                return FlyweightTimeMetrics.metricTime(frame);
+            case FrameType.FREQUENCY_METRICS_TYPE:
+                return FlyweightFrequencyMetrics.metricTime(frame);
+            default:
+                return NIL_TIME;
+        }
+    }
+}
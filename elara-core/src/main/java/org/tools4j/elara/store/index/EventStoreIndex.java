@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.index;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.store.MessageStore;
+
+import java.io.File;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persistent off-heap index of an event store mapping {@code (sourceId, sourceSequence)} to the entry ID of the first
+ * event of the command, and {@code eventSequence} to the entry ID of the event.  The index is stored in two
+ * {@link MappedHashIndex} files in the index directory and can be queried from other processes while it is written.
+ * <p>
+ * The index is written by an {@link EventStoreIndexer}, and can be rebuilt from the event store at any time.
+ */
+public class EventStoreIndex implements AutoCloseable {
+
+    public static final long NIL_ENTRY_ID = MappedHashIndex.NIL_VALUE;
+    public static final String SOURCE_INDEX_FILE_NAME = "source-sequence.idx";
+    public static final String EVENT_INDEX_FILE_NAME = "event-sequence.idx";
+
+    private final File directory;
+    private final MappedHashIndex sourceIndex;
+    private final MappedHashIndex eventIndex;
+
+    private EventStoreIndex(final File directory, final MappedHashIndex sourceIndex, final MappedHashIndex eventIndex) {
+        this.directory = requireNonNull(directory);
+        this.sourceIndex = requireNonNull(sourceIndex);
+        this.eventIndex = requireNonNull(eventIndex);
+    }
+
+    /**
+     * Creates a new empty index, replacing existing index files in the directory.  The index grows up to
+     * {@link MappedHashIndex#MAX_CAPACITY}.
+     *
+     * @param directory the index directory, created if it does not exist
+     * @param capacity  the initial index capacity, a power of two
+     * @return the new index
+     */
+    public static EventStoreIndex create(final File directory, final int capacity) {
+        return create(directory, capacity, MappedHashIndex.MAX_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty index, replacing existing index files in the directory.
+     *
+     * @param directory     the index directory, created if it does not exist
+     * @param capacity      the initial index capacity, a power of two
+     * @param maxCapacity   the max index capacity, a power of two;  at most 75% of the max capacity can be used
+     * @return the new index
+     */
+    public static EventStoreIndex create(final File directory, final int capacity, final int maxCapacity) {
+        IoUtil.ensureDirectoryExists(directory, directory.getAbsolutePath());
+        final MappedHashIndex sourceIndex = MappedHashIndex.create(
+                new File(directory, SOURCE_INDEX_FILE_NAME), capacity, maxCapacity);
+        try {
+            return new EventStoreIndex(directory, sourceIndex,
+                    MappedHashIndex.create(new File(directory, EVENT_INDEX_FILE_NAME), capacity, maxCapacity));
+        } catch (final RuntimeException e) {
+            sourceIndex.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing index, for instance to query it from another process.
+     *
+     * @param directory the index directory
+     * @return the index
+     * @throws IllegalArgumentException if no valid index exists in the directory
+     */
+    public static EventStoreIndex open(final File directory) {
+        final MappedHashIndex sourceIndex = MappedHashIndex.open(new File(directory, SOURCE_INDEX_FILE_NAME));
+        try {
+            return new EventStoreIndex(directory, sourceIndex,
+                    MappedHashIndex.open(new File(directory, EVENT_INDEX_FILE_NAME)));
+        } catch (final RuntimeException e) {
+            sourceIndex.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the index if it exists, or creates a new index otherwise.
+     *
+     * @param directory the index directory
+     * @param capacity  the initial index capacity used if a new index is created
+     * @return the index
+     */
+    public static EventStoreIndex openOrCreate(final File directory, final int capacity) {
+        return new File(directory, EVENT_INDEX_FILE_NAME).exists() ?
+                open(directory) : create(directory, capacity);
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    /**
+     * Returns the entry ID of the first event with the given source ID and source sequence.
+     *
+     * @param sourceId          the source ID of the command
+     * @param sourceSequence    the source sequence of the command
+     * @return the entry ID of the first event for the command, or {@link #NIL_ENTRY_ID} if not found
+     */
+    public long entryIdBySource(final int sourceId, final long sourceSequence) {
+        return sourceIndex.get(sourceId, sourceSequence);
+    }
+
+    /**
+     * Returns the entry ID of the event with the given event sequence.
+     *
+     * @param eventSequence the event sequence
+     * @return the entry ID of the event, or {@link #NIL_ENTRY_ID} if not found
+     */
+    public long entryIdByEventSequence(final long eventSequence) {
+        return eventIndex.get(0, eventSequence);
+    }
+
+    /**
+     * Moves the poller to the first event with the given source ID and source sequence.
+     *
+     * @param poller            the event store poller
+     * @param sourceId          the source ID of the command
+     * @param sourceSequence    the source sequence of the command
+     * @return true if the event was found in the index and the poller was moved to it
+     */
+    public boolean moveToSource(final MessageStore.Poller poller, final int sourceId, final long sourceSequence) {
+        final long entryId = entryIdBySource(sourceId, sourceSequence);
+        return entryId != NIL_ENTRY_ID && poller.moveTo(entryId);
+    }
+
+    /**
+     * Moves the poller to the event with the given event sequence.
+     *
+     * @param poller        the event store poller
+     * @param eventSequence the event sequence
+     * @return true if the event was found in the index and the poller was moved to it
+     */
+    public boolean moveToEventSequence(final MessageStore.Poller poller, final long eventSequence) {
+        final long entryId = entryIdByEventSequence(eventSequence);
+        return entryId != NIL_ENTRY_ID && poller.moveTo(entryId);
+    }
+
+    /**
+     * Returns the entry ID of the last indexed event.
+     * @return the entry ID of the last indexed event, or {@link #NIL_ENTRY_ID} if no event has been indexed yet
+     */
+    public long lastIndexedEntryId() {
+        return eventIndex.checkpoint();
+    }
+
+    /**
+     * Returns the number of indexed events.
+     * @return the number of events in the event sequence index
+     */
+    public int size() {
+        return eventIndex.size();
+    }
+
+    /**
+     * Returns true if the index is full and no more events can be indexed.
+     * @return true if the max capacity of the index has been reached
+     */
+    public boolean isFull() {
+        return sourceIndex.isFull() || eventIndex.isFull();
+    }
+
+    /**
+     * Adds the given event to the index;  events must be indexed in the order of the event store.  Indexing an event
+     * again has no effect.
+     *
+     * @param entryId   the entry ID of the event in the event store
+     * @param event     the event frame
+     * @throws IllegalStateException if the index is {@link #isFull() full}
+     */
+    public void index(final long entryId, final DirectBuffer event) {
+        sourceIndex.putIfAbsent(FlyweightEvent.sourceId(event), FlyweightEvent.sourceSequence(event), entryId);
+        eventIndex.putIfAbsent(0, FlyweightEvent.eventSequence(event), entryId);
+        eventIndex.checkpoint(entryId);
+    }
+
+    public boolean isClosed() {
+        return eventIndex.isClosed();
+    }
+
+    @Override
+    public void close() {
+        sourceIndex.close();
+        eventIndex.close();
+    }
+
+    @Override
+    public String toString() {
+        return "EventStoreIndex{directory=" + directory + ", size=" + size() + "}";
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.index;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.step.AgentStep;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.store.index.EventStoreIndex.NIL_ENTRY_ID;
+
+/**
+ * Agent step polling the event store and adding events to an {@link EventStoreIndex} as they are appended.  Indexing
+ * resumes after the last indexed event, and the index can be rebuilt from the start of the event store via
+ * {@link #rebuild()}.
+ * <p>
+ * The step is usually added to the agent appending events so that the index trails the event store only by a few
+ * events.  If the index reaches its max capacity, the indexer reports it to the exception handler once and stops
+ * indexing;  queries for events that are not indexed return {@link EventStoreIndex#NIL_ENTRY_ID}.
+ */
+public class EventStoreIndexer implements AgentStep {
+
+    public static final int DEFAULT_MAX_EVENTS_PER_STEP = 64;
+
+    private final MessageStore.Poller eventPoller;
+    private final EventStoreIndex index;
+    private final int maxEventsPerStep;
+    private final ExceptionHandler exceptionHandler;
+    private final MessageStore.Handler eventHandler = this::onEvent;
+    private boolean full;
+
+    public EventStoreIndexer(final MessageStore eventStore, final EventStoreIndex index) {
+        this(eventStore.poller(), index, DEFAULT_MAX_EVENTS_PER_STEP, ExceptionHandler.systemDefault());
+    }
+
+    public EventStoreIndexer(final MessageStore.Poller eventPoller,
+                             final EventStoreIndex index,
+                             final int maxEventsPerStep) {
+        this(eventPoller, index, maxEventsPerStep, ExceptionHandler.systemDefault());
+    }
+
+    public EventStoreIndexer(final MessageStore.Poller eventPoller,
+                             final EventStoreIndex index,
+                             final int maxEventsPerStep,
+                             final ExceptionHandler exceptionHandler) {
+        if (maxEventsPerStep < 1) {
+            throw new IllegalArgumentException("Max events per step must be positive: " + maxEventsPerStep);
+        }
+        this.eventPoller = requireNonNull(eventPoller);
+        this.index = requireNonNull(index);
+        this.maxEventsPerStep = maxEventsPerStep;
+        this.exceptionHandler = requireNonNull(exceptionHandler);
+        resume();
+    }
+
+    private void resume() {
+        final long lastEntryId = index.lastIndexedEntryId();
+        //the last indexed event is indexed again which has no effect
+        if (lastEntryId == NIL_ENTRY_ID || !eventPoller.moveTo(lastEntryId)) {
+            eventPoller.moveToStart();
+        }
+    }
+
+    /**
+     * Indexes all events from the start of the event store;  events already contained in the index are not changed.
+     *
+     * @return the number of events polled from the store
+     */
+    public int rebuild() {
+        eventPoller.moveToStart();
+        int count = 0;
+        int polled;
+        do {
+            polled = doWork();
+            count += polled;
+        } while (polled > 0);
+        return count;
+    }
+
+    /**
+     * Returns true if indexing has stopped because the index is full.
+     * @return true if the index has reached its max capacity
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    @Override
+    public int doWork() {
+        int count = 0;
+        while (!full && count < maxEventsPerStep && eventPoller.poll(eventHandler) > 0) {
+            count++;
+        }
+        return count;
+    }
+
+    private Result onEvent(final DirectBuffer event) {
+        final byte type = FlyweightHeader.type(event);
+        if (FrameType.isEventType(type) || type == FrameType.ROLLBACK_EVENT_TYPE) {
+            if (index.isFull()) {
+                full = true;
+                exceptionHandler.handleException("Event store index is full, indexing stopped", index,
+                        new IllegalStateException("Index " + index.directory() + " is full with " + index.size() +
+                                " events"));
+                return Result.PEEK;
+            }
+            index.index(eventPoller.entryId(), event);
+        }
+        return Result.POLL;
+    }
+
+    @Override
+    public String toString() {
+        return "EventStoreIndexer{full=" + full + "}";
+    }
+}
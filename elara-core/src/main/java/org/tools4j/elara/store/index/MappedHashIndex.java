@@ -0,0 +1,338 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.index;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.collections.Hashing;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Persistent off-heap hash index mapping a key consisting of an int and a long value to a long value.  The index is
+ * an open addressing hash table with linear probing stored in a memory mapped file.
+ * <p>
+ * Entries can only be added, and a value once added for a key is never replaced.  The index supports a single writer
+ * and any number of readers, also from other processes mapping the same file.
+ * <p>
+ * When 75% of the slots are used, the writer doubles the capacity up to the max capacity by rehashing all entries into
+ * a new file that replaces the index file.  The old file is then marked as resized, and readers map the new file when
+ * they next access the index.
+ * <p>
+ * File layout:
+ * <pre>
+ *     0: magic (int), 4: capacity (int), 8: size (int), 12: max capacity (int)
+ *    16: checkpoint (long) -- an arbitrary value stored by the writer, for instance a resume position
+ *    64: slots, 24 bytes each: state (int), key1 (int), key2 (long), value (long)
+ * </pre>
+ */
+public class MappedHashIndex implements AutoCloseable {
+
+    public static final long NIL_VALUE = -1;
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    static final int MAGIC = 0x58444945;//EIDX
+    static final int MAGIC_RESIZED = 0x52444945;//EIDR
+    static final int MAGIC_OFFSET = 0;
+    static final int CAPACITY_OFFSET = 4;
+    static final int SIZE_OFFSET = 8;
+    static final int MAX_CAPACITY_OFFSET = 12;
+    static final int CHECKPOINT_OFFSET = 16;
+    static final int SLOTS_OFFSET = 64;
+
+    static final int SLOT_LENGTH = 24;
+    static final int STATE_OFFSET = 0;
+    static final int KEY1_OFFSET = 4;
+    static final int KEY2_OFFSET = 8;
+    static final int VALUE_OFFSET = 16;
+    static final int STATE_EMPTY = 0;
+    static final int STATE_USED = 1;
+
+    private final File file;
+    private final AtomicBuffer buffer = new UnsafeBuffer(0, 0);
+    private int capacity;
+    private int maxCapacity;
+    private int mask;
+    private int maxSize;
+
+    private MappedHashIndex(final File file, final ByteBuffer mapped) {
+        this.file = file;
+        wrap(mapped);
+    }
+
+    private void wrap(final ByteBuffer mapped) {
+        buffer.wrap(mapped);
+        final int magic = buffer.getIntVolatile(MAGIC_OFFSET);
+        if (magic != MAGIC && magic != MAGIC_RESIZED) {
+            buffer.wrap(0, 0);
+            IoUtil.unmap(mapped);
+            throw new IllegalArgumentException("Not a valid index file: " + file.getAbsolutePath());
+        }
+        final int maxCapacity = buffer.getInt(MAX_CAPACITY_OFFSET);
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.maxCapacity = maxCapacity == 0 ? capacity : maxCapacity;
+        this.mask = capacity - 1;
+        this.maxSize = capacity - (capacity >> 2);
+    }
+
+    /**
+     * Creates a new index file with {@link #MAX_CAPACITY} as max capacity, replacing the file if it exists.
+     *
+     * @param file      the index file
+     * @param capacity  the initial number of slots, a power of two not exceeding {@link #MAX_CAPACITY}
+     * @return the new index
+     */
+    public static MappedHashIndex create(final File file, final int capacity) {
+        return create(file, capacity, MAX_CAPACITY);
+    }
+
+    /**
+     * Creates a new index file, replacing the file if it exists.
+     *
+     * @param file          the index file
+     * @param capacity      the initial number of slots, a power of two not exceeding max capacity
+     * @param maxCapacity   the max number of slots, a power of two not exceeding {@link #MAX_CAPACITY};  at most 75%
+     *                      of the slots can be used
+     * @return the new index
+     */
+    public static MappedHashIndex create(final File file, final int capacity, final int maxCapacity) {
+        if (!BitUtil.isPowerOfTwo(maxCapacity) || maxCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Max capacity must be a power of two not exceeding " + MAX_CAPACITY +
+                    " but was " + maxCapacity);
+        }
+        if (!BitUtil.isPowerOfTwo(capacity) || capacity > maxCapacity) {
+            throw new IllegalArgumentException("Capacity must be a power of two not exceeding " + maxCapacity +
+                    " but was " + capacity);
+        }
+        IoUtil.deleteIfExists(file);
+        return new MappedHashIndex(file, mapNew(file, capacity, maxCapacity, NIL_VALUE));
+    }
+
+    private static ByteBuffer mapNew(final File file, final int capacity, final int maxCapacity, final long checkpoint) {
+        final ByteBuffer mapped = IoUtil.mapNewFile(file, SLOTS_OFFSET + (long)capacity * SLOT_LENGTH);
+        final AtomicBuffer header = new UnsafeBuffer(mapped);
+        header.putInt(CAPACITY_OFFSET, capacity);
+        header.putInt(MAX_CAPACITY_OFFSET, maxCapacity);
+        header.putLong(CHECKPOINT_OFFSET, checkpoint);
+        header.putIntOrdered(MAGIC_OFFSET, MAGIC);
+        return mapped;
+    }
+
+    /**
+     * Opens an existing index file.
+     *
+     * @param file the index file
+     * @return the index
+     * @throws IllegalArgumentException if the file does not exist or is not a valid index file
+     */
+    public static MappedHashIndex open(final File file) {
+        if (!file.exists() || file.length() < SLOTS_OFFSET) {
+            throw new IllegalArgumentException("Index file not found: " + file.getAbsolutePath());
+        }
+        return new MappedHashIndex(file, IoUtil.mapExistingFile(file, READ_WRITE, file.getAbsolutePath()));
+    }
+
+    public File file() {
+        return file;
+    }
+
+    public int capacity() {
+        remapIfResized();
+        return capacity;
+    }
+
+    public int maxCapacity() {
+        return maxCapacity;
+    }
+
+    public int size() {
+        remapIfResized();
+        return buffer.getIntVolatile(SIZE_OFFSET);
+    }
+
+    /**
+     * Returns true if the index is full, meaning that 75% of the max capacity is used and no more entries can be added.
+     * @return true if the index is full
+     */
+    public boolean isFull() {
+        return capacity() >= maxCapacity && size() >= maxSize;
+    }
+
+    public long checkpoint() {
+        remapIfResized();
+        return buffer.getLongVolatile(CHECKPOINT_OFFSET);
+    }
+
+    public void checkpoint(final long value) {
+        buffer.putLongOrdered(CHECKPOINT_OFFSET, value);
+    }
+
+    /**
+     * Returns the value for the given key.
+     *
+     * @param key1 the int part of the key
+     * @param key2 the long part of the key
+     * @return the value, or {@link #NIL_VALUE} if the index contains no value for the key
+     */
+    public long get(final int key1, final long key2) {
+        remapIfResized();
+        int index = hash(key1, key2, mask);
+        for (int i = 0; i < capacity; i++) {
+            final int offset = slotOffset(index);
+            if (buffer.getIntVolatile(offset + STATE_OFFSET) == STATE_EMPTY) {
+                return NIL_VALUE;
+            }
+            if (buffer.getInt(offset + KEY1_OFFSET) == key1 && buffer.getLong(offset + KEY2_OFFSET) == key2) {
+                return buffer.getLong(offset + VALUE_OFFSET);
+            }
+            index = (index + 1) & mask;
+        }
+        return NIL_VALUE;
+    }
+
+    /**
+     * Adds the value for the given key unless the index contains already a value for the key.  The index is resized
+     * if necessary.
+     *
+     * @param key1  the int part of the key
+     * @param key2  the long part of the key
+     * @param value the value to add
+     * @return true if the value was added, and false if the index contained already a value for the key
+     * @throws IllegalStateException if the index is {@link #isFull() full}
+     */
+    public boolean putIfAbsent(final int key1, final long key2, final long value) {
+        int index = hash(key1, key2, mask);
+        while (true) {
+            final int offset = slotOffset(index);
+            if (buffer.getInt(offset + STATE_OFFSET) == STATE_EMPTY) {
+                final int size = buffer.getInt(SIZE_OFFSET);
+                if (size >= maxSize) {
+                    if (capacity >= maxCapacity) {
+                        throw new IllegalStateException("Index " + file.getAbsolutePath() + " is full with " + size +
+                                " entries, max capacity is " + maxCapacity);
+                    }
+                    resize();
+                    return putIfAbsent(key1, key2, value);
+                }
+                buffer.putInt(offset + KEY1_OFFSET, key1);
+                buffer.putLong(offset + KEY2_OFFSET, key2);
+                buffer.putLong(offset + VALUE_OFFSET, value);
+                buffer.putIntOrdered(offset + STATE_OFFSET, STATE_USED);
+                buffer.putIntOrdered(SIZE_OFFSET, size + 1);
+                return true;
+            }
+            if (buffer.getInt(offset + KEY1_OFFSET) == key1 && buffer.getLong(offset + KEY2_OFFSET) == key2) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        final int newCapacity = capacity << 1;
+        final int newMask = newCapacity - 1;
+        final File resized = new File(file.getPath() + ".resize");
+        IoUtil.deleteIfExists(resized);
+        final ByteBuffer mapped = mapNew(resized, newCapacity, maxCapacity, checkpoint());
+        final AtomicBuffer target = new UnsafeBuffer(mapped);
+        int size = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            final int offset = slotOffset(slot);
+            if (buffer.getInt(offset + STATE_OFFSET) == STATE_USED) {
+                final int key1 = buffer.getInt(offset + KEY1_OFFSET);
+                final long key2 = buffer.getLong(offset + KEY2_OFFSET);
+                int index = hash(key1, key2, newMask);
+                while (target.getInt(slotOffset(index) + STATE_OFFSET) != STATE_EMPTY) {
+                    index = (index + 1) & newMask;
+                }
+                final int targetOffset = slotOffset(index);
+                target.putInt(targetOffset + KEY1_OFFSET, key1);
+                target.putLong(targetOffset + KEY2_OFFSET, key2);
+                target.putLong(targetOffset + VALUE_OFFSET, buffer.getLong(offset + VALUE_OFFSET));
+                target.putInt(targetOffset + STATE_OFFSET, STATE_USED);
+                size++;
+            }
+        }
+        target.putIntOrdered(SIZE_OFFSET, size);
+        try {
+            Files.move(resized.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (final IOException e) {
+            IoUtil.unmap(mapped);
+            throw new UncheckedIOException("Resizing index " + file.getAbsolutePath() + " failed", e);
+        }
+        final ByteBuffer old = buffer.byteBuffer();
+        buffer.putIntOrdered(MAGIC_OFFSET, MAGIC_RESIZED);
+        wrap(mapped);
+        IoUtil.unmap(old);
+    }
+
+    private void remapIfResized() {
+        //loop in case the file was resized again before we mapped it
+        while (!isClosed() && buffer.getIntVolatile(MAGIC_OFFSET) == MAGIC_RESIZED) {
+            final ByteBuffer old = buffer.byteBuffer();
+            wrap(IoUtil.mapExistingFile(file, READ_WRITE, file.getAbsolutePath()));
+            IoUtil.unmap(old);
+        }
+    }
+
+    private static int hash(final int key1, final long key2, final int mask) {
+        return Hashing.hash(key2 ^ (key1 * 0x9e3779b97f4a7c15L), mask);
+    }
+
+    private static int slotOffset(final int index) {
+        return SLOTS_OFFSET + index * SLOT_LENGTH;
+    }
+
+    public boolean isClosed() {
+        return buffer.capacity() == 0;
+    }
+
+    @Override
+    public void close() {
+        if (isClosed()) {
+            return;
+        }
+        final ByteBuffer byteBuffer = buffer.byteBuffer();
+        if (byteBuffer != null) {
+            IoUtil.unmap(byteBuffer);
+        }
+        buffer.wrap(0, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedHashIndex{file=" + file + ", capacity=" + capacity + ", maxCapacity=" + maxCapacity +
+                ", size=" + size() + "}";
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.scan;
+
+import org.agrona.DirectBuffer;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FrameDescriptor;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.store.TimeReader;
+
+/**
+ * Scan filter for elara frames checking raw header fields without wrapping the frame in a flyweight.  All conditions
+ * set on the filter have to be met for a frame to be accepted.
+ * <p>
+ * Source ID and source sequence conditions apply to commands, events and time metrics which share the same header
+ * offsets for these fields, payload type conditions to commands and events, and event sequence conditions to events
+ * and time metrics;  frames without the field are not accepted if a condition is set for it.  Time conditions use
+ * {@link TimeReader#frameTime(DirectBuffer)}.
+ */
+public class FrameFilter implements ScanFilter {
+
+    private int frameTypes;
+    private boolean sourceIdSet;
+    private int sourceId;
+    private boolean payloadTypeSet;
+    private int payloadType;
+    private long fromTime = Long.MIN_VALUE;
+    private long toTime = Long.MAX_VALUE;
+    private long fromSourceSequence = Long.MIN_VALUE;
+    private long toSourceSequence = Long.MAX_VALUE;
+    private long fromEventSequence = Long.MIN_VALUE;
+    private long toEventSequence = Long.MAX_VALUE;
+
+    public static FrameFilter frames() {
+        return new FrameFilter();
+    }
+
+    /**
+     * Accept only frames of the given types
+     * @param frameTypes frame type constants as per {@link FrameType}
+     * @return this filter
+     */
+    public FrameFilter frameTypes(final byte... frameTypes) {
+        for (final byte frameType : frameTypes) {
+            if (frameType < 0 || frameType >= Integer.SIZE) {
+                throw new IllegalArgumentException("Invalid frame type: " + frameType);
+            }
+            this.frameTypes |= 1 << frameType;
+        }
+        return this;
+    }
+
+    public FrameFilter commands() {
+        return frameTypes(FrameType.COMMAND_TYPE);
+    }
+
+    public FrameFilter events() {
+        return frameTypes(FrameType.INTERMEDIARY_EVENT_TYPE, FrameType.COMMIT_EVENT_TYPE,
+                FrameType.AUTO_COMMIT_EVENT_TYPE, FrameType.ROLLBACK_EVENT_TYPE);
+    }
+
+    public FrameFilter sourceId(final int sourceId) {
+        this.sourceIdSet = true;
+        this.sourceId = sourceId;
+        return this;
+    }
+
+    public FrameFilter payloadType(final int payloadType) {
+        this.payloadTypeSet = true;
+        this.payloadType = payloadType;
+        return this;
+    }
+
+    /**
+     * Accept only frames with a time in the given range
+     * @param fromTime  the start time, inclusive
+     * @param toTime    the end time, exclusive
+     * @return this filter
+     */
+    public FrameFilter timeRange(final long fromTime, final long toTime) {
+        this.fromTime = fromTime;
+        this.toTime = toTime;
+        return this;
+    }
+
+    /**
+     * Accept only frames with a source sequence in the given range
+     * @param fromSourceSequence    the start source sequence, inclusive
+     * @param toSourceSequence      the end source sequence, exclusive
+     * @return this filter
+     */
+    public FrameFilter sourceSequenceRange(final long fromSourceSequence, final long toSourceSequence) {
+        this.fromSourceSequence = fromSourceSequence;
+        this.toSourceSequence = toSourceSequence;
+        return this;
+    }
+
+    /**
+     * Accept only frames with an event sequence in the given range
+     * @param fromEventSequence the start event sequence, inclusive
+     * @param toEventSequence   the end event sequence, exclusive
+     * @return this filter
+     */
+    public FrameFilter eventSequenceRange(final long fromEventSequence, final long toEventSequence) {
+        this.fromEventSequence = fromEventSequence;
+        this.toEventSequence = toEventSequence;
+        return this;
+    }
+
+    @Override
+    public boolean test(final DirectBuffer frame) {
+        if (frame.capacity() < FrameDescriptor.HEADER_LENGTH) {
+            return false;
+        }
+        final byte type = FlyweightHeader.type(frame);
+        if (frameTypes != 0 && (type < 0 || type >= Integer.SIZE || (frameTypes & (1 << type)) == 0)) {
+            return false;
+        }
+        final boolean command = type == FrameType.COMMAND_TYPE;
+        final boolean event = FrameType.isEventType(type) || type == FrameType.ROLLBACK_EVENT_TYPE;
+        final boolean timeMetrics = type == FrameType.TIME_METRICS_TYPE;
+        if (sourceIdSet && (!(command || event || timeMetrics) ||
+                FlyweightEvent.sourceId(frame) != sourceId)) {
+            return false;
+        }
+        if (payloadTypeSet && (!(command || event) ||
+                FlyweightEvent.payloadType(frame) != payloadType)) {
+            return false;
+        }
+        if (fromSourceSequence != Long.MIN_VALUE || toSourceSequence != Long.MAX_VALUE) {
+            if (!(command || event || timeMetrics) || !inRange(
+                    FlyweightEvent.sourceSequence(frame),
+                    fromSourceSequence, toSourceSequence)) {
+                return false;
+            }
+        }
+        if (fromEventSequence != Long.MIN_VALUE || toEventSequence != Long.MAX_VALUE) {
+            if (!(event || timeMetrics) || !inRange(
+                    FlyweightEvent.eventSequence(frame),
+                    fromEventSequence, toEventSequence)) {
+                return false;
+            }
+        }
+        if (fromTime != Long.MIN_VALUE || toTime != Long.MAX_VALUE) {
+            final long time = TimeReader.frameTime(frame);
+            return time != TimeReader.NIL_TIME && inRange(time, fromTime, toTime);
+        }
+        return true;
+    }
+
+    private static boolean inRange(final long value, final long from, final long to) {
+        return from <= value && value < to;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameFilter{" +
+                "frameTypes=" + Integer.toBinaryString(frameTypes) +
+                (sourceIdSet ? ", sourceId=" + sourceId : "") +
+                (payloadTypeSet ? ", payloadType=" + payloadType : "") +
+                ", time=[" + fromTime + ", " + toTime + ")" +
+                ", sourceSequence=[" + fromSourceSequence + ", " + toSourceSequence + ")" +
+                ", eventSequence=[" + fromEventSequence + ", " + toEventSequence + ")" +
+                '}';
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.scan;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+import org.tools4j.elara.store.MessageStore.Poller;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Scans ranges of a message store in parallel for offline analysis.  Each {@link ScanRange} is scanned by a task in a
+ * fork-join pool using its own poller.  The {@link ScanFilter} is applied to the raw messages, and only accepted
+ * messages are copied.  The results of all ranges are passed to the {@link ScanSink} in store order on the invoking
+ * thread, hence the sink does not have to be thread safe.
+ * <p>
+ * Memory use is bounded:  at most {@code maxRangesInFlight} ranges are scanned at the same time, and each range task
+ * pauses after copying a batch of {@code batchSize} bytes until the invoking thread takes over the batch.  A range
+ * task hence buffers at most two batches, one that is being filled and one that is passed to the sink.  Single
+ * messages larger than the batch size are still copied as a whole.
+ * <p>
+ * The store must support concurrent pollers, and messages appended while scanning may or may not be included in the
+ * results.
+ */
+public class MessageStoreScanner {
+
+    public static final int DEFAULT_BATCH_SIZE = 1 << 20;
+
+    private static final int ENTRY_ID_OFFSET = 0;
+    private static final int LENGTH_OFFSET = ENTRY_ID_OFFSET + Long.BYTES;
+    private static final int MESSAGE_OFFSET = LENGTH_OFFSET + Integer.BYTES;
+
+    private final MessageStore messageStore;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final int maxRangesInFlight;
+
+    /**
+     * Constructor with message store using the common fork-join pool.
+     * @param messageStore the message store to scan
+     */
+    public MessageStoreScanner(final MessageStore messageStore) {
+        this(messageStore, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with message store and fork-join pool to use for scan tasks;  the number of ranges scanned at the
+     * same time is limited to the parallelism of the pool.
+     *
+     * @param messageStore  the message store to scan
+     * @param pool          the pool executing the scan tasks
+     */
+    public MessageStoreScanner(final MessageStore messageStore, final ForkJoinPool pool) {
+        this(messageStore, pool, DEFAULT_BATCH_SIZE, pool.getParallelism());
+    }
+
+    /**
+     * Constructor with all parameters.
+     *
+     * @param messageStore      the message store to scan
+     * @param pool              the pool executing the scan tasks
+     * @param batchSize         the number of bytes copied by a range task before it pauses
+     * @param maxRangesInFlight the max number of ranges scanned at the same time
+     */
+    public MessageStoreScanner(final MessageStore messageStore,
+                               final ForkJoinPool pool,
+                               final int batchSize,
+                               final int maxRangesInFlight) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (maxRangesInFlight < 1) {
+            throw new IllegalArgumentException("Max ranges in flight must be positive: " + maxRangesInFlight);
+        }
+        this.messageStore = requireNonNull(messageStore);
+        this.pool = requireNonNull(pool);
+        this.batchSize = batchSize;
+        this.maxRangesInFlight = maxRangesInFlight;
+    }
+
+    /**
+     * Scans the given ranges in parallel and passes all messages accepted by the filter to the sink in store order.
+     *
+     * @param ranges    the ranges to scan, in entry ID order
+     * @param filter    the filter applied to raw messages
+     * @param sink      the sink for accepted messages
+     * @return the number of messages passed to the sink
+     * @throws IllegalStateException if the poller cannot be moved to the first entry ID of a non-empty range
+     */
+    public long scan(final ScanRange[] ranges, final ScanFilter filter, final ScanSink sink) {
+        requireNonNull(filter);
+        requireNonNull(sink);
+        final RangeScan[] scans = new RangeScan[ranges.length];
+        final DirectBuffer message = new UnsafeBuffer(0, 0);
+        long count = 0;
+        try {
+            for (int i = 0; i < scans.length && i < maxRangesInFlight; i++) {
+                scans[i] = submit(ranges[i], filter);
+            }
+            for (int i = 0; i < scans.length; i++) {
+                final RangeScan scan = scans[i];
+                boolean done;
+                do {
+                    scan.join();
+                    done = scan.done;
+                    final MutableDirectBuffer batch = scan.batch;
+                    final int length = scan.length;
+                    scan.batch = scan.spare;
+                    scan.spare = batch;
+                    scan.length = 0;
+                    if (!done) {
+                        //continue filling the other batch while this one is passed to the sink
+                        scan.reinitialize();
+                        pool.execute(scan);
+                    }
+                    for (int offset = 0; offset < length; ) {
+                        final long entryId = batch.getLong(offset + ENTRY_ID_OFFSET);
+                        final int messageLength = batch.getInt(offset + LENGTH_OFFSET);
+                        message.wrap(batch, offset + MESSAGE_OFFSET, messageLength);
+                        sink.onMessage(entryId, message);
+                        offset += MESSAGE_OFFSET + messageLength;
+                        count++;
+                    }
+                } while (!done);
+                scans[i] = null;
+                if (i + maxRangesInFlight < scans.length) {
+                    scans[i + maxRangesInFlight] = submit(ranges[i + maxRangesInFlight], filter);
+                }
+            }
+        } finally {
+            message.wrap(0, 0);
+            for (final RangeScan scan : scans) {
+                if (scan != null) {
+                    scan.abort();
+                }
+            }
+        }
+        return count;
+    }
+
+    private RangeScan submit(final ScanRange range, final ScanFilter filter) {
+        final RangeScan scan = new RangeScan(range, filter);
+        pool.execute(scan);
+        return scan;
+    }
+
+    private final class RangeScan extends ForkJoinTask<RangeScan> implements MessageStore.Handler {
+        final ScanRange range;
+        final ScanFilter filter;
+        MutableDirectBuffer batch = new ExpandableArrayBuffer();
+        MutableDirectBuffer spare = new ExpandableArrayBuffer();
+        Poller poller;
+        int length;
+        boolean done;
+
+        RangeScan(final ScanRange range, final ScanFilter filter) {
+            this.range = requireNonNull(range);
+            this.filter = filter;
+        }
+
+        @Override
+        protected boolean exec() {
+            boolean completed = false;
+            try {
+                if (poller == null && !open()) {
+                    done = true;
+                } else {
+                    while (!done && length < batchSize) {
+                        if (poller.poll(this) == 0) {
+                            //end of store reached
+                            done = true;
+                        }
+                    }
+                }
+                completed = true;
+            } finally {
+                if (done || !completed) {
+                    closePoller();
+                }
+            }
+            return true;
+        }
+
+        private boolean open() {
+            if (range.fromEntryId() >= range.toEntryId()) {
+                return false;
+            }
+            poller = messageStore.poller();
+            if (!poller.moveTo(range.fromEntryId())) {
+                throw new IllegalStateException("Cannot move poller to entry ID " + range.fromEntryId() +
+                        " for scanning " + range);
+            }
+            return true;
+        }
+
+        void abort() {
+            if (!cancel(false)) {
+                quietlyJoin();
+            }
+            closePoller();
+        }
+
+        private void closePoller() {
+            if (poller != null) {
+                poller.close();
+                poller = null;
+            }
+        }
+
+        @Override
+        public Result onMessage(final DirectBuffer message) {
+            final long entryId = poller.entryId();
+            if (entryId >= range.toEntryId()) {
+                done = true;
+                return Result.PEEK;
+            }
+            if (entryId >= range.fromEntryId() && filter.test(message)) {
+                final int messageLength = message.capacity();
+                batch.putLong(length + ENTRY_ID_OFFSET, entryId);
+                batch.putInt(length + LENGTH_OFFSET, messageLength);
+                batch.putBytes(length + MESSAGE_OFFSET, message, 0, messageLength);
+                length += MESSAGE_OFFSET + messageLength;
+            }
+            return Result.POLL;
+        }
+
+        @Override
+        public RangeScan getRawResult() {
+            return this;
+        }
+
+        @Override
+        protected void setRawResult(final RangeScan value) {
+            //result is this task
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MessageStoreScanner{messageStore=" + messageStore + ", batchSize=" + batchSize +
+                ", maxRangesInFlight=" + maxRangesInFlight + '}';
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.scan;
+
+/**
+ * Range of entry IDs in a message store scanned by a single task of the {@link MessageStoreScanner}.
+ */
+public final class ScanRange {
+
+    private final long fromEntryId;
+    private final long toEntryId;
+
+    /**
+     * Constructor with entry ID range.
+     *
+     * @param fromEntryId   the entry ID of the first message in the range, inclusive
+     * @param toEntryId     the end entry ID of the range, exclusive, or {@link Long#MAX_VALUE} for all messages from
+     *                      the first entry ID to the end of the store
+     */
+    public ScanRange(final long fromEntryId, final long toEntryId) {
+        if (toEntryId < fromEntryId) {
+            throw new IllegalArgumentException("To entry ID " + toEntryId + " cannot be less than from entry ID " +
+                    fromEntryId);
+        }
+        this.fromEntryId = fromEntryId;
+        this.toEntryId = toEntryId;
+    }
+
+    public long fromEntryId() {
+        return fromEntryId;
+    }
+
+    public long toEntryId() {
+        return toEntryId;
+    }
+
+    public boolean contains(final long entryId) {
+        return fromEntryId <= entryId && entryId < toEntryId;
+    }
+
+    /**
+     * Splits a range of gap free entry IDs into up to {@code count} ranges of about equal size.
+     *
+     * @param fromEntryId   the first entry ID, inclusive
+     * @param toEntryId     the end entry ID, exclusive
+     * @param count         the number of ranges
+     * @return the ranges in entry ID order
+     */
+    public static ScanRange[] split(final long fromEntryId, final long toEntryId, final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be positive: " + count);
+        }
+        final long length = Math.max(0, toEntryId - fromEntryId);
+        final int n = (int)Math.max(1, Math.min(count, length));
+        final ScanRange[] ranges = new ScanRange[n];
+        for (int i = 0; i < n; i++) {
+            ranges[i] = new ScanRange(fromEntryId + length * i / n, fromEntryId + length * (i + 1) / n);
+        }
+        return ranges;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ScanRange that = (ScanRange) o;
+        return fromEntryId == that.fromEntryId && toEntryId == that.toEntryId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fromEntryId) * 31 + Long.hashCode(toEntryId);
+    }
+
+    @Override
+    public String toString() {
+        return "ScanRange{fromEntryId=" + fromEntryId + ", toEntryId=" + toEntryId + '}';
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.app.factory;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.handler.EventApplier;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.app.state.MutableBaseState;
+import org.tools4j.elara.app.type.AllInOneAppContext;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.plugin.api.PluginSpecification.Installer;
+import org.tools4j.elara.plugin.api.ReservedPayloadType;
+import org.tools4j.elara.plugin.timer.TimerEvents;
+import org.tools4j.elara.store.InMemoryStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for {@link DefaultApplierFactory}
+ */
+class DefaultApplierFactoryTest {
+
+    @Test
+    void pluginAppliersOnlyReceiveEventsOfTheirPayloadType() {
+        //given
+        final List<String> applied = new ArrayList<>();
+        final AllInOneAppContext context = AllInOneAppContext.create()
+                .eventStore(new InMemoryStore())
+                .eventApplier(event -> applied.add("app:" + event.payloadType()));
+        final Installer[] plugins = {
+                installer(ReservedPayloadType.TIMER, event -> applied.add("timer:" + event.payloadType())),
+                installer(ReservedPayloadType.NONE, event -> applied.add("all:" + event.payloadType())),
+                installer(ReservedPayloadType.BOOT, EventApplier.NOOP)
+        };
+        final EventApplier applier = new DefaultApplierFactory(context, context, context, new DefaultBaseState(),
+                plugins, () -> null).eventApplier();
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(FlyweightEvent.HEADER_LENGTH);
+        final FlyweightEvent event = new FlyweightEvent();
+
+        //when
+        for (final int payloadType : new int[] {7, TimerEvents.TIMER_STARTED, ReservedPayloadType.BOOT.maxType()}) {
+            FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, 2, (short)0, 3, 4, payloadType, 0, buffer, 0);
+            applier.onEvent(event.wrap(buffer, 0));
+        }
+
+        //then
+        final int timer = TimerEvents.TIMER_STARTED;
+        final int boot = ReservedPayloadType.BOOT.maxType();
+        final String[] expected = {
+                "all:7", "app:7",
+                "timer:" + timer, "all:" + timer, "app:" + timer,
+                "all:" + boot, "app:" + boot
+        };
+        assertEquals(expected.length, applied.size(), "applied.size");
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], applied.get(i), "applied[" + i + "]");
+        }
+    }
+
+    private static Installer installer(final ReservedPayloadType payloadType, final EventApplier eventApplier) {
+        return new Installer.Default() {
+            @Override
+            public EventApplier eventApplier(final MutableBaseState baseState) {
+                return eventApplier;
+            }
+
+            @Override
+            public ReservedPayloadType eventApplierPayloadType() {
+                return payloadType;
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.app.factory;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.handler.EventApplier;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.app.state.MutableBaseState;
+import org.tools4j.elara.app.type.AllInOneAppContext;
+import org.tools4j.elara.event.CompositeEventApplier;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.plugin.api.PluginSpecification.Installer;
+import org.tools4j.elara.plugin.metrics.MetricsContext;
+import org.tools4j.elara.plugin.metrics.TimeMetric;
+import org.tools4j.elara.plugin.replication.ReplicationContext;
+import org.tools4j.elara.store.InMemoryStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.tools4j.elara.plugin.api.Plugins.bootPlugin;
+import static org.tools4j.elara.plugin.api.Plugins.metricsPlugin;
+import static org.tools4j.elara.plugin.api.Plugins.replicationPlugin;
+import static org.tools4j.elara.plugin.api.Plugins.timerPlugin;
+
+/**
+ * Compares the cost of applying application events through payload type dispatch with invoking all plugin appliers
+ * via {@link CompositeEventApplier}, with timer, boot, replication and metrics plugins installed;  run with
+ * {@code gradle perfTest}.
+ */
+@Tag("perf")
+class PayloadTypeDispatchPerfTest {
+
+    private static final int PAYLOAD_TYPES = 8;
+    private static final int WARMUP_EVENTS = 20_000_000;
+    private static final int MEASURED_EVENTS = 50_000_000;
+    private static final int RUNS = 3;
+
+    private long appliedCount;
+
+    @Test
+    void applyApplicationEvents() {
+        final AllInOneAppContext context = AllInOneAppContext.create()
+                .eventStore(new InMemoryStore())
+                .eventApplier(event -> appliedCount++)
+                .plugin(timerPlugin())
+                .plugin(bootPlugin())
+                .plugin(replicationPlugin(ReplicationContext.create().serverId(1)))
+                .plugin(metricsPlugin(MetricsContext.create()
+                        .timeMetric(TimeMetric.APPLYING_START_TIME)
+                        .metricsStore(new InMemoryStore())))
+                .populateDefaults();
+        final MutableBaseState baseState = new DefaultBaseState();
+        final Installer[] plugins = context.plugins().toArray(new Installer[0]);
+        final EventApplier dispatching = new DefaultApplierFactory(context, context, context, baseState, plugins,
+                () -> null).eventApplier();
+        final EventApplier composite = composite(context.eventApplier(), plugins, baseState);
+
+        final FlyweightEvent[] events = new FlyweightEvent[PAYLOAD_TYPES];
+        for (int i = 0; i < PAYLOAD_TYPES; i++) {
+            final MutableDirectBuffer buffer = new ExpandableArrayBuffer(FlyweightEvent.HEADER_LENGTH);
+            FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, i, (short)0, i, 0, i + 1, 0, buffer, 0);
+            events[i] = new FlyweightEvent().wrap(buffer, 0);
+        }
+        System.out.println("dispatching=" + dispatching + ", composite appliers=" + plugins.length + " + app");
+        run(composite, events, WARMUP_EVENTS);
+        run(dispatching, events, WARMUP_EVENTS);
+        for (int i = 0; i < RUNS; i++) {
+            print("composite", run(composite, events, MEASURED_EVENTS));
+            print("dispatch", run(dispatching, events, MEASURED_EVENTS));
+        }
+    }
+
+    private static EventApplier composite(final EventApplier eventApplier,
+                                          final Installer[] plugins,
+                                          final MutableBaseState baseState) {
+        final List<EventApplier> appliers = new ArrayList<>();
+        for (final Installer plugin : plugins) {
+            final EventApplier applier = plugin.eventApplier(baseState);
+            if (applier != EventApplier.NOOP) {
+                appliers.add(applier);
+            }
+        }
+        appliers.add(eventApplier);
+        return new CompositeEventApplier(appliers.toArray(new EventApplier[0]));
+    }
+
+    private long run(final EventApplier applier, final FlyweightEvent[] events, final int count) {
+        appliedCount = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            applier.onEvent(events[i & (PAYLOAD_TYPES - 1)]);
+        }
+        final long nanos = System.nanoTime() - start;
+        assertEquals(count, appliedCount, "appliedCount");
+        return nanos;
+    }
+
+    private static void print(final String name, final long nanos) {
+        System.out.printf("%-10s %6.2f ns/event%n", name, nanos / (double)MEASURED_EVENTS);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.event;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.handler.EventApplier;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link PayloadTypeEventApplier}
+ */
+class PayloadTypeEventApplierTest {
+
+    @Test
+    void dispatchesByPayloadType() {
+        //given
+        final List<String> applied = new ArrayList<>();
+        final PayloadTypeEventApplier applier = new PayloadTypeEventApplier(
+                event -> applied.add("default:" + event.payloadType()))
+                .register(3, event -> applied.add("three"))
+                .register(5, event -> applied.add("five"))
+                .register(-12, event -> applied.add("minus-twelve"));
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(FlyweightEvent.HEADER_LENGTH);
+        final FlyweightEvent event = new FlyweightEvent();
+
+        //when
+        for (final int payloadType : new int[] {5, 3, 4, -12, -13, 6, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, 2, (short)0, 3, 4, payloadType, 0, buffer, 0);
+            applier.onEvent(event.wrap(buffer, 0));
+        }
+
+        //then
+        assertEquals(8, applied.size(), "applied.size");
+        assertEquals("five", applied.get(0), "applied[0]");
+        assertEquals("three", applied.get(1), "applied[1]");
+        assertEquals("default:4", applied.get(2), "applied[2]");
+        assertEquals("minus-twelve", applied.get(3), "applied[3]");
+        assertEquals("default:-13", applied.get(4), "applied[4]");
+        assertEquals("default:6", applied.get(5), "applied[5]");
+        assertEquals("default:" + Integer.MIN_VALUE, applied.get(6), "applied[6]");
+        assertEquals("default:" + Integer.MAX_VALUE, applied.get(7), "applied[7]");
+    }
+
+    @Test
+    void replacesRegisteredApplier() {
+        //given
+        final EventApplier first = event -> {};
+        final EventApplier second = event -> {};
+        final PayloadTypeEventApplier applier = new PayloadTypeEventApplier().register(7, first);
+
+        //when
+        applier.register(7, second);
+
+        //then
+        assertSame(second, applier.applierFor(7), "applierFor(7)");
+        assertSame(EventApplier.NOOP, applier.applierFor(8), "applierFor(8)");
+    }
+
+    @Test
+    void tableLengthExceeded() {
+        //given
+        final PayloadTypeEventApplier applier = new PayloadTypeEventApplier().register(0, EventApplier.NOOP);
+
+        //when + then
+        applier.register(PayloadTypeEventApplier.MAX_TABLE_LENGTH - 1, EventApplier.NOOP);
+        assertThrows(IllegalArgumentException.class,
+                () -> applier.register(PayloadTypeEventApplier.MAX_TABLE_LENGTH, EventApplier.NOOP));
+        assertThrows(IllegalArgumentException.class, () -> applier.register(-1, EventApplier.NOOP));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.flyweight;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.tools4j.elara.flyweight.FrameChecksum.CHECKSUM_LENGTH;
+
+/**
+ * Measures cost of writing and verifying {@link FrameChecksum frame checksums} per frame size;  run with
+ * {@code gradle perfTest}.
+ */
+@Tag("perf")
+class FrameChecksumPerfTest {
+
+    private static final int WARMUP_BYTES = 1 << 28;
+    private static final int MEASURED_BYTES = 1 << 30;
+
+    @ParameterizedTest(name = "checksum: {0} bytes")
+    @ValueSource(ints = {64, 256, 1024, 4096, 65536})
+    void checksum(final int frameSize) {
+        final MutableDirectBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(frameSize + CHECKSUM_LENGTH));
+        final int payloadSize = frameSize - FlyweightCommand.HEADER_LENGTH;
+        FlyweightCommand.writeHeader(1, 2, 3, 4, payloadSize, buffer, 0);
+        for (int i = 0; i < payloadSize; i++) {
+            buffer.putByte(FlyweightCommand.HEADER_LENGTH + i, (byte)i);
+        }
+        final DirectBuffer message = new UnsafeBuffer(buffer, 0, frameSize + CHECKSUM_LENGTH);
+
+        run(buffer, message, WARMUP_BYTES / frameSize);
+        final int frames = MEASURED_BYTES / frameSize;
+        final long start = System.nanoTime();
+        final int valid = run(buffer, message, frames);
+        final long elapsed = System.nanoTime() - start;
+
+        assertEquals(frames, valid, "valid frames");
+        System.out.printf("checksum: frame-size=%6d bytes, write+verify=%8.1f ns/frame, throughput=%5.2f GB/s%n",
+                frameSize, elapsed / (double)frames, 2.0 * frames * frameSize / elapsed);
+    }
+
+    private static int run(final MutableDirectBuffer buffer, final DirectBuffer message, final int frames) {
+        int valid = 0;
+        for (int i = 0; i < frames; i++) {
+            buffer.putInt(FlyweightCommand.HEADER_LENGTH - Integer.BYTES, i);
+            FrameChecksum.writeChecksum(buffer);
+            if (FrameChecksum.isValid(message)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
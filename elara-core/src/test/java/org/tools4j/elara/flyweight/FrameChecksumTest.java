@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.flyweight;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.exception.DuplicateHandler;
+import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.route.DefaultEventRouter;
+import org.tools4j.elara.send.CommandPassthroughSender;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.sequence.SequenceGenerator;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import java.nio.charset.StandardCharsets;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.flyweight.FrameChecksum.CHECKSUM_LENGTH;
+
+/**
+ * Unit test for {@link FrameChecksum} and {@link ChecksumPolicy}.
+ */
+class FrameChecksumTest {
+
+    @Test
+    void crc32cCheckValue() {
+        //given
+        final DirectBuffer buffer = new UnsafeBuffer("123456789".getBytes(StandardCharsets.US_ASCII));
+
+        //when
+        final int crc = FrameChecksum.crc32c(buffer, 0, buffer.capacity());
+
+        //then
+        assertEquals(0xe3069283, crc, "crc32c(123456789)");
+    }
+
+    @Test
+    void crc32cIndependentOfOffsetAndAlignment() {
+        //given
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(128);
+        for (int i = 0; i < 100; i++) {
+            buffer.putByte(i, (byte)(i * 31 + 7));
+        }
+        final MutableDirectBuffer shifted = new ExpandableArrayBuffer(128);
+        shifted.putBytes(3, buffer, 0, 100);
+
+        //when + then
+        for (int length = 0; length <= 100; length++) {
+            assertEquals(bytewiseCrc32c(buffer, 0, length), FrameChecksum.crc32c(buffer, 0, length),
+                    "crc32c[length=" + length + "]");
+            assertEquals(FrameChecksum.crc32c(buffer, 0, length), FrameChecksum.crc32c(shifted, 3, length),
+                    "crc32c[offset=3, length=" + length + "]");
+        }
+    }
+
+    @Test
+    void writeAndVerifyChecksum() {
+        //given
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final int frameSize = writeFrame(buffer, "Hello world");
+
+        //when
+        final int length = FrameChecksum.writeChecksum(buffer);
+        final DirectBuffer message = new UnsafeBuffer(buffer, 0, length);
+
+        //then
+        assertEquals(frameSize + CHECKSUM_LENGTH, length, "length");
+        assertTrue(FrameChecksum.hasChecksum(message), "hasChecksum");
+        assertTrue(FrameChecksum.isValid(message), "isValid");
+        assertEquals(FrameChecksum.crc32c(buffer, 0, frameSize), FrameChecksum.checksum(message), "checksum");
+
+        //when
+        buffer.putByte(frameSize - 1, (byte)(buffer.getByte(frameSize - 1) ^ 0x10));
+
+        //then
+        assertTrue(FrameChecksum.hasChecksum(message), "hasChecksum[corrupt]");
+        assertFalse(FrameChecksum.isValid(message), "isValid[corrupt]");
+    }
+
+    @Test
+    void frameWithoutChecksumIsValid() {
+        //given
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final int frameSize = writeFrame(buffer, "Hello world");
+        final DirectBuffer message = new UnsafeBuffer(buffer, 0, frameSize);
+
+        //when + then
+        assertFalse(FrameChecksum.hasChecksum(message), "hasChecksum");
+        assertTrue(FrameChecksum.isValid(message), "isValid");
+        for (final ChecksumPolicy policy : ChecksumPolicy.values()) {
+            assertTrue(policy.verify(message), policy + ".verify");
+        }
+    }
+
+    @Test
+    void policyVerifiesCorruptFrame() {
+        //given
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        writeFrame(buffer, "Hello world");
+        final int length = FrameChecksum.writeChecksum(buffer);
+        final DirectBuffer message = new UnsafeBuffer(buffer, 0, length);
+        buffer.putByte(FrameDescriptor.HEADER_LENGTH, (byte)'J');
+
+        //when + then
+        assertTrue(ChecksumPolicy.NONE.verify(message), "NONE.verify");
+        assertTrue(ChecksumPolicy.APPEND.verify(message), "APPEND.verify");
+        assertFalse(ChecksumPolicy.VERIFY_OR_SKIP.verify(message), "VERIFY_OR_SKIP.verify");
+        assertThrows(IllegalStateException.class, () -> ChecksumPolicy.VERIFY.verify(message));
+    }
+
+    @Test
+    void policyRejectsCorruptFrameSize() {
+        //given
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final int frameSize = writeFrame(buffer, "Hello world");
+        final int length = FrameChecksum.writeChecksum(buffer);
+        final DirectBuffer message = new UnsafeBuffer(buffer, 0, length);
+        final DirectBuffer truncated = new UnsafeBuffer(buffer, 0, frameSize - 1);
+        final DirectBuffer padded = new UnsafeBuffer(buffer, 0, length + 1);
+
+        //when
+        buffer.putInt(FrameDescriptor.FRAME_SIZE_OFFSET, frameSize + 1, LITTLE_ENDIAN);
+
+        //then
+        assertFalse(FrameChecksum.hasChecksum(message), "hasChecksum");
+        assertFalse(FrameChecksum.isValid(message), "isValid");
+        assertTrue(ChecksumPolicy.APPEND.verify(message), "APPEND.verify");
+        assertFalse(ChecksumPolicy.VERIFY_OR_SKIP.verify(message), "VERIFY_OR_SKIP.verify");
+        assertThrows(IllegalStateException.class, () -> ChecksumPolicy.VERIFY.verify(message));
+
+        //when
+        buffer.putInt(FrameDescriptor.FRAME_SIZE_OFFSET, frameSize, LITTLE_ENDIAN);
+
+        //then
+        assertTrue(ChecksumPolicy.VERIFY.verify(message), "VERIFY.verify");
+        assertFalse(ChecksumPolicy.VERIFY_OR_SKIP.verify(truncated), "VERIFY_OR_SKIP.verify[truncated]");
+        assertFalse(ChecksumPolicy.VERIFY_OR_SKIP.verify(padded), "VERIFY_OR_SKIP.verify[padded]");
+        assertThrows(IllegalStateException.class, () -> ChecksumPolicy.VERIFY.verify(truncated));
+    }
+
+    @Test
+    void eventRouterAppendsChecksum() {
+        //given
+        final MessageStore messageStore = new InMemoryStore();
+        final DefaultEventRouter eventRouter = new DefaultEventRouter(() -> 123, new DefaultBaseState(),
+                messageStore.appender(), event -> {}, ChecksumPolicy.APPEND);
+        final MutableDirectBuffer commandBuffer = new ExpandableArrayBuffer();
+        FlyweightCommand.writeHeader(11, 22, 33, 44, 0, commandBuffer, 0);
+        final MutableDirectBuffer payload = new ExpandableArrayBuffer();
+        final int payloadSize = payload.putStringAscii(0, "Hello world");
+        final int[] lengths = {-1, -1};
+
+        //when
+        eventRouter.start(new FlyweightCommand().wrap(commandBuffer, 0));
+        eventRouter.routeEvent(55, payload, 0, payloadSize);
+        eventRouter.complete();
+        messageStore.poller().poll(message -> {
+            lengths[0] = message.capacity();
+            lengths[1] = FlyweightHeader.frameSize(message);
+            assertTrue(FrameChecksum.hasChecksum(message), "hasChecksum");
+            assertTrue(FrameChecksum.isValid(message), "isValid");
+            return Result.POLL;
+        });
+
+        //then
+        assertEquals(lengths[1] + CHECKSUM_LENGTH, lengths[0], "message length");
+    }
+
+    @Test
+    void passthroughSenderAppendsChecksum() {
+        //given
+        final MessageStore messageStore = new InMemoryStore();
+        final CommandSender sender = new CommandPassthroughSender(() -> 123, new DefaultBaseState(),
+                messageStore.appender(), event -> {}, ExceptionHandler.systemDefault(),
+                DuplicateHandler.systemDefault(), ChecksumPolicy.APPEND
+        ).senderFor(11, SequenceGenerator.create(), (sourceSequence, commandTime) -> {});
+        final MutableDirectBuffer payload = new ExpandableArrayBuffer();
+        final int payloadSize = payload.putStringAscii(0, "Hello world");
+        final int[] lengths = {-1, -1};
+
+        //when
+        sender.sendCommand(payload, 0, payloadSize);
+        messageStore.poller().poll(message -> {
+            lengths[0] = message.capacity();
+            lengths[1] = FlyweightHeader.frameSize(message);
+            assertTrue(FrameChecksum.hasChecksum(message), "hasChecksum");
+            assertTrue(FrameChecksum.isValid(message), "isValid");
+            return Result.POLL;
+        });
+
+        //then
+        assertEquals(lengths[1] + CHECKSUM_LENGTH, lengths[0], "message length");
+    }
+
+    private static int writeFrame(final MutableDirectBuffer buffer, final String msg) {
+        final MutableDirectBuffer payload = new ExpandableArrayBuffer();
+        final int payloadSize = payload.putStringAscii(0, msg);
+        return FlyweightCommand.writeHeaderAndPayload((short)0, 11, 22, 33, 44, payload, 0, payloadSize, buffer, 0);
+    }
+
+    private static int bytewiseCrc32c(final DirectBuffer buffer, final int offset, final int length) {
+        int crc = ~0;
+        for (int i = 0; i < length; i++) {
+            crc ^= buffer.getByte(offset + i) & 0xff;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82f63b78 : crc >>> 1;
+            }
+        }
+        return ~crc;
+    }
+}
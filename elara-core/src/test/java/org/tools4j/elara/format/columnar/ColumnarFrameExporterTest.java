@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.format.columnar;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightTimeMetrics;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.plugin.metrics.TimeMetric;
+import org.tools4j.elara.plugin.metrics.TimeMetric.Target;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Appender;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.format.columnar.ColumnarFileDescriptor.NULL_VALUE;
+
+/**
+ * Unit test for {@link ColumnarFrameExporter}, {@link ColumnarWriter} and {@link ColumnarReader}.
+ */
+class ColumnarFrameExporterTest {
+
+    private static final int COUNT = 1000;
+    private static final long START_TIME = 1_700_000_000_000_000_000L;
+
+    @Test
+    void exportedFramesCanBeReadBack() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        appendFrames(store);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        final long exported;
+        try (final ColumnarFrameExporter exporter = new ColumnarFrameExporter(out, true, 100)) {
+            exported = exporter.export(store.poller());
+        }
+
+        //then
+        assertEquals(3 * COUNT, exported, "exported");
+        assertTrue(out.size() < 3 * COUNT * FlyweightEvent.HEADER_LENGTH / 2, "compact size: " + out.size());
+        try (final ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(out.toByteArray()))) {
+            final int entryId = reader.columnIndex(ColumnarFrameExporter.ENTRY_ID);
+            final int frameType = reader.columnIndex(ColumnarFrameExporter.FRAME_TYPE);
+            final int sourceSequence = reader.columnIndex(ColumnarFrameExporter.SOURCE_SEQUENCE);
+            final int eventSequence = reader.columnIndex(ColumnarFrameExporter.EVENT_SEQUENCE);
+            final int time = reader.columnIndex(ColumnarFrameExporter.TIME);
+            final int payload = reader.columnIndex(ColumnarFrameExporter.PAYLOAD);
+            final int target = reader.columnIndex(ColumnarFrameExporter.TARGET);
+            final int routingStart = reader.columnIndex(ColumnarFrameExporter.columnName(TimeMetric.ROUTING_START_TIME));
+            final int routingEnd = reader.columnIndex(ColumnarFrameExporter.columnName(TimeMetric.ROUTING_END_TIME));
+            final int applyingStart = reader.columnIndex(ColumnarFrameExporter.columnName(TimeMetric.APPLYING_START_TIME));
+            for (int i = 0; i < COUNT; i++) {
+                final long commandTime = START_TIME + i * 1000L;
+                assertTrue(reader.next(), "next command " + i);
+                assertEquals(3L * i, reader.value(entryId), "entryId");
+                assertEquals(FrameType.COMMAND_TYPE, reader.value(frameType), "command frameType");
+                assertEquals(i, reader.value(sourceSequence), "command sourceSequence");
+                assertEquals(NULL_VALUE, reader.value(eventSequence), "command eventSequence");
+                assertEquals(commandTime, reader.value(time), "command time");
+                assertEquals(0, reader.bytes(payload).capacity(), "command payload length");
+
+                assertTrue(reader.next(), "next event " + i);
+                assertEquals(FrameType.COMMIT_EVENT_TYPE, reader.value(frameType), "event frameType");
+                assertEquals(i, reader.value(sourceSequence), "event sourceSequence");
+                assertEquals(100 + i, reader.value(eventSequence), "event eventSequence");
+                assertEquals(commandTime + 10, reader.value(time), "event time");
+                final DirectBuffer bytes = reader.bytes(payload);
+                assertEquals(Integer.BYTES, bytes.capacity(), "event payload length");
+                assertEquals(i * 7, bytes.getInt(0), "event payload");
+                assertEquals(NULL_VALUE, reader.value(target), "event target");
+
+                assertTrue(reader.next(), "next metrics " + i);
+                assertEquals(FrameType.TIME_METRICS_TYPE, reader.value(frameType), "metrics frameType");
+                assertEquals(100 + i, reader.value(eventSequence), "metrics eventSequence");
+                assertEquals(Target.EVENT.ordinal(), reader.value(target), "metrics target");
+                assertEquals(commandTime + 20, reader.value(routingStart), "routing start time");
+                assertEquals(commandTime + 30 + i % 5, reader.value(routingEnd), "routing end time");
+                assertEquals(NULL_VALUE, reader.value(applyingStart), "applying start time");
+                assertNull(reader.bytes(payload), "metrics payload");
+            }
+            assertFalse(reader.next(), "next after last row");
+        }
+    }
+
+    @Test
+    void headersOnlyExportSkipsPayloads() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        appendFrames(store);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        try (final ColumnarFrameExporter exporter = new ColumnarFrameExporter(out, false)) {
+            exporter.export(store.poller());
+        }
+
+        //then
+        try (final ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(out.toByteArray()))) {
+            final int payload = reader.columnIndex(ColumnarFrameExporter.PAYLOAD);
+            final int sourceId = reader.columnIndex(ColumnarFrameExporter.SOURCE_ID);
+            int rows = 0;
+            while (reader.next()) {
+                assertNull(reader.bytes(payload), "payload");
+                assertEquals(42, reader.value(sourceId), "sourceId");
+                rows++;
+            }
+            assertEquals(3 * COUNT, rows, "rows");
+        }
+    }
+
+    @Test
+    void extremeDeltasAndValuesCanBeReadBack() {
+        //given
+        final long[] values = {-1, Long.MAX_VALUE, NULL_VALUE, -1, Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE, 0};
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        try (final ColumnarWriter writer = new ColumnarWriter(out, new String[]{"delta", "value"},
+                new ColumnEncoding[]{ColumnEncoding.DELTA, ColumnEncoding.VALUE})) {
+            for (final long value : values) {
+                writer.value(0, value).value(1, value).endRow();
+            }
+        }
+
+        //then
+        try (final ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(out.toByteArray()))) {
+            for (int i = 0; i < values.length; i++) {
+                assertTrue(reader.next(), "next");
+                assertEquals(values[i], reader.value(0), "delta[" + i + "]");
+                assertEquals(values[i], reader.value(1), "value[" + i + "]");
+            }
+            assertFalse(reader.next(), "next after last row");
+        }
+    }
+
+    @Test
+    void closedWriterRejectsValues() {
+        //given
+        final ColumnarWriter writer = new ColumnarWriter(new ByteArrayOutputStream(), new String[]{"value", "bytes"},
+                new ColumnEncoding[]{ColumnEncoding.VALUE, ColumnEncoding.BYTES});
+        final DirectBuffer bytes = new ExpandableArrayBuffer(8);
+
+        //when
+        writer.close();
+
+        //then
+        assertThrows(IllegalStateException.class, () -> writer.value(0, 42), "value");
+        assertThrows(IllegalStateException.class, () -> writer.bytes(1, bytes, 0, 8), "bytes");
+        assertThrows(IllegalStateException.class, writer::endRow, "endRow");
+    }
+
+    private static void appendFrames(final InMemoryStore store) {
+        final Appender appender = store.appender();
+        final MutableDirectBuffer frame = new ExpandableArrayBuffer();
+        final EnumSet<TimeMetric> metrics = EnumSet.of(TimeMetric.ROUTING_START_TIME, TimeMetric.ROUTING_END_TIME);
+        final int metricTypes = FlyweightTimeMetrics.metricTypes(Target.EVENT, metrics);
+        for (int i = 0; i < COUNT; i++) {
+            final long commandTime = START_TIME + i * 1000L;
+            int length = FlyweightCommand.writeHeader(42, i, commandTime, 1, 0, frame, 0);
+            appender.append(frame, 0, length);
+
+            length = FlyweightEvent.writeHeader(EventType.APP_COMMIT, 42, i, (short)0, 100 + i, commandTime + 10,
+                    1, Integer.BYTES, frame, 0);
+            frame.putInt(length, i * 7);
+            appender.append(frame, 0, length + Integer.BYTES);
+
+            length = FlyweightTimeMetrics.writeHeader(42, i, (short)0, 100 + i, metricTypes,
+                    commandTime + 40, metrics.size(), frame, 0);
+            length += FlyweightTimeMetrics.writeTimeValue(0, commandTime + 20, frame, 0);
+            length += FlyweightTimeMetrics.writeTimeValue(1, commandTime + 30 + i % 5, frame, 0);
+            appender.append(frame, 0, length);
+        }
+    }
+}
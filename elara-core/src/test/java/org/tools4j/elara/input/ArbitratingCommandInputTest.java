@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.input;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.command.Command;
+import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.send.CommandAppendingSender;
+import org.tools4j.elara.source.DefaultSourceContextProvider;
+import org.tools4j.elara.source.SourceContextProvider;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+import org.tools4j.elara.store.MessageStore.Poller;
+import org.tools4j.elara.stream.MessageReceiver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.tools4j.elara.flyweight.CommandDescriptor.HEADER_LENGTH;
+
+/**
+ * Unit test for {@link ArbitratingCommandInput}
+ */
+public class ArbitratingCommandInputTest {
+
+    private static final int SOURCE_ID = 42;
+
+    private InMemoryStore commandStore;
+    private SourceContextProvider sourceContextProvider;
+    private Queue<DirectBuffer> lineA;
+    private Queue<DirectBuffer> lineB;
+    private List<Long> duplicates;
+
+    //under test
+    private ArbitratingCommandInput input;
+
+    @BeforeEach
+    public void init() {
+        commandStore = new InMemoryStore();
+        sourceContextProvider = new DefaultSourceContextProvider(new DefaultBaseState(),
+                new CommandAppendingSender(() -> 0, commandStore.appender()));
+        lineA = new ArrayDeque<>();
+        lineB = new ArrayDeque<>();
+        duplicates = new ArrayList<>();
+        input = new ArbitratingCommandInput(
+                new MessageReceiver[]{new QueueReceiver(lineA), new QueueReceiver(lineB)},
+                ExceptionHandler.systemDefault(),
+                command -> duplicates.add(command.sourceSequence()),
+                0);
+    }
+
+    @Test
+    public void forwardsFirstArrivalAndDropsCopies() {
+        //given
+        lineA.add(command(1));
+        lineA.add(command(2));
+        lineB.add(command(1));
+        lineB.add(command(2));
+        lineB.add(command(3));
+
+        //when
+        final int work = input.poll(sourceContextProvider);
+
+        //then
+        assertEquals(5, work, "work");
+        assertEquals(2, input.firstArrivals(0), "firstArrivals(A)");
+        assertEquals(1, input.firstArrivals(1), "firstArrivals(B)");
+        assertEquals(2, input.droppedCount(), "droppedCount");
+
+        //when
+        lineA.add(command(3));
+        input.poll(sourceContextProvider);
+
+        //then
+        assertEquals(2, input.firstArrivals(0), "firstArrivals(A)");
+        assertEquals(3, input.droppedCount(), "droppedCount");
+        assertEquals(3, duplicates.size(), "duplicates.size");
+        assertEquals(3L, duplicates.get(2), "duplicates[2]");
+        assertEquals(3, storedSequences().size(), "stored.size");
+        assertEquals(3L, storedSequences().get(2), "stored[2]");
+    }
+
+    @Test
+    public void forwardsAcrossGapOnOneLine() {
+        //given
+        lineA.add(command(1));
+        lineA.add(command(3));
+        lineB.add(command(1));
+        lineB.add(command(2));
+        lineB.add(command(3));
+
+        //when
+        input.poll(sourceContextProvider);
+
+        //then
+        final List<Long> stored = storedSequences();
+        assertEquals(2, stored.size(), "stored.size");
+        assertEquals(1L, stored.get(0), "stored[0]");
+        assertEquals(3L, stored.get(1), "stored[1]");
+        assertEquals(3, input.droppedCount(), "droppedCount");
+    }
+
+    private List<Long> storedSequences() {
+        final List<Long> sequences = new ArrayList<>();
+        final FlyweightCommand command = new FlyweightCommand();
+        try (final Poller poller = commandStore.poller()) {
+            while (poller.poll(message -> {
+                final Command cmd = command.wrap(message, 0);
+                assertEquals(SOURCE_ID, cmd.sourceId(), "sourceId");
+                sequences.add(cmd.sourceSequence());
+                return Result.POLL;
+            }) > 0);
+        }
+        return sequences;
+    }
+
+    private static DirectBuffer command(final long sequence) {
+        final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[HEADER_LENGTH]);
+        FlyweightCommand.writeHeader(SOURCE_ID, sequence, 0, 1, 0, buffer, 0);
+        return buffer;
+    }
+
+    private static final class QueueReceiver implements MessageReceiver {
+        final Queue<DirectBuffer> queue;
+
+        QueueReceiver(final Queue<DirectBuffer> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public int poll(final Handler handler) {
+            return poll(handler, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int poll(final Handler handler, final int limit) {
+            int count = 0;
+            while (count < limit && !queue.isEmpty()) {
+                handler.onMessage(queue.poll());
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            //no-op
+        }
+    }
+}
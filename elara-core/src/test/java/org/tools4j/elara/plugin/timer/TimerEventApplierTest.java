@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.plugin.timer;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.plugin.timer.Timer.Style;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_CONTEXT;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_TYPE;
+
+/**
+ * Unit test for {@link TimerEventApplier}
+ */
+class TimerEventApplierTest {
+
+    private final long t0 = 999000000000L;
+    private final long contextId = 42;
+
+    @Test
+    void bulkCancelRemovesTimersOfContextAndNotifiesHandlers() {
+        //given
+        final TimerPlugin timerPlugin = new TimerPlugin();
+        final MutableTimerState timerState = new DeadlineHeapTimerState();
+        final TimerEventApplier applier = new TimerEventApplier(timerPlugin, timerState, new TimerIdGenerator());
+        final List<Long> cancelled = new ArrayList<>();
+        timerPlugin.registry().addTimerEventHandler(contextId, (event, timer) -> cancelled.add(timer.timerId()));
+        for (int i = 1; i <= 5; i++) {
+            timerState.add(i, Style.TIMER, 0, t0, 100 * i, i % 2, i <= 3 ? contextId : contextId + 1);
+        }
+
+        //when
+        applier.onEvent(bulkEvent(TimerEvents.TIMERS_CANCELLED, SELECT_CONTEXT, contextId, 0, 0));
+
+        //then
+        assertEquals(2, timerState.count(), "count");
+        assertEquals(3, cancelled.size(), "cancelled.size");
+        assertTrue(cancelled.containsAll(asList(1L, 2L, 3L)), "cancelled=" + cancelled);
+        assertEquals(0, timerState.contextCount(contextId), "contextCount");
+        assertFalse(timerState.hasTimer(1), "hasTimer(1)");
+        assertEquals(4, timerState.timerId(timerState.indexOfNextDeadline()), "timerId(indexOfNextDeadline())");
+    }
+
+    @Test
+    void bulkRescheduleMovesDeadlinesOfSelectedTimers() {
+        //given
+        final TimerPlugin timerPlugin = new TimerPlugin();
+        final MutableTimerState timerState = new DeadlineHeapTimerState();
+        final TimerEventApplier applier = new TimerEventApplier(timerPlugin, timerState, new TimerIdGenerator());
+        for (int i = 1; i <= 5; i++) {
+            timerState.add(i, Style.TIMER, 0, t0, 100 * i, i % 2, contextId);
+        }
+
+        //when
+        applier.onEvent(bulkEvent(TimerEvents.TIMERS_RESCHEDULED, SELECT_CONTEXT | SELECT_TYPE, contextId, 1, 1000));
+
+        //then
+        assertEquals(5, timerState.count(), "count");
+        assertEquals(2, timerState.timerId(timerState.indexOfNextDeadline()), "timerId(indexOfNextDeadline())");
+        assertEquals(t0 + 1100, timerState.deadline(timerState.index(1)), "deadline(1)");
+        assertEquals(t0 + 200, timerState.deadline(timerState.index(2)), "deadline(2)");
+        assertEquals(t0 + 1500, timerState.deadline(timerState.index(5)), "deadline(5)");
+    }
+
+    private static FlyweightEvent bulkEvent(final int payloadType, final int selection, final long contextId,
+                                            final int timerType, final long delta) {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(256);
+        final int payloadLength = FlyweightTimerBulkPayload.write(selection, contextId, timerType, delta, buffer,
+                FlyweightEvent.HEADER_LENGTH);
+        FlyweightEvent.writeHeader(EventType.APP_COMMIT, TimerPlugin.DEFAULT_SOURCE_ID, 1, (short)0, 1, 0,
+                payloadType, payloadLength, buffer, 0);
+        return new FlyweightEvent().wrap(buffer, 0);
+    }
+}
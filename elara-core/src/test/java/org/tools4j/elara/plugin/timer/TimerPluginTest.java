@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.plugin.timer;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.event.Event;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.plugin.timer.Timer.Style;
+import org.tools4j.elara.plugin.timer.TimerController.ControlContext;
+import org.tools4j.elara.route.DefaultEventRouter;
+import org.tools4j.elara.send.CommandAppendingSender;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.sequence.SequenceGenerator;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_CONTEXT;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_TYPE;
+
+/**
+ * Unit test for {@link TimerPlugin} bulk operations through the timer {@link TimerController controller}.
+ */
+class TimerPluginTest {
+
+    private final long t0 = 999000000000L;
+    private final long contextId = 42;
+
+    private TimerPlugin timerPlugin;
+    private MutableTimerState timerState;
+    private TimerEventApplier applier;
+    private List<Event> routed;
+    private DefaultEventRouter eventRouter;
+
+    @BeforeEach
+    void init() {
+        timerPlugin = new TimerPlugin();
+        timerState = new SimpleTimerState();
+        final TimerIdGenerator timerIdGenerator = new TimerIdGenerator();
+        timerPlugin.init(() -> t0, timerIdGenerator, timerState);
+        applier = new TimerEventApplier(timerPlugin, timerState, timerIdGenerator);
+        routed = new ArrayList<>();
+        eventRouter = new DefaultEventRouter(() -> t0, new DefaultBaseState(), new InMemoryStore().appender(),
+                event -> {
+                    final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+                    event.writeTo(buffer, 0);
+                    routed.add(new FlyweightEvent().wrap(buffer, 0));
+                    applier.onEvent(event);
+                });
+        for (int i = 1; i <= 5; i++) {
+            timerState.add(i, Style.TIMER, 0, t0, 100 * i, i % 2, i <= 3 ? contextId : contextId + 1);
+        }
+    }
+
+    @Test
+    void bulkCancelInCommandScopeSendsSingleCommand() {
+        //given
+        final MessageStore commandStore = new InMemoryStore();
+        final CommandSender commandSender = new CommandAppendingSender(() -> t0, commandStore.appender())
+                .senderFor(11, SequenceGenerator.create(), (sourceSequence, commandTime) -> {});
+        final int cancelled;
+        final int unknown;
+
+        //when
+        try (final ControlContext timerControl = timerPlugin.controller(commandSender)) {
+            cancelled = timerControl.cancelTimers(contextId);
+            unknown = timerControl.cancelTimers(contextId + 2);
+        }
+
+        //then
+        assertEquals(3, cancelled, "cancelled");
+        assertEquals(0, unknown, "unknown");
+        final List<FlyweightCommand> commands = poll(commandStore);
+        assertEquals(1, commands.size(), "commands.size");
+        final FlyweightCommand command = commands.get(0);
+        assertEquals(TimerCommands.CANCEL_TIMERS, command.payloadType(), "command.payloadType");
+        assertEquals(SELECT_CONTEXT, FlyweightTimerBulkPayload.selection(command.payload(), 0), "selection");
+        assertEquals(contextId, FlyweightTimerBulkPayload.contextId(command.payload(), 0), "contextId");
+        assertEquals(5, timerState.count(), "count");
+
+        //when
+        new TimerCommandProcessor(timerState).onCommand(command, eventRouter.start(command));
+        eventRouter.complete();
+
+        //then
+        assertEquals(1, routed.size(), "routed.size");
+        assertEquals(TimerEvents.TIMERS_CANCELLED, routed.get(0).payloadType(), "routed[0].payloadType");
+        assertEquals(2, timerState.count(), "count");
+        assertEquals(0, timerState.contextCount(contextId), "contextCount");
+        assertTrue(timerState.hasTimer(4), "hasTimer(4)");
+        assertFalse(timerState.hasTimer(1), "hasTimer(1)");
+    }
+
+    @Test
+    void bulkRescheduleInEventScopeRoutesSingleEvent() {
+        //given
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        FlyweightCommand.writeHeader(11, 1, t0, 33, 0, buffer, 0);
+        final FlyweightCommand command = new FlyweightCommand().wrap(buffer, 0);
+        eventRouter.start(command);
+        final int rescheduled;
+        final int unknown;
+
+        //when
+        try (final ControlContext timerControl = timerPlugin.controller(eventRouter)) {
+            rescheduled = timerControl.rescheduleTimers(contextId, 1, 1000);
+            unknown = timerControl.rescheduleTimersOfType(7, 1000);
+        }
+        eventRouter.complete();
+
+        //then
+        assertEquals(2, rescheduled, "rescheduled");
+        assertEquals(0, unknown, "unknown");
+        assertEquals(1, routed.size(), "routed.size");
+        final Event event = routed.get(0);
+        assertEquals(TimerEvents.TIMERS_RESCHEDULED, event.payloadType(), "event.payloadType");
+        assertEquals(SELECT_CONTEXT | SELECT_TYPE, FlyweightTimerBulkPayload.selection(event.payload(), 0),
+                "selection");
+        assertEquals(5, timerState.count(), "count");
+        assertEquals(t0 + 1100, timerState.deadline(timerState.index(1)), "deadline(1)");
+        assertEquals(t0 + 200, timerState.deadline(timerState.index(2)), "deadline(2)");
+        assertEquals(t0 + 1300, timerState.deadline(timerState.index(3)), "deadline(3)");
+        assertEquals(t0 + 500, timerState.deadline(timerState.index(5)), "deadline(5)");
+    }
+
+    private static List<FlyweightCommand> poll(final MessageStore commandStore) {
+        final List<FlyweightCommand> commands = new ArrayList<>();
+        final MessageStore.Poller poller = commandStore.poller();
+        while (poller.poll(message -> {
+            final MutableDirectBuffer copy = new ExpandableArrayBuffer(message.capacity());
+            copy.putBytes(0, message, 0, message.capacity());
+            commands.add(new FlyweightCommand().wrap(copy, 0));
+            return Result.POLL;
+        }) > 0) {
+            //poll until no more commands
+        }
+        return commands;
+    }
+}
@@ -23,6 +23,7 @@
  */
 package org.tools4j.elara.plugin.timer;
 
+import org.agrona.collections.LongArrayList;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.tools4j.elara.plugin.timer.Timer.Style;
@@ -30,6 +31,8 @@ import org.tools4j.elara.plugin.timer.Timer.Style;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_CONTEXT;
+import static org.tools4j.elara.plugin.timer.TimerBulkPayloadDescriptor.SELECT_TYPE;
 
 /**
  * Unit test for {@link TimerState} implementations.
@@ -50,7 +53,7 @@ class TimerStateTest {
     @ValueSource(classes = {SimpleTimerState.class, DeadlineHeapTimerState.class})
     public void addAndGet(final Class<? extends MutableTimerState> timerStateClass) throws Exception {
         //given
-        final MutableTimerState timerState = timerStateClass.newInstance();
+        final MutableTimerState timerState = timerStateClass.getDeclaredConstructor().newInstance();
 
         //when
         for (int i = 0; i < time.length; i++) {
@@ -79,7 +82,7 @@ class TimerStateTest {
     @ValueSource(classes = {SimpleTimerState.class, DeadlineHeapTimerState.class})
     public void remove(final Class<? extends MutableTimerState> timerStateClass) throws Exception {
         //given
-        final MutableTimerState timerState = timerStateClass.newInstance();
+        final MutableTimerState timerState = timerStateClass.getDeclaredConstructor().newInstance();
 
         //when
         for (int i = 0; i < time.length; i++) {
@@ -116,7 +119,7 @@ class TimerStateTest {
     @ValueSource(classes = {SimpleTimerState.class, DeadlineHeapTimerState.class})
     public void repeat(final Class<? extends MutableTimerState> timerStateClass) throws Exception {
         //given
-        final MutableTimerState timerState = timerStateClass.newInstance();
+        final MutableTimerState timerState = timerStateClass.getDeclaredConstructor().newInstance();
 
         //when
         for (int i = 0; i < time.length; i++) {
@@ -172,4 +175,148 @@ class TimerStateTest {
         }
     }
 
-}
\ No newline at end of file
+    @ParameterizedTest
+    @ValueSource(classes = {SimpleTimerState.class, DeadlineHeapTimerState.class})
+    public void collectTimersByContextAndType(final Class<? extends MutableTimerState> timerStateClass) throws Exception {
+        //given
+        final MutableTimerState timerState = timerStateClass.getDeclaredConstructor().newInstance();
+        final LongArrayList timerIds = new LongArrayList();
+        for (int i = 0; i < time.length; i++) {
+            timerState.add(idOffset + i, Style.TIMER, 0, time[i], timeout[i], typeOffset + i % 2, contextIdOffset + i % 3);
+        }
+
+        //when
+        final int byContext = timerState.collectTimerIds(SELECT_CONTEXT, contextIdOffset, 0, timerIds);
+
+        //then
+        assertEquals(2, byContext, "byContext");
+        assertEquals(2, timerState.contextCount(contextIdOffset), "contextCount");
+        assertTrue(timerIds.containsLong(idOffset) && timerIds.containsLong(idOffset + 3), "timerIds=" + timerIds);
+
+        //then
+        assertEquals(1, timerState.countTimers(SELECT_CONTEXT | SELECT_TYPE, contextIdOffset, typeOffset + 1), "byContextAndType");
+        assertEquals(3, timerState.countTimers(SELECT_TYPE, 0, typeOffset), "byType");
+        assertEquals(time.length, timerState.countTimers(0, 0, 0), "all");
+
+        //when
+        timerState.removeById(idOffset + 3);
+        timerState.remove(timerState.index(idOffset));
+
+        //then
+        assertEquals(0, timerState.contextCount(contextIdOffset), "contextCount");
+        assertEquals(0, timerState.countTimers(SELECT_CONTEXT, contextIdOffset, 0), "byContext");
+        assertEquals(2, timerState.contextCount(contextIdOffset + 1), "contextCount(+1)");
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {SimpleTimerState.class, DeadlineHeapTimerState.class})
+    public void defaultContextLookupMatchesContextIndex(final Class<? extends MutableTimerState> timerStateClass) throws Exception {
+        //given
+        final MutableTimerState timerState = timerStateClass.getDeclaredConstructor().newInstance();
+        for (int i = 0; i < time.length; i++) {
+            timerState.add(idOffset + i, Style.TIMER, 0, time[i], timeout[i], typeOffset + i % 2, contextIdOffset + i % 3);
+        }
+        final TimerState defaultLookup = withoutContextIndex(timerState);
+
+        for (int c = 0; c < 4; c++) {
+            //when
+            final long contextId = contextIdOffset + c;
+            final LongArrayList expected = new LongArrayList();
+            final LongArrayList actual = new LongArrayList();
+            final int expectedCount = timerState.collectTimerIds(SELECT_CONTEXT, contextId, 0, expected);
+            final int actualCount = defaultLookup.collectTimerIds(SELECT_CONTEXT, contextId, 0, actual);
+
+            //then
+            assertEquals(timerState.contextCount(contextId), defaultLookup.contextCount(contextId), "contextCount(" + c + ")");
+            assertEquals(expectedCount, actualCount, "collectTimerIds(" + c + ")");
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual, "timerIds(" + c + ")");
+        }
+    }
+
+    private static TimerState withoutContextIndex(final TimerState timerState) {
+        return new TimerState() {
+            @Override
+            public int count() {
+                return timerState.count();
+            }
+
+            @Override
+            public int index(final long timerId) {
+                return timerState.index(timerId);
+            }
+
+            @Override
+            public int indexOfNextDeadline() {
+                return timerState.indexOfNextDeadline();
+            }
+
+            @Override
+            public long timerId(final int index) {
+                return timerState.timerId(index);
+            }
+
+            @Override
+            public Style style(final int index) {
+                return timerState.style(index);
+            }
+
+            @Override
+            public int repetition(final int index) {
+                return timerState.repetition(index);
+            }
+
+            @Override
+            public long startTime(final int index) {
+                return timerState.startTime(index);
+            }
+
+            @Override
+            public long timeout(final int index) {
+                return timerState.timeout(index);
+            }
+
+            @Override
+            public int timerType(final int index) {
+                return timerState.timerType(index);
+            }
+
+            @Override
+            public long contextId(final int index) {
+                return timerState.contextId(index);
+            }
+
+            @Override
+            public long deadline(final int index) {
+                return timerState.deadline(index);
+            }
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {SimpleTimerState.class, DeadlineHeapTimerState.class})
+    public void reschedule(final Class<? extends MutableTimerState> timerStateClass) throws Exception {
+        //given
+        final MutableTimerState timerState = timerStateClass.getDeclaredConstructor().newInstance();
+        for (int i = 0; i < time.length; i++) {
+            timerState.add(idOffset + i, Style.TIMER, 0, time[i], timeout[i], typeOffset + i, contextIdOffset + i);
+        }
+        timerState.add(idOffset + 10, Style.ALARM, 0, t0, t0 + 5000, typeOffset, contextIdOffset);
+
+        //when: move first timer past all others
+        timerState.rescheduleById(idOffset + sorted[0], 10000);
+
+        //then
+        assertEquals(idOffset + sorted[1], timerState.timerId(timerState.indexOfNextDeadline()), "timerId(indexOfNextDeadline())");
+        assertEquals(time[sorted[0]] + 10000, timerState.startTime(timerState.index(idOffset + sorted[0])), "startTime");
+
+        //when: move alarm before all others
+        timerState.rescheduleById(idOffset + 10, -5000);
+
+        //then
+        final int next = timerState.indexOfNextDeadline();
+        assertEquals(idOffset + 10, timerState.timerId(next), "timerId(indexOfNextDeadline())");
+        assertEquals(t0, timerState.deadline(next), "deadline(indexOfNextDeadline())");
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replay;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Appender;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.SendingResult;
+import org.tools4j.elara.stream.ipc.Ipc;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+import org.tools4j.elara.stream.ipc.SharedBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.replay.GapDetectingEventReceiver.DEFAULT_MAX_BUFFERED_EVENTS;
+import static org.tools4j.elara.sequence.SequenceGenerator.NIL_SEQUENCE;
+
+/**
+ * Unit test for {@link EventReplayServer} and {@link GapDetectingEventReceiver}.
+ */
+class EventReplayTest {
+
+    private static final int EVENT_COUNT = 20;
+    private static final int CAPACITY = 1 << 14;
+
+    @Test
+    void missingEventsAreReplayedInOrder() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure();
+        final SharedBuffer live = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer requests = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer replay = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final InMemoryStore eventStore = new InMemoryStore();
+        final EventReplayServer server = new EventReplayServer(eventStore, requests.receiver(), replay.sender());
+        final GapDetectingEventReceiver receiver = new GapDetectingEventReceiver(
+                live.receiver(), replay.receiver(), requests.sender(), 7, NIL_SEQUENCE,
+                DEFAULT_MAX_BUFFERED_EVENTS, TimeUnit.SECONDS.toNanos(10));
+        final List<Long> received = new ArrayList<>();
+
+        //when
+        final Appender appender = eventStore.appender();
+        final MutableDirectBuffer event = new ExpandableArrayBuffer();
+        for (int seq = 0; seq < EVENT_COUNT; seq++) {
+            final int length = writeEvent(seq, event);
+            appender.append(event, 0, length);
+            if (seq != 5 && seq != 6 && seq != 12) {
+                assertEquals(SendingResult.SENT, live.sender().sendMessage(event, 0, length), "live.send");
+            }
+        }
+        for (int i = 0; i < 100 && received.size() < EVENT_COUNT; i++) {
+            receiver.poll(message -> received.add(FlyweightEvent.eventSequence(message)));
+            server.doWork();
+        }
+
+        //then
+        assertEquals(EVENT_COUNT, received.size(), "received.size");
+        for (int seq = 0; seq < EVENT_COUNT; seq++) {
+            assertEquals(seq, received.get(seq), "received[" + seq + "]");
+        }
+        assertEquals(EVENT_COUNT, receiver.nextEventSequence(), "nextEventSequence");
+        assertEquals(1, receiver.requestCount(), "requestCount");
+        assertTrue(receiver.duplicateCount() > 0, "duplicateCount > 0");
+
+        //when
+        while (server.doWork() > 0);
+
+        //then
+        assertFalse(server.isReplaying(), "server.isReplaying");
+
+        receiver.close();
+        live.close();
+        requests.close();
+        replay.close();
+    }
+
+    @Test
+    void pollWithLimitDeliversBufferedEventsLater() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure();
+        final SharedBuffer live = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer requests = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer replay = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final GapDetectingEventReceiver receiver = new GapDetectingEventReceiver(
+                live.receiver(), replay.receiver(), requests.sender(), 1, 0, 16, 0);
+        final List<Long> received = new ArrayList<>();
+        final MutableDirectBuffer event = new ExpandableArrayBuffer();
+
+        //when
+        for (int seq = 1; seq <= 3; seq++) {
+            send(live.sender(), seq, event);
+        }
+
+        //then
+        assertEquals(0, receiver.poll(message -> received.add(FlyweightEvent.eventSequence(message)), 2), "poll(2)");
+
+        //when
+        send(live.sender(), 0, event);
+
+        //then
+        assertEquals(2, receiver.poll(message -> received.add(FlyweightEvent.eventSequence(message)), 2), "poll(2)");
+        assertEquals(2, receiver.poll(message -> received.add(FlyweightEvent.eventSequence(message)), 2), "poll(2)");
+        assertEquals(0, receiver.poll(message -> received.add(FlyweightEvent.eventSequence(message)), 2), "poll(2)");
+        assertEquals(4, received.size(), "received.size");
+        for (int seq = 0; seq < 4; seq++) {
+            assertEquals(seq, received.get(seq), "received[" + seq + "]");
+        }
+        assertEquals(1, receiver.requestCount(), "requestCount");
+        assertEquals(1, requests.receiver().poll(message -> {
+            assertTrue(ReplayRequests.isReplayRequest(message), "isReplayRequest");
+            assertEquals(1, ReplayRequests.consumerId(message), "consumerId");
+            assertEquals(0, ReplayRequests.fromEventSequence(message), "fromEventSequence");
+            assertEquals(2, ReplayRequests.toEventSequence(message), "toEventSequence");
+        }), "requests.poll");
+
+        receiver.close();
+        live.close();
+        requests.close();
+        replay.close();
+    }
+
+    @Test
+    void concurrentRequestsAreRepliedToRequestingConsumer() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure();
+        final SharedBuffer requests = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer replay1 = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer replay2 = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final InMemoryStore eventStore = new InMemoryStore();
+        final EventReplayServer server = new EventReplayServer(eventStore, null, requests.receiver(),
+                consumerId -> consumerId == 1 ? replay1.sender() : consumerId == 2 ? replay2.sender() : null,
+                2, 4);
+        final List<Long> received1 = new ArrayList<>();
+        final List<Long> received2 = new ArrayList<>();
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final Appender appender = eventStore.appender();
+        for (int seq = 0; seq < EVENT_COUNT; seq++) {
+            appender.append(buffer, 0, writeEvent(seq, buffer));
+        }
+
+        //when
+        sendRequest(requests.sender(), 1, 10, 15, buffer);
+        sendRequest(requests.sender(), 2, 2, 7, buffer);
+        sendRequest(requests.sender(), 3, 0, 19, buffer);
+        server.doWork();
+        server.doWork();
+
+        //then
+        assertEquals(2, server.activeReplays(), "activeReplays");
+
+        //when
+        while (server.doWork() > 0);
+        replay1.receiver().poll(message -> received1.add(FlyweightEvent.eventSequence(message)), EVENT_COUNT);
+        replay2.receiver().poll(message -> received2.add(FlyweightEvent.eventSequence(message)), EVENT_COUNT);
+
+        //then
+        assertFalse(server.isReplaying(), "server.isReplaying");
+        assertEquals(6, received1.size(), "received1.size");
+        assertEquals(6, received2.size(), "received2.size");
+        for (int i = 0; i < 6; i++) {
+            assertEquals(10 + i, received1.get(i), "received1[" + i + "]");
+            assertEquals(2 + i, received2.get(i), "received2[" + i + "]");
+        }
+
+        //when
+        received1.clear();
+        sendRequest(requests.sender(), 1, 3, 4, buffer);
+        while (server.doWork() > 0);
+        replay1.receiver().poll(message -> received1.add(FlyweightEvent.eventSequence(message)), EVENT_COUNT);
+
+        //then
+        assertEquals(2, received1.size(), "received1.size after rewind");
+        assertEquals(3, received1.get(0), "received1[0] after rewind");
+        assertEquals(4, received1.get(1), "received1[1] after rewind");
+
+        requests.close();
+        replay1.close();
+        replay2.close();
+    }
+
+    @Test
+    void gapIncludingRollbackEventIsFilled() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure();
+        final SharedBuffer live = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer requests = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer replay = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final InMemoryStore eventStore = new InMemoryStore();
+        final EventReplayServer server = new EventReplayServer(eventStore, requests.receiver(), replay.sender());
+        final GapDetectingEventReceiver receiver = new GapDetectingEventReceiver(
+                live.receiver(), replay.receiver(), requests.sender(), 7, NIL_SEQUENCE,
+                DEFAULT_MAX_BUFFERED_EVENTS, TimeUnit.SECONDS.toNanos(10));
+        final List<Long> received = new ArrayList<>();
+        final List<EventType> receivedTypes = new ArrayList<>();
+
+        //when
+        final Appender appender = eventStore.appender();
+        final MutableDirectBuffer event = new ExpandableArrayBuffer();
+        for (int seq = 0; seq < EVENT_COUNT; seq++) {
+            final int length = writeEvent(seq == 6 ? EventType.ROLLBACK : EventType.APP_COMMIT, seq, event);
+            appender.append(event, 0, length);
+            if (seq != 5 && seq != 6) {
+                assertEquals(SendingResult.SENT, live.sender().sendMessage(event, 0, length), "live.send");
+            }
+        }
+        for (int i = 0; i < 100 && received.size() < EVENT_COUNT; i++) {
+            receiver.poll(message -> {
+                received.add(FlyweightEvent.eventSequence(message));
+                receivedTypes.add(EventType.valueByFrameType(FlyweightHeader.type(message)));
+            });
+            server.doWork();
+        }
+
+        //then
+        assertEquals(EVENT_COUNT, received.size(), "received.size");
+        for (int seq = 0; seq < EVENT_COUNT; seq++) {
+            assertEquals(seq, received.get(seq), "received[" + seq + "]");
+        }
+        assertEquals(EventType.ROLLBACK, receivedTypes.get(6), "receivedTypes[6]");
+        assertEquals(EVENT_COUNT, receiver.nextEventSequence(), "nextEventSequence");
+        assertEquals(1, receiver.requestCount(), "requestCount");
+        assertEquals(0, receiver.droppedCount(), "droppedCount");
+
+        receiver.close();
+        live.close();
+        requests.close();
+        replay.close();
+    }
+
+    @Test
+    void closedSenderAbandonsReplay() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure();
+        final SharedBuffer requests = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final SharedBuffer replay = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final InMemoryStore eventStore = new InMemoryStore();
+        final EventReplayServer server = new EventReplayServer(eventStore, null, requests.receiver(),
+                consumerId -> consumerId == 1 ? MessageSender.CLOSED : replay.sender(), 8, 1);
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final Appender appender = eventStore.appender();
+        for (int seq = 0; seq < EVENT_COUNT; seq++) {
+            appender.append(buffer, 0, writeEvent(seq, buffer));
+        }
+        final List<Long> received = new ArrayList<>();
+
+        //when
+        sendRequest(requests.sender(), 1, 0, 9, buffer);
+        server.doWork();
+
+        //then
+        assertFalse(server.isReplaying(), "server.isReplaying");
+        assertEquals(1, server.failedReplays(), "failedReplays");
+
+        //when
+        sendRequest(requests.sender(), 2, 0, 9, buffer);
+        while (server.doWork() > 0);
+        replay.receiver().poll(message -> received.add(FlyweightEvent.eventSequence(message)), EVENT_COUNT);
+
+        //then
+        assertEquals(10, received.size(), "received.size");
+        assertEquals(1, server.failedReplays(), "failedReplays");
+
+        requests.close();
+        replay.close();
+    }
+
+    private static void sendRequest(final MessageSender sender, final int consumerId,
+                                    final long from, final long to, final MutableDirectBuffer buffer) {
+        final int length = ReplayRequests.replayRequest(buffer, 0, consumerId, from, to);
+        assertEquals(SendingResult.SENT, sender.sendMessage(buffer, 0, length), "sendRequest");
+    }
+
+    private static void send(final MessageSender sender, final long eventSequence, final MutableDirectBuffer event) {
+        final int length = writeEvent(eventSequence, event);
+        assertEquals(SendingResult.SENT, sender.sendMessage(event, 0, length), "send");
+    }
+
+    private static int writeEvent(final long eventSequence, final MutableDirectBuffer event) {
+        return writeEvent(EventType.APP_COMMIT, eventSequence, event);
+    }
+
+    private static int writeEvent(final EventType eventType, final long eventSequence,
+                                  final MutableDirectBuffer event) {
+        final int payloadSize = Long.BYTES;
+        FlyweightEvent.writeHeader(eventType, 42, 1000 + eventSequence, (short)0, eventSequence,
+                System.currentTimeMillis(), 0, payloadSize, event, 0);
+        event.putLong(FlyweightEvent.HEADER_LENGTH, eventSequence);
+        return FlyweightEvent.HEADER_LENGTH + payloadSize;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.replica;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.route.DefaultEventRouter;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.stream.MessageReceiver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for {@link ReadModelReplica}
+ */
+public class ReadModelReplicaTest {
+
+    private static final int SOURCE_ID = 7;
+
+    private InMemoryStore eventStore;
+    private DefaultEventRouter eventRouter;
+    private Queue<DirectBuffer> queries;
+    private List<Long> answered;
+    private long eventPayloadSum;
+
+    //under test
+    private ReadModelReplica replica;
+
+    @BeforeEach
+    public void init() {
+        final DefaultBaseState processorState = new DefaultBaseState();
+        eventStore = new InMemoryStore();
+        eventRouter = new DefaultEventRouter(() -> 0, processorState, eventStore.appender(), processorState::applyEvent);
+        queries = new ArrayDeque<>();
+        answered = new ArrayList<>();
+        final QueryInput.Readiness readYourWrites = (query, appliedState) ->
+                appliedState.eventAppliedForCommand(SOURCE_ID, query.getLong(0));
+        final QueryHandler queryHandler = (query, appliedState) -> answered.add(query.getLong(0));
+        replica = new ReadModelReplica(eventStore,
+                event -> eventPayloadSum += event.payload().getLong(0),
+                QueryInput.receiving(new QueueReceiver(queries), readYourWrites, queryHandler));
+    }
+
+    @Test
+    public void appliesCommittedEventsAndPublishesWatermark() {
+        //given
+        processCommand(1, 10, 20);
+
+        //when
+        final int work = replica.doWork();
+
+        //then
+        assertEquals(2, work, "work");
+        assertEquals(30, eventPayloadSum, "eventPayloadSum");
+        assertEquals(1, replica.appliedEventSequence(), "appliedEventSequence");
+        assertEquals(1, replica.baseState().lastAppliedCommandSequence(SOURCE_ID), "lastAppliedCommandSequence");
+
+        //when
+        processCommand(2, 5);
+        replica.doWork();
+
+        //then
+        assertEquals(35, eventPayloadSum, "eventPayloadSum");
+        assertEquals(2, replica.appliedEventSequence(), "appliedEventSequence");
+    }
+
+    @Test
+    public void defersQueriesUntilCommandEventsAreApplied() {
+        //given
+        processCommand(1, 10);
+        queries.add(query(1));
+        queries.add(query(2));
+        queries.add(query(1));
+
+        //when
+        replica.doWork();
+
+        //then
+        assertEquals(1, answered.size(), "answered.size");
+        assertEquals(1L, answered.get(0), "answered[0]");
+
+        //when
+        final int work = replica.doWork();
+
+        //then
+        assertEquals(0, work, "work");
+        assertEquals(1, answered.size(), "answered.size");
+
+        //when
+        processCommand(2, 20);
+        replica.doWork();
+
+        //then
+        assertEquals(3, answered.size(), "answered.size");
+        assertEquals(2L, answered.get(1), "answered[1]");
+        assertEquals(1L, answered.get(2), "answered[2]");
+    }
+
+    private void processCommand(final long sequence, final long... payloads) {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        FlyweightCommand.writeHeader(SOURCE_ID, sequence, 0, 1, 0, buffer, 0);
+        eventRouter.start(new FlyweightCommand().wrap(buffer, 0));
+        final MutableDirectBuffer payload = new ExpandableArrayBuffer();
+        for (final long value : payloads) {
+            payload.putLong(0, value);
+            eventRouter.routeEvent(payload, 0, Long.BYTES);
+        }
+        eventRouter.complete();
+    }
+
+    private static DirectBuffer query(final long commandSequence) {
+        final UnsafeBuffer query = new UnsafeBuffer(new byte[Long.BYTES]);
+        query.putLong(0, commandSequence);
+        return query;
+    }
+
+    private static final class QueueReceiver implements MessageReceiver {
+        final Queue<DirectBuffer> queue;
+
+        QueueReceiver(final Queue<DirectBuffer> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public int poll(final Handler handler) {
+            return poll(handler, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int poll(final Handler handler, final int limit) {
+            int count = 0;
+            while (count < limit && !queue.isEmpty()) {
+                handler.onMessage(queue.poll());
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            //no-op
+        }
+    }
+}
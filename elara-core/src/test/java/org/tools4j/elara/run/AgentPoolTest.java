@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.run.AgentPool.PooledAgent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link AgentPool}
+ */
+public class AgentPoolTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    public void busyAgentGetsDedicatedThread() {
+        //given
+        final TestAgent busy = new TestAgent("busy", true);
+        final TestAgent quiet1 = new TestAgent("quiet1", false);
+        final TestAgent quiet2 = new TestAgent("quiet2", false);
+
+        try (final AgentPool pool = new AgentPool(2, BackoffIdleStrategy::new, Throwable::printStackTrace, 0.5, 50)) {
+            //when
+            final PooledAgent pooledQuiet1 = pool.add(quiet1);
+            final PooledAgent pooledBusy = pool.add(busy);
+            final PooledAgent pooledQuiet2 = pool.add(quiet2);
+            awaitTrue(() -> pool.rebalanceCount() >= 3 && pooledBusy.thread() >= 0 &&
+                    pooledQuiet1.thread() >= 0 && pooledQuiet2.thread() >= 0 &&
+                    pooledQuiet1.thread() != pooledBusy.thread() && pooledQuiet2.thread() != pooledBusy.thread(),
+                    pool);
+
+            //then
+            assertNotEquals(pooledBusy.thread(), pooledQuiet1.thread(), "busy and quiet1 on different threads");
+            assertEquals(pooledQuiet1.thread(), pooledQuiet2.thread(), "quiet agents share thread");
+            assertTrue(pooledBusy.workCount() > 0, "busy.workCount > 0");
+            assertEquals(0, pooledQuiet1.workCount(), "quiet1.workCount");
+            assertEquals(1, busy.starts.get(), "busy.starts");
+
+            //when
+            pooledQuiet1.close();
+            awaitTrue(() -> quiet1.closes.get() == 1, pool);
+
+            //then
+            assertEquals(2, pool.agents().size(), "agents.size");
+        }
+
+        //then
+        assertEquals(1, busy.starts.get(), "busy.starts");
+        assertEquals(1, busy.closes.get(), "busy.closes");
+        assertEquals(1, quiet2.closes.get(), "quiet2.closes");
+    }
+
+    @Test
+    public void closeDuringRebalanceClosesAllAgents() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            //given
+            final List<TestAgent> testAgents = new ArrayList<>();
+            final List<PooledAgent> pooledAgents = new ArrayList<>();
+            final AgentPool pool = new AgentPool(3, BackoffIdleStrategy::new, Throwable::printStackTrace, 0.2, 1);
+            for (int i = 0; i < 8; i++) {
+                final TestAgent agent = new TestAgent("agent" + i, i % 2 == 0);
+                testAgents.add(agent);
+                pooledAgents.add(pool.add(agent));
+            }
+            final long rebalanceCount = pool.rebalanceCount();
+            int toggle = 0;
+            while (pool.rebalanceCount() < rebalanceCount + 3) {
+                final TestAgent agent = testAgents.get(toggle++ % testAgents.size());
+                agent.busy = !agent.busy;
+                Thread.yield();
+            }
+            final List<TestAgent> lateAgents = new ArrayList<>();
+            final List<PooledAgent> latePooledAgents = new ArrayList<>();
+            final Thread adder = new Thread(() -> {
+                for (int i = 0; ; i++) {
+                    final TestAgent agent = new TestAgent("late" + i, true);
+                    try {
+                        final PooledAgent pooled = pool.add(agent);
+                        synchronized (lateAgents) {
+                            lateAgents.add(agent);
+                            latePooledAgents.add(pooled);
+                        }
+                    } catch (final IllegalStateException e) {
+                        return;
+                    }
+                }
+            });
+            adder.start();
+
+            //when
+            for (final TestAgent agent : testAgents) {
+                agent.busy = !agent.busy;
+            }
+            pool.close();
+            adder.join(TIMEOUT_MILLIS);
+
+            //then
+            assertThrows(IllegalStateException.class, () -> pool.add(new TestAgent("closed", false)));
+            synchronized (lateAgents) {
+                testAgents.addAll(lateAgents);
+                pooledAgents.addAll(latePooledAgents);
+            }
+            for (int i = 0; i < testAgents.size(); i++) {
+                final TestAgent agent = testAgents.get(i);
+                assertTrue(pooledAgents.get(i).isClosed(), agent.name + ".isClosed");
+                assertEquals(agent.starts.get(), agent.closes.get(), agent.name + ".closes");
+                assertTrue(agent.starts.get() <= 1, agent.name + ".starts <= 1");
+            }
+        }
+    }
+
+    private static void awaitTrue(final BooleanSupplier condition, final AgentPool pool) {
+        final long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                throw new AssertionError("Condition not met after " + TIMEOUT_MILLIS + " millis: " + pool.report());
+            }
+            Thread.yield();
+        }
+    }
+
+    private static final class TestAgent implements Agent {
+        final String name;
+        volatile boolean busy;
+        final AtomicInteger starts = new AtomicInteger();
+        final AtomicInteger closes = new AtomicInteger();
+
+        TestAgent(final String name, final boolean busy) {
+            this.name = name;
+            this.busy = busy;
+        }
+
+        @Override
+        public void onStart() {
+            starts.incrementAndGet();
+        }
+
+        @Override
+        public int doWork() {
+            if (!busy) {
+                return 0;
+            }
+            final long end = System.nanoTime() + 20_000;
+            while (System.nanoTime() < end) {
+                //spin
+            }
+            return 1;
+        }
+
+        @Override
+        public void onClose() {
+            closes.incrementAndGet();
+        }
+
+        @Override
+        public String roleName() {
+            return name;
+        }
+    }
+}
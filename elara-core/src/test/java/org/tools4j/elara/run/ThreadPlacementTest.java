@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.logging.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit test for {@link ThreadPlacement}
+ */
+public class ThreadPlacementTest {
+
+    @Test
+    public void parseAndFormatCpuList() {
+        assertArrayEquals(new int[] {0, 1, 2, 3, 8, 10, 11}, LinuxThreads.parseCpuList("0-3,8,10-11"), "parse");
+        assertArrayEquals(new int[0], LinuxThreads.parseCpuList(""), "parse empty");
+        assertEquals("1,4,5", LinuxThreads.formatCpuList(new int[] {1, 4, 5}), "format");
+    }
+
+    @Test
+    public void invalidPlacement() {
+        assertThrows(IllegalArgumentException.class, () -> ThreadPlacement.create().cpus(-1));
+        assertThrows(IllegalArgumentException.class, () -> ThreadPlacement.create().priority(Thread.MAX_PRIORITY + 1));
+        assertThrows(IllegalArgumentException.class, () -> ThreadPlacement.create().numaNode(-2));
+    }
+
+    @Test
+    public void startsAgentWithNamePriorityAndAffinity() throws InterruptedException {
+        assumeTrue(LinuxThreads.isSupported(), "Linux /proc/thread-self is required");
+        assumeTrue(isTasksetAvailable(), "taskset is required");
+        final String currentCpus = LinuxThreads.allowedCpuList();
+        final int[] cpus = LinuxThreads.parseCpuList(currentCpus);
+        assumeTrue(cpus.length > 1, "more than one CPU is required, allowed CPUs: " + currentCpus);
+
+        //given
+        final int cpu = cpus[cpus.length - 1];
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<String> allowedCpus = new AtomicReference<>();
+        final AtomicReference<Thread> agentThread = new AtomicReference<>();
+        final Agent agent = new Agent() {
+            @Override
+            public void onStart() {
+                agentThread.set(Thread.currentThread());
+                allowedCpus.set(LinuxThreads.allowedCpuList());
+                started.countDown();
+            }
+
+            @Override
+            public int doWork() {
+                return 0;
+            }
+
+            @Override
+            public String roleName() {
+                return "test";
+            }
+        };
+        final ThreadPlacement placement = ThreadPlacement.create()
+                .threadName("elara-{role}-1")
+                .priority(Thread.NORM_PRIORITY + 1)
+                .cpus(cpu);
+        final Logger.Factory loggerFactory = Logger.systemLoggerFactory();
+
+        //when
+        try (final ElaraRunner runner = ElaraRunner.startOnThread(
+                new AgentRunner(new BackoffIdleStrategy(), Throwable::printStackTrace, null,
+                        placement.place(agent, loggerFactory)),
+                placement.threadFactory(agent.roleName()))) {
+            assertTrue(started.await(10, TimeUnit.SECONDS), "agent started");
+
+            //then
+            assertEquals("elara-test-1", runner.thread().getName(), "thread name");
+            assertEquals(Thread.NORM_PRIORITY + 1, runner.thread().getPriority(), "thread priority");
+            assertEquals(runner.thread(), agentThread.get(), "agent thread");
+            assertEquals(String.valueOf(cpu), allowedCpus.get(), "allowed CPUs");
+            assertNotEquals(currentCpus, allowedCpus.get(), "allowed CPUs changed");
+        }
+    }
+
+    private static boolean isTasksetAvailable() {
+        try {
+            final Process process = new ProcessBuilder("taskset", "-V").redirectErrorStream(true).start();
+            return process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (final IOException e) {
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.run;
+
+import org.agrona.DirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.type.AllInOneApp;
+import org.tools4j.elara.command.Command;
+import org.tools4j.elara.event.Event;
+import org.tools4j.elara.route.EventRouter;
+import org.tools4j.elara.send.CommandAppendingSender;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.sequence.SequenceGenerator;
+import org.tools4j.elara.store.InMemoryStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link WarmUp}
+ */
+public class WarmUpTest {
+
+    @Test
+    public void runsSyntheticCommands() {
+        //given
+        final List<CountingApp> apps = new ArrayList<>();
+        final WarmUp warmUp = WarmUp.create(() -> {
+            final CountingApp app = new CountingApp();
+            apps.add(app);
+            return app;
+        }, (index, sender) -> sender.sendCommandWithoutPayload(index % 4)).commandCount(1000);
+
+        //when
+        final WarmUp.Result result = warmUp.run();
+
+        //then
+        assertEquals(1, apps.size(), "apps.size");
+        assertEquals(1000, result.commandCount(), "result.commandCount");
+        assertEquals(1000, apps.get(0).commands, "commands");
+        assertEquals(1000, apps.get(0).events, "events");
+        assertTrue(result.firstCommandNanos() > 0, "firstCommandNanos > 0");
+        assertTrue(result.durationNanos() >= result.firstCommandNanos(), "durationNanos >= firstCommandNanos");
+    }
+
+    @Test
+    public void replaysRecordedCommands() {
+        //given
+        final InMemoryStore recorded = new InMemoryStore();
+        final CommandSender recorder = new CommandAppendingSender(() -> 0, recorded.appender())
+                .senderFor(1, SequenceGenerator.create(), (seq, time) -> {});
+        for (int i = 0; i < 3; i++) {
+            recorder.sendCommandWithoutPayload(7 + i);
+        }
+        final CountingApp app = new CountingApp();
+        final WarmUp warmUp = WarmUp.create(() -> app, WarmUp.Commands.replay(recorded)).commandCount(10);
+
+        //when
+        final WarmUp.Result result = warmUp.run();
+
+        //then
+        assertEquals(10, result.commandCount(), "result.commandCount");
+        assertEquals(4 * 7 + 3 * 8 + 3 * 9, app.typeSum, "typeSum");
+    }
+
+    private static final class CountingApp implements AllInOneApp {
+        int commands;
+        int events;
+        long typeSum;
+
+        @Override
+        public void onCommand(final Command command, final EventRouter router) {
+            commands++;
+            typeSum += command.payloadType();
+            router.routeEventWithoutPayload(command.payloadType());
+        }
+
+        @Override
+        public void onEvent(final Event event) {
+            final DirectBuffer payload = event.payload();
+            assertEquals(0, payload.capacity(), "payload.capacity");
+            events++;
+        }
+    }
+}
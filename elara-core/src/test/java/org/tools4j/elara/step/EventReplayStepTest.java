@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.step;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FrameChecksum;
+import org.tools4j.elara.replay.ReplayProgress;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link EventReplayStep}
+ */
+public class EventReplayStepTest {
+
+    @Test
+    public void replaysEventsInBatchesAndReportsProgress() {
+        //given
+        final MessageStore eventStore = eventStore(10);
+        final List<Long> events = new ArrayList<>();
+        final List<String> progress = new ArrayList<>();
+        final List<Long> entryIds = new ArrayList<>();
+        final ReplayProgress listener = ((ReplayProgress)(replayedEvents, elapsedNanos, complete) ->
+                progress.add(replayedEvents + (complete ? "!" : ""))).andThen(new ReplayProgress() {
+            @Override
+            public void onProgress(final long replayedEvents, final long elapsedNanos, final boolean complete) {
+                throw new AssertionError("Replay progress without entry ID");
+            }
+
+            @Override
+            public void onProgress(final long replayedEvents, final long entryId, final long elapsedNanos,
+                                   final boolean complete) {
+                entryIds.add(entryId);
+            }
+        });
+        final EventReplayStep step = EventReplayStep.replayAllEvents(eventStore,
+                event -> events.add(event.eventSequence()), ChecksumPolicy.NONE, 4, listener);
+
+        //when
+        step.doWork();
+
+        //then
+        assertEquals(4, events.size(), "events.size");
+        assertEquals(4, step.replayedEvents(), "replayedEvents");
+        assertFalse(step.isReplayed(), "isReplayed");
+
+        //when
+        step.doWork();
+        step.doWork();
+
+        //then
+        assertEquals(10, events.size(), "events.size");
+        assertEquals(9, events.get(9).longValue(), "events[9]");
+        assertTrue(step.isReplayed(), "isReplayed");
+        assertEquals("[4, 8, 10!]", progress.toString(), "progress");
+        assertEquals("[4, 8, 10]", entryIds.toString(), "entryIds");
+
+        //when
+        final int work = step.doWork();
+
+        //then
+        assertEquals(0, work, "work");
+        assertEquals(3, progress.size(), "progress.size");
+    }
+
+    @Test
+    public void completionIsReportedWhenBatchEndsAtEndOfStore() {
+        //given
+        final MessageStore eventStore = eventStore(4);
+        final List<String> progress = new ArrayList<>();
+        final EventReplayStep step = EventReplayStep.replayNonAbortedEvents(eventStore, event -> {},
+                ChecksumPolicy.NONE, 4, (replayedEvents, elapsedNanos, complete) ->
+                        progress.add(replayedEvents + (complete ? "!" : "")));
+
+        //when
+        step.doWork();
+        step.doWork();
+
+        //then
+        assertEquals("[4, 4!]", progress.toString(), "progress");
+    }
+
+    @Test
+    public void corruptEventsAreSkippedOrFailReplay() {
+        //given
+        final MessageStore eventStore = new InMemoryStore();
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        try (final MessageStore.Appender appender = eventStore.appender()) {
+            for (int i = 0; i < 3; i++) {
+                FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, i, (short)0, i, i, 0, Long.BYTES, buffer, 0);
+                buffer.putLong(FlyweightEvent.HEADER_LENGTH, i);
+                final int length = FrameChecksum.writeChecksum(buffer);
+                if (i == 1) {
+                    buffer.putLong(FlyweightEvent.HEADER_LENGTH, 42);
+                }
+                appender.append(buffer, 0, length);
+            }
+        }
+        final List<Long> events = new ArrayList<>();
+        final EventReplayStep skipping = EventReplayStep.replayAllEvents(eventStore,
+                event -> events.add(event.eventSequence()), ChecksumPolicy.VERIFY_OR_SKIP, 10, ReplayProgress.NOOP);
+        final EventReplayStep verifying = EventReplayStep.replayAllEvents(eventStore,
+                event -> {}, ChecksumPolicy.VERIFY, 10, ReplayProgress.NOOP);
+
+        //when
+        skipping.doWork();
+
+        //then
+        assertEquals("[0, 2]", events.toString(), "events");
+        assertEquals(1, skipping.skippedEvents(), "skippedEvents");
+        assertEquals(3, skipping.replayedEvents(), "replayedEvents");
+        assertThrows(IllegalStateException.class, verifying::doWork);
+    }
+
+    @Test
+    public void etaAndEventRate() {
+        assertEquals(2000.0, ReplayProgress.eventsPerSecond(1000, 500_000_000), "eventsPerSecond");
+        assertEquals(1500, ReplayProgress.etaMillis(1000, 4000, 500_000_000), "etaMillis");
+        assertEquals(-1, ReplayProgress.etaMillis(1000, -1, 500_000_000), "etaMillis");
+        assertThrows(IllegalArgumentException.class, () -> EventReplayStep.replayAllEvents(
+                new InMemoryStore(), event -> {}, ChecksumPolicy.NONE, 0, ReplayProgress.NOOP));
+    }
+
+    private static MessageStore eventStore(final int count) {
+        final MessageStore eventStore = new InMemoryStore();
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(FlyweightEvent.HEADER_LENGTH);
+        try (final MessageStore.Appender appender = eventStore.appender()) {
+            for (int i = 0; i < count; i++) {
+                final int length = FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, i, (short)0, i, i, 0, 0,
+                        buffer, 0);
+                appender.append(buffer, 0, length);
+            }
+        }
+        return eventStore;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.step;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.ChecksumPolicy;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FrameChecksum;
+import org.tools4j.elara.output.Output.Ack;
+import org.tools4j.elara.stream.MessageReceiver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link ReceiverPublisherStep}
+ */
+public class ReceiverPublisherStepTest {
+
+    @Test
+    public void corruptEventsAreSkippedOrFailPublication() {
+        //given
+        final List<DirectBuffer> messages = new ArrayList<>();
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        for (int i = 0; i < 3; i++) {
+            FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, i, (short)0, i, i, 0, Long.BYTES, buffer, 0);
+            buffer.putLong(FlyweightEvent.HEADER_LENGTH, i);
+            final int length = FrameChecksum.writeChecksum(buffer);
+            if (i == 1) {
+                buffer.putLong(FlyweightEvent.HEADER_LENGTH, 42);
+            }
+            final MutableDirectBuffer message = new UnsafeBuffer(new byte[length]);
+            message.putBytes(0, buffer, 0, length);
+            messages.add(message);
+        }
+        messages.add(new UnsafeBuffer(new byte[FlyweightEvent.HEADER_LENGTH - 1]));
+        final List<Long> published = new ArrayList<>();
+        final ReceiverPublisherStep skipping = new ReceiverPublisherStep((event, replay, retry) -> {
+            published.add(event.eventSequence());
+            return Ack.COMMIT;
+        }, receiver(messages), ExceptionHandler.systemDefault(), ChecksumPolicy.VERIFY_OR_SKIP);
+        final ReceiverPublisherStep verifying = new ReceiverPublisherStep((event, replay, retry) -> Ack.COMMIT,
+                receiver(messages), ExceptionHandler.systemDefault(), ChecksumPolicy.VERIFY);
+
+        //when
+        final int work = skipping.doWork();
+
+        //then
+        assertEquals(4, work, "work");
+        assertEquals("[0, 2]", published.toString(), "published");
+        assertEquals(2, skipping.skippedEvents(), "skippedEvents");
+        assertThrows(IllegalStateException.class, verifying::doWork);
+    }
+
+    private static MessageReceiver receiver(final List<DirectBuffer> messages) {
+        return new MessageReceiver() {
+            @Override
+            public int poll(final Handler handler) {
+                return poll(handler, Integer.MAX_VALUE);
+            }
+
+            @Override
+            public int poll(final Handler handler, final int limit) {
+                final int count = Math.min(limit, messages.size());
+                for (int i = 0; i < count; i++) {
+                    handler.onMessage(messages.get(i));
+                }
+                return count;
+            }
+
+            @Override
+            public boolean isClosed() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+                //no-op
+            }
+        };
+    }
+}
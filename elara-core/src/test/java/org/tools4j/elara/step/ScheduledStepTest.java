@@ -0,0 +1,253 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.step;
+
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.agent.AllInOneAgent;
+import org.tools4j.elara.app.config.DutyCycleSchedule;
+import org.tools4j.elara.app.config.DutyCycleSchedule.DutyCycleStep;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.tools4j.elara.step.ScheduledStep.UNLIMITED_SKIPPED_CYCLES;
+
+/**
+ * Unit test for {@link ScheduledStep}
+ */
+public class ScheduledStepTest {
+
+    @Test
+    public void invokesStepUntilBudgetIsExhausted() {
+        //given
+        final CountingStep commands = new CountingStep(100);
+        final CountingStep inputs = new CountingStep(100);
+        final ScheduledStep step = new ScheduledStep(
+                new AgentStep[] {commands, inputs}, new int[] {64, 1}, new int[] {0, 0});
+
+        //when
+        final int work = step.doWork();
+
+        //then
+        assertEquals(65, work, "work");
+        assertEquals(64, commands.invocations, "commands.invocations");
+        assertEquals(1, inputs.invocations, "inputs.invocations");
+        assertEquals(64, step.workCount(0), "workCount(0)");
+
+        //when
+        step.doWork();
+
+        //then
+        assertEquals(101, commands.invocations, "commands.invocations");
+        assertEquals(100, step.workCount(0), "workCount(0)");
+    }
+
+    @Test
+    public void yieldingStepIsSkippedWhileStepBeforeIsBusy() {
+        //given
+        final CountingStep events = new CountingStep(10);
+        final CountingStep inputs = new CountingStep(10);
+        final ScheduledStep step = new ScheduledStep(
+                new AgentStep[] {events, inputs}, new int[] {1, 1}, new int[] {0, UNLIMITED_SKIPPED_CYCLES});
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            step.doWork();
+        }
+
+        //then
+        assertEquals(10, events.invocations, "events.invocations");
+        assertEquals(0, inputs.invocations, "inputs.invocations");
+
+        //when
+        step.doWork();
+
+        //then
+        assertEquals(1, inputs.invocations, "inputs.invocations");
+    }
+
+    @Test
+    public void yieldingStepIsInvokedAfterMaxSkippedCycles() {
+        //given
+        final CountingStep commands = new CountingStep(100);
+        final CountingStep inputs = new CountingStep(100);
+        final ScheduledStep step = new ScheduledStep(
+                new AgentStep[] {commands, inputs}, new int[] {1, 1}, new int[] {0, 3});
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            step.doWork();
+        }
+
+        //then
+        assertEquals(8, commands.invocations, "commands.invocations");
+        assertEquals(2, inputs.invocations, "inputs.invocations");
+    }
+
+    @Test
+    public void strictlyYieldingStepIsNeverForced() {
+        //given
+        final CountingStep events = new CountingStep(10);
+        final CountingStep commands = new CountingStep(100);
+        final CountingStep inputs = new CountingStep(100);
+        final ScheduledStep step = new ScheduledStep(
+                new AgentStep[] {events, commands, inputs}, new int[] {1, 1, 1}, new int[] {0, 0, 1},
+                new int[] {0b000, 0b001, 0b011}, new int[] {0b000, 0b000, 0b001});
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            step.doWork();
+        }
+
+        //then
+        assertEquals(10, events.invocations, "events.invocations");
+        assertEquals(10, commands.invocations, "commands.invocations");
+        assertEquals(0, inputs.invocations, "inputs.invocations");
+
+        //when
+        for (int i = 0; i < 4; i++) {
+            step.doWork();
+        }
+
+        //then
+        assertEquals(14, commands.invocations, "commands.invocations");
+        assertEquals(2, inputs.invocations, "inputs.invocations");
+    }
+
+    @Test
+    public void defaultScheduleInvokesStepsLikeAllInOneAgent() {
+        //given: work per invocation (rows) and step (columns, in step ordinal order)
+        final int[][] work = {
+                {1, 1, 0, 0, 1, 0},
+                {0, 1, 1, 0, 0, 1},
+                {0, 0, 0, 1, 1, 1},
+                {1, 0, 1, 1, 0, 0},
+                {0, 0, 0, 0, 0, 0}
+        };
+        final List<String> expected = new ArrayList<>();
+        final List<String> actual = new ArrayList<>();
+        final Map<DutyCycleStep, ScriptedStep> expectedSteps = scriptedSteps(work, expected);
+        final Map<DutyCycleStep, ScriptedStep> actualSteps = scriptedSteps(work, actual);
+        final AllInOneAgent agent = new AllInOneAgent(
+                expectedSteps.get(DutyCycleStep.SEQUENCER),
+                expectedSteps.get(DutyCycleStep.COMMAND),
+                expectedSteps.get(DutyCycleStep.EVENT),
+                expectedSteps.get(DutyCycleStep.PUBLISHER),
+                expectedSteps.get(DutyCycleStep.EXTRA_WHEN_EVENTS_APPLIED),
+                expectedSteps.get(DutyCycleStep.EXTRA_ALWAYS));
+        final ScheduledStep step = DutyCycleSchedule.defaultSchedule().createStep(actualSteps::get);
+
+        for (int cycle = 0; cycle < work.length; cycle++) {
+            //when
+            final int expectedWork = agent.doWork();
+            final int actualWork = step.doWork();
+
+            //then
+            assertEquals(expectedWork, actualWork, "work in cycle " + cycle);
+            assertEquals(expected, actual, "invoked steps in cycle " + cycle);
+            expected.clear();
+            actual.clear();
+        }
+    }
+
+    @Test
+    public void sequencerMustYieldToEvents() {
+        //given
+        final DutyCycleSchedule schedule = DutyCycleSchedule.create()
+                .step(DutyCycleStep.EVENT, 1)
+                .step(DutyCycleStep.COMMAND, 1)
+                .yieldingStep(DutyCycleStep.SEQUENCER, 1, 8, DutyCycleStep.COMMAND)
+                .step(DutyCycleStep.PUBLISHER, 1)
+                .step(DutyCycleStep.EXTRA_WHEN_EVENTS_APPLIED, 1)
+                .step(DutyCycleStep.EXTRA_ALWAYS, 1);
+
+        //when + then
+        assertThrows(IllegalArgumentException.class, schedule::validate);
+        assertThrows(IllegalArgumentException.class, () -> DutyCycleSchedule.create()
+                .step(DutyCycleStep.COMMAND, 1)
+                .yieldingStep(DutyCycleStep.SEQUENCER, 1, 8, DutyCycleStep.EVENT));
+    }
+
+    @Test
+    public void invalidBudget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScheduledStep(new AgentStep[] {AgentStep.NOOP}, new int[] {0}, new int[] {0}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScheduledStep(new AgentStep[] {AgentStep.NOOP}, new int[] {1}, new int[0]));
+    }
+
+    private static Map<DutyCycleStep, ScriptedStep> scriptedSteps(final int[][] work, final List<String> invoked) {
+        final Map<DutyCycleStep, ScriptedStep> steps = new EnumMap<>(DutyCycleStep.class);
+        for (final DutyCycleStep step : DutyCycleStep.values()) {
+            final int[] stepWork = new int[work.length];
+            for (int invocation = 0; invocation < work.length; invocation++) {
+                stepWork[invocation] = work[invocation][step.ordinal()];
+            }
+            steps.put(step, new ScriptedStep(step.name(), stepWork, invoked));
+        }
+        return steps;
+    }
+
+    private static final class ScriptedStep implements AgentStep {
+        final String name;
+        final int[] work;
+        final List<String> invoked;
+        int invocations;
+
+        ScriptedStep(final String name, final int[] work, final List<String> invoked) {
+            this.name = name;
+            this.work = work;
+            this.invoked = invoked;
+        }
+
+        @Override
+        public int doWork() {
+            invoked.add(name);
+            return invocations < work.length ? work[invocations++] : 0;
+        }
+    }
+
+    private static final class CountingStep implements AgentStep {
+        int remaining;
+        int invocations;
+
+        CountingStep(final int work) {
+            this.remaining = work;
+        }
+
+        @Override
+        public int doWork() {
+            invocations++;
+            if (remaining == 0) {
+                return 0;
+            }
+            remaining--;
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.store.MessageStore.Appender;
+import org.tools4j.elara.store.MessageStore.AppendingContext;
+import org.tools4j.elara.store.MessageStore.Poller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
+
+/**
+ * Unit test for {@link CachingMessageStore}
+ */
+class CachingMessageStoreTest {
+
+    private static final int MESSAGE_LENGTH = 16;
+    private static final int CAPACITY = 16 * MESSAGE_LENGTH;
+
+    @Test
+    void pollerFallsThroughToStoreAndSwitchesToCache() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        append(store.appender(), 0, 10);
+        final CachingMessageStore cachingStore = new CachingMessageStore(store, CAPACITY);
+        append(cachingStore.appender(), 10, 50);
+        final List<Long> polled = new ArrayList<>();
+
+        //when
+        final Poller poller = cachingStore.poller();
+        while (poller.poll(message -> {
+            polled.add(message.getLong(0));
+            assertEquals(message.getLong(0), poller.entryId(), "entryId");
+            return POLL;
+        }) > 0);
+
+        //then
+        assertEquals(16, cachingStore.cachedMessages(), "cachedMessages");
+        assertEquals(50, polled.size(), "polled.size");
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, polled.get(i), "polled[" + i + "]");
+        }
+        assertEquals(34, cachingStore.missCount(), "missCount");
+        assertEquals(16, cachingStore.hitCount(), "hitCount");
+        assertEquals(50, poller.entryId(), "entryId at end");
+    }
+
+    @Test
+    void entryIdDoesNotRefreshCache() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        final CachingMessageStore cachingStore = new CachingMessageStore(store, CAPACITY);
+        append(cachingStore.appender(), 0, 10);
+        final Poller poller = cachingStore.poller();
+        while (poller.poll(message -> POLL) > 0);
+        append(store.appender(), 10, 15);
+
+        //when
+        final long entryId = poller.entryId();
+
+        //then
+        assertEquals(10, entryId, "entryId");
+        assertEquals(10, cachingStore.cachedMessages(), "cachedMessages");
+
+        //when
+        final List<Long> polled = new ArrayList<>();
+        while (poller.poll(message -> {
+            polled.add(message.getLong(0));
+            return POLL;
+        }) > 0);
+
+        //then
+        assertEquals(15, cachingStore.cachedMessages(), "cachedMessages after poll");
+        assertEquals(5, polled.size(), "polled.size");
+        assertEquals(10, polled.get(0), "polled[0]");
+        assertEquals(15, cachingStore.hitCount(), "hitCount");
+    }
+
+    @Test
+    void tailingPollerReadsFromCache() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        final CachingMessageStore cachingStore = new CachingMessageStore(store, CAPACITY);
+        final Poller poller = cachingStore.poller().moveToEnd();
+        final Appender appender = cachingStore.appender();
+        final List<Long> polled = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            try (final AppendingContext context = appender.appending()) {
+                context.buffer().putLong(0, i);
+                context.buffer().putLong(8, -i);
+                context.commit(MESSAGE_LENGTH);
+            }
+            if (i % 3 == 0) {
+                while (poller.poll(message -> {
+                    polled.add(message.getLong(0));
+                    return POLL;
+                }) > 0);
+            }
+        }
+        while (poller.poll(message -> {
+            polled.add(message.getLong(0));
+            return POLL;
+        }) > 0);
+
+        //then
+        assertEquals(100, polled.size(), "polled.size");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, polled.get(i), "polled[" + i + "]");
+        }
+        assertEquals(100, cachingStore.hitCount(), "hitCount");
+        assertEquals(0, cachingStore.missCount(), "missCount");
+    }
+
+    @Test
+    void moveAcrossCacheBoundary() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        final CachingMessageStore cachingStore = new CachingMessageStore(store, CAPACITY);
+        append(cachingStore.appender(), 0, 30);
+        final Poller poller = cachingStore.poller();
+        final long[] polled = {-1};
+
+        //when + then
+        assertTrue(poller.moveTo(20), "moveTo(20)");
+        assertEquals(20, poller.entryId(), "entryId");
+        assertEquals(1, poller.poll(message -> {
+            polled[0] = message.getLong(0);
+            return POLL;
+        }), "poll");
+        assertEquals(20, polled[0], "polled");
+        assertEquals(1, cachingStore.hitCount(), "hitCount");
+
+        assertTrue(poller.moveTo(14), "moveTo(14)");
+        assertTrue(poller.moveToPrevious(), "moveToPrevious");
+        assertEquals(13, poller.entryId(), "entryId");
+        assertEquals(1, poller.poll(message -> {
+            polled[0] = message.getLong(0);
+            return POLL;
+        }), "poll");
+        assertEquals(13, polled[0], "polled");
+        assertEquals(1, cachingStore.missCount(), "missCount");
+
+        assertFalse(poller.moveTo(30), "moveTo(30)");
+        assertEquals(14, poller.entryId(), "entryId");
+        assertTrue(poller.moveTo(29), "moveTo(29)");
+        assertTrue(poller.moveToNext(), "moveToNext");
+        assertEquals(30, poller.entryId(), "entryId");
+        assertEquals(0, poller.poll(message -> POLL), "poll at end");
+    }
+
+    @Test
+    void oversizedMessagesAreReadFromStore() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        final CachingMessageStore cachingStore = new CachingMessageStore(store, CAPACITY);
+        final Poller poller = cachingStore.poller().moveToEnd();
+        final MutableDirectBuffer large = new UnsafeBuffer(new byte[2 * CAPACITY]);
+        final List<Integer> lengths = new ArrayList<>();
+
+        //when
+        append(cachingStore.appender(), 0, 2);
+        large.putLong(0, 2);
+        cachingStore.appender().append(large, 0, large.capacity());
+        append(cachingStore.appender(), 3, 5);
+        while (poller.poll(message -> {
+            lengths.add(message.capacity());
+            assertEquals(lengths.size() - 1, message.getLong(0), "message");
+            return POLL;
+        }) > 0);
+
+        //then
+        assertEquals(5, lengths.size(), "lengths.size");
+        assertEquals(2 * CAPACITY, lengths.get(2), "lengths[2]");
+        assertEquals(4, cachingStore.hitCount(), "hitCount");
+        assertEquals(1, cachingStore.missCount(), "missCount");
+    }
+
+    private static void append(final Appender appender, final int from, final int to) {
+        final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_LENGTH]);
+        for (int i = from; i < to; i++) {
+            buffer.putLong(0, i);
+            buffer.putLong(8, -i);
+            appender.append(buffer, 0, MESSAGE_LENGTH);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.store.MessageStore.AppendingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link GroupCommitAppender}
+ */
+class GroupCommitAppenderTest {
+
+    private static final int MESSAGE_LENGTH = 16;
+
+    private final MutableDirectBuffer message = new UnsafeBuffer(new byte[MESSAGE_LENGTH]);
+    private final InMemoryStore store = new InMemoryStore();
+    private final List<Long> acknowledged = new ArrayList<>();
+    private int syncs;
+    private long time;
+
+    private GroupCommitAppender appender(final GroupCommitPolicy policy) {
+        return new GroupCommitAppender(store.appender(), () -> syncs++, policy,
+                (token, durablePosition) -> acknowledged.add(token), () -> time);
+    }
+
+    @Test
+    void syncsWhenMaxMessagesOrMaxBytesReached() {
+        //given
+        final GroupCommitAppender messageLimited = appender(new GroupCommitPolicy(10, Integer.MAX_VALUE, 1000));
+
+        //when
+        for (int i = 0; i < 25; i++) {
+            messageLimited.append(message, 0, MESSAGE_LENGTH);
+        }
+
+        //then
+        assertEquals(2, syncs, "syncs");
+        assertEquals(25, messageLimited.appendPosition(), "appendPosition");
+        assertEquals(20, messageLimited.durablePosition(), "durablePosition");
+        assertEquals(5, messageLimited.pendingMessages(), "pendingMessages");
+
+        //given
+        syncs = 0;
+        final GroupCommitAppender byteLimited = appender(new GroupCommitPolicy(100, 4 * MESSAGE_LENGTH, 1000));
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            try (final AppendingContext context = byteLimited.appending()) {
+                context.buffer().putLong(0, i);
+                context.commit(MESSAGE_LENGTH);
+            }
+        }
+
+        //then
+        assertEquals(2, syncs, "syncs");
+        assertEquals(8, byteLimited.durablePosition(), "durablePosition");
+        final MessageStore.Poller poller = store.poller();
+        int count = 0;
+        while (poller.poll(msg -> MessageStore.Handler.Result.POLL) > 0) {
+            count++;
+        }
+        assertEquals(35, count, "messages in store");
+    }
+
+    @Test
+    void syncsAfterMaxDelayAndAcknowledgesTokens() {
+        //given
+        final GroupCommitAppender appender = appender(new GroupCommitPolicy(100, Integer.MAX_VALUE, 50));
+
+        //when
+        appender.acknowledgeWhenDurable(0);
+
+        //then
+        assertEquals(1, acknowledged.size(), "acknowledged immediately if nothing pending");
+
+        //when
+        time = 1_000;
+        appender.append(message, 0, MESSAGE_LENGTH);
+        appender.acknowledgeWhenDurable(1);
+        time = 20_000;
+        appender.append(message, 0, MESSAGE_LENGTH);
+        appender.acknowledgeWhenDurable(2);
+        time = 50_999;
+
+        //then
+        assertEquals(0, appender.doWork(), "doWork before max delay");
+        assertEquals(1, acknowledged.size(), "acknowledged before max delay");
+
+        //when
+        time = 51_000;
+
+        //then
+        assertEquals(2, appender.doWork(), "doWork after max delay");
+        assertEquals(1, syncs, "syncs");
+        assertEquals(3, acknowledged.size(), "acknowledged after max delay");
+        assertEquals(1, acknowledged.get(1), "acknowledged[1]");
+        assertEquals(2, acknowledged.get(2), "acknowledged[2]");
+        assertEquals(0, appender.doWork(), "doWork without pending messages");
+    }
+
+    @Test
+    void flushesOnClose() {
+        //given
+        final GroupCommitAppender appender = appender(new GroupCommitPolicy(100, Integer.MAX_VALUE, 1000));
+        appender.append(message, 0, MESSAGE_LENGTH);
+        appender.acknowledgeWhenDurable(7);
+
+        //when
+        appender.close();
+
+        //then
+        assertEquals(1, syncs, "syncs");
+        assertEquals(1, acknowledged.size(), "acknowledged");
+        assertEquals(7, acknowledged.get(0), "acknowledged[0]");
+    }
+
+    @Test
+    void invalidPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitPolicy(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitPolicy(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitPolicy(1, 1, -1));
+    }
+}
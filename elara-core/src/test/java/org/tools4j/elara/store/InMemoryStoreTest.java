@@ -28,6 +28,8 @@ import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.jupiter.api.Test;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
 import org.tools4j.elara.store.MessageStore.Appender;
 import org.tools4j.elara.store.MessageStore.AppendingContext;
 import org.tools4j.elara.store.MessageStore.Handler;
@@ -37,7 +39,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.PEEK;
 import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
 
 /**
@@ -92,6 +97,36 @@ class InMemoryStoreTest {
         poll(messageStore.poller());
     }
 
+    @Test
+    public void moveToTime() {
+        //given
+        final InMemoryStore messageStore = keepOnPollStore(false);
+        final long[] eventTimes = {10, 20, 20, 20, 30, 45, 50};
+        final MutableDirectBuffer event = new ExpandableArrayBuffer();
+        for (int i = 0; i < eventTimes.length; i++) {
+            final int length = FlyweightEvent.writeHeader(EventType.APP_COMMIT, 1, i, (short)0, i, eventTimes[i],
+                    0, 0, event, 0);
+            messageStore.appender().append(event, 0, length);
+        }
+        final Poller poller = messageStore.poller();
+        final long[] peeked = {-1};
+        final Handler peek = message -> {
+            peeked[0] = FlyweightEvent.eventSequence(message);
+            return PEEK;
+        };
+
+        //when + then
+        final long[] times = {0, 10, 11, 20, 21, 30, 40, 45, 50};
+        final long[] sequences = {0, 0, 1, 1, 4, 4, 5, 5, 6};
+        for (int i = 0; i < times.length; i++) {
+            assertTrue(poller.moveToTime(times[i]), "poller.moveToTime(" + times[i] + ")");
+            poller.poll(peek);
+            assertEquals(sequences[i], peeked[0], "sequence at poller.moveToTime(" + times[i] + ")");
+        }
+        assertFalse(poller.moveToTime(51), "poller.moveToTime(51)");
+        assertEquals(0, poller.poll(peek), "poller.poll after moveToTime(51)");
+    }
+
     private DirectBuffer[] append(final InMemoryStore messageStore) {
         //given
         final DirectBuffer[] messages = new DirectBuffer[]{
@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.index;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.exception.ExceptionHandler;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Appender;
+import org.tools4j.elara.store.MessageStore.Handler.Result;
+import org.tools4j.elara.store.MessageStore.Poller;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.store.index.EventStoreIndex.NIL_ENTRY_ID;
+
+/**
+ * Unit test for {@link EventStoreIndex} and {@link EventStoreIndexer}.
+ */
+class EventStoreIndexTest {
+
+    private static final int CAPACITY = 64;
+    private static final int COMMAND_COUNT = 10;
+    private static final int EVENTS_PER_COMMAND = 3;
+
+    @Test
+    void indexEventsAndResume() {
+        //given
+        final File directory = new File("build/index/event-store-index");
+        final InMemoryStore eventStore = new InMemoryStore();
+        final EventStoreIndex index = EventStoreIndex.create(directory, CAPACITY);
+        final EventStoreIndexer indexer = new EventStoreIndexer(eventStore, index);
+
+        //when
+        appendEvents(eventStore, 0, COMMAND_COUNT / 2);
+        while (indexer.doWork() > 0);
+
+        //then
+        assertEquals(COMMAND_COUNT / 2 * EVENTS_PER_COMMAND, index.size(), "index.size");
+        assertEquals(NIL_ENTRY_ID, index.entryIdBySource(7, COMMAND_COUNT / 2), "entryIdBySource");
+
+        //when
+        index.close();
+        appendEvents(eventStore, COMMAND_COUNT / 2, COMMAND_COUNT);
+        final EventStoreIndex reopened = EventStoreIndex.openOrCreate(directory, CAPACITY);
+        final EventStoreIndexer resumed = new EventStoreIndexer(eventStore, reopened);
+        while (resumed.doWork() > 0);
+
+        //then
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND, reopened.size(), "reopened.size");
+        assertIndexed(eventStore, reopened);
+
+        reopened.close();
+    }
+
+    @Test
+    void rebuildAndQueryFromOtherIndexInstance() {
+        //given
+        final File directory = new File("build/index/event-store-index-rebuild");
+        final InMemoryStore eventStore = new InMemoryStore();
+        appendEvents(eventStore, 0, COMMAND_COUNT);
+        final EventStoreIndex index = EventStoreIndex.create(directory, CAPACITY);
+
+        //when
+        final int polled = new EventStoreIndexer(eventStore, index).rebuild();
+        final EventStoreIndex reader = EventStoreIndex.open(directory);
+
+        //then
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND, polled, "polled");
+        assertIndexed(eventStore, reader);
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND - 1, reader.lastIndexedEntryId(), "lastIndexedEntryId");
+
+        reader.close();
+        index.close();
+    }
+
+    @Test
+    void indexIsResizedWhenCapacityIsExceeded() {
+        //given
+        final File directory = new File("build/index/event-store-index-resize");
+        final InMemoryStore eventStore = new InMemoryStore();
+        appendEvents(eventStore, 0, COMMAND_COUNT);
+        final EventStoreIndex index = EventStoreIndex.create(directory, 4);
+        final EventStoreIndex reader = EventStoreIndex.open(directory);
+
+        //when
+        final EventStoreIndexer indexer = new EventStoreIndexer(eventStore, index);
+        final int polled = indexer.rebuild();
+
+        //then
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND, polled, "polled");
+        assertFalse(indexer.isFull(), "indexer.isFull");
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND, index.size(), "index.size");
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND, reader.size(), "reader.size");
+        assertIndexed(eventStore, index);
+        assertIndexed(eventStore, reader);
+        assertEquals(COMMAND_COUNT * EVENTS_PER_COMMAND - 1, reader.lastIndexedEntryId(), "lastIndexedEntryId");
+
+        reader.close();
+        index.close();
+    }
+
+    @Test
+    void fullIndexIsReportedAndStopsIndexing() {
+        //given
+        final File directory = new File("build/index/event-store-index-full");
+        final InMemoryStore eventStore = new InMemoryStore();
+        appendEvents(eventStore, 0, COMMAND_COUNT);
+        final EventStoreIndex index = EventStoreIndex.create(directory, 8, 16);
+        final List<Object> reported = new ArrayList<>();
+        final ExceptionHandler exceptionHandler = (message, context, t) -> reported.add(t);
+        final EventStoreIndexer indexer = new EventStoreIndexer(eventStore.poller(), index,
+                EventStoreIndexer.DEFAULT_MAX_EVENTS_PER_STEP, exceptionHandler);
+
+        //when
+        final int polled = indexer.rebuild();
+
+        //then
+        assertEquals(12, polled, "polled");
+        assertEquals(12, index.size(), "index.size");
+        assertTrue(index.isFull(), "index.isFull");
+        assertTrue(indexer.isFull(), "indexer.isFull");
+        assertEquals(1, reported.size(), "reported.size");
+        assertTrue(reported.get(0) instanceof IllegalStateException, "reported IllegalStateException");
+        assertEquals(11, index.entryIdByEventSequence(11), "entryIdByEventSequence(11)");
+        assertEquals(NIL_ENTRY_ID, index.entryIdByEventSequence(12), "entryIdByEventSequence(12)");
+
+        //when
+        appendEvents(eventStore, COMMAND_COUNT, COMMAND_COUNT + 1);
+
+        //then
+        assertEquals(0, indexer.doWork(), "doWork");
+        assertEquals(1, reported.size(), "reported.size");
+        assertThrows(IllegalStateException.class, () -> index.index(0, eventAt(eventStore, 12)), "index when full");
+
+        index.close();
+    }
+
+    private static DirectBuffer eventAt(final InMemoryStore eventStore, final long entryId) {
+        final Poller poller = eventStore.poller();
+        final MutableDirectBuffer copy = new ExpandableArrayBuffer();
+        assertTrue(poller.moveTo(entryId), "moveTo(" + entryId + ")");
+        poller.poll(event -> {
+            copy.putBytes(0, event, 0, event.capacity());
+            return Result.POLL;
+        });
+        return copy;
+    }
+
+    private static void assertIndexed(final InMemoryStore eventStore, final EventStoreIndex index) {
+        final Poller poller = eventStore.poller();
+        final long[] peeked = new long[3];
+        for (int command = 0; command < COMMAND_COUNT; command++) {
+            assertEquals((long)command * EVENTS_PER_COMMAND, index.entryIdBySource(7, command),
+                    "entryIdBySource(7, " + command + ")");
+            assertTrue(index.moveToSource(poller, 7, command), "moveToSource(7, " + command + ")");
+            poller.poll(event -> {
+                peeked[0] = FlyweightEvent.sourceId(event);
+                peeked[1] = FlyweightEvent.sourceSequence(event);
+                peeked[2] = FlyweightEvent.eventSequence(event);
+                return Result.PEEK;
+            });
+            assertEquals(7, peeked[0], "sourceId");
+            assertEquals(command, peeked[1], "sourceSequence");
+            assertEquals((long)command * EVENTS_PER_COMMAND, peeked[2], "eventSequence");
+        }
+        for (long eventSequence = 0; eventSequence < COMMAND_COUNT * EVENTS_PER_COMMAND; eventSequence++) {
+            assertEquals(eventSequence, index.entryIdByEventSequence(eventSequence),
+                    "entryIdByEventSequence(" + eventSequence + ")");
+        }
+        assertEquals(NIL_ENTRY_ID, index.entryIdByEventSequence(COMMAND_COUNT * EVENTS_PER_COMMAND),
+                "entryIdByEventSequence(" + COMMAND_COUNT * EVENTS_PER_COMMAND + ")");
+        assertFalse(index.moveToSource(poller, 8, 0), "moveToSource(8, 0)");
+    }
+
+    private static void appendEvents(final InMemoryStore eventStore, final int fromCommand, final int toCommand) {
+        final Appender appender = eventStore.appender();
+        final MutableDirectBuffer event = new ExpandableArrayBuffer();
+        for (int command = fromCommand; command < toCommand; command++) {
+            for (int i = 0; i < EVENTS_PER_COMMAND; i++) {
+                final EventType type = i + 1 < EVENTS_PER_COMMAND ? EventType.INTERMEDIARY : EventType.APP_COMMIT;
+                final int length = FlyweightEvent.writeHeader(type, 7, command, (short)i,
+                        (long)command * EVENTS_PER_COMMAND + i, command, 0, 0, event, 0);
+                appender.append(event, 0, length);
+            }
+        }
+    }
+}
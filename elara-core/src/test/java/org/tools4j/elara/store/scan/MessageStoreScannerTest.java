@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.store.scan;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.flyweight.EventType;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.flyweight.FlyweightEvent;
+import org.tools4j.elara.flyweight.FlyweightHeader;
+import org.tools4j.elara.flyweight.FrameType;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Appender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link MessageStoreScanner} and {@link FrameFilter}.
+ */
+class MessageStoreScannerTest {
+
+    private static final int COMMAND_COUNT = 1000;
+    private static final int SOURCE_COUNT = 5;
+
+    @Test
+    void parallelScanReturnsFilteredMessagesInOrder() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        appendCommandsAndEvents(store);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final MessageStoreScanner scanner = new MessageStoreScanner(store, pool);
+        final ScanFilter filter = FrameFilter.frames().events().sourceId(3).timeRange(100, 600);
+        final List<Long> entryIds = new ArrayList<>();
+        final List<Long> sourceSequences = new ArrayList<>();
+
+        //when
+        final long count = scanner.scan(ScanRange.split(0, store.size(), 7), filter, (entryId, message) -> {
+            assertEquals(3, FlyweightEvent.sourceId(message), "sourceId");
+            entryIds.add(entryId);
+            sourceSequences.add(FlyweightEvent.sourceSequence(message));
+        });
+
+        //then
+        final List<Long> expected = new ArrayList<>();
+        for (long i = 100; i < 600; i++) {
+            if (i % SOURCE_COUNT == 3) {
+                expected.add(i);
+            }
+        }
+        assertEquals(expected.size(), count, "count");
+        assertEquals(expected, sourceSequences, "sourceSequences");
+        for (int i = 1; i < entryIds.size(); i++) {
+            assertTrue(entryIds.get(i - 1) < entryIds.get(i), "entry IDs in order");
+        }
+
+        pool.shutdown();
+    }
+
+    @Test
+    void smallBatchesAndLimitedRangesInFlightReturnAllMessagesInOrder() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        appendCommandsAndEvents(store);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final AtomicInteger maxScanning = new AtomicInteger();
+        final AtomicInteger scanning = new AtomicInteger();
+        final ScanFilter filter = message -> {
+            maxScanning.accumulateAndGet(scanning.incrementAndGet(), Math::max);
+            final boolean event = FrameType.isEventType(FlyweightHeader.type(message));
+            scanning.decrementAndGet();
+            return event;
+        };
+        final MessageStoreScanner scanner = new MessageStoreScanner(store, pool, 64, 2);
+        final List<Long> eventSequences = new ArrayList<>();
+
+        //when
+        final long count = scanner.scan(ScanRange.split(0, store.size(), 9), filter,
+                (entryId, message) -> eventSequences.add(FlyweightEvent.eventSequence(message)));
+
+        //then
+        assertEquals(COMMAND_COUNT, count, "count");
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            assertEquals(i, eventSequences.get(i), "eventSequences[" + i + "]");
+        }
+        assertTrue(maxScanning.get() <= 2, "max ranges scanned concurrently <= 2 but was " + maxScanning.get());
+
+        pool.shutdown();
+    }
+
+    @Test
+    void rangeNotFoundInStoreFailsScan() {
+        //given
+        final InMemoryStore store = new InMemoryStore();
+        appendCommandsAndEvents(store);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final MessageStoreScanner scanner = new MessageStoreScanner(store, pool);
+        final ScanRange[] ranges = {new ScanRange(0, 10), new ScanRange(store.size() + 10, store.size() + 20)};
+
+        //when + then
+        assertThrows(IllegalStateException.class, () -> scanner.scan(ranges, message -> true, (entryId, message) -> {}));
+
+        pool.shutdown();
+    }
+
+    @Test
+    void frameFilterChecksHeaderFields() {
+        //given
+        final MutableDirectBuffer frame = new ExpandableArrayBuffer();
+        FlyweightEvent.writeHeader(EventType.APP_COMMIT, 7, 42, (short)0, 1234, 5000, 99, 0, frame, 0);
+
+        //when + then
+        assertTrue(FrameFilter.frames().test(frame), "no condition");
+        assertTrue(FrameFilter.frames().events().sourceId(7).payloadType(99).test(frame), "event source payload");
+        assertFalse(FrameFilter.frames().commands().test(frame), "commands");
+        assertFalse(FrameFilter.frames().sourceId(8).test(frame), "sourceId 8");
+        assertFalse(FrameFilter.frames().payloadType(98).test(frame), "payloadType 98");
+        assertTrue(FrameFilter.frames().sourceSequenceRange(42, 43).test(frame), "sourceSequence [42,43)");
+        assertFalse(FrameFilter.frames().sourceSequenceRange(40, 42).test(frame), "sourceSequence [40,42)");
+        assertTrue(FrameFilter.frames().eventSequenceRange(1000, 2000).test(frame), "eventSequence [1000,2000)");
+        assertFalse(FrameFilter.frames().eventSequenceRange(0, 1000).test(frame), "eventSequence [0,1000)");
+        assertTrue(FrameFilter.frames().timeRange(5000, 5001).test(frame), "time [5000,5001)");
+        assertFalse(FrameFilter.frames().timeRange(4000, 5000).test(frame), "time [4000,5000)");
+        assertTrue(FrameFilter.frames().frameTypes(FrameType.COMMIT_EVENT_TYPE).and(
+                FrameFilter.frames().sourceId(7)).test(frame), "commit and sourceId 7");
+    }
+
+    private static void appendCommandsAndEvents(final InMemoryStore store) {
+        final Appender appender = store.appender();
+        final MutableDirectBuffer frame = new ExpandableArrayBuffer();
+        long eventSequence = 0;
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            final int sourceId = i % SOURCE_COUNT;
+            int length = FlyweightCommand.writeHeader(sourceId, i, i, 0, 0, frame, 0);
+            appender.append(frame, 0, length);
+            length = FlyweightEvent.writeHeader(EventType.APP_COMMIT, sourceId, i, (short)0, eventSequence++, i,
+                    0, 0, frame, 0);
+            appender.append(frame, 0, length);
+        }
+    }
+}
@@ -31,6 +31,8 @@ import org.apache.kafka.common.serialization.Deserializer;
 import org.tools4j.elara.stream.MessageReceiver;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -74,9 +76,29 @@ public class KafkaReceiver implements MessageReceiver {
         return recordReceiver.consumerRecord;
     }
 
+    /**
+     * Passes all records returned by a single poll of the Kafka consumer to the handler, or the remaining records if
+     * a previous invocation of {@link #poll(Handler, int)} has not delivered all records yet.
+     *
+     * @param handler the message handler called back with messages if any are available
+     * @return the number of messages that were passed to the handler
+     */
     @Override
     public int poll(final Handler handler) {
-        return recordReceiver.poll(handler);
+        return recordReceiver.poll(handler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Passes at most {@code limit} records to the handler;  records returned by the Kafka consumer that exceed the
+     * limit are retained and passed to the handler when polling next time.
+     *
+     * @param handler the message handler called back with messages if any are available
+     * @param limit   the maximum number of messages to pass to the handler
+     * @return the number of messages that were passed to the handler
+     */
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        return recordReceiver.poll(handler, limit);
     }
 
     @Override
@@ -97,10 +119,11 @@ public class KafkaReceiver implements MessageReceiver {
         return "KafkaReceiver";
     }
 
-    private static class RecordReceiver<K, V> implements java.util.function.Consumer<ConsumerRecord<K, V>> {
+    private static class RecordReceiver<K, V> {
         Consumer<K, V> consumer;
         Handler handler;
         ConsumerRecord<K, V> consumerRecord;
+        Iterator<ConsumerRecord<K, V>> pending = Collections.emptyIterator();
         final Function<? super ConsumerRecord<K, V>, ? extends DirectBuffer> recordTranslator;
         final Duration pollDuration;
 
@@ -112,8 +135,7 @@ public class KafkaReceiver implements MessageReceiver {
             this.pollDuration = requireNonNull(pollDuration);
         }
 
-        @Override
-        public void accept(final ConsumerRecord<K, V> record) {
+        void accept(final ConsumerRecord<K, V> record) {
             consumerRecord = record;
             try {
                 handler.onMessage(recordTranslator.apply(record));
@@ -122,16 +144,26 @@ public class KafkaReceiver implements MessageReceiver {
             }
         }
 
-        int poll(final Handler handler) {
+        int poll(final Handler handler, final int limit) {
             if (this.handler != handler) {
                 this.handler = requireNonNull(handler);
             }
-            if (consumer != null) {
+            if (consumer == null || limit <= 0) {
+                return 0;
+            }
+            if (!pending.hasNext()) {
                 final ConsumerRecords<K, V> records = consumer.poll(pollDuration);
-                records.forEach(this);
-                return records.count();
+                if (records.isEmpty()) {
+                    return 0;
+                }
+                pending = records.iterator();
+            }
+            int count = 0;
+            while (count < limit && pending.hasNext()) {
+                accept(pending.next());
+                count++;
             }
-            return 0;
+            return count;
         }
     }
 }
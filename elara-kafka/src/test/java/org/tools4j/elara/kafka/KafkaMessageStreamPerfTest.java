@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.kafka;
+
+import org.agrona.DirectBuffer;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.integration.utils.EmbeddedKafkaCluster;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.MessageStreamBenchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.agrona.SystemUtil.isWindows;
+import static org.agrona.SystemUtil.osName;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Latency and throughput benchmark for Kafka transport using an embedded single broker cluster;  the benchmark is
+ * skipped if the embedded cluster cannot be started.  Run with {@code gradle perfTest}.
+ */
+@Tag("perf")
+class KafkaMessageStreamPerfTest {
+
+    private static final int[] MESSAGE_BYTES = {32, 1024};
+    private static final int[] BURST_LENGTHS = {1, 100};
+    private static final int WARMUP_MESSAGES = 2_000;
+    private static final int MEASURED_MESSAGES = 20_000;
+    private static final long MAX_WAIT_MILLIS = 300_000;
+
+    private static EmbeddedKafkaCluster cluster;
+    private static int nextTopicId;
+
+    @BeforeAll
+    static void startKafkaCluster() {
+        assumeFalse(isWindows(), "Test is currently not supported on windows, os=" + osName());
+        try {
+            cluster = new EmbeddedKafkaCluster(1);
+            cluster.start();
+        } catch (final Exception e) {
+            cluster = null;
+            assumeTrue(false, "Embedded kafka cluster not available: " + e);
+        }
+    }
+
+    @AfterAll
+    static void stopKafkaCluster() {
+        if (cluster != null) {
+            try {
+                cluster.stop();
+            } catch (final Exception e) {
+                e.printStackTrace();
+            }
+            cluster = null;
+        }
+    }
+
+    static Arguments[] messageSizes() {
+        final List<Arguments> arguments = new ArrayList<>();
+        for (final int messageBytes : MESSAGE_BYTES) {
+            for (final int burstLength : BURST_LENGTHS) {
+                arguments.add(Arguments.of(messageBytes, burstLength));
+            }
+        }
+        return arguments.toArray(new Arguments[0]);
+    }
+
+    private static MessageStreamBenchmark benchmark(final int messageBytes, final int burstLength) {
+        return new MessageStreamBenchmark(messageBytes, burstLength,
+                WARMUP_MESSAGES / burstLength, MEASURED_MESSAGES / burstLength);
+    }
+
+    @ParameterizedTest(name = "oneWay: kafka [{0} bytes, burst={1}]")
+    @MethodSource("messageSizes")
+    void oneWay(final int messageBytes, final int burstLength) throws Exception {
+        final Kafka kafka = new Kafka(kafkaConfig());
+        final String topic = newTopic();
+        try (final MessageSender sender = kafka.sender(topic, keySerializer());
+             final MessageReceiver receiver = kafka.receiver(topic)) {
+            benchmark(messageBytes, burstLength)
+                    .oneWay("kafka", sender, receiver, MAX_WAIT_MILLIS)
+                    .print(System.out);
+        }
+    }
+
+    @ParameterizedTest(name = "pingPong: kafka [{0} bytes, burst={1}]")
+    @MethodSource("messageSizes")
+    void pingPong(final int messageBytes, final int burstLength) throws Exception {
+        final Kafka kafka = new Kafka(kafkaConfig());
+        final String pingTopic = newTopic();
+        final String pongTopic = newTopic();
+        try (final MessageSender pingSender = kafka.sender(pingTopic, keySerializer());
+             final MessageReceiver pingReceiver = kafka.receiver(pingTopic);
+             final MessageSender pongSender = kafka.sender(pongTopic, keySerializer());
+             final MessageReceiver pongReceiver = kafka.receiver(pongTopic)) {
+            benchmark(messageBytes, burstLength)
+                    .pingPong("kafka", pingSender, pingReceiver, pongSender, pongReceiver, MAX_WAIT_MILLIS)
+                    .print(System.out);
+        }
+    }
+
+    private static String newTopic() throws InterruptedException {
+        final String topic = "elara-stream-perf-" + nextTopicId++;
+        cluster.createTopic(topic);
+        return topic;
+    }
+
+    private static Serializer<DirectBuffer> keySerializer() {
+        final long[] key = {0};
+        return (topic, data) -> {
+            final long value = ++key[0];
+            final byte[] bytes = new byte[Long.BYTES];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte)(value >>> (8 * (bytes.length - 1 - i)));
+            }
+            return bytes;
+        };
+    }
+
+    private static Map<String, Object> kafkaConfig() {
+        final Map<String, Object> config = new LinkedHashMap<>();
+        config.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, cluster.bootstrapServers());
+        config.put(ProducerConfig.RETRIES_CONFIG, 0);
+        config.put(ProducerConfig.ACKS_CONFIG, "1");
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "kafka-message-stream-perf-test-consumer");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return config;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.kafka;
+
+import org.agrona.DirectBuffer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.stream.MessageReceiver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for {@link KafkaReceiver}
+ */
+class KafkaReceiverTest {
+
+    private static final String TOPIC = "elara-stream";
+
+    @Test
+    void pollWithLimitRetainsUndeliveredRecords() {
+        //given
+        final TopicPartition partition = new TopicPartition(TOPIC, 0);
+        final MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(singletonList(partition));
+        consumer.updateBeginningOffsets(singletonMap(partition, 0L));
+        for (int i = 0; i < 10; i++) {
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, i, null, ("msg-" + i).getBytes(US_ASCII)));
+        }
+        final MessageReceiver receiver = new KafkaReceiver(consumer);
+        final List<String> received = new ArrayList<>();
+        final MessageReceiver.Handler handler = message -> received.add(string(message));
+
+        //when + then
+        assertEquals(0, receiver.poll(handler, 0), "poll(0)");
+        assertEquals(3, receiver.poll(handler, 3), "poll(3)");
+        assertEquals(3, received.size(), "received.size");
+        assertEquals(4, receiver.poll(handler, 4), "poll(4)");
+        assertEquals(3, receiver.poll(handler, 100), "poll(100)");
+        assertEquals(0, receiver.poll(handler, 100), "poll(100)");
+        assertEquals(10, received.size(), "received.size");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("msg-" + i, received.get(i), "received[" + i + "]");
+        }
+
+        receiver.close();
+    }
+
+    private static String string(final DirectBuffer message) {
+        return message.getStringWithoutLengthAscii(0, message.capacity());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.sbe.MessageDecoderFlyweight;
+import org.tools4j.elara.app.handler.CommandProcessor;
+import org.tools4j.elara.command.Command;
+import org.tools4j.elara.command.PayloadTypeCommandProcessor;
+import org.tools4j.elara.route.EventRouter;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Command processor dispatching SBE encoded commands to typed handlers.  Handlers are registered together with the
+ * SBE decoder for the command, and commands are passed to the handler with the decoder already wrapped around the
+ * payload.  No objects are allocated when commands are processed.
+ * <p>
+ * Commands with a payload type that has no registered handler are passed to the default processor.
+ */
+public class SbeCommandProcessor implements CommandProcessor {
+
+    /**
+     * Handler for commands decoded with an SBE decoder.
+     *
+     * @param <D> the decoder type
+     */
+    @FunctionalInterface
+    public interface Handler<D extends MessageDecoderFlyweight> {
+        void onCommand(Command command, D decoder, EventRouter router);
+    }
+
+    private final SbePayloadTypes payloadTypes;
+    private final PayloadTypeCommandProcessor dispatcher;
+
+    public SbeCommandProcessor() {
+        this(SbePayloadTypes.TEMPLATE_ID, CommandProcessor.NOOP);
+    }
+
+    public SbeCommandProcessor(final SbePayloadTypes payloadTypes, final CommandProcessor defaultProcessor) {
+        this.payloadTypes = requireNonNull(payloadTypes);
+        this.dispatcher = new PayloadTypeCommandProcessor(defaultProcessor);
+    }
+
+    /**
+     * Registers a handler for commands with the payload type of the given decoder's template.
+     *
+     * @param decoder   the decoder for the command payload, used only by this processor
+     * @param handler   the handler invoked with command, wrapped decoder and event router
+     * @param <D>       the decoder type
+     * @return this processor
+     */
+    public <D extends MessageDecoderFlyweight> SbeCommandProcessor on(final D decoder, final Handler<? super D> handler) {
+        requireNonNull(decoder);
+        requireNonNull(handler);
+        dispatcher.register(payloadTypes.payloadType(decoder),
+                (command, router) -> handler.onCommand(command, SbeHeader.wrap(decoder, command.payload()), router));
+        return this;
+    }
+
+    @Override
+    public void onCommand(final Command command, final EventRouter router) {
+        dispatcher.onCommand(command, router);
+    }
+
+    @Override
+    public String toString() {
+        return "SbeCommandProcessor{dispatcher=" + dispatcher + '}';
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.sbe.MessageEncoderFlyweight;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.send.CommandSender.SendingContext;
+import org.tools4j.elara.stream.SendingResult;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sends commands encoded with an SBE encoder directly into the sending buffer of a {@link CommandSender}, without
+ * intermediate buffer or allocation:
+ * <pre>
+ *     depositSender.sending(commandSender)
+ *             .accountId(42)
+ *             .amount(100);
+ *     depositSender.send();
+ * </pre>
+ * The command payload starts with the {@link SbeHeader}, followed by the SBE message body.  The sender is not thread
+ * safe and is usually used with a dedicated encoder instance.
+ *
+ * @param <E> the encoder type
+ */
+public class SbeCommandSender<E extends MessageEncoderFlyweight> {
+
+    private final E encoder;
+    private final int payloadType;
+    private SendingContext context;
+
+    public SbeCommandSender(final E encoder) {
+        this(encoder, SbePayloadTypes.TEMPLATE_ID);
+    }
+
+    public SbeCommandSender(final E encoder, final SbePayloadTypes payloadTypes) {
+        this.encoder = requireNonNull(encoder);
+        this.payloadType = payloadTypes.payloadType(encoder);
+    }
+
+    public int payloadType() {
+        return payloadType;
+    }
+
+    /**
+     * Starts sending a command and returns the encoder wrapped around the sending buffer.  The command must be
+     * completed via {@link #send()} or {@link #abort()}.
+     *
+     * @param sender the command sender
+     * @return the encoder to encode the command
+     * @throws IllegalStateException if the previous command has not been sent or aborted
+     */
+    public E sending(final CommandSender sender) {
+        if (context != null) {
+            abort();
+            throw new IllegalStateException("Sending context not closed");
+        }
+        context = sender.sendingCommand(payloadType);
+        final MutableDirectBuffer buffer = context.buffer();
+        SbeHeader.write(encoder, buffer, 0);
+        encoder.wrap(buffer, SbeHeader.HEADER_LENGTH);
+        return encoder;
+    }
+
+    /**
+     * Sends the command encoded since the last invocation of {@link #sending(CommandSender)}.
+     *
+     * @return the sending result
+     * @throws IllegalStateException if no command is currently being encoded
+     */
+    public SendingResult send() {
+        final SendingContext ctxt = unclosedContext();
+        context = null;
+        return ctxt.send(SbeHeader.HEADER_LENGTH + encoder.encodedLength());
+    }
+
+    /**
+     * Aborts sending of the current command;  ignored if no command is currently being encoded.
+     */
+    public void abort() {
+        if (context != null) {
+            final SendingContext ctxt = context;
+            context = null;
+            ctxt.abort();
+        }
+    }
+
+    /** @return true if a command is currently being encoded */
+    public boolean isSending() {
+        return context != null;
+    }
+
+    private SendingContext unclosedContext() {
+        if (context == null) {
+            throw new IllegalStateException("Sending context closed");
+        }
+        return context;
+    }
+
+    @Override
+    public String toString() {
+        return "SbeCommandSender{" +
+                "encoder=" + encoder.getClass().getSimpleName() +
+                ", payloadType=" + payloadType +
+                '}';
+    }
+}
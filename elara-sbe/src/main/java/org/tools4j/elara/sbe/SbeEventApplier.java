@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.sbe.MessageDecoderFlyweight;
+import org.tools4j.elara.app.handler.EventApplier;
+import org.tools4j.elara.event.Event;
+import org.tools4j.elara.event.PayloadTypeEventApplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Event applier dispatching SBE encoded events to typed handlers.  Handlers are registered together with the SBE
+ * decoder for the event, and events are passed to the handler with the decoder already wrapped around the payload.
+ * No objects are allocated when events are applied.
+ * <p>
+ * Events with a payload type that has no registered handler are passed to the default applier.
+ */
+public class SbeEventApplier implements EventApplier {
+
+    /**
+     * Handler for events decoded with an SBE decoder.
+     *
+     * @param <D> the decoder type
+     */
+    @FunctionalInterface
+    public interface Handler<D extends MessageDecoderFlyweight> {
+        void onEvent(Event event, D decoder);
+    }
+
+    private final SbePayloadTypes payloadTypes;
+    private final PayloadTypeEventApplier dispatcher;
+
+    public SbeEventApplier() {
+        this(SbePayloadTypes.TEMPLATE_ID, EventApplier.NOOP);
+    }
+
+    public SbeEventApplier(final SbePayloadTypes payloadTypes, final EventApplier defaultApplier) {
+        this.payloadTypes = requireNonNull(payloadTypes);
+        this.dispatcher = new PayloadTypeEventApplier(defaultApplier);
+    }
+
+    /**
+     * Registers a handler for events with the payload type of the given decoder's template.
+     *
+     * @param decoder   the decoder for the event payload, used only by this applier
+     * @param handler   the handler invoked with event and wrapped decoder
+     * @param <D>       the decoder type
+     * @return this applier
+     */
+    public <D extends MessageDecoderFlyweight> SbeEventApplier on(final D decoder, final Handler<? super D> handler) {
+        requireNonNull(decoder);
+        requireNonNull(handler);
+        dispatcher.register(payloadTypes.payloadType(decoder),
+                event -> handler.onEvent(event, SbeHeader.wrap(decoder, event.payload())));
+        return this;
+    }
+
+    @Override
+    public void onEvent(final Event event) {
+        dispatcher.onEvent(event);
+    }
+
+    @Override
+    public String toString() {
+        return "SbeEventApplier{dispatcher=" + dispatcher + '}';
+    }
+}
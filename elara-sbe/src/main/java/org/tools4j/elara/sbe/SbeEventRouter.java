@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.sbe.MessageEncoderFlyweight;
+import org.tools4j.elara.route.EventRouter;
+import org.tools4j.elara.route.EventRouter.RoutingContext;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Routes events encoded with an SBE encoder directly into the routing buffer of an {@link EventRouter}, without
+ * intermediate buffer or allocation:
+ * <pre>
+ *     depositedRouter.routing(router)
+ *             .accountId(decoder.accountId())
+ *             .amount(decoder.amount());
+ *     depositedRouter.route();
+ * </pre>
+ * The event payload starts with the {@link SbeHeader}, followed by the SBE message body.  The router is not thread
+ * safe and is usually used with a dedicated encoder instance.
+ *
+ * @param <E> the encoder type
+ */
+public class SbeEventRouter<E extends MessageEncoderFlyweight> {
+
+    private final E encoder;
+    private final int payloadType;
+    private RoutingContext context;
+
+    public SbeEventRouter(final E encoder) {
+        this(encoder, SbePayloadTypes.TEMPLATE_ID);
+    }
+
+    public SbeEventRouter(final E encoder, final SbePayloadTypes payloadTypes) {
+        this.encoder = requireNonNull(encoder);
+        this.payloadType = payloadTypes.payloadType(encoder);
+    }
+
+    public int payloadType() {
+        return payloadType;
+    }
+
+    /**
+     * Starts routing an event and returns the encoder wrapped around the routing buffer.  The event must be completed
+     * via {@link #route()} or {@link #abort()}.
+     *
+     * @param router the event router
+     * @return the encoder to encode the event
+     * @throws IllegalStateException if the previous event has not been routed or aborted
+     */
+    public E routing(final EventRouter router) {
+        if (context != null) {
+            abort();
+            throw new IllegalStateException("Routing context not closed");
+        }
+        context = router.routingEvent(payloadType);
+        final MutableDirectBuffer buffer = context.buffer();
+        SbeHeader.write(encoder, buffer, 0);
+        encoder.wrap(buffer, SbeHeader.HEADER_LENGTH);
+        return encoder;
+    }
+
+    /**
+     * Routes the event encoded since the last invocation of {@link #routing(EventRouter)}.
+     *
+     * @throws IllegalStateException if no event is currently being encoded
+     */
+    public void route() {
+        final RoutingContext ctxt = unclosedContext();
+        context = null;
+        ctxt.route(SbeHeader.HEADER_LENGTH + encoder.encodedLength());
+    }
+
+    /**
+     * Aborts routing of the current event;  ignored if no event is currently being encoded.
+     */
+    public void abort() {
+        if (context != null) {
+            final RoutingContext ctxt = context;
+            context = null;
+            ctxt.abort();
+        }
+    }
+
+    /** @return true if an event is currently being encoded */
+    public boolean isRouting() {
+        return context != null;
+    }
+
+    private RoutingContext unclosedContext() {
+        if (context == null) {
+            throw new IllegalStateException("Routing context closed");
+        }
+        return context;
+    }
+
+    @Override
+    public String toString() {
+        return "SbeEventRouter{" +
+                "encoder=" + encoder.getClass().getSimpleName() +
+                ", payloadType=" + payloadType +
+                '}';
+    }
+}
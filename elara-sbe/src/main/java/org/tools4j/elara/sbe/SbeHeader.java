@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.sbe.MessageDecoderFlyweight;
+import org.agrona.sbe.MessageFlyweight;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout and helper methods for the SBE message header at the start of command and event payloads encoded with SBE.
+ * The header has the layout of the standard SBE message header, and it allows decoding of messages encoded with an
+ * older or newer schema version:
+ * <pre>
+
+    0         1         2         3         4         5         6
+    0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4 6 8 0 2 4
+    +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+    | Block Length  |  Template ID  |   Schema ID   |    Version    |
+    +-------+-------+-------+-------+-------+-------+-------+-------+
+    |                       SBE Message Body                        |
+    |                             ...                               |
+ * </pre>
+ * All header values are unsigned 16 bit integers in little endian byte order.
+ */
+public enum SbeHeader {
+    ;
+    public static final int BLOCK_LENGTH_OFFSET = 0;
+    public static final int BLOCK_LENGTH_LENGTH = Short.BYTES;
+    public static final int TEMPLATE_ID_OFFSET = BLOCK_LENGTH_OFFSET + BLOCK_LENGTH_LENGTH;
+    public static final int TEMPLATE_ID_LENGTH = Short.BYTES;
+    public static final int SCHEMA_ID_OFFSET = TEMPLATE_ID_OFFSET + TEMPLATE_ID_LENGTH;
+    public static final int SCHEMA_ID_LENGTH = Short.BYTES;
+    public static final int VERSION_OFFSET = SCHEMA_ID_OFFSET + SCHEMA_ID_LENGTH;
+    public static final int VERSION_LENGTH = Short.BYTES;
+    public static final int HEADER_LENGTH = VERSION_OFFSET + VERSION_LENGTH;
+
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static int write(final MessageFlyweight message, final MutableDirectBuffer buffer, final int offset) {
+        buffer.putShort(offset + BLOCK_LENGTH_OFFSET, (short)message.sbeBlockLength(), BYTE_ORDER);
+        buffer.putShort(offset + TEMPLATE_ID_OFFSET, (short)message.sbeTemplateId(), BYTE_ORDER);
+        buffer.putShort(offset + SCHEMA_ID_OFFSET, (short)message.sbeSchemaId(), BYTE_ORDER);
+        buffer.putShort(offset + VERSION_OFFSET, (short)message.sbeSchemaVersion(), BYTE_ORDER);
+        return HEADER_LENGTH;
+    }
+
+    public static int blockLength(final DirectBuffer buffer, final int offset) {
+        return buffer.getShort(offset + BLOCK_LENGTH_OFFSET, BYTE_ORDER) & 0xffff;
+    }
+
+    public static int templateId(final DirectBuffer buffer, final int offset) {
+        return buffer.getShort(offset + TEMPLATE_ID_OFFSET, BYTE_ORDER) & 0xffff;
+    }
+
+    public static int schemaId(final DirectBuffer buffer, final int offset) {
+        return buffer.getShort(offset + SCHEMA_ID_OFFSET, BYTE_ORDER) & 0xffff;
+    }
+
+    public static int version(final DirectBuffer buffer, final int offset) {
+        return buffer.getShort(offset + VERSION_OFFSET, BYTE_ORDER) & 0xffff;
+    }
+
+    /**
+     * Wraps the decoder around the SBE message in the given payload, using block length and version from the header.
+     *
+     * @param decoder   the decoder to wrap
+     * @param payload   the command or event payload starting with the SBE message header
+     * @param <D>       the decoder type
+     * @return the decoder wrapping the message body
+     * @throws IllegalArgumentException if the payload is too short or its header has a different template or schema
+     *                                  ID than the decoder
+     */
+    public static <D extends MessageDecoderFlyweight> D wrap(final D decoder, final DirectBuffer payload) {
+        if (payload.capacity() < HEADER_LENGTH) {
+            throw new IllegalArgumentException("Payload of length " + payload.capacity() +
+                    " is too short for SBE message header");
+        }
+        if (templateId(payload, 0) != decoder.sbeTemplateId() || schemaId(payload, 0) != decoder.sbeSchemaId()) {
+            throw new IllegalArgumentException("Payload with template ID " + templateId(payload, 0) +
+                    " and schema ID " + schemaId(payload, 0) + " cannot be decoded by " +
+                    decoder.getClass().getSimpleName() + " with template ID " + decoder.sbeTemplateId() +
+                    " and schema ID " + decoder.sbeSchemaId());
+        }
+        decoder.wrap(payload, HEADER_LENGTH, blockLength(payload, 0), version(payload, 0));
+        return decoder;
+    }
+}
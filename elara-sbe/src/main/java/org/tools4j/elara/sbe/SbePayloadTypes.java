@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.sbe.MessageFlyweight;
+import org.tools4j.elara.flyweight.PayloadType;
+
+/**
+ * Maps SBE schema and template IDs to elara command and event payload types.  Mapped payload types must be
+ * {@link PayloadType#isApplication(int) application} payload types.
+ */
+@FunctionalInterface
+public interface SbePayloadTypes {
+    /**
+     * Returns the payload type for the given SBE schema and template ID.
+     *
+     * @param schemaId      the SBE schema ID
+     * @param templateId    the SBE template ID
+     * @return the payload type for commands or events with the given SBE template
+     */
+    int payloadType(int schemaId, int templateId);
+
+    default int payloadType(final MessageFlyweight message) {
+        final int payloadType = payloadType(message.sbeSchemaId(), message.sbeTemplateId());
+        if (!PayloadType.isApplication(payloadType)) {
+            throw new IllegalArgumentException("Template " + message.sbeTemplateId() + " of schema " +
+                    message.sbeSchemaId() + " is mapped to non-application payload type " + payloadType);
+        }
+        return payloadType;
+    }
+
+    /** Payload type is equal to the SBE template ID */
+    SbePayloadTypes TEMPLATE_ID = (schemaId, templateId) -> templateId;
+
+    /**
+     * Returns a mapping with payload type equal to template ID plus the given base, for instance to combine message
+     * schemas with overlapping template IDs.
+     *
+     * @param base the base payload type added to template IDs, non-negative
+     * @return a mapping adding base to template IDs
+     */
+    static SbePayloadTypes templateIdPlus(final int base) {
+        if (base < 0) {
+            throw new IllegalArgumentException("Base payload type cannot be negative: " + base);
+        }
+        return (schemaId, templateId) -> base + templateId;
+    }
+}
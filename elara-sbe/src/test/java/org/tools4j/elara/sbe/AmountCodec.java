@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.sbe.MessageDecoderFlyweight;
+import org.agrona.sbe.MessageEncoderFlyweight;
+
+import java.nio.ByteOrder;
+
+/**
+ * Codec for test messages with account ID and amount, with the structure of codecs generated by the SBE tool for a
+ * message with two {@code int64} fields.
+ */
+enum AmountCodec {
+    ;
+    static final int SCHEMA_ID = 7;
+    static final int SCHEMA_VERSION = 1;
+    static final int BLOCK_LENGTH = 16;
+    static final int DEPOSIT_TEMPLATE_ID = 1;
+    static final int DEPOSITED_TEMPLATE_ID = 2;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int ACCOUNT_ID_OFFSET = 0;
+    private static final int AMOUNT_OFFSET = 8;
+
+    static final class Encoder implements MessageEncoderFlyweight {
+        private final int templateId;
+        private MutableDirectBuffer buffer;
+        private int offset;
+        private int limit;
+
+        Encoder(final int templateId) {
+            this.templateId = templateId;
+        }
+
+        @Override
+        public Encoder wrap(final MutableDirectBuffer buffer, final int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.limit = offset + BLOCK_LENGTH;
+            return this;
+        }
+
+        Encoder accountId(final long accountId) {
+            buffer.putLong(offset + ACCOUNT_ID_OFFSET, accountId, BYTE_ORDER);
+            return this;
+        }
+
+        Encoder amount(final long amount) {
+            buffer.putLong(offset + AMOUNT_OFFSET, amount, BYTE_ORDER);
+            return this;
+        }
+
+        @Override
+        public MutableDirectBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public int offset() {
+            return offset;
+        }
+
+        @Override
+        public int encodedLength() {
+            return limit - offset;
+        }
+
+        @Override
+        public int sbeBlockLength() {
+            return BLOCK_LENGTH;
+        }
+
+        @Override
+        public int sbeTemplateId() {
+            return templateId;
+        }
+
+        @Override
+        public int sbeSchemaId() {
+            return SCHEMA_ID;
+        }
+
+        @Override
+        public int sbeSchemaVersion() {
+            return SCHEMA_VERSION;
+        }
+
+        @Override
+        public String sbeSemanticType() {
+            return "";
+        }
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public void limit(final int limit) {
+            this.limit = limit;
+        }
+    }
+
+    static final class Decoder implements MessageDecoderFlyweight {
+        private final int templateId;
+        private DirectBuffer buffer;
+        private int offset;
+        private int limit;
+        private int actingBlockLength;
+        private int actingVersion;
+
+        Decoder(final int templateId) {
+            this.templateId = templateId;
+        }
+
+        @Override
+        public Decoder wrap(final DirectBuffer buffer, final int offset, final int actingBlockLength,
+                            final int actingVersion) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.actingBlockLength = actingBlockLength;
+            this.actingVersion = actingVersion;
+            this.limit = offset + actingBlockLength;
+            return this;
+        }
+
+        long accountId() {
+            return buffer.getLong(offset + ACCOUNT_ID_OFFSET, BYTE_ORDER);
+        }
+
+        long amount() {
+            return buffer.getLong(offset + AMOUNT_OFFSET, BYTE_ORDER);
+        }
+
+        int actingVersion() {
+            return actingVersion;
+        }
+
+        @Override
+        public StringBuilder appendTo(final StringBuilder builder) {
+            return builder.append("Amount{accountId=").append(accountId()).append(", amount=").append(amount())
+                    .append('}');
+        }
+
+        @Override
+        public DirectBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public int offset() {
+            return offset;
+        }
+
+        @Override
+        public int encodedLength() {
+            return limit - offset;
+        }
+
+        @Override
+        public int sbeBlockLength() {
+            return BLOCK_LENGTH;
+        }
+
+        @Override
+        public int sbeTemplateId() {
+            return templateId;
+        }
+
+        @Override
+        public int sbeSchemaId() {
+            return SCHEMA_ID;
+        }
+
+        @Override
+        public int sbeSchemaVersion() {
+            return SCHEMA_VERSION;
+        }
+
+        @Override
+        public String sbeSemanticType() {
+            return "";
+        }
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public void limit(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public String toString() {
+            return appendTo(new StringBuilder()).toString();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.sbe;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.app.state.DefaultBaseState;
+import org.tools4j.elara.command.Command;
+import org.tools4j.elara.event.Event;
+import org.tools4j.elara.flyweight.FlyweightCommand;
+import org.tools4j.elara.route.DefaultEventRouter;
+import org.tools4j.elara.send.CommandAppendingSender;
+import org.tools4j.elara.send.CommandSender;
+import org.tools4j.elara.sequence.SequenceGenerator;
+import org.tools4j.elara.store.InMemoryStore;
+import org.tools4j.elara.store.MessageStore.Poller;
+import org.tools4j.elara.stream.SendingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.tools4j.elara.sbe.AmountCodec.DEPOSITED_TEMPLATE_ID;
+import static org.tools4j.elara.sbe.AmountCodec.DEPOSIT_TEMPLATE_ID;
+import static org.tools4j.elara.store.MessageStore.Handler.Result.POLL;
+
+/**
+ * Unit test for {@link SbeCommandProcessor} with {@link SbeCommandSender}, {@link SbeEventRouter} and
+ * {@link SbeEventApplier}.
+ */
+class SbeCommandProcessorTest {
+
+    @Test
+    void sendProcessRouteAndApply() {
+        //given
+        final InMemoryStore commandStore = new InMemoryStore();
+        final CommandSender commandSender = new CommandAppendingSender(() -> 123, commandStore.appender())
+                .senderFor(11, SequenceGenerator.create(), (seq, time) -> {});
+        final SbeCommandSender<AmountCodec.Encoder> depositSender = new SbeCommandSender<>(
+                new AmountCodec.Encoder(DEPOSIT_TEMPLATE_ID));
+        final SbeEventRouter<AmountCodec.Encoder> depositedRouter = new SbeEventRouter<>(
+                new AmountCodec.Encoder(DEPOSITED_TEMPLATE_ID));
+        final SbeCommandProcessor processor = new SbeCommandProcessor()
+                .on(new AmountCodec.Decoder(DEPOSIT_TEMPLATE_ID), (command, deposit, router) -> {
+                    depositedRouter.routing(router)
+                            .accountId(deposit.accountId())
+                            .amount(2 * deposit.amount());
+                    depositedRouter.route();
+                });
+        final List<String> applied = new ArrayList<>();
+        final List<String> unknown = new ArrayList<>();
+        final SbeEventApplier applier = new SbeEventApplier(SbePayloadTypes.TEMPLATE_ID,
+                event -> unknown.add("payloadType=" + event.payloadType()))
+                .on(new AmountCodec.Decoder(DEPOSITED_TEMPLATE_ID), (event, deposited) ->
+                        applied.add(deposited.accountId() + ":" + deposited.amount()));
+        final DefaultBaseState baseState = new DefaultBaseState();
+        final DefaultEventRouter eventRouter = new DefaultEventRouter(() -> 456, baseState,
+                new InMemoryStore().appender(), (Event event) -> {
+                    applier.onEvent(event);
+                    baseState.applyEvent(event);
+                });
+
+        //when
+        depositSender.sending(commandSender)
+                .accountId(42)
+                .amount(100);
+        final SendingResult result = depositSender.send();
+
+        //then
+        assertEquals(SendingResult.SENT, result, "result");
+        assertFalse(depositSender.isSending(), "isSending");
+
+        //when
+        final Poller poller = commandStore.poller();
+        poller.poll(message -> {
+            final Command command = new FlyweightCommand().wrap(message, 0);
+            assertEquals(DEPOSIT_TEMPLATE_ID, command.payloadType(), "command.payloadType");
+            assertEquals(SbeHeader.HEADER_LENGTH + AmountCodec.BLOCK_LENGTH, command.payload().capacity(),
+                    "command.payload.capacity");
+            processor.onCommand(command, eventRouter.start(command));
+            eventRouter.complete();
+            return POLL;
+        });
+
+        //then
+        assertEquals(1, applied.size(), "applied.size");
+        assertEquals("42:200", applied.get(0), "applied[0]");
+        assertEquals(0, unknown.size(), "unknown.size");
+    }
+
+    @Test
+    void decoderRejectsOtherTemplate() {
+        //given
+        final MutableDirectBuffer payload = new ExpandableArrayBuffer();
+        final AmountCodec.Encoder encoder = new AmountCodec.Encoder(DEPOSIT_TEMPLATE_ID);
+        SbeHeader.write(encoder, payload, 0);
+        encoder.wrap(payload, SbeHeader.HEADER_LENGTH).accountId(1).amount(2);
+
+        //when
+        final AmountCodec.Decoder decoder = SbeHeader.wrap(new AmountCodec.Decoder(DEPOSIT_TEMPLATE_ID), payload);
+
+        //then
+        assertEquals(1, decoder.accountId(), "accountId");
+        assertEquals(2, decoder.amount(), "amount");
+        assertEquals(AmountCodec.SCHEMA_VERSION, decoder.actingVersion(), "actingVersion");
+        assertThrows(IllegalArgumentException.class,
+                () -> SbeHeader.wrap(new AmountCodec.Decoder(DEPOSITED_TEMPLATE_ID), payload));
+        assertThrows(IllegalArgumentException.class, () -> SbePayloadTypes.templateIdPlus(-1));
+    }
+}
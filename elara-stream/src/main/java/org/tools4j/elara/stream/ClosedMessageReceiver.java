@@ -32,6 +32,11 @@ final class ClosedMessageReceiver implements MessageReceiver {
         return 0;
     }
 
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        return 0;
+    }
+
     @Override
     public boolean isClosed() {
         return true;
@@ -29,17 +29,29 @@ import org.agrona.DirectBuffer;
  * Facilitates receiving of messages on arbitrary transport media.
  * <p>
  * Messages are received by calling the {@link #poll(Handler) poll(..)} method with a call-back handler that is invoked
- * if a message is available.
+ * if a message is available.  The {@link #poll(Handler, int) poll(.., limit)} variant bounds the number of messages
+ * delivered per invocation, for instance to drain bursts of messages while still being fair to other work performed
+ * by the polling thread.
  */
 public interface MessageReceiver extends MessageStream {
     /**
-     * Poll method invoked with a call-back handler to receive the message if available.
+     * Poll method invoked with a call-back handler to receive messages if available;  the maximum number of messages
+     * received per invocation is transport specific and usually configurable.
      *
      * @param handler the message handler called back with messages if any are available
-     * @return the number indicating the number of messages that were received
+     * @return the number of messages that were passed to the handler
      */
     int poll(Handler handler);
 
+    /**
+     * Poll method invoked with a call-back handler to receive at most {@code limit} messages if available.
+     *
+     * @param handler   the message handler called back with messages if any are available
+     * @param limit     the maximum number of messages to pass to the handler, nothing is received if zero or negative
+     * @return the exact number of messages that were passed to the handler, a value in {@code [0..limit]}
+     */
+    int poll(Handler handler, int limit);
+
     /**
      * Call-back handler for messages received when invoking the {@link MessageReceiver#poll(Handler) poll(..)} method.
      */
@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.fragment;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.SendingResult;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.stream.fragment.Fragments.FRAGMENT_OFFSET_OFFSET;
+import static org.tools4j.elara.stream.fragment.Fragments.MESSAGE_LENGTH_OFFSET;
+import static org.tools4j.elara.stream.fragment.Fragments.SEQUENCE_OFFSET;
+import static org.tools4j.elara.stream.fragment.Fragments.TRAILER_LENGTH;
+
+/**
+ * Sender splitting messages into fragments that are sent via an underlying sender;  see {@link Fragments} for details.
+ * <p>
+ * Messages passed to {@link #sendMessage(DirectBuffer, int, int) sendMessage(..)} are copied into the sending context
+ * of the underlying sender once per fragment.  Messages encoded via {@link #sendingMessage()} are encoded into a
+ * reusable buffer;  if they fit into a single fragment, the fragment trailer is appended and the buffer is passed to
+ * the underlying sender as is, hence such messages are copied only once by transports without direct buffer support.
+ * <p>
+ * If sending of a fragment fails, the result is returned and the remaining fragments of the message are not sent.  The
+ * message can be sent again from the start, and the receiver discards the incomplete message once the first fragment of
+ * the resent message arrives.
+ */
+public class FragmentingSender implements MessageSender {
+
+    private static final int DEFAULT_INITIAL_BUFFER_SIZE = 4096;
+
+    private final MessageSender sender;
+    private final int maxPayloadLength;
+    private final MutableDirectBuffer encodingBuffer = new ExpandableDirectByteBuffer(DEFAULT_INITIAL_BUFFER_SIZE);
+    private final EncodingContext context = new EncodingContext();
+    private int sequence;
+
+    public FragmentingSender(final MessageSender sender, final int maxFragmentLength) {
+        this.sender = requireNonNull(sender);
+        this.maxPayloadLength = Fragments.validateMaxFragmentLength(maxFragmentLength) - TRAILER_LENGTH;
+    }
+
+    @Override
+    public SendingResult sendMessage(final DirectBuffer buffer, final int offset, final int length) {
+        final int messageSequence = sequence++;
+        if (length <= maxPayloadLength) {
+            return sendFragment(messageSequence, buffer, offset, 0, length, length);
+        }
+        return sendFragments(messageSequence, buffer, offset, length);
+    }
+
+    @Override
+    public SendingContext sendingMessage() {
+        return context.init();
+    }
+
+    private SendingResult sendEncoded(final int length) {
+        final int messageSequence = sequence++;
+        if (length <= maxPayloadLength) {
+            writeTrailer(encodingBuffer, length, messageSequence, 0, length);
+            return sender.sendMessage(encodingBuffer, 0, length + TRAILER_LENGTH);
+        }
+        return sendFragments(messageSequence, encodingBuffer, 0, length);
+    }
+
+    private SendingResult sendFragments(final int messageSequence,
+                                        final DirectBuffer buffer,
+                                        final int offset,
+                                        final int length) {
+        for (int fragmentOffset = 0; fragmentOffset < length; fragmentOffset += maxPayloadLength) {
+            final int fragmentLength = Math.min(maxPayloadLength, length - fragmentOffset);
+            final SendingResult result = sendFragment(messageSequence, buffer, offset + fragmentOffset,
+                    fragmentOffset, fragmentLength, length);
+            if (result != SendingResult.SENT) {
+                return result;
+            }
+        }
+        return SendingResult.SENT;
+    }
+
+    private SendingResult sendFragment(final int messageSequence,
+                                       final DirectBuffer buffer,
+                                       final int offset,
+                                       final int fragmentOffset,
+                                       final int fragmentLength,
+                                       final int messageLength) {
+        try (final SendingContext context = sender.sendingMessage()) {
+            final MutableDirectBuffer fragment = context.buffer();
+            fragment.putBytes(0, buffer, offset, fragmentLength);
+            writeTrailer(fragment, fragmentLength, messageSequence, fragmentOffset, messageLength);
+            return context.send(fragmentLength + TRAILER_LENGTH);
+        }
+    }
+
+    private static void writeTrailer(final MutableDirectBuffer fragment,
+                                     final int trailerOffset,
+                                     final int messageSequence,
+                                     final int fragmentOffset,
+                                     final int messageLength) {
+        fragment.putInt(trailerOffset + SEQUENCE_OFFSET, messageSequence);
+        fragment.putInt(trailerOffset + FRAGMENT_OFFSET_OFFSET, fragmentOffset);
+        fragment.putInt(trailerOffset + MESSAGE_LENGTH_OFFSET, messageLength);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return sender.isClosed();
+    }
+
+    @Override
+    public void close() {
+        sender.close();
+    }
+
+    @Override
+    public String toString() {
+        return "FragmentingSender";
+    }
+
+    private final class EncodingContext implements SendingContext {
+        boolean closed = true;
+
+        EncodingContext init() {
+            if (!closed) {
+                abort();
+                throw new IllegalStateException("Sending context not closed");
+            }
+            closed = false;
+            return this;
+        }
+
+        @Override
+        public MutableDirectBuffer buffer() {
+            if (closed) {
+                throw new IllegalStateException("Sending context closed");
+            }
+            return encodingBuffer;
+        }
+
+        @Override
+        public SendingResult send(final int length) {
+            if (length < 0) {
+                throw new IllegalArgumentException("Length cannot be negative: " + length);
+            }
+            if (closed) {
+                throw new IllegalStateException("Sending context closed");
+            }
+            try {
+                return sendEncoded(length);
+            } finally {
+                closed = true;
+            }
+        }
+
+        @Override
+        public void abort() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+}
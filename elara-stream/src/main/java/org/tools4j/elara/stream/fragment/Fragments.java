@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.fragment;
+
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
+
+/**
+ * Fragmentation of large messages into transport messages of limited length, and reassembly of the fragments on the
+ * receiving side.  Fragmentation is transport independent:  a {@link #fragmentingSender(MessageSender, int) fragmenting
+ * sender} wraps any message sender, and messages sent through it must be received with a
+ * {@link #reassemblingReceiver(MessageReceiver) reassembling receiver} wrapping the message receiver of the transport.
+ * <p>
+ * Every transport message ends with a fragment trailer following the fragment data:
+ * <pre>
+ *     0: message sequence (int) -- sequence of the message assigned by the sender
+ *     4: fragment offset (int)  -- offset of the fragment data in the message
+ *     8: message length (int)   -- length of the whole message
+ * </pre>
+ * Messages that fit into a single fragment are sent as one transport message and are passed to the receiving handler
+ * directly from the transport buffer;  only fragmented messages are copied into the reassembly buffer.  Using a trailer
+ * instead of a header allows a message encoded via {@link MessageSender#sendingMessage() sendingMessage()} to be
+ * passed to the transport without another copy if it fits into a single fragment.
+ */
+public enum Fragments {
+    ;
+    public static final int SEQUENCE_OFFSET = 0;
+    public static final int FRAGMENT_OFFSET_OFFSET = 4;
+    public static final int MESSAGE_LENGTH_OFFSET = 8;
+    public static final int TRAILER_LENGTH = 12;
+
+    /**
+     * Returns a sender splitting messages into fragments of at most {@code maxFragmentLength} bytes including the
+     * fragment trailer.
+     *
+     * @param sender            the sender of the underlying transport
+     * @param maxFragmentLength the max length of a transport message, for instance derived from the MTU length of a
+     *                          UDP transport or from the max message length of an IPC ring buffer
+     * @return a fragmenting sender
+     * @throws IllegalArgumentException if max fragment length is not larger than {@link #TRAILER_LENGTH}
+     */
+    public static MessageSender fragmentingSender(final MessageSender sender, final int maxFragmentLength) {
+        return new FragmentingSender(sender, maxFragmentLength);
+    }
+
+    /**
+     * Returns a receiver reassembling fragments sent by a {@link #fragmentingSender(MessageSender, int) fragmenting
+     * sender}.
+     *
+     * @param receiver the receiver of the underlying transport
+     * @return a reassembling receiver
+     */
+    public static MessageReceiver reassemblingReceiver(final MessageReceiver receiver) {
+        return new ReassemblingReceiver(receiver);
+    }
+
+    static int validateMaxFragmentLength(final int maxFragmentLength) {
+        if (maxFragmentLength <= TRAILER_LENGTH) {
+            throw new IllegalArgumentException("Max fragment length must be larger than the fragment trailer length " +
+                    TRAILER_LENGTH + " but was " + maxFragmentLength);
+        }
+        return maxFragmentLength;
+    }
+}
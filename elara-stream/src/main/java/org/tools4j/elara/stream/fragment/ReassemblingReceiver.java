@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.fragment;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.stream.MessageReceiver;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.stream.fragment.Fragments.FRAGMENT_OFFSET_OFFSET;
+import static org.tools4j.elara.stream.fragment.Fragments.MESSAGE_LENGTH_OFFSET;
+import static org.tools4j.elara.stream.fragment.Fragments.SEQUENCE_OFFSET;
+import static org.tools4j.elara.stream.fragment.Fragments.TRAILER_LENGTH;
+
+/**
+ * Receiver reassembling messages from fragments received via an underlying receiver;  see {@link Fragments} for
+ * details.
+ * <p>
+ * Unfragmented messages are passed to the handler directly from the transport buffer.  Fragments are copied into a
+ * reusable reassembly buffer and the message is passed to the handler when the last fragment has been received.
+ * Fragments must arrive in order from a single sender;  if a fragment is missing, the incomplete message and subsequent
+ * fragments of the same message are discarded.
+ */
+public class ReassemblingReceiver implements MessageReceiver {
+
+    private static final int DEFAULT_INITIAL_BUFFER_SIZE = 4096;
+    private static final int NOT_ASSEMBLING = -1;
+
+    private final MessageReceiver receiver;
+    private final MutableDirectBuffer assemblyBuffer = new ExpandableDirectByteBuffer(DEFAULT_INITIAL_BUFFER_SIZE);
+    private final DirectBuffer message = new UnsafeBuffer(0, 0);
+    private final Handler fragmentHandler = this::onFragment;
+    private Handler handler;
+    private int received;
+    private int assemblySequence;
+    private int assemblyLength = NOT_ASSEMBLING;
+    private int messageLength;
+    private long droppedFragmentCount;
+    private long incompleteMessageCount;
+
+    public ReassemblingReceiver(final MessageReceiver receiver) {
+        this.receiver = requireNonNull(receiver);
+    }
+
+    /**
+     * Returns the number of fragments that were discarded, for instance because previous fragments of the same
+     * message were missing.
+     * @return the number of discarded fragments
+     */
+    public long droppedFragmentCount() {
+        return droppedFragmentCount;
+    }
+
+    /**
+     * Returns the number of messages whose reassembly was abandoned because a fragment was missing.
+     * @return the number of incomplete messages
+     */
+    public long incompleteMessageCount() {
+        return incompleteMessageCount;
+    }
+
+    /**
+     * Polls fragments from the underlying receiver and passes complete messages to the handler.  Polling continues
+     * while fragments of an incomplete message are available.
+     *
+     * @param handler the message handler called back with messages if any are available
+     * @return the number of complete messages that were passed to the handler
+     */
+    @Override
+    public int poll(final Handler handler) {
+        init(handler);
+        while (receiver.poll(fragmentHandler) > 0 && continuePolling());
+        return received;
+    }
+
+    /**
+     * Polls fragments from the underlying receiver and passes at most {@code limit} complete messages to the handler.
+     * Polling continues while fragments are available, the limit has not been reached and either no message has been
+     * passed to the handler yet or the last message is still incomplete.
+     *
+     * @param handler the message handler called back with messages if any are available
+     * @param limit   the maximum number of messages to pass to the handler
+     * @return the number of complete messages that were passed to the handler
+     */
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        init(handler);
+        //NOTE: each fragment completes at most one message, hence polling limit - received fragments is safe
+        while (received < limit && receiver.poll(fragmentHandler, limit - received) > 0 && continuePolling());
+        return received;
+    }
+
+    private boolean continuePolling() {
+        return received == 0 || assemblyLength != NOT_ASSEMBLING;
+    }
+
+    private void init(final Handler handler) {
+        if (this.handler != handler) {
+            this.handler = requireNonNull(handler);
+        }
+        received = 0;
+    }
+
+    private void onFragment(final DirectBuffer fragment) {
+        final int fragmentLength = fragment.capacity() - TRAILER_LENGTH;
+        if (fragmentLength < 0) {
+            droppedFragmentCount++;
+            return;
+        }
+        final int sequence = fragment.getInt(fragmentLength + SEQUENCE_OFFSET);
+        final int fragmentOffset = fragment.getInt(fragmentLength + FRAGMENT_OFFSET_OFFSET);
+        final int length = fragment.getInt(fragmentLength + MESSAGE_LENGTH_OFFSET);
+        if (fragmentOffset == 0) {
+            abandonAssembly();
+            if (fragmentLength == length) {
+                onMessage(fragment, 0, length);
+                return;
+            }
+            assemblySequence = sequence;
+            assemblyLength = 0;
+            messageLength = length;
+        } else if (assemblyLength != fragmentOffset || assemblySequence != sequence || messageLength != length) {
+            abandonAssembly();
+            droppedFragmentCount++;
+            return;
+        }
+        if (fragmentOffset + fragmentLength > length) {
+            abandonAssembly();
+            droppedFragmentCount++;
+            return;
+        }
+        assemblyBuffer.putBytes(fragmentOffset, fragment, 0, fragmentLength);
+        assemblyLength += fragmentLength;
+        if (assemblyLength == messageLength) {
+            assemblyLength = NOT_ASSEMBLING;
+            onMessage(assemblyBuffer, 0, messageLength);
+        }
+    }
+
+    private void abandonAssembly() {
+        if (assemblyLength != NOT_ASSEMBLING) {
+            assemblyLength = NOT_ASSEMBLING;
+            incompleteMessageCount++;
+        }
+    }
+
+    private void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        message.wrap(buffer, offset, length);
+        received++;
+        try {
+            handler.onMessage(message);
+        } finally {
+            message.wrap(0, 0);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return receiver.isClosed();
+    }
+
+    @Override
+    public void close() {
+        receiver.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ReassemblingReceiver";
+    }
+}
@@ -28,9 +28,16 @@ import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.tools4j.elara.stream.MessageReceiver;
 import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.ipc.impl.BroadcastRetryOpener;
+import org.tools4j.elara.stream.ipc.impl.IpcBroadcastBuffer;
+import org.tools4j.elara.stream.ipc.impl.IpcBroadcastReceiver;
+import org.tools4j.elara.stream.ipc.impl.IpcBroadcastSender;
 import org.tools4j.elara.stream.ipc.impl.IpcBufferedSender;
 import org.tools4j.elara.stream.ipc.impl.IpcDirectSender;
+import org.tools4j.elara.stream.ipc.impl.IpcLogReceiver;
+import org.tools4j.elara.stream.ipc.impl.IpcLogSender;
 import org.tools4j.elara.stream.ipc.impl.IpcReceiver;
+import org.tools4j.elara.stream.ipc.impl.IpcRetryOpenBroadcastReceiver;
 import org.tools4j.elara.stream.ipc.impl.IpcRetryOpenReceiver;
 import org.tools4j.elara.stream.ipc.impl.IpcRetryOpenSender;
 import org.tools4j.elara.stream.ipc.impl.IpcRingBuffer;
@@ -75,15 +82,51 @@ public enum Ipc {
     }
 
     public static SharedBuffer share(final ByteBuffer buffer, final IpcConfiguration config) {
-        return share(buffer, config);
+        return new IpcRingBuffer(buffer, config);
     }
 
     public static SharedBuffer share(final AtomicBuffer buffer, final IpcConfiguration config) {
-        return share(buffer, config);
+        return new IpcRingBuffer(buffer, config);
     }
 
     public static SharedBuffer share(final RingBuffer ringBuffer, final IpcConfiguration config) {
         return new IpcRingBuffer(ringBuffer, config);
     }
 
+    public static MessageSender newBroadcastSender(final File file, final int length, final IpcConfiguration config) {
+        return new IpcBroadcastSender(file, length, config);
+    }
+
+    public static MessageReceiver openBroadcastReceiver(final File file, final IpcConfiguration config) {
+        return new IpcBroadcastReceiver(IoUtil.mapExistingFile(file, READ_WRITE, file.getAbsolutePath()), config);
+    }
+
+    public static MessageReceiver retryOpenBroadcastReceiver(final File file, final IpcConfiguration config) {
+        return new IpcRetryOpenBroadcastReceiver(new BroadcastRetryOpener(file), config);
+    }
+
+    public static MessageSender newLogSender(final File directory, final int segmentLength, final IpcConfiguration config) {
+        return new IpcLogSender(directory, segmentLength, config);
+    }
+
+    public static MessageSender openLogSender(final File directory, final IpcConfiguration config) {
+        return new IpcLogSender(directory, config);
+    }
+
+    public static MessageReceiver openLogReceiver(final File directory, final int consumerId, final IpcConfiguration config) {
+        return new IpcLogReceiver(directory, consumerId, config);
+    }
+
+    public static MessageReceiver retryOpenLogReceiver(final File directory, final int consumerId, final IpcConfiguration config) {
+        return new IpcLogReceiver(directory, null, consumerId, config);
+    }
+
+    public static SharedBuffer broadcast(final ByteBuffer buffer, final IpcConfiguration config) {
+        return new IpcBroadcastBuffer(buffer, config);
+    }
+
+    public static SharedBuffer broadcast(final AtomicBuffer buffer, final IpcConfiguration config) {
+        return new IpcBroadcastBuffer(buffer, config);
+    }
+
 }
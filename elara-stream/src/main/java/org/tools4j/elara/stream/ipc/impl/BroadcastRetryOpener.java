@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.util.function.Supplier;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.util.Objects.requireNonNull;
+
+public class BroadcastRetryOpener implements Supplier<AtomicBuffer>, AutoCloseable {
+
+    private final File file;
+    private final String description;
+    private AtomicBuffer buffer;
+    private boolean closed;
+
+    public BroadcastRetryOpener(final File file) {
+        this.file = requireNonNull(file);
+        this.description = file.getAbsolutePath();
+    }
+
+    @Override
+    public AtomicBuffer get() {
+        if (buffer != null) {
+            return buffer;
+        }
+        if (closed || !file.exists()) {
+            return null;
+        }
+        buffer = new UnsafeBuffer(IoUtil.mapExistingFile(file, READ_WRITE, description));
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        buffer = null;
+        closed = true;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.broadcast.BroadcastTransmitter;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.agrona.concurrent.broadcast.BroadcastBufferDescriptor.TRAILER_LENGTH;
+
+enum Broadcasts {
+    ;
+    static final int BROADCAST_MSG_TYPE_ID = 1;
+
+    static void transmit(final BroadcastTransmitter transmitter, final DirectBuffer buffer, final int offset, final int length) {
+        if (length > transmitter.maxMsgLength()) {
+            throw new IllegalArgumentException("Message length " + length + " exceeds max broadcast message length " +
+                    transmitter.maxMsgLength());
+        }
+        transmitter.transmit(BROADCAST_MSG_TYPE_ID, buffer, offset, length);
+    }
+
+    static boolean isClosed(final AtomicBuffer buffer) {
+        return buffer.capacity() == 0;
+    }
+
+    static void close(final AtomicBuffer buffer) {
+        if (buffer == null || isClosed(buffer)) {
+            return;
+        }
+        final ByteBuffer byteBuffer = buffer.byteBuffer();
+        if (byteBuffer != null) {
+            IoUtil.unmap(byteBuffer);
+        }
+        buffer.wrap(0, 0);
+    }
+
+    static AtomicBuffer newFileMapped(final File file, final int length, final IpcConfiguration config) {
+        final File dir = file.getParentFile();
+        if (dir != null && config.newFileCreateParentDirs()) {
+            IoUtil.ensureDirectoryExists(dir, dir.getAbsolutePath());
+        }
+        if (config.newFileDeleteIfPresent()) {
+            IoUtil.deleteIfExists(file);
+        }
+        return new UnsafeBuffer(IoUtil.mapNewFile(file, length + TRAILER_LENGTH));
+    }
+
+    static AtomicBuffer create(final ByteBuffer buffer) {
+        return new UnsafeBuffer(buffer);
+    }
+}
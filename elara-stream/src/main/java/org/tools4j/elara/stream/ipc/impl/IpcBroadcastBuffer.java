@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.concurrent.AtomicBuffer;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+import org.tools4j.elara.stream.ipc.SharedBuffer;
+
+import java.nio.ByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shared buffer for one-to-many communication:  messages sent once through the single {@link #sender() sender} can be
+ * read by every receiver.  Note that {@link #receiver()} returns a new receiver with its own read position every time
+ * it is invoked.
+ */
+public class IpcBroadcastBuffer implements SharedBuffer {
+
+    private final AtomicBuffer buffer;
+    private final IpcConfiguration config;
+    private MessageSender sender;
+
+    public IpcBroadcastBuffer(final ByteBuffer buffer, final IpcConfiguration config) {
+        this(Broadcasts.create(buffer), config);
+    }
+
+    public IpcBroadcastBuffer(final AtomicBuffer buffer, final IpcConfiguration config) {
+        this.buffer = requireNonNull(buffer);
+        this.config = requireNonNull(config);
+    }
+
+    @Override
+    public MessageSender sender() {
+        if (sender == null) {
+            if (isClosed()) {
+                return MessageSender.CLOSED;
+            }
+            sender = new IpcBroadcastSender(buffer, false, config);
+        }
+        return sender;
+    }
+
+    /**
+     * Returns the single {@link #sender() sender} as broadcast buffers support only one sender;  the returned sender
+     * must therefore not be used concurrently from multiple threads.
+     *
+     * @return the single sender of this broadcast buffer
+     */
+    @Override
+    public MessageSender senderForCurrentThread() {
+        return sender();
+    }
+
+    /**
+     * Returns a new receiver with its own read position starting at the latest message in the broadcast buffer.
+     *
+     * @return a new receiver for messages sent through this broadcast buffer
+     */
+    @Override
+    public MessageReceiver receiver() {
+        if (isClosed()) {
+            return MessageReceiver.CLOSED;
+        }
+        return new IpcBroadcastReceiver(buffer, false, config);
+    }
+
+    @Override
+    public boolean isMapped() {
+        return !isClosed();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return Broadcasts.isClosed(buffer);
+    }
+
+    @Override
+    public void close() {
+        Broadcasts.close(buffer);
+        sender = null;
+    }
+
+}
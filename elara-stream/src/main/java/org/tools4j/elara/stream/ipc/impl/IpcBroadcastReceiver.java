@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.broadcast.BroadcastReceiver;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.nio.ByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Receiver reading messages from a broadcast buffer written by an {@link IpcBroadcastSender}.  Every receiver keeps
+ * its own read position and hence all receivers see every message unless they fall behind by more than the buffer
+ * capacity.  In that case the receiver is lapped by the sender:  the receiver skips forward to the oldest message
+ * still available and increments its {@link #lappedCount() lapped count}.
+ * <p>
+ * Message bytes are copied into a scratch buffer before the handler is invoked to ensure that the message is not
+ * overwritten by the sender while it is being processed.
+ */
+public class IpcBroadcastReceiver implements MessageReceiver {
+
+    private final AtomicBuffer buffer;
+    private final boolean closeBuffer;
+    private final BroadcastReceiver receiver;
+    private final int maxMessagesPerPoll;
+    private final MutableDirectBuffer scratch;
+    private final DirectBuffer message = new UnsafeBuffer(0, 0);
+    private boolean closed;
+
+    public IpcBroadcastReceiver(final ByteBuffer buffer, final IpcConfiguration config) {
+        this(Broadcasts.create(buffer), config);
+    }
+
+    public IpcBroadcastReceiver(final AtomicBuffer buffer, final IpcConfiguration config) {
+        this(buffer, true, config);
+    }
+
+    IpcBroadcastReceiver(final AtomicBuffer buffer, final boolean closeBuffer, final IpcConfiguration config) {
+        this.buffer = requireNonNull(buffer);
+        this.closeBuffer = closeBuffer;
+        this.receiver = new BroadcastReceiver(buffer);
+        this.maxMessagesPerPoll = Math.max(1, config.maxMessagesReceivedPerPoll());
+        this.scratch = new ExpandableDirectByteBuffer(config.senderInitialBufferSize());
+    }
+
+    /**
+     * Returns the number of times this receiver was lapped by the sender, that is, the number of times that messages
+     * were lost because this receiver did not keep up with the sender.
+     *
+     * @return the number of times this receiver was lapped
+     */
+    public long lappedCount() {
+        return receiver.lappedCount();
+    }
+
+    @Override
+    public int poll(final Handler handler) {
+        return poll(handler, maxMessagesPerPoll);
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        requireNonNull(handler);
+        if (isClosed()) {
+            return 0;
+        }
+        int count = 0;
+        while (count < limit && receiveNext()) {
+            handler.onMessage(message);
+            message.wrap(0, 0);
+            count++;
+        }
+        return count;
+    }
+
+    private boolean receiveNext() {
+        while (receiver.receiveNext()) {
+            final int length = receiver.length();
+            scratch.putBytes(0, receiver.buffer(), receiver.offset(), length);
+            if (receiver.validate()) {
+                message.wrap(scratch, 0, length);
+                return true;
+            }
+            //lapped while copying, try again with next message
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || Broadcasts.isClosed(buffer);
+    }
+
+    @Override
+    public void close() {
+        if (closeBuffer) {
+            Broadcasts.close(buffer);
+        }
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "IpcBroadcastReceiver";
+    }
+}
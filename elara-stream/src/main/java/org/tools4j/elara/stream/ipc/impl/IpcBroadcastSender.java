@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.broadcast.BroadcastTransmitter;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.SendingResult;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sender transmitting messages to a broadcast buffer where they can be read by any number of
+ * {@link IpcBroadcastReceiver receivers}.  A broadcast buffer supports only a single sender;  sending never experiences
+ * back pressure and slow receivers are instead lapped by the sender.
+ */
+public class IpcBroadcastSender extends MessageSender.Buffered {
+
+    private final AtomicBuffer buffer;
+    private final boolean closeBuffer;
+    private final BroadcastTransmitter transmitter;
+    private boolean closed;
+
+    public IpcBroadcastSender(final File file, final int length, final IpcConfiguration config) {
+        this(Broadcasts.newFileMapped(file, length, config), config);
+    }
+
+    public IpcBroadcastSender(final ByteBuffer buffer, final IpcConfiguration config) {
+        this(Broadcasts.create(buffer), config);
+    }
+
+    public IpcBroadcastSender(final AtomicBuffer buffer, final IpcConfiguration config) {
+        this(buffer, true, config);
+    }
+
+    IpcBroadcastSender(final AtomicBuffer buffer, final boolean closeBuffer, final IpcConfiguration config) {
+        super(config.senderInitialBufferSize());
+        this.buffer = requireNonNull(buffer);
+        this.closeBuffer = closeBuffer;
+        this.transmitter = new BroadcastTransmitter(buffer);
+    }
+
+    @Override
+    public SendingResult sendMessage(final DirectBuffer buffer, final int offset, final int length) {
+        if (isClosed()) {
+            return SendingResult.CLOSED;
+        }
+        Broadcasts.transmit(transmitter, buffer, offset, length);
+        return SendingResult.SENT;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || Broadcasts.isClosed(buffer);
+    }
+
+    @Override
+    public void close() {
+        if (closeBuffer) {
+            Broadcasts.close(buffer);
+        }
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "IpcBroadcastSender";
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+
+/**
+ * Layout and file helpers for the persistent IPC log consisting of a header file and a sequence of fixed size segment
+ * files in the log directory.
+ * <p>
+ * Header file layout:
+ * <pre>
+ *     0: magic (int), 4: segment length (int)
+ *    64: tail position (long) -- position after the last appended message
+ *   128: consumer positions (long), one per consumer slot, each slot padded to 64 bytes
+ * </pre>
+ * Segment files contain message frames aligned to 8 bytes, each frame starting with an int frame length (including
+ * the 4 bytes for the frame length itself).  The frame length is zero for frames that have not been written yet, and
+ * {@link #END_OF_SEGMENT} if the next message is found at the start of the next segment.
+ */
+enum IpcLogFiles {
+    ;
+    static final String HEADER_FILE_NAME = "ipc-log.hdr";
+    static final String SEGMENT_FILE_PREFIX = "ipc-log-";
+    static final String SEGMENT_FILE_SUFFIX = ".seg";
+
+    static final int MAGIC = 0x474c4c45;//ELLG
+    static final int MAGIC_OFFSET = 0;
+    static final int SEGMENT_LENGTH_OFFSET = 4;
+    static final int TAIL_POSITION_OFFSET = 64;
+    static final int CONSUMER_POSITIONS_OFFSET = 128;
+    static final int CONSUMER_SLOT_LENGTH = 64;
+    static final int MAX_CONSUMERS = 64;
+    static final int HEADER_LENGTH = CONSUMER_POSITIONS_OFFSET + MAX_CONSUMERS * CONSUMER_SLOT_LENGTH;
+
+    static final int FRAME_LENGTH_FIELD = Integer.BYTES;
+    static final int FRAME_ALIGNMENT = 8;
+    static final int END_OF_SEGMENT = -1;
+    static final int MIN_SEGMENT_LENGTH = 1024;
+
+    static int alignedFrameLength(final int frameLength) {
+        return BitUtil.align(frameLength, FRAME_ALIGNMENT);
+    }
+
+    static int validateSegmentLength(final int segmentLength) {
+        if (segmentLength < MIN_SEGMENT_LENGTH || segmentLength % FRAME_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Segment length must be a multiple of " + FRAME_ALIGNMENT +
+                    " and at least " + MIN_SEGMENT_LENGTH + " but was " + segmentLength);
+        }
+        return segmentLength;
+    }
+
+    static int validateConsumerId(final int consumerId) {
+        if (consumerId < 0 || consumerId >= MAX_CONSUMERS) {
+            throw new IllegalArgumentException("Consumer ID must be in [0, " + (MAX_CONSUMERS - 1) + "] but was " +
+                    consumerId);
+        }
+        return consumerId;
+    }
+
+    static int consumerPositionOffset(final int consumerId) {
+        return CONSUMER_POSITIONS_OFFSET + consumerId * CONSUMER_SLOT_LENGTH;
+    }
+
+    static File headerFile(final File directory) {
+        return new File(directory, HEADER_FILE_NAME);
+    }
+
+    static File segmentFile(final File directory, final long segmentIndex) {
+        return new File(directory, SEGMENT_FILE_PREFIX + segmentIndex + SEGMENT_FILE_SUFFIX);
+    }
+
+    static AtomicBuffer newHeader(final File directory, final int segmentLength, final IpcConfiguration config) {
+        validateSegmentLength(segmentLength);
+        if (config.newFileCreateParentDirs()) {
+            IoUtil.ensureDirectoryExists(directory, directory.getAbsolutePath());
+        }
+        if (config.newFileDeleteIfPresent()) {
+            deleteLogFiles(directory);
+        }
+        final File file = headerFile(directory);
+        final AtomicBuffer header = new UnsafeBuffer(IoUtil.mapNewFile(file, HEADER_LENGTH));
+        header.putInt(SEGMENT_LENGTH_OFFSET, segmentLength);
+        header.putIntOrdered(MAGIC_OFFSET, MAGIC);
+        return header;
+    }
+
+    static AtomicBuffer openHeader(final File directory) {
+        final AtomicBuffer header = tryOpenHeader(directory);
+        if (header == null) {
+            throw new IllegalArgumentException("No valid IPC log found in directory: " + directory.getAbsolutePath());
+        }
+        return header;
+    }
+
+    static AtomicBuffer tryOpenHeader(final File directory) {
+        final File file = headerFile(directory);
+        if (!file.exists() || file.length() < HEADER_LENGTH) {
+            return null;
+        }
+        final AtomicBuffer header = new UnsafeBuffer(IoUtil.mapExistingFile(file, READ_WRITE, file.getAbsolutePath()));
+        if (header.getIntVolatile(MAGIC_OFFSET) != MAGIC) {
+            unmap(header);
+            return null;
+        }
+        return header;
+    }
+
+    static boolean mapSegment(final File directory,
+                              final long segmentIndex,
+                              final int segmentLength,
+                              final boolean create,
+                              final AtomicBuffer segment) {
+        final File file = segmentFile(directory, segmentIndex);
+        final ByteBuffer mapped;
+        if (file.exists()) {
+            if (file.length() < segmentLength) {
+                //still being created
+                return false;
+            }
+            mapped = IoUtil.mapExistingFile(file, READ_WRITE, file.getAbsolutePath());
+        } else if (create) {
+            mapped = IoUtil.mapNewFile(file, segmentLength);
+        } else {
+            return false;
+        }
+        unmap(segment);
+        segment.wrap(mapped);
+        return true;
+    }
+
+    static void createSegment(final File directory, final long segmentIndex, final int segmentLength) {
+        final File file = segmentFile(directory, segmentIndex);
+        if (!file.exists()) {
+            CloseHelper.close(IoUtil.createEmptyFile(file, segmentLength));
+        }
+    }
+
+    static boolean isUnmapped(final AtomicBuffer buffer) {
+        return buffer == null || buffer.capacity() == 0;
+    }
+
+    static void unmap(final AtomicBuffer buffer) {
+        if (isUnmapped(buffer)) {
+            return;
+        }
+        final ByteBuffer byteBuffer = buffer.byteBuffer();
+        if (byteBuffer != null) {
+            IoUtil.unmap(byteBuffer);
+        }
+        buffer.wrap(0, 0);
+    }
+
+    private static void deleteLogFiles(final File directory) {
+        IoUtil.deleteIfExists(headerFile(directory));
+        final File[] segmentFiles = directory.listFiles((dir, name) ->
+                name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX));
+        if (segmentFiles != null) {
+            for (final File file : segmentFiles) {
+                IoUtil.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.io.File;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.END_OF_SEGMENT;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.FRAME_LENGTH_FIELD;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.SEGMENT_LENGTH_OFFSET;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.alignedFrameLength;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.consumerPositionOffset;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.validateConsumerId;
+
+/**
+ * Receiver reading messages from a persistent IPC log written by an {@link IpcLogSender}.  The receiver's read
+ * position is stored in the log header in the slot of the receiver's consumer ID.  A receiver created with the same
+ * consumer ID, for instance after a restart, resumes from the position where the previous receiver stopped.
+ * <p>
+ * Only one receiver should be active at any time for a given consumer ID.  Received messages are passed to the
+ * handler directly from the mapped log file without copying.
+ */
+public class IpcLogReceiver implements MessageReceiver {
+
+    private final File directory;
+    private final int consumerId;
+    private final int maxMessagesPerPoll;
+    private final AtomicBuffer segment = new UnsafeBuffer(0, 0);
+    private final DirectBuffer message = new UnsafeBuffer(0, 0);
+    private AtomicBuffer header;
+    private int segmentLength;
+    private long segmentIndex = -1;
+    private long position;
+    private boolean closed;
+
+    /**
+     * Constructor for receiver of an existing log.
+     *
+     * @param directory  the log directory
+     * @param consumerId the consumer ID identifying the slot used to store the read position of this receiver
+     * @param config     the IPC configuration
+     * @throws IllegalArgumentException if no log exists in the given directory or if the consumer ID is invalid
+     */
+    public IpcLogReceiver(final File directory, final int consumerId, final IpcConfiguration config) {
+        this(directory, IpcLogFiles.openHeader(directory), consumerId, config);
+    }
+
+    /**
+     * Constructor for receiver with the log header if already mapped, or null to lazily open the log when it becomes
+     * available.
+     *
+     * @param directory  the log directory
+     * @param header     the mapped header, or null to open the log lazily in {@link #poll(Handler) poll(..)}
+     * @param consumerId the consumer ID identifying the slot used to store the read position of this receiver
+     * @param config     the IPC configuration
+     * @throws IllegalArgumentException if the consumer ID is invalid
+     */
+    public IpcLogReceiver(final File directory,
+                          final AtomicBuffer header,
+                          final int consumerId,
+                          final IpcConfiguration config) {
+        this.directory = requireNonNull(directory);
+        this.consumerId = validateConsumerId(consumerId);
+        this.maxMessagesPerPoll = Math.max(1, config.maxMessagesReceivedPerPoll());
+        if (header != null) {
+            init(header);
+        }
+    }
+
+    private void init(final AtomicBuffer header) {
+        this.header = header;
+        this.segmentLength = header.getInt(SEGMENT_LENGTH_OFFSET);
+        this.position = header.getLongVolatile(consumerPositionOffset(consumerId));
+    }
+
+    /**
+     * Returns the consumer ID of this receiver.
+     * @return the consumer ID identifying the slot with the read position in the log header
+     */
+    public int consumerId() {
+        return consumerId;
+    }
+
+    /**
+     * Returns the current read position of this receiver.
+     * @return the log position of the next message to be received
+     */
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public int poll(final Handler handler) {
+        return poll(handler, maxMessagesPerPoll);
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        requireNonNull(handler);
+        if (header == null) {
+            if (closed) {
+                return 0;
+            }
+            final AtomicBuffer header = IpcLogFiles.tryOpenHeader(directory);
+            if (header == null) {
+                return 0;
+            }
+            init(header);
+        }
+        if (closed) {
+            return 0;
+        }
+        final long startPosition = position;
+        int count = 0;
+        while (count < limit && mapSegment(position / segmentLength)) {
+            final int offset = (int)(position % segmentLength);
+            final int frameLength = segment.getIntVolatile(offset);
+            if (frameLength == 0) {
+                break;
+            }
+            if (frameLength == END_OF_SEGMENT) {
+                position = (segmentIndex + 1) * segmentLength;
+                continue;
+            }
+            message.wrap(segment, offset + FRAME_LENGTH_FIELD, frameLength - FRAME_LENGTH_FIELD);
+            try {
+                handler.onMessage(message);
+            } finally {
+                message.wrap(0, 0);
+            }
+            position += alignedFrameLength(frameLength);
+            count++;
+        }
+        if (position != startPosition) {
+            header.putLongOrdered(consumerPositionOffset(consumerId), position);
+        }
+        return count;
+    }
+
+    private boolean mapSegment(final long index) {
+        if (index == segmentIndex) {
+            return true;
+        }
+        if (IpcLogFiles.mapSegment(directory, index, segmentLength, false, segment)) {
+            segmentIndex = index;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        IpcLogFiles.unmap(segment);
+        IpcLogFiles.unmap(header);
+        segmentIndex = -1;
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "IpcLogReceiver";
+    }
+}
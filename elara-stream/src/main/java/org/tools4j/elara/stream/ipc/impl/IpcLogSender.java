@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.tools4j.elara.stream.MessageSender;
+import org.tools4j.elara.stream.SendingResult;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.io.File;
+
+import static java.util.Objects.requireNonNull;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.END_OF_SEGMENT;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.FRAME_LENGTH_FIELD;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.SEGMENT_LENGTH_OFFSET;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.TAIL_POSITION_OFFSET;
+import static org.tools4j.elara.stream.ipc.impl.IpcLogFiles.alignedFrameLength;
+
+/**
+ * Sender appending messages to a persistent IPC log.  Messages remain in the log after they have been consumed and
+ * can be read by any number of {@link IpcLogReceiver receivers}, each resuming from its last position after a
+ * restart.  A log supports only a single sender at any time.
+ */
+public class IpcLogSender extends MessageSender.Buffered {
+
+    private final File directory;
+    private final AtomicBuffer header;
+    private final int segmentLength;
+    private final AtomicBuffer segment = new UnsafeBuffer(0, 0);
+    private long segmentIndex = -1;
+    private long position;
+
+    /**
+     * Constructor for new log with the given segment length.
+     *
+     * @param directory     the log directory
+     * @param segmentLength the length of a log segment file in bytes
+     * @param config        the IPC configuration
+     */
+    public IpcLogSender(final File directory, final int segmentLength, final IpcConfiguration config) {
+        this(directory, IpcLogFiles.newHeader(directory, segmentLength, config), config);
+    }
+
+    /**
+     * Constructor for existing log to continue appending at the current log end.
+     *
+     * @param directory the log directory
+     * @param config    the IPC configuration
+     */
+    public IpcLogSender(final File directory, final IpcConfiguration config) {
+        this(directory, IpcLogFiles.openHeader(directory), config);
+    }
+
+    private IpcLogSender(final File directory, final AtomicBuffer header, final IpcConfiguration config) {
+        super(config.senderInitialBufferSize());
+        this.directory = requireNonNull(directory);
+        this.header = requireNonNull(header);
+        this.segmentLength = header.getInt(SEGMENT_LENGTH_OFFSET);
+        this.position = recoverTailPosition(header.getLongVolatile(TAIL_POSITION_OFFSET));
+    }
+
+    /**
+     * Returns the log position after the last appended message.
+     * @return the tail position of the log
+     */
+    public long position() {
+        return position;
+    }
+
+    private long recoverTailPosition(final long tailPosition) {
+        //messages appended after the last tail position update, for instance due to a crash
+        long position = tailPosition;
+        while (mapSegment(position / segmentLength)) {
+            final int offset = (int)(position % segmentLength);
+            final int frameLength = segment.getIntVolatile(offset);
+            if (frameLength == 0) {
+                break;
+            }
+            position = frameLength == END_OF_SEGMENT ?
+                    (segmentIndex + 1) * segmentLength :
+                    position + alignedFrameLength(frameLength);
+            if (position % segmentLength == 0 && !IpcLogFiles.segmentFile(directory, segmentIndex + 1).exists()) {
+                break;
+            }
+        }
+        return position;
+    }
+
+    private boolean mapSegment(final long index) {
+        if (index == segmentIndex) {
+            return true;
+        }
+        if (IpcLogFiles.mapSegment(directory, index, segmentLength, true, segment)) {
+            segmentIndex = index;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SendingResult sendMessage(final DirectBuffer buffer, final int offset, final int length) {
+        if (isClosed()) {
+            return SendingResult.CLOSED;
+        }
+        final int frameLength = FRAME_LENGTH_FIELD + length;
+        final int alignedLength = alignedFrameLength(frameLength);
+        if (alignedLength > segmentLength) {
+            throw new IllegalArgumentException("Message length " + length + " exceeds max IPC log message length " +
+                    (segmentLength - FRAME_LENGTH_FIELD));
+        }
+        int segmentOffset = (int)(position % segmentLength);
+        if (segmentOffset + alignedLength > segmentLength) {
+            final long nextIndex = position / segmentLength + 1;
+            //create next segment before marking the current one as ended so that receivers can move on
+            IpcLogFiles.createSegment(directory, nextIndex, segmentLength);
+            if (mapSegment(nextIndex - 1)) {
+                segment.putIntOrdered(segmentOffset, END_OF_SEGMENT);
+            }
+            position = nextIndex * segmentLength;
+            segmentOffset = 0;
+        }
+        if (!mapSegment(position / segmentLength)) {
+            return SendingResult.FAILED;
+        }
+        segment.putBytes(segmentOffset + FRAME_LENGTH_FIELD, buffer, offset, length);
+        segment.putIntOrdered(segmentOffset, frameLength);
+        position += alignedLength;
+        header.putLongOrdered(TAIL_POSITION_OFFSET, position);
+        return SendingResult.SENT;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return IpcLogFiles.isUnmapped(header);
+    }
+
+    @Override
+    public void close() {
+        IpcLogFiles.unmap(segment);
+        IpcLogFiles.unmap(header);
+        segmentIndex = -1;
+    }
+
+    @Override
+    public String toString() {
+        return "IpcLogSender";
+    }
+}
@@ -53,8 +53,13 @@ public class IpcReceiver implements MessageReceiver {
 
     @Override
     public int poll(final Handler handler) {
+        return poll(handler, maxMessagesPerPoll);
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
         requireNonNull(handler);
-        return ringBuffer.read(messageHandler.init(handler), maxMessagesPerPoll);
+        return limit <= 0 ? 0 : ringBuffer.read(messageHandler.init(handler), limit);
     }
 
     @Override
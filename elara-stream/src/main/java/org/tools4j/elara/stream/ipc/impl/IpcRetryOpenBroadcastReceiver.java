@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream.ipc.impl;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.AtomicBuffer;
+import org.tools4j.elara.stream.MessageReceiver;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+public class IpcRetryOpenBroadcastReceiver implements MessageReceiver {
+    private final Supplier<? extends AtomicBuffer> bufferSupplier;
+    private final IpcConfiguration config;
+
+    private IpcBroadcastReceiver receiver;
+    private boolean closed;
+
+    public IpcRetryOpenBroadcastReceiver(final Supplier<? extends AtomicBuffer> bufferSupplier,
+                                         final IpcConfiguration config) {
+        this.bufferSupplier = requireNonNull(bufferSupplier);
+        this.config = requireNonNull(config);
+    }
+
+    /**
+     * Returns the number of times this receiver was lapped by the sender, or zero if the broadcast buffer has not been
+     * opened yet.
+     *
+     * @return the number of times this receiver was lapped
+     * @see IpcBroadcastReceiver#lappedCount()
+     */
+    public long lappedCount() {
+        return receiver == null ? 0 : receiver.lappedCount();
+    }
+
+    @Override
+    public int poll(final Handler handler) {
+        return poll(handler, Math.max(1, config.maxMessagesReceivedPerPoll()));
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
+        requireNonNull(handler);
+        if (receiver == null) {
+            if (closed) {
+                return 0;
+            }
+            final AtomicBuffer buffer = bufferSupplier.get();
+            if (buffer == null) {
+                return 0;
+            }
+            receiver = new IpcBroadcastReceiver(buffer, config);
+        }
+        return receiver.poll(handler, limit);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (receiver != null) {
+            receiver.close();
+        }
+        if (bufferSupplier instanceof AutoCloseable) {
+            CloseHelper.quietClose((AutoCloseable)bufferSupplier);
+        }
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "IpcRetryOpenBroadcastReceiver";
+    }
+}
@@ -47,7 +47,15 @@ public class IpcRetryOpenReceiver implements MessageReceiver {
 
     @Override
     public int poll(final Handler handler) {
+        return poll(handler, maxMessagesPerPoll);
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
         requireNonNull(handler);
+        if (limit <= 0) {
+            return 0;
+        }
         if (ringBuffer == null) {
             if (closed) {
                 return 0;
@@ -57,7 +65,7 @@ public class IpcRetryOpenReceiver implements MessageReceiver {
                 return 0;
             }
         }
-        return ringBuffer.read(messageHandler.init(handler), maxMessagesPerPoll);
+        return ringBuffer.read(messageHandler.init(handler), limit);
     }
 
     @Override
@@ -28,7 +28,7 @@ import org.tools4j.elara.stream.MessageReceiver.Handler;
 import java.io.IOException;
 
 public interface NioEndpoint extends AutoCloseable {
-    int receive(NioHeader header, Handler messageHandler) throws IOException;
+    int receive(NioHeader header, Handler messageHandler, int limit) throws IOException;
     int send(NioFrame frame) throws IOException;
     boolean isConnected();
     boolean isClosed();
@@ -26,7 +26,6 @@ package org.tools4j.elara.stream.nio;
 import org.agrona.LangUtil;
 import org.tools4j.elara.stream.MessageReceiver;
 
-import java.nio.channels.SelectionKey;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -43,18 +42,17 @@ public class NioReceiver implements MessageReceiver {
 
     @Override
     public int poll(final Handler handler) {
+        return poll(handler, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int poll(final Handler handler, final int limit) {
         final NioEndpoint endpoint = endpointSupplier.get();
         if (endpoint == null) {
             return 0;
         }
         try {
-            final int readyOps = endpoint.receive(header, handler);
-            if (readyOps >= 0) {
-                return (readyOps & SelectionKey.OP_READ) == 0 ? 0 : 1;
-            }
-            //we must have dropped a received message that was too large for our buffer
-            //FIXME log
-            return 1;
+            return endpoint.receive(header, handler, limit);
         } catch (final Exception e) {
             //FIXME log or handle
             LangUtil.rethrowUnchecked(e);
@@ -47,6 +47,9 @@ public class ReadHandler {
 
     private NioHeader header;
     private Handler messageHandler = message -> {};
+    private int limit = Integer.MAX_VALUE;
+    private int received;
+    private Channel pendingChannel;
 
     public ReadHandler(final ChannelBufferSupplier channelBufferSupplier) {
         this(channelBufferSupplier, SelectionHandler.NO_OP);
@@ -75,12 +78,51 @@ public class ReadHandler {
         return channelPoller;
     }
 
+    /**
+     * Receives at most {@code limit} messages, first from messages that have already been read from a channel but
+     * were not handled in the previous invocation because the limit was reached, and then from channels selected via
+     * the given poller.
+     *
+     * @param poller            the poller used to select readable channels
+     * @param header            the header to wrap messages
+     * @param messageHandler    the handler invoked with received messages
+     * @param limit             the maximum number of messages to pass to the handler
+     * @return the number of messages passed to the message handler
+     * @throws IOException if reading from a channel fails
+     */
+    public int receive(final NioPoller poller,
+                       final NioHeader header,
+                       final Handler messageHandler,
+                       final int limit) throws IOException {
+        if (limit <= 0) {
+            return 0;
+        }
+        init(header, messageHandler);
+        this.limit = limit;
+        this.received = 0;
+        try {
+            final Channel pending = pendingChannel;
+            if (pending != null) {
+                pendingChannel = null;
+                handleMessages(pending, channelBufferSupplier.bufferFor(pending));
+            }
+            if (received < limit) {
+                poller.selectNow(readHandler);
+            }
+            return received;
+        } finally {
+            this.limit = Integer.MAX_VALUE;
+            this.received = 0;
+        }
+    }
+
     private int onSelectionKey(final SelectionKey key) throws IOException {
         final int result = baseHandler.onSelectionKey(key);
         if (result != OK) {
             return result;
         }
-        if (!key.isReadable()) {
+        if (!key.isReadable() || received >= limit) {
+            //NOTE: unread channel data is selected again when polling next time
             return OK;
         }
         return pollChannel(key.channel());
@@ -89,18 +131,23 @@ public class ReadHandler {
     private int pollChannel(final Channel channel) throws IOException {
         final ByteBuffer buffer = channelBufferSupplier.bufferFor(channel);
         readFromChannel(channel, buffer);
-        return handleMessages(buffer);
+        return handleMessages(channel, buffer);
     }
 
     protected int readFromChannel(final Channel channel, final ByteBuffer buffer) throws IOException {
         return ((ByteChannel)channel).read(buffer);
     }
 
-    private int handleMessages(final ByteBuffer buffer) {
+    private int handleMessages(final Channel channel, final ByteBuffer buffer) {
         final int headerLength = header.headerLength();
         final int available = buffer.position();
         int offset = 0;
         while (available - offset >= headerLength) {
+            if (received >= limit) {
+                //handle remaining messages first next time
+                pendingChannel = channel;
+                break;
+            }
             header.wrap(buffer, offset);
             final int payloadLength = header.payloadLength();
             if (available - headerLength - offset < payloadLength) {
@@ -126,6 +173,7 @@ public class ReadHandler {
     //PRECONDITION: header is wrapped
     private void handleMessage(final NioHeader header, final ByteBuffer buffer, final int offset, final int payloadLength) {
         payload.wrap(buffer, offset, payloadLength);
+        received++;
         try {
             handleMessage(header, payload);
         } catch (final Exception e) {
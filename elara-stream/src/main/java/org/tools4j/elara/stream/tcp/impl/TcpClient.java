@@ -114,9 +114,9 @@ public class TcpClient implements TcpConnection {
         }
 
         @Override
-        public int poll(final Handler handler) {
+        public int poll(final Handler handler, final int limit) {
             try {
-                return super.poll(handler);
+                return super.poll(handler, limit);
             } catch (final Exception e) {
                 reconnect();
                 throw e;
@@ -101,8 +101,8 @@ final class TcpClientEndpoint implements NioEndpoint {
     }
 
     @Override
-    public int receive(final NioHeader header, final Handler messageHandler) throws IOException {
-        return receiverPoller.selectNow(readHandler.initForSelection(header, messageHandler));
+    public int receive(final NioHeader header, final Handler messageHandler, final int limit) throws IOException {
+        return readHandler.receive(receiverPoller, header, messageHandler, limit);
     }
 
     @Override
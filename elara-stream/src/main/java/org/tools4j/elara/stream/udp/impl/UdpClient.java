@@ -115,12 +115,12 @@ public class UdpClient implements UdpEndpoint {
         }
 
         @Override
-        public int poll(final Handler handler) {
+        public int poll(final Handler handler, final int limit) {
             if (sender.sequence() == 0) {
                 sender.sendHello();
             }
             try {
-                return super.poll(handler);
+                return super.poll(handler, limit);
             } catch (final Exception e) {
                 reconnect();
                 throw e;
@@ -78,8 +78,8 @@ final class UdpClientEndpoint implements NioEndpoint {
     }
 
     @Override
-    public int receive(final NioHeader header, final Handler messageHandler) throws IOException {
-        return receiverPoller.selectNow(readSelectionHandler.initForSelection(header, messageHandler));
+    public int receive(final NioHeader header, final Handler messageHandler, final int limit) throws IOException {
+        return readSelectionHandler.receive(receiverPoller, header, messageHandler, limit);
     }
 
     @Override
@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.stream.fragment.Fragments;
+import org.tools4j.elara.stream.fragment.ReassemblingReceiver;
+import org.tools4j.elara.stream.ipc.Ipc;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+import org.tools4j.elara.stream.ipc.SharedBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit test for message fragmentation and reassembly.
+ */
+class FragmentationTest {
+
+    private static final int CAPACITY = 1 << 16;
+    private static final int MAX_FRAGMENT_LENGTH = 1024;
+
+    @Test
+    void largeAndSmallMessagesAreReassembled() {
+        //given
+        final SharedBuffer ring = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), IpcConfiguration.configure());
+        final MessageSender sender = Fragments.fragmentingSender(ring.sender(), MAX_FRAGMENT_LENGTH);
+        final MessageReceiver receiver = Fragments.reassemblingReceiver(ring.receiver());
+        final List<String> received = new ArrayList<>();
+        final String[] messages = {"small", message('L', 20_000), "", message('M', MAX_FRAGMENT_LENGTH - Fragments.TRAILER_LENGTH)};
+
+        //when
+        for (final String message : messages) {
+            assertEquals(SendingResult.SENT, send(sender, message), "send");
+        }
+        int polled = 0;
+        int count;
+        while ((count = receiver.poll(message -> received.add(string(message)))) > 0) {
+            polled += count;
+        }
+
+        //then
+        assertEquals(messages.length, polled, "polled");
+        assertEquals(messages.length, received.size(), "received.size");
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(messages[i], received.get(i), "received[" + i + "]");
+        }
+
+        ring.close();
+    }
+
+    @Test
+    void incompleteMessageIsDiscarded() {
+        //given
+        final SharedBuffer ring = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), IpcConfiguration.configure());
+        final MessageSender lossySender = new MessageSender.Buffered(MAX_FRAGMENT_LENGTH) {
+            int fragment;
+            @Override
+            public SendingResult sendMessage(final DirectBuffer buffer, final int offset, final int length) {
+                //drop the second fragment
+                return fragment++ == 1 ? SendingResult.SENT : ring.sender().sendMessage(buffer, offset, length);
+            }
+
+            @Override
+            public boolean isClosed() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+                //no-op
+            }
+        };
+        final MessageSender sender = Fragments.fragmentingSender(lossySender, MAX_FRAGMENT_LENGTH);
+        final ReassemblingReceiver receiver = (ReassemblingReceiver)Fragments.reassemblingReceiver(ring.receiver());
+        final List<String> received = new ArrayList<>();
+
+        //when
+        send(sender, message('X', 3 * MAX_FRAGMENT_LENGTH));
+        send(sender, message('Y', 2 * MAX_FRAGMENT_LENGTH));
+        while (receiver.poll(message -> received.add(string(message))) > 0);
+
+        //then
+        assertEquals(1, received.size(), "received.size");
+        assertEquals(message('Y', 2 * MAX_FRAGMENT_LENGTH), received.get(0), "received[0]");
+        assertEquals(1, receiver.incompleteMessageCount(), "receiver.incompleteMessageCount");
+        assertEquals(2, receiver.droppedFragmentCount(), "receiver.droppedFragmentCount");
+
+        ring.close();
+    }
+
+    @Test
+    void encodedSmallMessagesArePassedToTransportWithoutCopy() {
+        //given
+        final SharedBuffer ring = Ipc.share(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), IpcConfiguration.configure());
+        final List<DirectBuffer> transportBuffers = new ArrayList<>();
+        final MessageSender transportSender = new MessageSender.Buffered(MAX_FRAGMENT_LENGTH) {
+            @Override
+            public SendingResult sendMessage(final DirectBuffer buffer, final int offset, final int length) {
+                transportBuffers.add(buffer);
+                return ring.sender().sendMessage(buffer, offset, length);
+            }
+
+            @Override
+            public boolean isClosed() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+                //no-op
+            }
+        };
+        final MessageSender sender = Fragments.fragmentingSender(transportSender, MAX_FRAGMENT_LENGTH);
+        final MessageReceiver receiver = Fragments.reassemblingReceiver(ring.receiver());
+        final List<String> received = new ArrayList<>();
+        final String large = message('E', 3 * MAX_FRAGMENT_LENGTH);
+        final DirectBuffer encodingBuffer;
+
+        //when
+        try (final MessageSender.SendingContext context = sender.sendingMessage()) {
+            encodingBuffer = context.buffer();
+            context.buffer().putStringWithoutLengthAscii(0, "small");
+            assertEquals(SendingResult.SENT, context.send("small".length()), "send");
+        }
+        try (final MessageSender.SendingContext context = sender.sendingMessage()) {
+            context.buffer().putStringWithoutLengthAscii(0, large);
+            assertEquals(SendingResult.SENT, context.send(large.length()), "send");
+        }
+        while (receiver.poll(message -> received.add(string(message))) > 0);
+
+        //then
+        assertEquals(5, transportBuffers.size(), "transportBuffers.size");
+        assertSame(encodingBuffer, transportBuffers.get(0), "transportBuffers[0]");
+        assertEquals(2, received.size(), "received.size");
+        assertEquals("small", received.get(0), "received[0]");
+        assertEquals(large, received.get(1), "received[1]");
+
+        ring.close();
+    }
+
+    private static String message(final char ch, final int length) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char)(ch + (i % 10)));
+        }
+        return sb.toString();
+    }
+
+    private static String string(final DirectBuffer message) {
+        return message.getStringWithoutLengthAscii(0, message.capacity());
+    }
+
+    private static SendingResult send(final MessageSender sender, final String message) {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[message.length()]);
+        buffer.putStringWithoutLengthAscii(0, message);
+        return sender.sendMessage(buffer, 0, buffer.capacity());
+    }
+}
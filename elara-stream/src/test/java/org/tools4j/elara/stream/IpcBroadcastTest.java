@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.stream.ipc.Ipc;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+import org.tools4j.elara.stream.ipc.SharedBuffer;
+import org.tools4j.elara.stream.ipc.impl.IpcBroadcastReceiver;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.agrona.concurrent.broadcast.BroadcastBufferDescriptor.TRAILER_LENGTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for IPC broadcast senders and receivers.
+ */
+class IpcBroadcastTest {
+
+    private static final int CAPACITY = 1 << 12;
+
+    @Test
+    void allReceiversReceiveAllMessages() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure().maxMessagesReceivedPerPoll(16);
+        final SharedBuffer broadcast = Ipc.broadcast(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final MessageReceiver receiver1 = broadcast.receiver();
+        final MessageReceiver receiver2 = broadcast.receiver();
+        final List<String> received1 = new ArrayList<>();
+        final List<String> received2 = new ArrayList<>();
+        final String[] messages = {"Hi!", "Hello world!", "A somewhat longer message", "Peter and Paul"};
+
+        //when
+        for (final String message : messages) {
+            assertEquals(SendingResult.SENT, send(broadcast.sender(), message));
+        }
+        final int polled1 = receiver1.poll(message -> received1.add(message.getStringWithoutLengthAscii(0, message.capacity())));
+        final int polled2 = receiver2.poll(message -> received2.add(message.getStringWithoutLengthAscii(0, message.capacity())));
+
+        //then
+        assertEquals(messages.length, polled1, "polled1");
+        assertEquals(messages.length, polled2, "polled2");
+        assertEquals(asList(messages), received1, "received1");
+        assertEquals(asList(messages), received2, "received2");
+
+        //when
+        receiver1.close();
+        send(broadcast.sender(), "After close");
+        received2.clear();
+
+        //then
+        assertTrue(receiver1.isClosed(), "receiver1.isClosed");
+        assertEquals(0, receiver1.poll(message -> {}), "receiver1.poll");
+        assertEquals(1, receiver2.poll(message -> received2.add(message.getStringWithoutLengthAscii(0, message.capacity()))));
+        assertEquals(asList("After close"), received2, "received2");
+
+        broadcast.close();
+    }
+
+    @Test
+    void slowReceiverIsLapped() {
+        //given
+        final IpcConfiguration config = IpcConfiguration.configure().maxMessagesReceivedPerPoll(1);
+        final SharedBuffer broadcast = Ipc.broadcast(ByteBuffer.allocateDirect(CAPACITY + TRAILER_LENGTH), config);
+        final IpcBroadcastReceiver receiver = (IpcBroadcastReceiver)broadcast.receiver();
+        final List<String> received = new ArrayList<>();
+        final int count = 2 * CAPACITY / 16;
+
+        //when
+        for (int i = 0; i < count; i++) {
+            send(broadcast.sender(), "msg-" + i);
+        }
+        while (receiver.poll(message -> received.add(message.getStringWithoutLengthAscii(0, message.capacity()))) > 0);
+
+        //then
+        assertTrue(receiver.lappedCount() > 0, "receiver.lappedCount > 0");
+        assertTrue(received.size() < count, "received.size < count");
+        assertEquals("msg-" + (count - 1), received.get(received.size() - 1), "last message");
+
+        broadcast.close();
+    }
+
+    @Test
+    void fileMappedSenderToRetryOpenReceivers() {
+        //given
+        final File file = new File("build/stream/ipc-broadcast.map");
+        final IpcConfiguration config = IpcConfiguration.configure()
+                .newFileCreateParentDirs(true)
+                .newFileDeleteIfPresent(true);
+        file.delete();
+        final MessageReceiver receiver1 = Ipc.retryOpenBroadcastReceiver(file, config);
+        final MessageReceiver receiver2 = Ipc.retryOpenBroadcastReceiver(file, config);
+        final List<String> received1 = new ArrayList<>();
+        final List<String> received2 = new ArrayList<>();
+
+        //when
+        assertEquals(0, receiver1.poll(message -> {}), "receiver1.poll");
+        final MessageSender sender = Ipc.newBroadcastSender(file, CAPACITY, config);
+        assertEquals(0, receiver1.poll(message -> {}), "receiver1.poll");
+        assertEquals(0, receiver2.poll(message -> {}), "receiver2.poll");
+        send(sender, "Hello broadcast");
+
+        //then
+        assertEquals(1, receiver1.poll(message -> received1.add(message.getStringWithoutLengthAscii(0, message.capacity()))));
+        assertEquals(1, receiver2.poll(message -> received2.add(message.getStringWithoutLengthAscii(0, message.capacity()))));
+        assertEquals(asList("Hello broadcast"), received1, "received1");
+        assertEquals(asList("Hello broadcast"), received2, "received2");
+
+        receiver1.close();
+        receiver2.close();
+        sender.close();
+    }
+
+    private static SendingResult send(final MessageSender sender, final String message) {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[message.length()]);
+        buffer.putStringWithoutLengthAscii(0, message);
+        return sender.sendMessage(buffer, 0, buffer.capacity());
+    }
+}
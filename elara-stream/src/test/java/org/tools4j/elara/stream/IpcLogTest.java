@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.stream.ipc.Ipc;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for persistent IPC log senders and receivers.
+ */
+class IpcLogTest {
+
+    private static final int SEGMENT_LENGTH = 1024;
+    private static final int MESSAGE_COUNT = 200;
+
+    @Test
+    void receiversResumeFromLastPosition() {
+        //given
+        final File directory = new File("build/stream/ipc-log");
+        IoUtil.delete(directory, true);
+        final IpcConfiguration config = IpcConfiguration.configure()
+                .maxMessagesReceivedPerPoll(MESSAGE_COUNT / 4)
+                .newFileCreateParentDirs(true)
+                .newFileDeleteIfPresent(true);
+        final MessageReceiver lateReceiver = Ipc.retryOpenLogReceiver(directory, 1, config);
+        final List<String> received0 = new ArrayList<>();
+        final List<String> received1 = new ArrayList<>();
+
+        //when
+        assertEquals(0, lateReceiver.poll(message -> {}), "lateReceiver.poll");
+        MessageSender sender = Ipc.newLogSender(directory, SEGMENT_LENGTH, config);
+        for (int i = 0; i < MESSAGE_COUNT / 2; i++) {
+            assertEquals(SendingResult.SENT, send(sender, "msg-" + i));
+        }
+        MessageReceiver receiver = Ipc.openLogReceiver(directory, 0, config);
+        receiver.poll(message -> received0.add(string(message)));
+        receiver.close();
+        sender.close();
+
+        //then
+        assertEquals(MESSAGE_COUNT / 4, received0.size(), "received0.size");
+        assertTrue(directory.list().length > 2, "multiple segments expected");
+
+        //when
+        sender = Ipc.openLogSender(directory, config);
+        for (int i = MESSAGE_COUNT / 2; i < MESSAGE_COUNT; i++) {
+            assertEquals(SendingResult.SENT, send(sender, "msg-" + i));
+        }
+        receiver = Ipc.openLogReceiver(directory, 0, config);
+        while (receiver.poll(message -> received0.add(string(message))) > 0);
+        while (lateReceiver.poll(message -> received1.add(string(message))) > 0);
+
+        //then
+        assertEquals(MESSAGE_COUNT, received0.size(), "received0.size");
+        assertEquals(MESSAGE_COUNT, received1.size(), "received1.size");
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            assertEquals("msg-" + i, received0.get(i), "received0[" + i + "]");
+            assertEquals("msg-" + i, received1.get(i), "received1[" + i + "]");
+        }
+
+        receiver.close();
+        lateReceiver.close();
+        sender.close();
+    }
+
+    @Test
+    void pollWithLimitReturnsExactCount() {
+        //given
+        final File directory = new File("build/stream/ipc-log-limit");
+        final IpcConfiguration config = IpcConfiguration.configure()
+                .newFileCreateParentDirs(true)
+                .newFileDeleteIfPresent(true);
+        final MessageSender sender = Ipc.newLogSender(directory, SEGMENT_LENGTH, config);
+        final MessageReceiver receiver = Ipc.openLogReceiver(directory, 0, config);
+        final List<String> received = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(SendingResult.SENT, send(sender, "msg-" + i));
+        }
+
+        //when + then
+        assertEquals(0, receiver.poll(message -> received.add(string(message)), 0), "poll(0)");
+        assertEquals(3, receiver.poll(message -> received.add(string(message)), 3), "poll(3)");
+        assertEquals(3, received.size(), "received.size");
+        assertEquals(7, receiver.poll(message -> received.add(string(message)), 100), "poll(100)");
+        assertEquals(0, receiver.poll(message -> received.add(string(message)), 100), "poll(100)");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("msg-" + i, received.get(i), "received[" + i + "]");
+        }
+
+        receiver.close();
+        sender.close();
+    }
+
+    private static String string(final DirectBuffer message) {
+        return message.getStringWithoutLengthAscii(0, message.capacity());
+    }
+
+    private static SendingResult send(final MessageSender sender, final String message) {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[message.length()]);
+        buffer.putStringWithoutLengthAscii(0, message);
+        return sender.sendMessage(buffer, 0, buffer.capacity());
+    }
+}
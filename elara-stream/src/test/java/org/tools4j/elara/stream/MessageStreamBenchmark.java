@@ -0,0 +1,302 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream;
+
+import org.HdrHistogram.Histogram;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.hints.ThreadHints;
+import org.tools4j.elara.stream.MessageSender.SendingContext;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Benchmark for message senders and receivers running a one-way throughput and a ping-pong round trip scenario.
+ * Messages are sent in bursts of configurable length and size;  latencies are recorded in an HDR histogram and printed
+ * as percentile table together with the achieved message rate.
+ * <p>
+ * Messages start with the message sequence and the send time in nanos, hence message size must be at least
+ * {@link #MIN_MESSAGE_BYTES} bytes.  Sender and receiver threads run in the same process, so one-way latencies are
+ * measured with the same {@link System#nanoTime() nano clock}.
+ */
+public class MessageStreamBenchmark {
+
+    public static final int MIN_MESSAGE_BYTES = 16;
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int TIME_OFFSET = 8;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final int messageSizeInBytes;
+    private final int burstLength;
+    private final int warmupBursts;
+    private final int measuredBursts;
+
+    public MessageStreamBenchmark(final int messageSizeInBytes,
+                                  final int burstLength,
+                                  final int warmupBursts,
+                                  final int measuredBursts) {
+        if (messageSizeInBytes < MIN_MESSAGE_BYTES) {
+            throw new IllegalArgumentException("Message size must be at least " + MIN_MESSAGE_BYTES + " but was " +
+                    messageSizeInBytes);
+        }
+        if (burstLength < 1 || warmupBursts < 0 || measuredBursts < 1) {
+            throw new IllegalArgumentException("Invalid burst configuration: burstLength=" + burstLength +
+                    ", warmupBursts=" + warmupBursts + ", measuredBursts=" + measuredBursts);
+        }
+        this.messageSizeInBytes = messageSizeInBytes;
+        this.burstLength = burstLength;
+        this.warmupBursts = warmupBursts;
+        this.measuredBursts = measuredBursts;
+    }
+
+    public int messageSizeInBytes() {
+        return messageSizeInBytes;
+    }
+
+    public int burstLength() {
+        return burstLength;
+    }
+
+    private long warmupMessages() {
+        return (long)warmupBursts * burstLength;
+    }
+
+    private long totalMessages() {
+        return (long)(warmupBursts + measuredBursts) * burstLength;
+    }
+
+    /**
+     * Sends bursts of messages from sender to receiver;  the next burst is sent when the previous burst has been
+     * received.  Latency is measured from sending to receiving of each message, and throughput from sending the first
+     * to receiving the last measured message.
+     *
+     * @param name          the transport name used when printing results
+     * @param sender        the message sender
+     * @param receiver      the message receiver
+     * @param maxWaitMillis the max time to wait for the benchmark to complete
+     * @return the benchmark result
+     * @throws InterruptedException if the thread is interrupted while waiting for completion
+     */
+    public Result oneWay(final String name,
+                         final MessageSender sender,
+                         final MessageReceiver receiver,
+                         final long maxWaitMillis) throws InterruptedException {
+        final Result result = new Result(name, "one-way", messageSizeInBytes, burstLength);
+        final AtomicLong received = new AtomicLong();
+        final StartLatch startLatch = new StartLatch(2);
+        final Timer timer = Timer.start(maxWaitMillis);
+        final Thread senderThread = new Thread(null, () -> {
+            startLatch.markReadyAndAwaitStartSignal();
+            long sequence = 0;
+            while (sequence < totalMessages() && timer.remainingMillis() > 0) {
+                if (sequence == warmupMessages()) {
+                    result.startNanos = System.nanoTime();
+                }
+                for (int i = 0; i < burstLength; i++) {
+                    send(sender, sequence++, timer);
+                }
+                while (received.get() < sequence && timer.remainingMillis() > 0) {
+                    ThreadHints.onSpinWait();
+                }
+            }
+        }, "one-way-sender");
+        final Thread receiverThread = new Thread(null, () -> {
+            final MessageReceiver.Handler handler = message -> {
+                recordLatency(result, message, received.get());
+                received.lazySet(received.get() + 1);
+            };
+            startLatch.markReadyAndAwaitStartSignal();
+            while (received.get() < totalMessages() && timer.remainingMillis() > 0) {
+                receiver.poll(handler);
+            }
+            result.endNanos = System.nanoTime();
+        }, "one-way-receiver");
+        run(timer, receiverThread, senderThread);
+        result.messages = received.get() - warmupMessages();
+        return result;
+    }
+
+    /**
+     * Sends bursts of ping messages that are echoed back as pong messages;  the next burst is sent when all pongs of
+     * the previous burst have been received.  Latency is measured as round trip time from sending a ping to receiving
+     * the corresponding pong, and throughput from sending the first to receiving the last measured pong.
+     *
+     * @param name          the transport name used when printing results
+     * @param pingSender    the sender for ping messages
+     * @param pingReceiver  the receiver for ping messages, echoing them back via pong sender
+     * @param pongSender    the sender for pong messages
+     * @param pongReceiver  the receiver for pong messages
+     * @param maxWaitMillis the max time to wait for the benchmark to complete
+     * @return the benchmark result
+     * @throws InterruptedException if the thread is interrupted while waiting for completion
+     */
+    public Result pingPong(final String name,
+                           final MessageSender pingSender,
+                           final MessageReceiver pingReceiver,
+                           final MessageSender pongSender,
+                           final MessageReceiver pongReceiver,
+                           final long maxWaitMillis) throws InterruptedException {
+        final Result result = new Result(name, "ping-pong", messageSizeInBytes, burstLength);
+        final long[] pongs = {0};
+        final StartLatch startLatch = new StartLatch(2);
+        final Timer timer = Timer.start(maxWaitMillis);
+        final Thread pingThread = new Thread(null, () -> {
+            final MessageReceiver.Handler handler = message -> recordLatency(result, message, pongs[0]++);
+            startLatch.markReadyAndAwaitStartSignal();
+            long sequence = 0;
+            while (sequence < totalMessages() && timer.remainingMillis() > 0) {
+                if (sequence == warmupMessages()) {
+                    result.startNanos = System.nanoTime();
+                }
+                for (int i = 0; i < burstLength; i++) {
+                    send(pingSender, sequence++, timer);
+                }
+                while (pongs[0] < sequence && timer.remainingMillis() > 0) {
+                    pongReceiver.poll(handler);
+                }
+            }
+            result.endNanos = System.nanoTime();
+            result.messages = pongs[0] - warmupMessages();
+        }, "ping");
+        final Thread pongThread = new Thread(null, () -> {
+            final MutableDirectBuffer pong = new ExpandableArrayBuffer(messageSizeInBytes);
+            final int[] pongLength = {0};
+            final MessageReceiver.Handler handler = message -> {
+                message.getBytes(0, pong, 0, message.capacity());
+                pongLength[0] = message.capacity();
+            };
+            long pings = 0;
+            startLatch.markReadyAndAwaitStartSignal();
+            while (pings < totalMessages() && timer.remainingMillis() > 0) {
+                //NOTE: pong is sent after returning from poll as not all transports support sending from a handler
+                if (pingReceiver.poll(handler, 1) > 0) {
+                    echo(pongSender, pong, pongLength[0], timer);
+                    pings++;
+                }
+            }
+        }, "pong");
+        run(timer, pongThread, pingThread);
+        return result;
+    }
+
+    private static void run(final Timer timer, final Thread... threads) throws InterruptedException {
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        //NOTE: threads terminate latest when the timer expires
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        if (timer.remainingMillis() <= 0) {
+            throw new IllegalStateException("Benchmark not completed within time limit");
+        }
+    }
+
+    private void recordLatency(final Result result, final DirectBuffer message, final long expectedSequence) {
+        final long nanos = System.nanoTime() - message.getLong(TIME_OFFSET);
+        final long sequence = message.getLong(SEQUENCE_OFFSET);
+        if (sequence != expectedSequence) {
+            throw new IllegalStateException("Expected message " + expectedSequence + " but received " + sequence);
+        }
+        if (sequence >= warmupMessages()) {
+            result.histogram.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        }
+    }
+
+    private void send(final MessageSender sender, final long sequence, final Timer timer) {
+        SendingResult result;
+        do {
+            try (final SendingContext context = sender.sendingMessage()) {
+                final MutableDirectBuffer buffer = context.buffer();
+                buffer.setMemory(TIME_OFFSET + Long.BYTES, messageSizeInBytes - MIN_MESSAGE_BYTES, (byte)sequence);
+                buffer.putLong(SEQUENCE_OFFSET, sequence);
+                buffer.putLong(TIME_OFFSET, System.nanoTime());
+                result = context.send(messageSizeInBytes);
+            }
+        } while (result != SendingResult.SENT && timer.remainingMillis() > 0);
+    }
+
+    private static void echo(final MessageSender sender, final DirectBuffer message, final int length, final Timer timer) {
+        SendingResult result;
+        do {
+            result = sender.sendMessage(message, 0, length);
+        } while (result != SendingResult.SENT && timer.remainingMillis() > 0);
+    }
+
+    public static final class Result {
+        private final String name;
+        private final String scenario;
+        private final int messageSizeInBytes;
+        private final int burstLength;
+        private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private long messages;
+        private long startNanos;
+        private long endNanos;
+
+        private Result(final String name, final String scenario, final int messageSizeInBytes, final int burstLength) {
+            this.name = requireNonNull(name);
+            this.scenario = requireNonNull(scenario);
+            this.messageSizeInBytes = messageSizeInBytes;
+            this.burstLength = burstLength;
+        }
+
+        public long messages() {
+            return messages;
+        }
+
+        public Histogram histogram() {
+            return histogram;
+        }
+
+        public double messagesPerSecond() {
+            final long nanos = endNanos - startNanos;
+            return nanos <= 0 ? 0 : messages * 1e9 / nanos;
+        }
+
+        public void print(final PrintStream out) {
+            out.printf("%s %s [%d bytes, burst=%d]: %d messages, %.0f msgs/s%n", name, scenario, messageSizeInBytes,
+                    burstLength, messages, messagesPerSecond());
+            out.printf("  latency (us): 50%%=%.2f 90%%=%.2f 99%%=%.2f 99.9%%=%.2f 99.99%%=%.2f max=%.2f%n",
+                    micros(50), micros(90), micros(99), micros(99.9), micros(99.99),
+                    histogram.getMaxValue() / 1e3);
+            histogram.outputPercentileDistribution(out, 5, 1e3);
+        }
+
+        private double micros(final double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e3;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + scenario + " [" + messageSizeInBytes + " bytes, burst=" + burstLength + "]: " +
+                    messages + " messages, " + (long)messagesPerSecond() + " msgs/s";
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.tools4j.elara.stream.ipc.Ipc;
+import org.tools4j.elara.stream.ipc.IpcConfiguration;
+import org.tools4j.elara.stream.nio.BiDirectional;
+import org.tools4j.elara.stream.tcp.Tcp;
+import org.tools4j.elara.stream.tcp.config.TcpConfiguration;
+import org.tools4j.elara.stream.udp.Udp;
+import org.tools4j.elara.stream.udp.config.UdpConfiguration;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.tools4j.elara.stream.Network.nextFreePort;
+import static org.tools4j.elara.stream.ipc.Cardinality.ONE;
+
+/**
+ * Latency and throughput benchmark for IPC, TCP and UDP transports;  run with {@code gradle perfTest}.
+ */
+@Tag("perf")
+class MessageStreamPerfTest {
+
+    private static final String[] TRANSPORTS = {"ipc", "tcp", "udp"};
+    private static final int[] MESSAGE_BYTES = {32, 256, 1024};
+    private static final int[] BURST_LENGTHS = {1, 20};
+    private static final int WARMUP_MESSAGES = 100_000;
+    private static final int MEASURED_MESSAGES = 500_000;
+    private static final long MAX_WAIT_MILLIS = 120_000;
+    private static final int BUFFER_CAPACITY = 1 << 20;
+
+    static Arguments[] transportsAndMessageSizes() {
+        final List<Arguments> arguments = new ArrayList<>();
+        for (final String transport : TRANSPORTS) {
+            for (final int messageBytes : MESSAGE_BYTES) {
+                for (final int burstLength : BURST_LENGTHS) {
+                    arguments.add(Arguments.of(transport, messageBytes, burstLength));
+                }
+            }
+        }
+        return arguments.toArray(new Arguments[0]);
+    }
+
+    static MessageStreamBenchmark benchmark(final int messageBytes, final int burstLength) {
+        return new MessageStreamBenchmark(messageBytes, burstLength,
+                WARMUP_MESSAGES / burstLength, MEASURED_MESSAGES / burstLength);
+    }
+
+    @ParameterizedTest(name = "oneWay: {0} [{1} bytes, burst={2}]")
+    @MethodSource("transportsAndMessageSizes")
+    void oneWay(final String transport, final int messageBytes, final int burstLength) throws Exception {
+        try (final Link link = open(transport, "one-way")) {
+            benchmark(messageBytes, burstLength)
+                    .oneWay(transport, link.sender, link.receiver, MAX_WAIT_MILLIS)
+                    .print(System.out);
+        }
+    }
+
+    @ParameterizedTest(name = "pingPong: {0} [{1} bytes, burst={2}]")
+    @MethodSource("transportsAndMessageSizes")
+    void pingPong(final String transport, final int messageBytes, final int burstLength) throws Exception {
+        //NOTE: we use separate client-to-server links for ping and pong as a TCP or UDP server accepting a client
+        //      connection for receiving is not able to send to the same client
+        try (final Link ping = open(transport, "ping");
+             final Link pong = open(transport, "pong")) {
+            benchmark(messageBytes, burstLength)
+                    .pingPong(transport, ping.sender, ping.receiver, pong.sender, pong.receiver, MAX_WAIT_MILLIS)
+                    .print(System.out);
+        }
+    }
+
+    private static Link open(final String transport, final String name) {
+        switch (transport) {
+            case "ipc":
+                return ipc(name);
+            case "tcp":
+                return tcp();
+            case "udp":
+                return udp();
+            default:
+                throw new IllegalArgumentException("Unsupported transport: " + transport);
+        }
+    }
+
+    private static Link ipc(final String name) {
+        final IpcConfiguration config = IpcConfiguration.configure()
+                .senderCardinality(ONE)
+                .newFileCreateParentDirs(true)
+                .newFileDeleteIfPresent(true);
+        final File file = new File("build/stream/perf-" + name + ".map");
+        final MessageReceiver receiver = Ipc.newReceiver(file, BUFFER_CAPACITY, config);
+        return new Link(Ipc.openSender(file, config), receiver);
+    }
+
+    private static Link tcp() {
+        final SocketAddress address = new InetSocketAddress("localhost", nextFreePort());
+        final BiDirectional server = Tcp.bind(address,
+                TcpConfiguration.configure().bufferCapacity(BUFFER_CAPACITY).populateDefaults());
+        final BiDirectional client = Tcp.connect(address,
+                TcpConfiguration.configure().bufferCapacity(BUFFER_CAPACITY).populateDefaults());
+        return new Link(client.sender(), server.receiver());
+    }
+
+    private static Link udp() {
+        final SocketAddress address = new InetSocketAddress("localhost", nextFreePort());
+        final BiDirectional server = Udp.bind(address,
+                UdpConfiguration.configure().bufferCapacity(BUFFER_CAPACITY).populateDefaults());
+        final BiDirectional client = Udp.connect(address,
+                UdpConfiguration.configure().bufferCapacity(BUFFER_CAPACITY).populateDefaults());
+        return new Link(client.sender(), server.receiver());
+    }
+
+    private static final class Link implements AutoCloseable {
+        final MessageSender sender;
+        final MessageReceiver receiver;
+
+        Link(final MessageSender sender, final MessageReceiver receiver) {
+            this.sender = sender;
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void close() {
+            sender.close();
+            receiver.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2023 tools4j.org (Marco Terzer, Anton Anufriev)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.tools4j.elara.stream;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import org.tools4j.elara.stream.tcp.Tcp;
+import org.tools4j.elara.stream.tcp.config.TcpConfiguration;
+import org.tools4j.elara.stream.tcp.config.TcpContext;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.tools4j.elara.stream.Network.nextFreePort;
+
+/**
+ * Unit test for TCP receivers polling with a message limit.
+ */
+class TcpReceiverTest {
+
+    private static final int MESSAGE_COUNT = 10;
+    private static final long MAX_WAIT_MILLIS = 10_000;
+
+    @Test
+    void pollWithLimitKeepsRemainingMessagesOfChannel() throws Exception {
+        //given
+        final SocketAddress address = new InetSocketAddress("localhost", nextFreePort());
+        final TcpContext config = TcpConfiguration.configure().populateDefaults();
+        final MessageReceiver receiver = Tcp.bind(address, config).receiver();
+        final MessageSender sender = Tcp.connect(address, config).sender();
+        final List<String> received = new ArrayList<>();
+        final MessageReceiver.Handler handler = message -> received.add(string(message));
+        final long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        while (send(sender, "msg-0") != SendingResult.SENT) {
+            assertEquals(0, receiver.poll(handler, 1), "poll(1) before sending");
+            assertTrue(System.currentTimeMillis() < deadline, "Connecting timed out");
+        }
+        for (int i = 1; i < MESSAGE_COUNT; i++) {
+            while (send(sender, "msg-" + i) != SendingResult.SENT) {
+                assertTrue(System.currentTimeMillis() < deadline, "Sending timed out");
+            }
+        }
+        Thread.sleep(100);
+
+        //when + then
+        assertEquals(0, receiver.poll(handler, 0), "poll(0)");
+        int count;
+        while ((count = receiver.poll(handler, 3)) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "Receiving timed out");
+        }
+        assertEquals(3, count, "poll(3)");
+        assertEquals(3, received.size(), "received.size");
+        while (received.size() < MESSAGE_COUNT) {
+            final int before = received.size();
+            count = receiver.poll(handler, 2);
+            assertTrue(count <= 2, "poll(2) returned " + count);
+            assertEquals(before + count, received.size(), "received.size");
+            assertTrue(System.currentTimeMillis() < deadline, "Receiving timed out");
+        }
+        assertEquals(0, receiver.poll(handler, 100), "poll(100)");
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            assertEquals("msg-" + i, received.get(i), "received[" + i + "]");
+        }
+
+        receiver.close();
+        sender.close();
+    }
+
+    private static SendingResult send(final MessageSender sender, final String message) {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[message.length()]);
+        buffer.putStringWithoutLengthAscii(0, message);
+        return sender.sendMessage(buffer, 0, buffer.capacity());
+    }
+
+    private static String string(final DirectBuffer message) {
+        return message.getStringWithoutLengthAscii(0, message.capacity());
+    }
+}